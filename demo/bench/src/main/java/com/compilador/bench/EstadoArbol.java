@@ -0,0 +1,40 @@
+package com.compilador.bench;
+
+import com.compilador.MiniLenguajeLexer;
+import com.compilador.MiniLenguajeParser;
+import com.compilador.generador.GeneradorProgramas;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Árbol de ANTLR de un programa sintético, para los benchmarks que parten
+ * del análisis semántico.
+ * <p>
+ * Llega sólo a 100k líneas: el chequeo de llamadas de {@code SimbolosListener}
+ * ordena toda la tabla de símbolos en cada llamada, así que con 1M líneas el
+ * análisis (y con él la preparación de los estados que lo usan) no termina en
+ * un tiempo razonable. Para medirlo igual está {@code -p lineas=1000000}.
+ */
+@State(Scope.Benchmark)
+public class EstadoArbol {
+
+    @Param({"1000", "10000", "100000"})
+    public int lineas;
+
+    @Param("42")
+    public long semilla;
+
+    public MiniLenguajeParser.ProgramaContext arbol;
+
+    @Setup(Level.Trial)
+    public void parsear() {
+        String fuente = new GeneradorProgramas().semilla(semilla).lineas(lineas).generarTexto();
+        arbol = new MiniLenguajeParser(new CommonTokenStream(new MiniLenguajeLexer(
+                CharStreams.fromString(fuente)))).programa();
+    }
+}
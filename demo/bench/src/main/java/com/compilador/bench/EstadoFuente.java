@@ -0,0 +1,35 @@
+package com.compilador.bench;
+
+import com.compilador.generador.GeneradorProgramas;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Sólo el texto de un programa sintético ({@link GeneradorProgramas},
+ * semilla fija), para los benchmarks del léxico. No corre ninguna fase, así
+ * que llega a 1M líneas sin demorar la preparación.
+ */
+@State(Scope.Benchmark)
+public class EstadoFuente {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int lineas;
+
+    @Param("42")
+    public long semilla;
+
+    public String fuente;
+    /** La fuente en UTF-8, como la lee el lexer escrito a mano */
+    public byte[] bytes;
+
+    @Setup(Level.Trial)
+    public void generar() {
+        fuente = new GeneradorProgramas().semilla(semilla).lineas(lineas).generarTexto();
+        bytes = fuente.getBytes(StandardCharsets.UTF_8);
+    }
+}
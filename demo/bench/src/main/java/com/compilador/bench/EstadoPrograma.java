@@ -0,0 +1,31 @@
+package com.compilador.bench;
+
+import com.compilador.CodigoVisitor;
+import com.compilador.semantico.SimbolosListener;
+import com.compilador.semantico.TablaSimbolos;
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.util.List;
+
+/**
+ * Programa sintético con la tabla de símbolos y el C3D ya calculados, para
+ * la generación, el optimizador y la traza. JMH corre el {@code @Setup} de
+ * {@link EstadoArbol} antes que el de esta clase.
+ */
+public class EstadoPrograma extends EstadoArbol {
+
+    public TablaSimbolos tabla;
+    public List<String> codigo;
+
+    @Setup(Level.Trial)
+    public void analizar() {
+        SimbolosListener sem = new SimbolosListener();
+        new ParseTreeWalker().walk(sem, arbol);
+        tabla = sem.getTablaSimbolos();
+        CodigoVisitor cv = new CodigoVisitor(tabla);
+        cv.visit(arbol);
+        codigo = cv.getGenerador().getCodigo();
+    }
+}
@@ -0,0 +1,31 @@
+package com.compilador.bench;
+
+import com.compilador.MiniLenguajeLexer;
+import com.compilador.lexico.BufferTokens;
+import com.compilador.lexico.EscanerLexico;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.Token;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.util.List;
+
+/**
+ * La fuente ya escaneada por los dos lexers, para los benchmarks del
+ * sintáctico. JMH corre el {@code @Setup} de {@link EstadoFuente} antes que
+ * el de esta clase.
+ */
+public class EstadoTokens extends EstadoFuente {
+
+    public BufferTokens buffer;
+    public List<Token> tokens;
+
+    @Setup(Level.Trial)
+    public void escanear() {
+        buffer = EscanerLexico.escanear(bytes);
+        CommonTokenStream ts = new CommonTokenStream(new MiniLenguajeLexer(CharStreams.fromString(fuente)));
+        ts.fill();
+        tokens = ts.getTokens();
+    }
+}
@@ -0,0 +1,88 @@
+package com.compilador.bench;
+
+import com.compilador.CodigoVisitor;
+import com.compilador.MiniLenguajeLexer;
+import com.compilador.MiniLenguajeParser;
+import com.compilador.lexico.EscanerLexico;
+import com.compilador.lexico.FuenteTokens;
+import com.compilador.semantico.SimbolosListener;
+import com.compilador.sintactico.ArbolCompacto;
+import com.compilador.sintactico.ParserDescendente;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ListTokenSource;
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tiempo de cada fase del front end y de la generación de C3D,
+ * por programa completo. Cada benchmark recibe el estado con la salida de
+ * la fase anterior y nada más, así la preparación no corre fases de más.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx4g"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FasesBenchmark {
+
+    @Benchmark
+    public int lexico(EstadoFuente e) {
+        CommonTokenStream ts = new CommonTokenStream(new MiniLenguajeLexer(CharStreams.fromString(e.fuente)));
+        ts.fill();
+        return ts.size();
+    }
+
+    /** Lexer escrito a mano, con los tokens como objetos de ANTLR para el parser */
+    @Benchmark
+    public int lexicoRapido(EstadoFuente e) {
+        CommonTokenStream ts = new CommonTokenStream(new FuenteTokens(e.bytes, "bench"));
+        ts.fill();
+        return ts.size();
+    }
+
+    /** Lexer escrito a mano sin crear tokens: sólo el buffer de arreglos */
+    @Benchmark
+    public int lexicoBuffer(EstadoFuente e) {
+        return EscanerLexico.escanear(e.bytes).size();
+    }
+
+    /** Parser sobre los tokens ya generados, sin volver a pasar por el lexer */
+    @Benchmark
+    public MiniLenguajeParser.ProgramaContext sintactico(EstadoTokens e) {
+        MiniLenguajeParser parser = new MiniLenguajeParser(new CommonTokenStream(new ListTokenSource(e.tokens)));
+        return parser.programa();
+    }
+
+    /**
+     * Parser escrito a mano sobre los tokens ya escaneados, comparable con
+     * {@link #sintactico}; con {@code -prof gc} se comparan también los bytes asignados
+     */
+    @Benchmark
+    public ArbolCompacto sintacticoCompacto(EstadoTokens e) {
+        return ParserDescendente.analizar(e.buffer);
+    }
+
+    @Benchmark
+    public SimbolosListener semantico(EstadoArbol e) {
+        SimbolosListener sem = new SimbolosListener();
+        new ParseTreeWalker().walk(sem, e.arbol);
+        return sem;
+    }
+
+    @Benchmark
+    public List<String> generacion(EstadoPrograma e) {
+        CodigoVisitor cv = new CodigoVisitor(e.tabla);
+        cv.visit(e.arbol);
+        return cv.getGenerador().getCodigo();
+    }
+}
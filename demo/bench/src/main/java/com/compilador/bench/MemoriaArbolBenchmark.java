@@ -0,0 +1,87 @@
+package com.compilador.bench;
+
+import com.compilador.MiniLenguajeLexer;
+import com.compilador.MiniLenguajeParser;
+import com.compilador.lexico.EscanerLexico;
+import com.compilador.sintactico.ArbolCompacto;
+import com.compilador.sintactico.ParserDescendente;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.ref.Reference;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Memoria que queda ocupada por el árbol de cada parser, con todo lo que
+ * retiene: el árbol de contextos de ANTLR con sus {@code Token} y el
+ * {@code CharStream}, contra el {@link ArbolCompacto} con su
+ * {@code BufferTokens}. Se mide el heap usado tras un GC completo antes y
+ * después de armar el árbol (con SerialGC, que deja el número exacto); el
+ * resultado es el contador {@code bytesRetenidos}, no el tiempo. JMH suma
+ * ese contador entre iteraciones y forks, por eso se mide una sola vez: la
+ * cifra sale igual de una corrida a otra.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx4g", "-XX:+UseSerialGC"})
+@Warmup(iterations = 2)
+@Measurement(iterations = 1)
+public class MemoriaArbolBenchmark {
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Memoria {
+        public long bytesRetenidos;
+
+        @Setup(Level.Iteration)
+        public void reiniciar() {
+            bytesRetenidos = 0;
+        }
+    }
+
+    /** Heap ocupado según el último GC, que es completo: lo vivo y nada más */
+    private static long usadoTrasGc() {
+        System.gc();
+        long usado = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage tras = pool.getType() == MemoryType.HEAP ? pool.getCollectionUsage() : null;
+            if (tras != null) {
+                usado += tras.getUsed();
+            }
+        }
+        return usado;
+    }
+
+    @Benchmark
+    public void antlr(EstadoFuente e, Memoria m) {
+        long antes = usadoTrasGc();
+        MiniLenguajeParser.ProgramaContext arbol = new MiniLenguajeParser(new CommonTokenStream(
+                new MiniLenguajeLexer(CharStreams.fromString(e.fuente)))).programa();
+        m.bytesRetenidos = usadoTrasGc() - antes;
+        Reference.reachabilityFence(arbol);
+    }
+
+    @Benchmark
+    public void compacto(EstadoFuente e, Memoria m) {
+        long antes = usadoTrasGc();
+        ArbolCompacto arbol = ParserDescendente.analizar(EscanerLexico.escanear(e.bytes));
+        m.bytesRetenidos = usadoTrasGc() - antes;
+        Reference.reachabilityFence(arbol);
+    }
+}
@@ -0,0 +1,66 @@
+package com.compilador.bench;
+
+import com.compilador.Optimizador;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tiempo de cada pasada del {@link Optimizador} por separado. Cada pasada
+ * recibe el código tal como lo dejan las anteriores en {@link Optimizador#optimizar()}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx4g"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class OptimizadorBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Entrada {
+        @Param({"FUNCIONES_MUERTAS", "CODIGO_MUERTO", "PROPAGAR_CONSTANTES", "ESPECIALIZAR_FUNCIONES", "LLAMADAS_PURAS", "SIMPLIFICAR_EXPRESIONES", "SENTENCIAS_REDUNDANTES"})
+        public Optimizador.Pasada pasada;
+
+        List<String> codigo;
+        Map<String, List<String>> parametros;
+
+        @Setup(Level.Trial)
+        public void preparar(EstadoPrograma e) {
+            parametros = e.tabla.getParametrosPorFuncion();
+            Optimizador opt = new Optimizador(e.codigo, parametros);
+            for (Optimizador.Pasada p : Optimizador.Pasada.values()) {
+                if (p == pasada) {
+                    break;
+                }
+                opt.ejecutar(p);
+            }
+            codigo = opt.getCodigo();
+        }
+    }
+
+    @Benchmark
+    public List<String> pasada(Entrada in) {
+        Optimizador opt = new Optimizador(in.codigo, in.parametros);
+        opt.ejecutar(in.pasada);
+        return opt.getCodigo();
+    }
+
+    /** Todas las pasadas seguidas, como en la compilación completa */
+    @Benchmark
+    public List<String> completo(EstadoPrograma e) {
+        return new Optimizador(e.codigo, e.tabla.getParametrosPorFuncion()).optimizar();
+    }
+}
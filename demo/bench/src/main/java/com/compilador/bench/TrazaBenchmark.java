@@ -0,0 +1,66 @@
+package com.compilador.bench;
+
+import com.compilador.CodigoVisitor;
+import com.compilador.GeneradorCodigo;
+import com.compilador.traza.Nivel;
+import com.compilador.traza.Traza;
+import com.compilador.traza.TrazaSalida;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de la traza en la generación de C3D: nula, apagada (nivel INFO)
+ * y encendida (nivel TRAZA, escribiendo a un stream descartado).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx4g"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TrazaBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Salida {
+        @Param({"NULA", "APAGADA", "ENCENDIDA"})
+        public String modo;
+
+        Traza traza;
+
+        @Setup(Level.Trial)
+        public void preparar() {
+            OutputStream nula = OutputStream.nullOutputStream();
+            switch (modo) {
+                case "APAGADA":   traza = new TrazaSalida(nula, Nivel.INFO); break;
+                case "ENCENDIDA": traza = new TrazaSalida(nula, Nivel.TRAZA); break;
+                default:          traza = Traza.NULA;
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void cerrar() {
+            traza.vaciar();
+        }
+    }
+
+    @Benchmark
+    public List<String> generacion(EstadoPrograma e, Salida s) {
+        CodigoVisitor cv = new CodigoVisitor(e.tabla, new GeneradorCodigo(s.traza), s.traza);
+        cv.visit(e.arbol);
+        return cv.getGenerador().getCodigo();
+    }
+}
@@ -1,15 +1,33 @@
 package com.compilador;
 
+import com.compilador.ast.ExportadorAST;
+import com.compilador.c3d.EscritorBinarioC3D;
+import com.compilador.c3d.InterpreteC3D;
+import com.compilador.diagnostico.CodigoDiagnostico;
+import com.compilador.diagnostico.Diagnostico;
+import com.compilador.diagnostico.Diagnosticos;
+import com.compilador.incremental.CacheFunciones;
+import com.compilador.incremental.CompiladorIncremental;
+import com.compilador.lexico.FuenteTokens;
+import com.compilador.metricas.Medicion;
+import com.compilador.metricas.RegistroMetricas;
+import com.compilador.perfil.Perfil;
 import com.compilador.semantico.SimbolosListener;
 import com.compilador.semantico.TablaSimbolos;
-import org.antlr.v4.gui.TreeViewer;
+import com.compilador.traza.Nivel;
+import com.compilador.traza.Traza;
+import com.compilador.traza.TrazaSalida;
 import org.antlr.v4.runtime.*;
 import org.antlr.v4.runtime.misc.ParseCancellationException;
 import org.antlr.v4.runtime.tree.*;
-import javax.swing.*;
 import java.io.*;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Executors;
 
 public class App {
     // ANSI colors
@@ -20,102 +38,395 @@ public class App {
     private static final String BLUE   = "\u001B[34m";
     private static final String CYAN   = "\u001B[36m";
 
+    /** Salida de progreso; se configura en main según --quiet / --traza / --nivel */
+    private static Traza traza = Traza.NULA;
+
+    private static final String USO = "Uso: java -jar compilador.jar <archivo.txt>... [--ast] [--ast-dot] [--ast-json] [--paralelo] [--incremental] [--recuperar] [--json] [--gzip] [--binario] [--calentar] [--lexico-rapido] [--ejecutar [--memo N]] [--perfil-salida archivo] [--perfil archivo] [--max-diagnosticos N] [--metricas archivo.json|.csv] [--quiet | --traza | --nivel N]";
+
+    /** Directorio de la caché de funciones del modo incremental */
+    private static final String DIR_CACHE = ".minicache";
+
+    /** Opciones de la línea de comandos; todo lo que no es una opción es un archivo a compilar */
+    private static final class Opciones {
+        final List<String> archivos = new ArrayList<>();
+        boolean showAst, astDot, astJson, paralelo, incremental, recuperar, json, gzip, binario, calentar, ejecutar, lexicoRapido;
+        int maxDiagnosticos = Integer.MAX_VALUE;
+        /** Capacidad de la caché de cada función memoizada al ejecutar; 0 la desactiva */
+        int memo;
+        /** Perfil a usar al generar y optimizar, y dónde guardar el de una ejecución del C3D raw */
+        String perfil, perfilSalida;
+        String metricasOut;
+        Nivel nivel = Nivel.DETALLE;
+
+        static Opciones leer(String[] args) {
+            Opciones op = new Opciones();
+            boolean noAst = false;
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    // La ventana del AST es opcional (perfil gui); --no-ast se acepta por compatibilidad
+                    case "--ast":         op.showAst = true; break;
+                    case "--no-ast":      noAst = true; break;
+                    case "--ast-dot":     op.astDot = true; break;
+                    case "--ast-json":    op.astJson = true; break;
+                    case "--paralelo":    op.paralelo = true; break;
+                    case "--incremental": op.incremental = true; break;
+                    case "--recuperar":   op.recuperar = true; break;
+                    case "--json":        op.json = true; break;
+                    case "--gzip":        op.gzip = true; break;
+                    case "--binario":     op.binario = true; break;
+                    case "--calentar":    op.calentar = true; break;
+                    case "--ejecutar":    op.ejecutar = true; break;
+                    case "--lexico-rapido": op.lexicoRapido = true; break;
+                    case "--quiet":       op.nivel = Nivel.ERROR; break;
+                    case "--traza":       op.nivel = Nivel.TRAZA; break;
+                    case "--max-diagnosticos":
+                        if (i + 1 < args.length) op.maxDiagnosticos = entero(args[i], args[++i]);
+                        break;
+                    case "--memo":
+                        if (i + 1 < args.length) op.memo = entero(args[i], args[++i]);
+                        break;
+                    case "--metricas":
+                        if (i + 1 < args.length) op.metricasOut = args[++i];
+                        break;
+                    case "--perfil":
+                        if (i + 1 < args.length) op.perfil = args[++i];
+                        break;
+                    case "--perfil-salida":
+                        if (i + 1 < args.length) op.perfilSalida = args[++i];
+                        break;
+                    case "--nivel":
+                        if (i + 1 < args.length) op.nivel = Nivel.desdeNombre(args[++i]);
+                        break;
+                    default:
+                        op.archivos.add(args[i]);
+                }
+            }
+            op.showAst &= !noAst;
+            return op;
+        }
+
+        private static int entero(String opcion, String valor) {
+            try {
+                int n = Integer.parseInt(valor);
+                if (n >= 0) {
+                    return n;
+                }
+            } catch (NumberFormatException ex) {
+                // Se informa abajo
+            }
+            throw new IllegalArgumentException(opcion + " espera un entero no negativo, no '" + valor + "'");
+        }
+    }
+
     public static void main(String[] args) {
-        if (args.length < 1) {
-            System.err.println(RED + "Uso: java -jar compilador.jar <archivo.txt> [--no-ast]" + RESET);
+        Opciones op;
+        try {
+            op = Opciones.leer(args);
+        } catch (IllegalArgumentException ex) {
+            System.err.println(RED + "❌ " + ex.getMessage() + RESET);
+            System.err.println(RED + USO + RESET);
+            System.exit(1);
+            return;
+        }
+        if (op.archivos.isEmpty()) {
+            System.err.println(RED + USO + RESET);
+            System.exit(1);
+        }
+        traza = new TrazaSalida(System.out, op.nivel);
+        // Una sola instancia para todo el lote: cada fase acumula una medición por archivo
+        RegistroMetricas metricas = new RegistroMetricas();
+        boolean ok = true;
+        try {
+            if (op.calentar) {
+                try (Medicion m = metricas.medir("calentamiento")) {
+                    int tokens = Calentamiento.calentar();
+                    traza.info(GREEN + "✅ Parser precalentado" + RESET +
+                            " (" + ms(m.terminar()) + " ms, " + tokens + " tokens de " + Calentamiento.CORPUS + ")");
+                }
+            }
+            // Lote: el DFA de ANTLR es estático, así que a partir del segundo archivo
+            // el parser ya no paga el costo de construirlo
+            for (String archivo : op.archivos) {
+                ok &= compilar(archivo, op, metricas);
+            }
+
+            traza.detalle("\n" + BLUE + "⏱️ Métricas por fase" + RESET);
+            metricas.imprimir(traza);
+            if (op.metricasOut != null) {
+                metricas.guardar(Paths.get(op.metricasOut));
+                traza.info("Métricas: " + op.metricasOut);
+            }
+        } catch (IOException ex) {
+            traza.vaciar();
+            System.err.println(RED + "❌ Error inesperado: " + RESET);
+            ex.printStackTrace();
+            ok = false;
+        } finally {
+            traza.vaciar();
+        }
+        if (!ok) {
             System.exit(1);
         }
-        String inputPath = args[0];
-        boolean showAst  = !Arrays.asList(args).contains("--no-ast");
+    }
+
+    /** Compila un archivo; devuelve false si falló (un error de compilación o de E/S, o errores con --recuperar) */
+    private static boolean compilar(String inputPath, Opciones op, RegistroMetricas metricas) {
+        boolean showAst = op.showAst, astDot = op.astDot, astJson = op.astJson;
+        boolean paralelo = op.paralelo, incremental = op.incremental, recuperar = op.recuperar;
+        boolean json = op.json, gzip = op.gzip, binario = op.binario;
         String baseName  = getBaseName(inputPath);
 
         try {
-            System.out.println(CYAN + "🚀 Iniciando compilación: " + inputPath + RESET);
-            long tStart = System.nanoTime();
+            traza.info(CYAN + "🚀 Iniciando compilación: " + inputPath + RESET);
+            Medicion total = metricas.medir("total");
+
+            // Con --recuperar los errores léxicos y sintácticos también se acumulan aquí
+            // en vez de cortar la compilación
+            Diagnosticos diagnosticos = new Diagnosticos(op.maxDiagnosticos);
+
+            Perfil perfil = null;
+            if (op.perfil != null) {
+                try {
+                    perfil = Perfil.cargar(Paths.get(op.perfil));
+                } catch (IOException ex) {
+                    traza.vaciar();
+                    System.err.println(RED + "❌ No se pudo leer el perfil " + op.perfil
+                            + (ex instanceof NoSuchFileException ? "" : ": " + ex.getMessage()) + RESET);
+                    return false;
+                }
+            }
 
             // 1. Léxico
-            long t0 = System.nanoTime();
-            CommonTokenStream tokens = analizarLexico(inputPath);
-            long t1 = System.nanoTime();
-            System.out.println(GREEN + "✅ Léxico OK" + RESET +
-                    " (" + ms(t1 - t0) + " ms, " + (tokens.size()-1) + " tokens)");
-
-            // 2. Sintáctico
-            t0 = System.nanoTime();
-            ParseTree tree = analizarSintaxis(tokens);
-            long t2 = System.nanoTime();
-            System.out.println(GREEN + "✅ Sintaxis OK" + RESET +
-                    " (" + ms(t2 - t0) + " ms)");
-
-            // 3. AST
-            if (showAst) {
-                System.out.println(BLUE + "\n=== Visualización AST ===" + RESET);
-                mostrarAST(tree, new MiniLenguajeParser(tokens));
-            }
-
-            // 4. Semántico
-            t0 = System.nanoTime();
-            SimbolosListener sem = analizarSemantica(tree);
-            long t3 = System.nanoTime();
-            System.out.println(GREEN + "✅ Semántico OK" + RESET +
-                    " (" + ms(t3 - t0) + " ms)");
-
-            TablaSimbolos tabla = sem.getTablaSimbolos();
-            System.out.println("\n" + BLUE + "📋 Tabla de Símbolos" + RESET);
-            tabla.imprimir();
-
-            // 5. Generación de C3D
-            t0 = System.nanoTime();
-            CodigoVisitor cv = new CodigoVisitor(tabla);
-            cv.visit(tree);
-            GeneradorCodigo gen = cv.getGenerador();
-            long t4 = System.nanoTime();
-            System.out.println(GREEN + "✅ Generación de C3D OK" + RESET +
-                    " (" + ms(t4 - t0) + " ms)");
-
-            // 6. Imprimir y guardar C3D “raw”
-            List<String> codigoRaw = gen.getCodigo();
-            System.out.println("\n" + BLUE + "📝 C3D (RAW)" + RESET);
-            codigoRaw.forEach((instr) -> System.out.println(instr));
-            String rawOut = baseName + "_c3d.txt";
-            guardarCodigo(codigoRaw, rawOut);
-
-            // 7. Optimización de C3D
-            Optimizador opt = new Optimizador(codigoRaw);
-            List<String> codigoOpt = opt.optimizar();
-
-            System.out.println("\n" + BLUE + "🛠️ C3D (OPTIMIZADO)" + RESET);
-            codigoOpt.forEach((instr) -> System.out.println(instr));
-            String optOut = baseName + "_c3d_opt.txt";
-            guardarCodigo(codigoOpt, optOut);
+            Medicion m = metricas.medir("lexico");
+            // El lexer escrito a mano da los mismos tokens; como ERROR acepta cualquier
+            // carácter, ninguno de los dos reporta errores léxicos
+            CommonTokenStream tokens = op.lexicoRapido
+                    ? new CommonTokenStream(FuenteTokens.desdeArchivo(Paths.get(inputPath)))
+                    : analizarLexico(inputPath, recuperar ? diagnosticos : null);
+            // Se consumen todos los tokens acá para que el léxico no quede dentro del parseo
+            tokens.fill();
+            traza.info(GREEN + "✅ Léxico OK" + RESET +
+                    " (" + ms(m.terminar()) + " ms, " + (tokens.size()-1) + " tokens)");
+
+            // 1b. Incremental: sólo se analizan las funciones que no están en caché
+            CompiladorIncremental.Resultado inc = null;
+            // --recuperar necesita el árbol completo recuperado, así que ignora la caché;
+            // con --perfil también, porque el código cacheado no depende del perfil
+            if (incremental && !recuperar && perfil == null) {
+                m = metricas.medir("incremental");
+                CacheFunciones cache = new CacheFunciones(Paths.get(DIR_CACHE));
+                inc = new CompiladorIncremental(cache).compilar(tokens.getTokens());
+                long dt = m.terminar();
+                if (inc != null) {
+                    traza.info(GREEN + "✅ Incremental OK" + RESET +
+                            " (" + ms(dt) + " ms, " +
+                            inc.getAciertos() + " aciertos, " + inc.getFallos() + " fallos)");
+                } else {
+                    traza.info(YELLOW + "⚠️  No se pudo segmentar en funciones; compilación completa" + RESET);
+                }
+            }
+
+            TablaSimbolos tabla;
+            List<String> codigoRaw;
+            List<String> codigoOpt = null;
+            if (inc != null) {
+                tabla     = inc.getTablaSimbolos();
+                diagnosticos.agregarTodos(inc.getDiagnosticos().getErrores());
+                diagnosticos.agregarTodos(inc.getDiagnosticos().getWarnings());
+                codigoRaw = inc.getCodigoRaw();
+                codigoOpt = inc.getCodigoOpt();
+                traza.detalle("\n" + BLUE + "📋 Tabla de Símbolos" + RESET);
+                tabla.imprimir(traza);
+            } else {
+                // 2. Sintáctico
+                m = metricas.medir("sintactico");
+                ParseTree tree = analizarSintaxis(tokens, recuperar ? diagnosticos : null);
+                long dt = m.terminar();
+                if (recuperar && diagnosticos.hayErrores()) {
+                    // Los nodos de error del árbol ya fueron reportados por el parser
+                    diagnosticos.ignorar(CodigoDiagnostico.SIMBOLO_INESPERADO);
+                    traza.info(YELLOW + "⚠️  Sintaxis con errores, árbol recuperado" + RESET +
+                            " (" + ms(dt) + " ms)");
+                } else {
+                    traza.info(GREEN + "✅ Sintaxis OK" + RESET +
+                            " (" + ms(dt) + " ms)");
+                }
+
+                // 3. AST
+                if (astDot || astJson) {
+                    try (Medicion io = metricas.medir("es.ast")) {
+                        exportarAST(tree, baseName, astDot, astJson);
+                    }
+                }
+                if (showAst) {
+                    traza.info(BLUE + "\n=== Visualización AST ===" + RESET);
+                    traza.vaciar();
+                    mostrarAST(tree);
+                }
+
+                // 4. Semántico
+                m = metricas.medir("semantico");
+                SimbolosListener sem = analizarSemantica(tree, diagnosticos);
+                dt = m.terminar();
+
+                if (recuperar) {
+                    // Reporte único con todos los diagnósticos; si hay errores no se genera código
+                    imprimirDiagnosticos(diagnosticos);
+                    if (diagnosticos.hayErrores()) {
+                        if (json) guardarDiagnosticos(diagnosticos, baseName + "_diagnosticos.json");
+                        return false;
+                    }
+                }
+                traza.info(GREEN + "✅ Semántico OK" + RESET +
+                        " (" + ms(dt) + " ms)");
+
+                tabla = sem.getTablaSimbolos();
+                traza.detalle("\n" + BLUE + "📋 Tabla de Símbolos" + RESET);
+                tabla.imprimir(traza);
+
+                // 5. Generación de C3D
+                m = metricas.medir("generacion");
+                GeneradorCodigo gen = paralelo
+                        ? generarEnParalelo((MiniLenguajeParser.ProgramaContext) tree, tabla, perfil)
+                        : generarSecuencial(tree, tabla, perfil);
+                codigoRaw = gen.getCodigo();
+                traza.info(GREEN + "✅ Generación de C3D OK" + RESET +
+                        " (" + ms(m.terminar()) + " ms)");
+            }
+
+            if (json) {
+                try (Medicion io = metricas.medir("es.diagnosticos")) {
+                    guardarDiagnosticos(diagnosticos, baseName + "_diagnosticos.json");
+                }
+            }
+
+            // 6. Imprimir y guardar C3D “raw” (con --paralelo se escribe mientras se optimiza)
+            imprimirListado("\n" + BLUE + "📝 C3D (RAW)" + RESET, codigoRaw);
+            EscritorC3D escritor = new EscritorC3D(gzip);
+            String extension = gzip ? ".txt.gz" : ".txt";
+            String rawOut = baseName + "_c3d" + extension;
+            // La medición se cierra dentro de la tarea, antes de completar el future
+            CompletableFuture<Void> rawEscrito = paralelo
+                    ? CompletableFuture.runAsync(() -> {
+                        try (Medicion io = metricas.medir("es.c3d_raw")) {
+                            escritor.escribir(codigoRaw, Paths.get(rawOut));
+                        } catch (IOException ex) {
+                            throw new CompletionException(ex);
+                        }
+                    }, ForkJoinPool.commonPool())
+                    : null;
+            if (rawEscrito == null) {
+                try (Medicion io = metricas.medir("es.c3d_raw")) {
+                    guardarCodigo(escritor, codigoRaw, rawOut);
+                }
+            }
+
+            // 7. Optimización de C3D (el modo incremental ya trae el código optimizado)
+            if (codigoOpt == null) {
+                Optimizador opt = new Optimizador(codigoRaw, tabla.getParametrosPorFuncion());
+                opt.setPerfil(perfil);
+                codigoOpt = opt.optimizar(metricas);
+                imprimirGrafo(opt);
+                if (perfil != null) {
+                    Perfil.Frecuencias fr = opt.getFrecuencias();
+                    traza.info("Perfil " + op.perfil + ": " + fr.getVigentes() + " funciones vigentes, "
+                            + fr.getDesactualizadas() + " cambiaron; " + opt.getBloquesMovidos()
+                            + " bloques movidos, " + opt.getSaltosInvertidos() + " saltos invertidos");
+                }
+            }
+
+            imprimirListado("\n" + BLUE + "🛠️ C3D (OPTIMIZADO)" + RESET, codigoOpt);
+            String optOut = baseName + "_c3d_opt" + extension;
+            try (Medicion io = metricas.medir("es.c3d_opt")) {
+                guardarCodigo(escritor, codigoOpt, optOut);
+            }
+            if (rawEscrito != null) {
+                try {
+                    rawEscrito.join();
+                } catch (CompletionException ex) {
+                    if (ex.getCause() instanceof IOException) throw (IOException) ex.getCause();
+                    throw ex;
+                }
+                traza.info(GREEN + "✅ Guardado en " + rawOut + RESET);
+            }
+
+            // 7b. Formato binario para herramientas (VM, enlazador, cachés)
+            String binOut = null;
+            if (binario) {
+                binOut = baseName + ".c3db";
+                try (Medicion io = metricas.medir("es.binario")) {
+                    EscritorBinarioC3D bin = new EscritorBinarioC3D();
+                    bin.agregarCodigo("raw", codigoRaw);
+                    bin.agregarCodigo("opt", codigoOpt);
+                    bin.agregarSimbolos(tabla.getTodosLosSimbolos());
+                    bin.escribir(Paths.get(binOut));
+                }
+                traza.info(GREEN + "✅ Guardado en " + binOut + RESET);
+            }
+
+            // 7c. Ejecución del C3D optimizado
+            if (op.ejecutar && !ejecutar(codigoOpt, tabla, op.memo, metricas)) {
+                return false;
+            }
+
+            // 7d. Ejecución perfilada del C3D raw, para un --perfil posterior
+            if (op.perfilSalida != null && !perfilar(codigoRaw, tabla, op.perfilSalida, metricas)) {
+                return false;
+            }
 
             // 8. Resumen
-            long tEnd = System.nanoTime();
-            System.out.println("\n" + BLUE + "=== Resumen ===" + RESET);
-            System.out.println("Tiempo total: " + ms(tEnd - tStart) + " ms");
-            System.out.println("Tokens: " + (tokens.size()-1));
-            System.out.println("Instrucciones RAW: " + codigoRaw.size());
-            System.out.println("Instrucciones OPT: " + codigoOpt.size());
-            System.out.println("Archivo RAW: " + rawOut);
-            System.out.println("Archivo OPT: " + optOut);
-            System.out.println(GREEN + "\n🎉 ¡COMPILACIÓN EXITOSA! 🎉" + RESET);
+            long dtTotal = total.terminar();
+            traza.info("\n" + BLUE + "=== Resumen ===" + RESET);
+            traza.info("Tiempo total: " + ms(dtTotal) + " ms");
+            traza.info("Tokens: " + (tokens.size()-1));
+            traza.info("Instrucciones RAW: " + codigoRaw.size());
+            traza.info("Instrucciones OPT: " + codigoOpt.size());
+            traza.info("Archivo RAW: " + rawOut);
+            traza.info("Archivo OPT: " + optOut);
+            if (binOut != null) {
+                traza.info("Archivo binario: " + binOut);
+            }
+            if (inc != null) {
+                traza.info("Caché: " + inc.getAciertos() + " aciertos, " +
+                        inc.getFallos() + " fallos (" + DIR_CACHE + ")");
+            }
+            traza.info(GREEN + "\n🎉 ¡COMPILACIÓN EXITOSA! 🎉" + RESET);
 
         } catch (ParseCancellationException ex) {
+            traza.vaciar();
             System.err.println(RED + "❌ Error léxico: " + ex.getMessage() + RESET);
+            return false;
         } catch (IllegalArgumentException ex) {
+            traza.vaciar();
             System.err.println(RED + "❌ Error sintáctico: " + ex.getMessage() + RESET);
+            return false;
         } catch (RuntimeException ex) {
+            traza.vaciar();
             System.err.println(RED + "❌ Error semántico: " + ex.getMessage() + RESET);
+            return false;
         } catch (Exception ex) {
+            traza.vaciar();
             System.err.println(RED + "❌ Error inesperado: " + RESET);
             ex.printStackTrace();
+            return false;
+        } finally {
+            traza.vaciar();
         }
+        return true;
     }
 
-    private static CommonTokenStream analizarLexico(String inputPath) throws IOException {
+    /**
+     * @param errores si no es null, los errores léxicos se agregan a este colector
+     *                en lugar de lanzar ParseCancellationException
+     */
+    private static CommonTokenStream analizarLexico(String inputPath, Diagnosticos errores) throws IOException {
         CharStream input = CharStreams.fromFileName(inputPath);
         MiniLenguajeLexer lexer = new MiniLenguajeLexer(input);
         lexer.removeErrorListeners();
+        if (errores != null) {
+            lexer.addErrorListener(new RecolectorErrores(CodigoDiagnostico.ERROR_LEXICO, errores));
+            return new CommonTokenStream(lexer);
+        }
         lexer.addErrorListener(new BaseErrorListener() {
             @Override
             public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol,
@@ -127,9 +438,17 @@ public class App {
         return new CommonTokenStream(lexer);
     }
 
-    private static ParseTree analizarSintaxis(CommonTokenStream tokens) {
+    /**
+     * @param errores si no es null, el parser se recupera con DefaultErrorStrategy
+     *                y cada error sintáctico se agrega a este colector
+     */
+    private static ParseTree analizarSintaxis(CommonTokenStream tokens, Diagnosticos errores) {
         MiniLenguajeParser parser = new MiniLenguajeParser(tokens);
         parser.removeErrorListeners();
+        if (errores != null) {
+            parser.addErrorListener(new RecolectorErrores(CodigoDiagnostico.ERROR_SINTACTICO, errores));
+            return parser.programa();
+        }
         parser.addErrorListener(new BaseErrorListener() {
             @Override
             public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol,
@@ -141,37 +460,180 @@ public class App {
         return parser.programa();
     }
 
-    private static void mostrarAST(ParseTree tree, MiniLenguajeParser parser) {
+    private static void imprimirGrafo(Optimizador opt) {
+        GrafoLlamadas grafo = opt.getGrafoLlamadas();
+        traza.detalle("\n" + BLUE + "🕸️ Grafo de llamadas" + RESET + ": " + grafo.getFunciones().size()
+                + " funciones (" + opt.getClones() + " clones especializados), "
+                + opt.getFuncionesEliminadas() + " inalcanzables desde main (eliminadas), "
+                + grafo.getCantidadRecursivas() + " recursivas, " + grafo.getCantidadPuras() + " puras");
+        if (traza.habilitado(Nivel.TRAZA)) {
+            for (GrafoLlamadas.Funcion f : grafo.getFunciones()) {
+                traza.emitir(Nivel.TRAZA, "   " + f);
+            }
+        }
+    }
+
+    /**
+     * Interpreta el C3D desde main; con {@code memo} &gt; 0 memoiza las funciones
+     * puras y recursivas con una caché LRU de ese tamaño por función.
+     *
+     * @return false si la ejecución falló
+     */
+    private static boolean ejecutar(List<String> codigo, TablaSimbolos tabla, int memo, RegistroMetricas metricas) {
+        InterpreteC3D interprete = new InterpreteC3D(codigo, tabla.getParametrosPorFuncion());
+        Set<String> memoizables = new LinkedHashSet<>();
+        for (GrafoLlamadas.Funcion f : GrafoLlamadas.construir(codigo).getFunciones()) {
+            if (f.esPura() && f.esRecursiva()) memoizables.add(f.getNombre());
+        }
+        interprete.memoizar(memoizables, memo);
+        traza.info("\n" + BLUE + "▶️ Ejecución" + RESET);
+        traza.vaciar();
+        Object resultado;
+        long dt;
+        try (Medicion m = metricas.medir("ejecucion")) {
+            resultado = interprete.ejecutar();
+            dt = m.terminar();
+        } catch (InterpreteC3D.ErrorEjecucion ex) {
+            traza.vaciar();
+            System.err.println(RED + "❌ Error de ejecución: " + ex.getMessage() + RESET);
+            return false;
+        }
+        traza.info(GREEN + "✅ main devolvió " + resultado + RESET + " (" + ms(dt) + " ms, "
+                + interprete.getPasos() + " instrucciones, " + interprete.getLlamadas() + " llamadas)");
+        if (memo > 0) {
+            traza.info("Memoización " + memoizables + ": " + interprete.getAciertosMemo() + " aciertos, "
+                    + interprete.getFallosMemo() + " fallos");
+        }
+        return true;
+    }
+
+    /**
+     * Interpreta el C3D raw contando ejecuciones por instrucción y saltos por
+     * if, y guarda el {@link Perfil} en {@code ruta}. Se perfila el raw porque
+     * es el código que recibe el optimizador en la compilación siguiente.
+     *
+     * @return false si la ejecución falló
+     */
+    private static boolean perfilar(List<String> codigo, TablaSimbolos tabla, String ruta,
+                                    RegistroMetricas metricas) throws IOException {
+        InterpreteC3D interprete = new InterpreteC3D(codigo, tabla.getParametrosPorFuncion());
+        interprete.setPerfilar(true);
+        // La salida del programa ya se vio con --ejecutar; acá sólo interesan los contadores
+        interprete.setSalida(new PrintStream(OutputStream.nullOutputStream()));
+        Perfil perfil;
+        try (Medicion m = metricas.medir("perfil")) {
+            interprete.ejecutar();
+            perfil = Perfil.medir(codigo, interprete.getEjecuciones(), interprete.getSaltos(),
+                    interprete.getLlamadasPorFuncion());
+        } catch (InterpreteC3D.ErrorEjecucion ex) {
+            traza.vaciar();
+            System.err.println(RED + "❌ Error de ejecución al perfilar: " + ex.getMessage() + RESET);
+            return false;
+        }
+        perfil.guardar(Paths.get(ruta));
+        traza.info(GREEN + "✅ Perfil guardado en " + ruta + RESET + " (" + interprete.getPasos()
+                + " instrucciones, " + interprete.getLlamadas() + " llamadas)");
+        return true;
+    }
+
+    /**
+     * La ventana se carga por reflexión para que ni la JVM (al cargar App) ni
+     * native-image (al analizar qué código es alcanzable) lleguen a AWT/Swing.
+     */
+    private static void mostrarAST(ParseTree tree) {
         try {
-            JFrame frame = new JFrame("AST - " + parser.getClass().getSimpleName());
-            TreeViewer viewer = new TreeViewer(Arrays.asList(parser.getRuleNames()), tree);
-            viewer.setScale(1.5);
-            frame.add(viewer);
-            frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
-            frame.setSize(800, 600);
-            frame.setLocationRelativeTo(null);
-            frame.setVisible(true);
-            System.out.println(YELLOW + "⚠️  Ventana AST abierta. Ciérrala para continuar..." + RESET);
-        } catch (Exception ex) {
-            System.err.println(YELLOW + "⚠️  No se pudo mostrar AST gráfico: " + ex.getMessage() + RESET);
+            Class<?> visor = Class.forName("com.compilador.ast.VisorAST");
+            String motivo = (String) visor.getMethod("motivoNoDisponible").invoke(null);
+            if (motivo != null) {
+                System.err.println(YELLOW + "⚠️  No se puede mostrar el AST gráfico: " + motivo
+                        + "; usar --ast-dot o --ast-json" + RESET);
+                return;
+            }
+            visor.getMethod("mostrar", ParseTree.class, String[].class, String.class)
+                    .invoke(null, tree, MiniLenguajeParser.ruleNames, "AST - MiniLenguajeParser");
+            traza.info(YELLOW + "⚠️  Ventana AST abierta. Ciérrala para continuar..." + RESET);
+        } catch (ReflectiveOperationException | LinkageError ex) {
+            Throwable causa = ex.getCause() != null ? ex.getCause() : ex;
+            System.err.println(YELLOW + "⚠️  No se pudo mostrar AST gráfico: " + causa + RESET);
+        }
+    }
+
+    private static void exportarAST(ParseTree tree, String baseName, boolean dot, boolean json) throws IOException {
+        ExportadorAST exportador = new ExportadorAST(MiniLenguajeParser.ruleNames, MiniLenguajeLexer.VOCABULARY);
+        if (dot) {
+            String ruta = baseName + "_ast.dot";
+            exportador.guardarDot(tree, Paths.get(ruta));
+            traza.info(GREEN + "✅ AST guardado en " + ruta + RESET);
+        }
+        if (json) {
+            String ruta = baseName + "_ast.json";
+            exportador.guardarJson(tree, Paths.get(ruta));
+            traza.info(GREEN + "✅ AST guardado en " + ruta + RESET);
         }
     }
 
-    private static SimbolosListener analizarSemantica(ParseTree tree) {
-        SimbolosListener listener = new SimbolosListener();
+    private static SimbolosListener analizarSemantica(ParseTree tree, Diagnosticos diagnosticos) {
+        SimbolosListener listener = new SimbolosListener(diagnosticos);
         ParseTreeWalker walker = new ParseTreeWalker();
         walker.walk(listener, tree);
         return listener;
     }
 
-    private static void guardarCodigo(List<String> codigo, String ruta) throws IOException {
-        try (BufferedWriter w = Files.newBufferedWriter(Paths.get(ruta))) {
-            w.write("// Código intermedio de tres direcciones\n\n");
-            for (int i = 0; i < codigo.size(); i++) {
-                w.write(String.format("%3d: %s%n", i, codigo.get(i)));
-            }
+    /**
+     * Imprime de una sola vez todos los errores (léxicos, sintácticos y
+     * semánticos) y warnings acumulados, más lo que quedó fuera por el tope.
+     */
+    private static void imprimirDiagnosticos(Diagnosticos diagnosticos) {
+        traza.error("\n" + BLUE + "🩺 Diagnósticos" + RESET);
+        for (Diagnostico e : diagnosticos.getErrores()) {
+            traza.error(RED + e.mensaje() + RESET);
+        }
+        for (Diagnostico w : diagnosticos.getWarnings()) {
+            traza.error(YELLOW + w.mensaje() + RESET);
+        }
+        diagnosticos.getSuprimidos().forEach((codigo, n) ->
+                traza.error(YELLOW + "… " + n + " más de " + codigo + " (tope --max-diagnosticos)" + RESET));
+        traza.error(diagnosticos.getErrores().size() + " errores, " +
+                diagnosticos.getWarnings().size() + " warnings");
+    }
+
+    /** Listado de instrucciones en nivel DETALLE; apagado no recorre la lista */
+    private static void imprimirListado(String titulo, List<String> codigo) {
+        if (!traza.habilitado(Nivel.DETALLE)) {
+            return;
         }
-        System.out.println(GREEN + "✅ Guardado en " + ruta + RESET);
+        traza.emitir(Nivel.DETALLE, titulo);
+        for (String instr : codigo) {
+            traza.emitir(Nivel.DETALLE, instr);
+        }
+    }
+
+    private static void guardarDiagnosticos(Diagnosticos diagnosticos, String ruta) throws IOException {
+        Files.writeString(Paths.get(ruta), diagnosticos.aJson());
+        traza.info(GREEN + "✅ Diagnósticos guardados en " + ruta + RESET);
+    }
+
+    private static GeneradorCodigo generarSecuencial(ParseTree tree, TablaSimbolos tabla, Perfil perfil) {
+        CodigoVisitor cv = new CodigoVisitor(tabla, new GeneradorCodigo(traza), traza);
+        cv.setPerfil(perfil);
+        cv.visit(tree);
+        return cv.getGenerador();
+    }
+
+    private static GeneradorCodigo generarEnParalelo(MiniLenguajeParser.ProgramaContext prog,
+                                                     TablaSimbolos tabla,
+                                                     Perfil perfil) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            return CodigoVisitor.generarEnParalelo(prog, tabla, pool, traza, perfil);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void guardarCodigo(EscritorC3D escritor, List<String> codigo, String ruta) throws IOException {
+        escritor.escribir(codigo, Paths.get(ruta));
+        traza.info(GREEN + "✅ Guardado en " + ruta + RESET);
     }
 
     private static String getBaseName(String path) {
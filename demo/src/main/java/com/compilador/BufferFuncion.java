@@ -0,0 +1,127 @@
+package com.compilador;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Buffer de código de tres direcciones de UNA función:
+ * • Tiene sus propios contadores de temporales y etiquetas
+ * • Los nombres que crea son locales (#t0, #L0, …); el {@link Enlazador}
+ *   los reubica después en el espacio global (t0, L0, …)
+ * <p>
+ * Un buffer pertenece a un único hilo mientras se genera; una vez cerrado
+ * puede guardarse, cachearse y volver a enlazarse sin regenerar la función.
+ */
+public class BufferFuncion {
+    /** Prefijo de los nombres locales; no puede aparecer en un identificador */
+    static final char MARCA_LOCAL = '#';
+
+    private final String nombre;
+    private final List<String> codigo;
+    private int tempCounter  = 0;
+    private int labelCounter = 0;
+
+    public BufferFuncion(String nombre) {
+        this.nombre = nombre;
+        this.codigo = new ArrayList<>();
+    }
+
+    /** Reconstruye un buffer ya generado (p. ej. leído de una caché) */
+    public BufferFuncion(String nombre, List<String> codigo, int temporales, int etiquetas) {
+        this.nombre       = nombre;
+        this.codigo       = new ArrayList<>(codigo);
+        this.tempCounter  = temporales;
+        this.labelCounter = etiquetas;
+    }
+
+    /** Nuevo temporal local #tN */
+    public String newTemp() {
+        return MARCA_LOCAL + "t" + tempCounter++;
+    }
+
+    /** Nueva etiqueta local #LN */
+    public String newLabel() {
+        return MARCA_LOCAL + "L" + labelCounter++;
+    }
+
+    /**  t = left op right */
+    public String genOperacionBinaria(String op, String left, String right) {
+        String t = newTemp();
+        codigo.add(t + " = " + left + " " + op + " " + right);
+        return t;
+    }
+
+    /**  x = valor */
+    public void genAsignacion(String x, String valor) {
+        codigo.add(x + " = " + valor);
+    }
+
+    /**  t = call f, n  (consume los n últimos param) */
+    public String genLlamada(String funcion, int argumentos) {
+        String t = newTemp();
+        codigo.add(t + " = call " + funcion + ", " + argumentos);
+        return t;
+    }
+
+    /**  tailcall f, n  (llamada que reemplaza el marco actual; su resultado es el de la función) */
+    public void genLlamadaCola(String funcion, int argumentos) {
+        codigo.add("tailcall " + funcion + ", " + argumentos);
+    }
+
+    /**  label: */
+    public void genLabel(String label) {
+        codigo.add(label + ":");
+    }
+
+    /**  if !cond goto label */
+    public void genIfFalse(String cond, String label) {
+        codigo.add("if !" + cond + " goto " + label);
+    }
+
+    /**  if cond goto label */
+    public void genIf(String cond, String label) {
+        codigo.add("if " + cond + " goto " + label);
+    }
+
+    /**  if left op right goto label  (op relacional) */
+    public void genIfRelacional(String op, String left, String right, String label) {
+        codigo.add("if " + left + " " + op + " " + right + " goto " + label);
+    }
+
+    /**  t = OP valor  (conversión, p. ej. I2D) */
+    public String genConversion(String op, String valor) {
+        String t = newTemp();
+        codigo.add(t + " = " + op + " " + valor);
+        return t;
+    }
+
+    /**  t = op valor */
+    public String genOperacionUnaria(String op, String valor) {
+        String t = newTemp();
+        codigo.add(t + " = " + op + valor);
+        return t;
+    }
+
+    /**  goto label */
+    public void genGoto(String label) {
+        codigo.add("goto " + label);
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    /** Código con nombres locales (sin reubicar) */
+    public List<String> getCodigo() {
+        return Collections.unmodifiableList(codigo);
+    }
+
+    public int getNumTemporales() {
+        return tempCounter;
+    }
+
+    public int getNumEtiquetas() {
+        return labelCounter;
+    }
+}
@@ -0,0 +1,75 @@
+package com.compilador;
+
+import org.antlr.v4.runtime.*;
+import org.antlr.v4.runtime.dfa.DFA;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Precalentamiento del lexer y el parser de ANTLR.
+ * <p>
+ * Los reconocedores generados guardan el DFA de predicción y la caché de
+ * contextos en campos estáticos, compartidos por todas las instancias de la
+ * JVM; el primer archivo que se parsea paga el costo de construirlos. Parsear
+ * una vez un corpus que recorre toda la gramática los deja poblados, así que
+ * en un lote (o en un proceso de larga vida) el primer archivo real ya
+ * encuentra las decisiones resueltas.
+ * <p>
+ * ANTLR no ofrece forma de serializar el DFA entre ejecuciones, por eso el
+ * calentamiento se hace en el proceso y no en tiempo de compilación.
+ */
+public final class Calentamiento {
+
+    /** Recurso con el programa de calentamiento */
+    public static final String CORPUS = "/calentamiento/corpus.txt";
+
+    private Calentamiento() {
+    }
+
+    /**
+     * Parsea el corpus y descarta el árbol.
+     *
+     * @return cantidad de tokens del corpus
+     * @throws IllegalStateException si el corpus no está o no es válido para la gramática
+     */
+    public static int calentar() {
+        CharStream input;
+        try (InputStream in = Calentamiento.class.getResourceAsStream(CORPUS)) {
+            if (in == null) {
+                throw new IllegalStateException("No se encontró el corpus de calentamiento " + CORPUS);
+            }
+            input = CharStreams.fromStream(in);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        MiniLenguajeLexer lexer = new MiniLenguajeLexer(input);
+        CommonTokenStream tokens = new CommonTokenStream(lexer);
+        tokens.fill();
+        MiniLenguajeParser parser = new MiniLenguajeParser(tokens);
+        lexer.removeErrorListeners();
+        parser.removeErrorListeners();
+        parser.programa();
+        if (parser.getNumberOfSyntaxErrors() > 0) {
+            throw new IllegalStateException("El corpus de calentamiento tiene errores de sintaxis");
+        }
+        return tokens.size() - 1;
+    }
+
+    /** Estados en el DFA compartido del parser; sirve para ver cuánto se pobló */
+    public static int estadosDFA() {
+        MiniLenguajeParser parser = new MiniLenguajeParser(null);
+        int estados = 0;
+        for (DFA dfa : parser.getInterpreter().decisionToDFA) {
+            estados += dfa.states.size();
+        }
+        return estados;
+    }
+
+    /** Vacía el DFA compartido del lexer y del parser (mediciones en frío) */
+    public static void olvidar() {
+        new MiniLenguajeLexer(null).getInterpreter().clearDFA();
+        new MiniLenguajeParser(null).getInterpreter().clearDFA();
+    }
+}
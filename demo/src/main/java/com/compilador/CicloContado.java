@@ -0,0 +1,141 @@
+package com.compilador;
+
+import org.antlr.v4.runtime.tree.ParseTree;
+
+/**
+ * Un <code>for</code> con cantidad de vueltas conocida al compilar:
+ * <pre>
+ *     for (int i = c0; i &lt; c1; i++) { ... }     (también &lt;=, != y las variantes con --)
+ * </pre>
+ * El cuerpo no puede modificar la variable de control (asignación,
+ * redeclaración, ++/--, otro <code>for</code> que la use) ni tener
+ * <code>break</code>/<code>continue</code>.
+ *
+ * @param variable variable de control
+ * @param inicio   valor inicial
+ * @param paso     +1 o -1
+ * @param vueltas  veces que se ejecuta el cuerpo (puede ser 0)
+ * @param tamanio  tokens del cuerpo, como medida del código de cada copia
+ */
+record CicloContado(String variable, long inicio, int paso, long vueltas, int tamanio) {
+
+    /** Valor de la variable tras {@code n} vueltas */
+    long valorTras(long n) {
+        return inicio + paso * n;
+    }
+
+    /** El ciclo contado que describe {@code ctx}, o null si no tiene esa forma */
+    static CicloContado analizar(MiniLenguajeParser.ForStmtContext ctx) {
+        String variable;
+        MiniLenguajeParser.ExpresionContext valorInicial;
+        MiniLenguajeParser.ForInitContext init = ctx.forInit();
+        if (init.declaracionFor() != null) {
+            variable = init.declaracionFor().ID().getText();
+            valorInicial = init.declaracionFor().expresion();
+        } else {
+            variable = init.asignacionFor().ID().getText();
+            valorInicial = init.asignacionFor().expresion();
+        }
+        Long inicio = entero(valorInicial);
+        if (inicio == null) {
+            return null;
+        }
+
+        MiniLenguajeParser.ActualizacionForContext act = ctx.actualizacionFor();
+        if (act.ID() == null || !act.ID().getText().equals(variable)) {
+            return null;
+        }
+        int paso = act.PLUSPLUS() != null ? 1 : -1;
+
+        if (!(ctx.expresion() instanceof MiniLenguajeParser.ExpBinariaContext)) {
+            return null;
+        }
+        MiniLenguajeParser.ExpBinariaContext cond = (MiniLenguajeParser.ExpBinariaContext) ctx.expresion();
+        if (!(cond.expresion(0) instanceof MiniLenguajeParser.ExpIDContext)
+                || !cond.expresion(0).getText().equals(variable)) {
+            return null;
+        }
+        Long fin = entero(cond.expresion(1));
+        if (fin == null) {
+            return null;
+        }
+        long vueltas = vueltas(cond.operadorBinario().getText(), inicio, fin, paso);
+        if (vueltas < 0 || escribe(ctx.bloque(), variable)) {
+            return null;
+        }
+        int tamanio = ctx.bloque().getStop().getTokenIndex() - ctx.bloque().getStart().getTokenIndex() + 1;
+        return new CicloContado(variable, inicio, paso, vueltas, tamanio);
+    }
+
+    /** Vueltas de {@code i = inicio; i op fin; i += paso}, o -1 si no termina o no se reconoce */
+    private static long vueltas(String op, long inicio, long fin, int paso) {
+        // Con paso -1 se miran los valores negados: i > fin  ⇔  -i < -fin
+        if (paso < 0) {
+            inicio = -inicio;
+            fin = -fin;
+            switch (op) {
+                case ">":  op = "<"; break;
+                case ">=": case "=>": op = "<="; break;
+                case "!=": break;
+                default:   return -1;
+            }
+        }
+        switch (op) {
+            case "<":  return Math.max(0, fin - inicio);
+            case "<=": case "=<": return Math.max(0, fin - inicio + 1);
+            case "!=": return fin >= inicio ? fin - inicio : -1;
+            default:   return -1;
+        }
+    }
+
+    private static Long entero(MiniLenguajeParser.ExpresionContext e) {
+        while (e instanceof MiniLenguajeParser.ExpParentesisContext) {
+            e = ((MiniLenguajeParser.ExpParentesisContext) e).expresion();
+        }
+        if (!(e instanceof MiniLenguajeParser.ExpEnteroContext)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(e.getText());
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    /** Si algo dentro de {@code t} puede cambiar {@code variable} o salir del ciclo */
+    private static boolean escribe(ParseTree t, String variable) {
+        if (t instanceof MiniLenguajeParser.BreakStmtContext
+                || t instanceof MiniLenguajeParser.ContinueStmtContext) {
+            return true;
+        }
+        String destino = null;
+        if (t instanceof MiniLenguajeParser.AsignacionContext) {
+            destino = ((MiniLenguajeParser.AsignacionContext) t).ID().getText();
+        } else if (t instanceof MiniLenguajeParser.AsignacionForContext) {
+            destino = ((MiniLenguajeParser.AsignacionForContext) t).ID().getText();
+        } else if (t instanceof MiniLenguajeParser.DeclaracionVariableContext) {
+            destino = ((MiniLenguajeParser.DeclaracionVariableContext) t).ID().getText();
+        } else if (t instanceof MiniLenguajeParser.DeclaracionForContext) {
+            destino = ((MiniLenguajeParser.DeclaracionForContext) t).ID().getText();
+        } else if (t instanceof MiniLenguajeParser.ActualizacionForContext) {
+            MiniLenguajeParser.ActualizacionForContext a = (MiniLenguajeParser.ActualizacionForContext) t;
+            destino = a.ID() != null ? a.ID().getText() : null;
+        } else if (t instanceof MiniLenguajeParser.ExpPreIncrementoContext
+                || t instanceof MiniLenguajeParser.ExpPreDecrementoContext
+                || t instanceof MiniLenguajeParser.ExpPostIncrementoContext
+                || t instanceof MiniLenguajeParser.ExpPostDecrementoContext) {
+            // ++i / --i  o  i++ / i--
+            String primero = t.getChild(0).getText();
+            destino = primero.equals("++") || primero.equals("--") ? t.getChild(1).getText() : primero;
+        }
+        if (variable.equals(destino)) {
+            return true;
+        }
+        for (int i = 0; i < t.getChildCount(); i++) {
+            if (escribe(t.getChild(i), variable)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,9 +1,23 @@
 package com.compilador;
 
+import com.compilador.c3d.Operacion;
+import com.compilador.jfr.EventoFuncion;
+import com.compilador.perfil.Perfil;
+import com.compilador.semantico.Simbolo;
 import com.compilador.semantico.TablaSimbolos;
-import org.antlr.v4.runtime.tree.AbstractParseTreeVisitor;
+import com.compilador.semantico.Tipos;
+import com.compilador.traza.Nivel;
+import com.compilador.traza.Traza;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * Visitor que recorre el AST y, apoyándose en {@link GeneradorCodigo},
@@ -15,19 +29,124 @@ import java.util.List;
  *     (por ejemplo: <code>int y = 10;</code>).</li>
  *     <li>Soporte para la variante usada en la cabecera de un <code>for</code>.</li>
  *     <li>Se mantiene compatibilidad con el resto de las construcciones ya procesadas.</li>
+ *     <li>Cada función se emite en su propio {@link BufferFuncion}, lo que permite
+ *     generar funciones en paralelo ({@link #generarEnParalelo}).</li>
+ *     <li>Los mensajes de seguimiento van a una {@link Traza} en nivel TRAZA y
+ *     sólo se arman si ese nivel está habilitado.</li>
+ *     <li>Cada función generada emite un {@link EventoFuncion} de JFR.</li>
+ *     <li>Las condiciones de <code>if</code>, <code>while</code> y <code>for</code> se
+ *     generan como saltos con cortocircuito ({@link #generarCondicion}).</li>
+ *     <li>Las llamadas emiten <code>t = call f, n</code>; un <code>return f(...)</code>
+ *     es una llamada en cola ({@link #generarLlamadaEnCola}).</li>
+ *     <li>Los <code>for</code> con cantidad de vueltas constante se desenrollan
+ *     dentro de un presupuesto de tamaño ({@link #desenrollar}); con un perfil
+ *     ({@link #setPerfil}) el presupuesto crece en las funciones calientes y
+ *     las que no se ejecutaron no se desenrollan.</li>
+ *     <li>Con los tipos de la tabla de símbolos las operaciones salen tipadas
+ *     ({@link Operacion}: IADD, DLT, …) y los int que se mezclan con double se
+ *     convierten con I2D. Si un tipo no se conoce queda el operador sin tipo.</li>
  * </ul>
  */
 public class CodigoVisitor extends MiniLenguajeParserBaseVisitor<String> {
-    private final GeneradorCodigo gen = new GeneradorCodigo();
+    private final GeneradorCodigo generador;
     private final TablaSimbolos tabla;
+    private final Traza traza;
+
+    /** Buffer de la función que se está generando */
+    private BufferFuncion gen;
+    /** Declaración de la función que se está generando (llamadas en cola, ámbito de los nombres) */
+    private MiniLenguajeParser.DeclaracionFuncionContext funcion;
+    /** Tipo de cada temporal de la función que se está generando */
+    private Map<String, String> tiposTemporales = new HashMap<>();
+    /** Perfil de una ejecución anterior, o null */
+    private Perfil perfil;
 
     public CodigoVisitor(TablaSimbolos tabla) {
+        this(tabla, new GeneradorCodigo());
+    }
+
+    public CodigoVisitor(TablaSimbolos tabla, GeneradorCodigo generador) {
+        this(tabla, generador, Traza.NULA);
+    }
+
+    public CodigoVisitor(TablaSimbolos tabla, GeneradorCodigo generador, Traza traza) {
         this.tabla = tabla;
-        System.out.println("🎯 VISITOR: Iniciado con tabla de símbolos");
+        this.generador = generador;
+        this.traza = traza;
+        if (traza.habilitado(Nivel.TRAZA)) {
+            traza.emitir(Nivel.TRAZA, "🎯 VISITOR: Iniciado con tabla de símbolos");
+        }
     }
 
     public GeneradorCodigo getGenerador() {
-        return gen;
+        return generador;
+    }
+
+    /** Perfil de una ejecución anterior para decidir cuánto desenrollar en cada función */
+    public void setPerfil(Perfil perfil) {
+        this.perfil = perfil;
+    }
+
+    /**
+     * Genera una función en un buffer propio SIN registrarlo en el generador.
+     * Cada llamada usa un buffer nuevo, así que varios visitors pueden
+     * procesar funciones distintas al mismo tiempo.
+     */
+    public BufferFuncion generarFuncion(MiniLenguajeParser.DeclaracionFuncionContext ctx) {
+        BufferFuncion anterior = gen;
+        MiniLenguajeParser.DeclaracionFuncionContext funcionAnterior = funcion;
+        Map<String, String> tiposAnteriores = tiposTemporales;
+        BufferFuncion buffer = new BufferFuncion(ctx.ID().getText());
+        EventoFuncion evento = new EventoFuncion();
+        evento.begin();
+        gen = buffer;
+        funcion = ctx;
+        tiposTemporales = new HashMap<>();
+        try {
+            emitirFuncion(ctx);
+        } finally {
+            gen = anterior;
+            funcion = funcionAnterior;
+            tiposTemporales = tiposAnteriores;
+        }
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.funcion = buffer.getNombre();
+            evento.linea = ctx.getStart().getLine();
+            evento.instrucciones = buffer.getCodigo().size();
+            evento.temporales = buffer.getNumTemporales();
+            evento.commit();
+        }
+        return buffer;
+    }
+
+    /**
+     * Genera cada función del programa en una tarea del pool y enlaza los
+     * buffers en orden de declaración, así el resultado no depende del
+     * orden en que terminen los hilos.
+     *
+     * @param traza  salida de los eventos de generación ({@link Traza#NULA} para ninguna)
+     * @param perfil perfil de ejecución para decidir cuánto desenrollar, o null
+     */
+    public static GeneradorCodigo generarEnParalelo(MiniLenguajeParser.ProgramaContext prog,
+                                                    TablaSimbolos tabla,
+                                                    ExecutorService pool,
+                                                    Traza traza,
+                                                    Perfil perfil)
+            throws InterruptedException, ExecutionException {
+        GeneradorCodigo generador = new GeneradorCodigo(traza);
+        List<Future<BufferFuncion>> pendientes = new ArrayList<>();
+        for (MiniLenguajeParser.DeclaracionFuncionContext fCtx : prog.declaracionFuncion()) {
+            pendientes.add(pool.submit(() -> {
+                CodigoVisitor cv = new CodigoVisitor(tabla, generador, traza);
+                cv.setPerfil(perfil);
+                return cv.generarFuncion(fCtx);
+            }));
+        }
+        for (Future<BufferFuncion> f : pendientes) {
+            generador.agregarFuncion(f.get());
+        }
+        return generador;
     }
 
     // ------------------------------------------------------------
@@ -44,11 +163,17 @@ public class CodigoVisitor extends MiniLenguajeParserBaseVisitor<String> {
 
     @Override
     public String visitDeclaracionFuncion(MiniLenguajeParser.DeclaracionFuncionContext ctx) {
+        generador.agregarFuncion(generarFuncion(ctx));
+        return null;
+    }
+
+    private void emitirFuncion(MiniLenguajeParser.DeclaracionFuncionContext ctx) {
         String fn = ctx.ID().getText();
-        System.out.println("🎯 VISITOR: Encontré función -> " + fn);
+        if (traza.habilitado(Nivel.TRAZA)) {
+            traza.emitir(Nivel.TRAZA, "🎯 VISITOR: Encontré función -> " + fn);
+        }
         gen.genLabel("func_" + fn);
         visit(ctx.bloque());
-        return null;
     }
 
     // ------------------------------------------------------------
@@ -75,8 +200,10 @@ public class CodigoVisitor extends MiniLenguajeParserBaseVisitor<String> {
         String nombre = ctx.ID().getText();
         String valor  = visit(ctx.expresion()); // la expresión ya recursó y dejó C3D listo
 
-        System.out.println("🎯 VISITOR: Declaración con init -> " + nombre + " = " + valor);
-        gen.genAsignacion(nombre, valor);
+        if (traza.habilitado(Nivel.TRAZA)) {
+            traza.emitir(Nivel.TRAZA, "🎯 VISITOR: Declaración con init -> " + nombre + " = " + valor);
+        }
+        gen.genAsignacion(nombre, convertir(valor, ctx.tipo().getText()));
         return null;
     }
 
@@ -95,8 +222,10 @@ public class CodigoVisitor extends MiniLenguajeParserBaseVisitor<String> {
         String nombre = ctx.ID().getText();
         String valor  = visit(ctx.expresion());
 
-        System.out.println("🎯 VISITOR: Declaración‑for con init -> " + nombre + " = " + valor);
-        gen.genAsignacion(nombre, valor);
+        if (traza.habilitado(Nivel.TRAZA)) {
+            traza.emitir(Nivel.TRAZA, "🎯 VISITOR: Declaración‑for con init -> " + nombre + " = " + valor);
+        }
+        gen.genAsignacion(nombre, convertir(valor, ctx.tipo().getText()));
         return null;
     }
 
@@ -108,39 +237,44 @@ public class CodigoVisitor extends MiniLenguajeParserBaseVisitor<String> {
     public String visitAsignacion(MiniLenguajeParser.AsignacionContext ctx) {
         String var = ctx.ID().getText();
         String val = visit(ctx.expresion());
-        System.out.println("🎯 VISITOR: Generando asignación -> " + var + " = " + val);
-        gen.genAsignacion(var, val);
+        if (traza.habilitado(Nivel.TRAZA)) {
+            traza.emitir(Nivel.TRAZA, "🎯 VISITOR: Generando asignación -> " + var + " = " + val);
+        }
+        gen.genAsignacion(var, convertir(val, tipoDe(var)));
         return null;
     }
 
     @Override
     public String visitIfStmt(MiniLenguajeParser.IfStmtContext ctx) {
-        System.out.println("🎯 VISITOR: Encontré sentencia IF");
-        String cond  = visit(ctx.expresion());
+        if (traza.habilitado(Nivel.TRAZA)) {
+            traza.emitir(Nivel.TRAZA, "🎯 VISITOR: Encontré sentencia IF");
+        }
         String elseL = gen.newLabel();
-        String endL  = gen.newLabel();
-
-        gen.genIfFalse(cond, elseL);
+        generarCondicion(ctx.expresion(), null, elseL);
         visit(ctx.bloque(0));            // bloque del IF
-        gen.genGoto(endL);
-        gen.genLabel(elseL);
 
-        if (ctx.ELSE() != null) {
-            visit(ctx.bloque(1));        // bloque del ELSE
+        if (ctx.ELSE() == null) {
+            gen.genLabel(elseL);
+            return null;
         }
+        String endL = gen.newLabel();
+        gen.genGoto(endL);
+        gen.genLabel(elseL);
+        visit(ctx.bloque(1));            // bloque del ELSE
         gen.genLabel(endL);
         return null;
     }
 
     @Override
     public String visitWhileStmt(MiniLenguajeParser.WhileStmtContext ctx) {
-        System.out.println("🎯 VISITOR: Encontré sentencia WHILE");
+        if (traza.habilitado(Nivel.TRAZA)) {
+            traza.emitir(Nivel.TRAZA, "🎯 VISITOR: Encontré sentencia WHILE");
+        }
         String startL = gen.newLabel();
         String endL   = gen.newLabel();
         gen.genLabel(startL);
 
-        String cond = visit(ctx.expresion());
-        gen.genIfFalse(cond, endL);
+        generarCondicion(ctx.expresion(), null, endL);
 
         visit(ctx.bloque());
         gen.genGoto(startL);
@@ -150,7 +284,13 @@ public class CodigoVisitor extends MiniLenguajeParserBaseVisitor<String> {
 
     @Override
     public String visitForStmt(MiniLenguajeParser.ForStmtContext ctx) {
-        System.out.println("🎯 VISITOR: Encontré sentencia FOR");
+        if (traza.habilitado(Nivel.TRAZA)) {
+            traza.emitir(Nivel.TRAZA, "🎯 VISITOR: Encontré sentencia FOR");
+        }
+        CicloContado ciclo = CicloContado.analizar(ctx);
+        if (ciclo != null && desenrollar(ctx, ciclo)) {
+            return null;
+        }
         String startL = gen.newLabel();
         String endL   = gen.newLabel();
 
@@ -159,8 +299,7 @@ public class CodigoVisitor extends MiniLenguajeParserBaseVisitor<String> {
         gen.genLabel(startL);
 
         // condición
-        String cond = visit(ctx.expresion());
-        gen.genIfFalse(cond, endL);
+        generarCondicion(ctx.expresion(), null, endL);
 
         // cuerpo
         visit(ctx.bloque());
@@ -172,6 +311,248 @@ public class CodigoVisitor extends MiniLenguajeParserBaseVisitor<String> {
         return null;
     }
 
+    @Override
+    public String visitAsignacionFor(MiniLenguajeParser.AsignacionForContext ctx) {
+        String var = ctx.ID().getText();
+        gen.genAsignacion(var, convertir(visit(ctx.expresion()), tipoDe(var)));
+        return null;
+    }
+
+    /** i = expr  |  i++ / ++i  |  i-- / --i */
+    @Override
+    public String visitActualizacionFor(MiniLenguajeParser.ActualizacionForContext ctx) {
+        if (ctx.asignacionFor() != null) {
+            return visit(ctx.asignacionFor());
+        }
+        String var = ctx.ID().getText();
+        String t = operar(ctx.PLUSPLUS() != null ? "+" : "-", var, "1");
+        gen.genAsignacion(var, t);
+        return null;
+    }
+
+    // ------------------------------------------------------------
+    // Desenrollado de ciclos contados
+    // ------------------------------------------------------------
+
+    /** Vueltas hasta las que un ciclo se desenrolla completo */
+    static final int MAX_VUELTAS_COMPLETO = 16;
+    /** Copias del cuerpo por vuelta del ciclo desenrollado en parte */
+    static final int FACTOR_PARCIAL = 4;
+    /** Tamaño máximo, en tokens del cuerpo, de las copias que agrega un desenrollado */
+    static final int PRESUPUESTO_TOKENS = 256;
+    /** Multiplica el presupuesto en las funciones calientes del perfil */
+    static final int FACTOR_CALIENTE = 4;
+
+    /**
+     * Desenrolla un {@link CicloContado} si entra en el presupuesto:
+     * <ul>
+     *     <li>Completo: inicialización y las N copias de cuerpo + actualización, sin
+     *     etiquetas ni saltos.</li>
+     *     <li>En parte: un ciclo con {@link #FACTOR_PARCIAL} (o menos) copias por vuelta
+     *     que recorre las primeras vueltas múltiplo del factor, y el resto como epílogo
+     *     sin ciclo. Como N se conoce, el epílogo no necesita ninguna prueba. Las copias
+     *     del ciclo y las del epílogo juntas entran en el presupuesto; si con
+     *     {@link #FACTOR_PARCIAL} no entran se prueba con un factor menor.</li>
+     * </ul>
+     * Con perfil, en una función caliente el presupuesto es
+     * {@link #FACTOR_CALIENTE} veces mayor y en una que no se ejecutó no se
+     * desenrolla, así el código crece donde se ejecuta.
+     *
+     * @return false si no conviene desenrollar; en ese caso no se generó nada
+     */
+    private boolean desenrollar(MiniLenguajeParser.ForStmtContext ctx, CicloContado ciclo) {
+        long vueltas = ciclo.vueltas();
+        int tamanio = Math.max(1, ciclo.tamanio());
+        int presupuesto = PRESUPUESTO_TOKENS;
+        if (perfil != null && funcion != null) {
+            String nombre = funcion.ID().getText();
+            if (perfil.esFria(nombre)) {
+                return false;
+            }
+            if (perfil.esCaliente(nombre)) {
+                presupuesto *= FACTOR_CALIENTE;
+            }
+        }
+        if (vueltas <= MAX_VUELTAS_COMPLETO && vueltas * tamanio <= presupuesto) {
+            if (traza.habilitado(Nivel.TRAZA)) {
+                traza.emitir(Nivel.TRAZA, "🎯 VISITOR: FOR desenrollado completo (" + vueltas + " vueltas)");
+            }
+            visit(ctx.forInit());
+            copiarCuerpo(ctx, vueltas);
+            return true;
+        }
+        int factor = (int) Math.min(FACTOR_PARCIAL, presupuesto / tamanio);
+        while (factor >= 2 && (factor + vueltas % factor) * tamanio > presupuesto) {
+            factor--;
+        }
+        if (factor < 2 || vueltas < 2L * factor) {
+            return false;
+        }
+        if (traza.habilitado(Nivel.TRAZA)) {
+            traza.emitir(Nivel.TRAZA, "🎯 VISITOR: FOR desenrollado x" + factor + " (" + vueltas + " vueltas)");
+        }
+        long resto = vueltas % factor;
+        String limite = String.valueOf(ciclo.valorTras(vueltas - resto));
+        String startL = gen.newLabel();
+        String endL   = gen.newLabel();
+
+        visit(ctx.forInit());
+        gen.genLabel(startL);
+        saltarSi(ciclo.paso() > 0 ? ">=" : "<=", false, ciclo.variable(), limite, endL);
+        copiarCuerpo(ctx, factor);
+        gen.genGoto(startL);
+        gen.genLabel(endL);
+        copiarCuerpo(ctx, resto);     // epílogo
+        return true;
+    }
+
+    private void copiarCuerpo(MiniLenguajeParser.ForStmtContext ctx, long copias) {
+        for (long k = 0; k < copias; k++) {
+            visit(ctx.bloque());
+            visit(ctx.actualizacionFor());
+        }
+    }
+
+    // ------------------------------------------------------------
+    // Condiciones (código de saltos)
+    // ------------------------------------------------------------
+
+    /**
+     * Genera una condición como saltos en lugar de calcular un booleano:
+     * <ul>
+     *     <li>Los operadores relacionales saltan directamente
+     *     (<code>if a &lt; b goto L</code>).</li>
+     *     <li><code>&amp;&amp;</code> y <code>||</code> se evalúan en cortocircuito:
+     *     el operando derecho no se ejecuta si el izquierdo ya decide.</li>
+     *     <li><code>!</code> no genera código: intercambia los destinos.</li>
+     *     <li>Cualquier otra expresión se calcula y se prueba su valor.</li>
+     * </ul>
+     * Un destino <code>null</code> significa "seguir con la instrucción siguiente";
+     * nunca son null los dos a la vez.
+     */
+    private void generarCondicion(MiniLenguajeParser.ExpresionContext ctx, String verdadero, String falso) {
+        if (ctx instanceof MiniLenguajeParser.ExpParentesisContext) {
+            generarCondicion(((MiniLenguajeParser.ExpParentesisContext) ctx).expresion(), verdadero, falso);
+            return;
+        }
+        if (ctx instanceof MiniLenguajeParser.ExpUnariaContext) {
+            generarCondicion(((MiniLenguajeParser.ExpUnariaContext) ctx).expresion(), falso, verdadero);
+            return;
+        }
+        if (ctx instanceof MiniLenguajeParser.ExpBinariaContext) {
+            MiniLenguajeParser.ExpBinariaContext bin = (MiniLenguajeParser.ExpBinariaContext) ctx;
+            String op = bin.operadorBinario().getText();
+            if (op.equals("&&")) {
+                // Si el izquierdo es falso ya no se evalúa el derecho
+                String salida = falso != null ? falso : gen.newLabel();
+                generarCondicion(bin.expresion(0), null, salida);
+                generarCondicion(bin.expresion(1), verdadero, falso);
+                if (falso == null) {
+                    gen.genLabel(salida);
+                }
+                return;
+            }
+            if (op.equals("||")) {
+                // Si el izquierdo es verdadero ya no se evalúa el derecho
+                String salida = verdadero != null ? verdadero : gen.newLabel();
+                generarCondicion(bin.expresion(0), salida, null);
+                generarCondicion(bin.expresion(1), verdadero, falso);
+                if (verdadero == null) {
+                    gen.genLabel(salida);
+                }
+                return;
+            }
+            String relacional = normalizarRelacional(op);
+            if (relacional != null) {
+                String left  = visit(bin.expresion(0));
+                String right = visit(bin.expresion(1));
+                if (verdadero == null && sePuedeNegar(relacional, left, right)) {
+                    saltarSi(relacional, true, left, right, falso);
+                    return;
+                }
+                if (verdadero == null) {
+                    // Con NaN a < b y a >= b son falsas: se salta por la condición tal cual
+                    String entonces = gen.newLabel();
+                    saltarSi(relacional, false, left, right, entonces);
+                    gen.genGoto(falso);
+                    gen.genLabel(entonces);
+                    return;
+                }
+                saltarSi(relacional, false, left, right, verdadero);
+                if (falso != null) {
+                    gen.genGoto(falso);
+                }
+                return;
+            }
+        }
+        String valor = visit(ctx);
+        if (verdadero == null) {
+            gen.genIfFalse(valor, falso);
+            return;
+        }
+        gen.genIf(valor, verdadero);
+        if (falso != null) {
+            gen.genGoto(falso);
+        }
+    }
+
+    /**
+     * Si saltar por la relacional opuesta equivale a no saltar por ésta: sólo
+     * con int y char. Con double no, porque con NaN ambas son falsas; sin
+     * tipos (sin análisis semántico) se niega salvo que un operando sea double.
+     */
+    private boolean sePuedeNegar(String relacional, String left, String right) {
+        String tl = tipoDe(left), tr = tipoDe(right);
+        Operacion o = operacion(relacional, tl, tr);
+        if (o != null && o.esRelacional()) {
+            return !o.esDoble();
+        }
+        return !Tipos.DOUBLE.equals(tl) && !Tipos.DOUBLE.equals(tr);
+    }
+
+    /**
+     * <code>if left op right goto label</code> con la relacional tipada, o su
+     * opuesta si {@code negar}; con {@code negar} el llamador ya verificó
+     * {@link #sePuedeNegar}.
+     */
+    private void saltarSi(String relacional, boolean negar, String left, String right, String label) {
+        Operacion o = operacion(relacional, tipoDe(left), tipoDe(right));
+        if (o == null || !o.esRelacional()) {
+            gen.genIfRelacional(negar ? negarRelacional(relacional) : relacional, left, right, label);
+            return;
+        }
+        if (o.esDoble()) {
+            left  = convertir(left, Tipos.DOUBLE);
+            right = convertir(right, Tipos.DOUBLE);
+        }
+        gen.genIfRelacional((negar ? o.negada() : o).name(), left, right, label);
+    }
+
+    /** Forma canónica de un operador relacional (=&gt; y =&lt; son alias), o null si no lo es */
+    private static String normalizarRelacional(String op) {
+        switch (op) {
+            case ">": case "<": case ">=": case "<=": case "==": case "!=":
+                return op;
+            case "=>":
+                return ">=";
+            case "=<":
+                return "<=";
+            default:
+                return null;
+        }
+    }
+
+    private static String negarRelacional(String op) {
+        switch (op) {
+            case ">":  return "<=";
+            case "<":  return ">=";
+            case ">=": return "<";
+            case "<=": return ">";
+            case "==": return "!=";
+            default:   return "==";
+        }
+    }
+
     // ------------------------------------------------------------
     // Expresiones
     // ------------------------------------------------------------
@@ -181,7 +562,22 @@ public class CodigoVisitor extends MiniLenguajeParserBaseVisitor<String> {
         String op    = ctx.operadorBinario().getText();
         String left  = visit(ctx.expresion(0));
         String right = visit(ctx.expresion(1));
-        return gen.genOperacionBinaria(op, left, right);
+        return operar(op, left, right);
+    }
+
+    @Override
+    public String visitExpUnaria(MiniLenguajeParser.ExpUnariaContext ctx) {
+        return temporal(gen.genOperacionUnaria("!", visit(ctx.expresion())), Tipos.INT);
+    }
+
+    @Override
+    public String visitExpDecimal(MiniLenguajeParser.ExpDecimalContext ctx) {
+        return ctx.DECIMAL().getText();
+    }
+
+    @Override
+    public String visitExpCaracter(MiniLenguajeParser.ExpCaracterContext ctx) {
+        return ctx.CHARACTER().getText();
     }
 
     @Override
@@ -205,10 +601,19 @@ public class CodigoVisitor extends MiniLenguajeParserBaseVisitor<String> {
 
     @Override
     public String visitRetorno(MiniLenguajeParser.RetornoContext ctx) {
-        System.out.println("🎯 VISITOR: Encontré RETURN");
+        if (traza.habilitado(Nivel.TRAZA)) {
+            traza.emitir(Nivel.TRAZA, "🎯 VISITOR: Encontré RETURN");
+        }
+        MiniLenguajeParser.LlamadaContext enCola = llamadaEnCola(ctx.expresion());
+        // Si el resultado hay que convertirlo (int → double) la llamada ya no es lo último
+        if (enCola != null && !Tipos.requiereConversion(funcion.tipo().getText(),
+                tipoDeRetorno(enCola.ID().getText()))) {
+            generarLlamadaEnCola(enCola);
+            return null;
+        }
         if (ctx.expresion() != null) {
             String v = visit(ctx.expresion());
-            gen.genAsignacion("return", v);
+            gen.genAsignacion("return", convertir(v, funcion.tipo().getText()));
         } else {
             gen.genAsignacion("return", "");
         }
@@ -217,16 +622,169 @@ public class CodigoVisitor extends MiniLenguajeParserBaseVisitor<String> {
 
     @Override
     public String visitLlamada(MiniLenguajeParser.LlamadaContext ctx) {
-        System.out.println("🎯 VISITOR: Encontré LLAMADA a función");
+        if (traza.habilitado(Nivel.TRAZA)) {
+            traza.emitir(Nivel.TRAZA, "🎯 VISITOR: Encontré LLAMADA a función");
+        }
         String fn = ctx.ID().getText();
         List<MiniLenguajeParser.ExpresionContext> args = ctx.expresion();
-        for (MiniLenguajeParser.ExpresionContext e : args) {
-            String aVal = visit(e);
-            gen.genAsignacion("param", aVal);
+        emitirArgumentos(fn, args);
+        String temp = temporal(gen.genLlamada(fn, args.size()), tipoDeRetorno(fn));
+        if (traza.habilitado(Nivel.TRAZA)) {
+            traza.emitir(Nivel.TRAZA, "🔧 GENERADOR: Generando llamada " + fn + " -> " + temp);
         }
-        String temp = gen.newTemp();
-        // Aquí se podría generar una instrucción específica de llamada "call" si se necesitara
-        System.out.printf("🔧 GENERADOR: Generando llamada %s -> %s%n", fn, temp);
         return temp;
     }
+
+    /** La llamada de un <code>return f(...)</code> (con o sin paréntesis), o null */
+    private static MiniLenguajeParser.LlamadaContext llamadaEnCola(MiniLenguajeParser.ExpresionContext e) {
+        while (e instanceof MiniLenguajeParser.ExpParentesisContext) {
+            e = ((MiniLenguajeParser.ExpParentesisContext) e).expresion();
+        }
+        return e instanceof MiniLenguajeParser.ExpLlamadaContext
+                ? ((MiniLenguajeParser.ExpLlamadaContext) e).llamada()
+                : null;
+    }
+
+    /**
+     * <code>return f(...)</code>:
+     * <ul>
+     *     <li>Si <code>f</code> es la propia función, los argumentos se asignan a los
+     *     parámetros y se salta a <code>func_f</code>: la recursión se vuelve un ciclo.
+     *     Todos los argumentos se evalúan antes de pisar un parámetro, y uno que es
+     *     directamente otro parámetro (<code>f(b, a)</code>) se copia antes a un temporal.</li>
+     *     <li>Si no, se emite <code>tailcall f, n</code>, que reutiliza el marco actual.</li>
+     * </ul>
+     */
+    private void generarLlamadaEnCola(MiniLenguajeParser.LlamadaContext ctx) {
+        String fn = ctx.ID().getText();
+        List<MiniLenguajeParser.ExpresionContext> args = ctx.expresion();
+        List<MiniLenguajeParser.ParametroContext> params = funcion.parametros() != null
+                ? funcion.parametros().parametro()
+                : List.of();
+        if (!fn.equals(funcion.ID().getText()) || args.size() != params.size()) {
+            emitirArgumentos(fn, args);
+            if (traza.habilitado(Nivel.TRAZA)) {
+                traza.emitir(Nivel.TRAZA, "🔧 GENERADOR: Llamada en cola a " + fn);
+            }
+            gen.genLlamadaCola(fn, args.size());
+            return;
+        }
+
+        if (traza.habilitado(Nivel.TRAZA)) {
+            traza.emitir(Nivel.TRAZA, "🔧 GENERADOR: Recursión en cola de " + fn + " -> ciclo");
+        }
+        Set<String> nombres = new HashSet<>();
+        for (MiniLenguajeParser.ParametroContext p : params) {
+            nombres.add(p.ID().getText());
+        }
+        List<String> valores = new ArrayList<>(args.size());
+        for (int i = 0; i < args.size(); i++) {
+            String v = convertir(visit(args.get(i)), params.get(i).tipo().getText());
+            if (nombres.contains(v) && !v.equals(params.get(i).ID().getText())) {
+                String t = gen.newTemp();
+                gen.genAsignacion(t, v);
+                v = t;
+            }
+            valores.add(v);
+        }
+        for (int i = 0; i < params.size(); i++) {
+            String p = params.get(i).ID().getText();
+            if (!p.equals(valores.get(i))) {
+                gen.genAsignacion(p, valores.get(i));
+            }
+        }
+        gen.genGoto("func_" + fn);
+    }
+
+    // ------------------------------------------------------------
+    // Tipos
+    // ------------------------------------------------------------
+
+    /**
+     * t = left op right con la operación tipada según los tipos de los operandos
+     * (convirtiendo a double el que haga falta). Si algún tipo no se conoce
+     * (error semántico, cadena, tabla vacía) se emite el operador sin tipo.
+     */
+    private String operar(String op, String left, String right) {
+        Operacion o = operacion(op, tipoDe(left), tipoDe(right));
+        if (o == null) {
+            return gen.genOperacionBinaria(op, left, right);
+        }
+        if (o.esDoble()) {
+            left  = convertir(left, Tipos.DOUBLE);
+            right = convertir(right, Tipos.DOUBLE);
+        }
+        return temporal(gen.genOperacionBinaria(o.name(), left, right), o.getTipoResultado());
+    }
+
+    /** Operación tipada para {@code tl op tr}, con las reglas de {@link Tipos}, o null */
+    private static Operacion operacion(String op, String tl, String tr) {
+        if (tl == null || tr == null) {
+            return null;
+        }
+        if (op.equals("&&") || op.equals("||")) {
+            return tl.equals(Tipos.DOUBLE) || tr.equals(Tipos.DOUBLE) ? null : Operacion.binaria(op, false);
+        }
+        String tipo = Tipos.binario(op, tl, tr);
+        return tipo == null ? null : Operacion.binaria(op, tl.equals(Tipos.DOUBLE) || tr.equals(Tipos.DOUBLE));
+    }
+
+    /** {@code valor} listo para guardarse en un {@code tipoDestino}: agrega I2D si es int o char y va a double */
+    private String convertir(String valor, String tipoDestino) {
+        if (!Tipos.requiereConversion(tipoDestino, tipoDe(valor))) {
+            return valor;
+        }
+        if (Character.isDigit(valor.charAt(0))) {
+            return valor + ".0";   // literal entero: se convierte al generar
+        }
+        return temporal(gen.genConversion(Operacion.I2D.name(), valor), Tipos.DOUBLE);
+    }
+
+    /** Pasa los argumentos de una llamada, convertidos a los tipos de los parámetros */
+    private void emitirArgumentos(String fn, List<MiniLenguajeParser.ExpresionContext> args) {
+        Simbolo f = tabla.buscarEnAmbitoExacto("global", fn);
+        List<String> tipos = f != null && f.getCategoria() == Simbolo.Categoria.FUNCION
+                && f.getParametros().size() == args.size() ? f.getParametros() : null;
+        for (int i = 0; i < args.size(); i++) {
+            String aVal = visit(args.get(i));
+            gen.genAsignacion("param", tipos != null ? convertir(aVal, tipos.get(i)) : aVal);
+        }
+    }
+
+    private String temporal(String t, String tipo) {
+        if (tipo != null) {
+            tiposTemporales.put(t, tipo);
+        }
+        return t;
+    }
+
+    /** Tipo de un valor ya generado (temporal, literal o variable), o null si no se conoce */
+    private String tipoDe(String valor) {
+        if (valor == null || valor.isEmpty()) {
+            return null;
+        }
+        String t = tiposTemporales.get(valor);
+        if (t != null) {
+            return t;
+        }
+        char c = valor.charAt(0);
+        if (c == '\'') {
+            return Tipos.CHAR;
+        }
+        if (Character.isDigit(c)) {
+            return valor.indexOf('.') >= 0 ? Tipos.DOUBLE : Tipos.INT;
+        }
+        Simbolo s = funcion != null ? tabla.buscarEnAmbitoExacto(funcion.ID().getText(), valor) : null;
+        if (s == null) {
+            s = tabla.buscarEnAmbitoExacto("global", valor);
+        }
+        return s != null && s.getCategoria() != Simbolo.Categoria.FUNCION ? s.getTipo() : null;
+    }
+
+    private String tipoDeRetorno(String fn) {
+        Simbolo f = tabla.buscarEnAmbitoExacto("global", fn);
+        return f != null && f.getCategoria() == Simbolo.Categoria.FUNCION && !f.getTipo().equals("void")
+                ? f.getTipo()
+                : null;
+    }
 }
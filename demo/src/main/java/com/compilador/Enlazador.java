@@ -0,0 +1,59 @@
+package com.compilador;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Enlazador de buffers por función:
+ * • Concatena los buffers en el orden recibido
+ * • Reubica los nombres locales (#tN, #LN) sumando a cada función la
+ *   cantidad de temporales y etiquetas usadas por las anteriores
+ * El resultado es idéntico al que produciría un único contador global.
+ */
+public final class Enlazador {
+
+    private Enlazador() { }
+
+    public static List<String> enlazar(List<BufferFuncion> funciones) {
+        int total = 0;
+        for (BufferFuncion f : funciones) {
+            total += f.getCodigo().size();
+        }
+        List<String> out = new ArrayList<>(total);
+        int baseTemp  = 0;
+        int baseLabel = 0;
+        for (BufferFuncion f : funciones) {
+            for (String instr : f.getCodigo()) {
+                out.add(reubicar(instr, baseTemp, baseLabel));
+            }
+            baseTemp  += f.getNumTemporales();
+            baseLabel += f.getNumEtiquetas();
+        }
+        return out;
+    }
+
+    /** Reemplaza cada #tN por t(N+baseTemp) y cada #LN por L(N+baseLabel) */
+    static String reubicar(String instr, int baseTemp, int baseLabel) {
+        int i = instr.indexOf(BufferFuncion.MARCA_LOCAL);
+        if (i < 0) {
+            return instr;
+        }
+        StringBuilder sb = new StringBuilder(instr.length() + 4);
+        int desde = 0;
+        while (i >= 0) {
+            sb.append(instr, desde, i);
+            char clase = instr.charAt(i + 1);
+            int j = i + 2;
+            int n = 0;
+            while (j < instr.length() && Character.isDigit(instr.charAt(j))) {
+                n = n * 10 + (instr.charAt(j) - '0');
+                j++;
+            }
+            sb.append(clase).append(n + (clase == 't' ? baseTemp : baseLabel));
+            desde = j;
+            i = instr.indexOf(BufferFuncion.MARCA_LOCAL, desde);
+        }
+        sb.append(instr, desde, instr.length());
+        return sb.toString();
+    }
+}
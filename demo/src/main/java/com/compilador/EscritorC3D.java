@@ -0,0 +1,149 @@
+package com.compilador;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Escritor de los archivos de C3D ({@code "%3d: instr"} por línea) sin
+ * String.format:
+ * • El número de línea se arma a mano, dígito a dígito, en un buffer reutilizable
+ * • Las instrucciones ASCII se copian carácter a carácter; el resto pasa por UTF-8
+ * • Se escribe en bloques grandes a un FileChannel, o a un GZIPOutputStream
+ *   si se pidió comprimir
+ * El resultado es byte a byte igual al de la versión con String.format.
+ */
+public class EscritorC3D {
+
+    public static final String ENCABEZADO = "// Código intermedio de tres direcciones\n\n";
+
+    private static final int TAMANIO_BUFFER = 1 << 20;
+    private static final byte[] FIN_LINEA = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+
+    private final boolean gzip;
+
+    /** @param gzip si los archivos se comprimen con gzip (la ruta no se modifica) */
+    public EscritorC3D(boolean gzip) {
+        this.gzip = gzip;
+    }
+
+    public void escribir(List<String> codigo, Path ruta) throws IOException {
+        if (gzip) {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(ruta), 1 << 16)) {
+                volcar(codigo, buf -> out.write(buf.array(), 0, buf.position()));
+            }
+        } else {
+            try (FileChannel ch = FileChannel.open(ruta, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                volcar(codigo, buf -> {
+                    buf.flip();
+                    while (buf.hasRemaining()) {
+                        ch.write(buf);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Escribe en otro hilo; sirve para guardar el C3D crudo mientras se
+     * optimiza, o los dos archivos a la vez.
+     */
+    public CompletableFuture<Void> escribirAsync(List<String> codigo, Path ruta, Executor executor) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                escribir(codigo, ruta);
+            } catch (IOException ex) {
+                throw new CompletionException(ex);
+            }
+        }, executor);
+    }
+
+    /** Destino de cada bloque lleno; al volver el buffer se reutiliza desde cero */
+    private interface Destino {
+        void escribir(ByteBuffer buf) throws IOException;
+    }
+
+    private static void volcar(List<String> codigo, Destino destino) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(TAMANIO_BUFFER);
+        buf.put(ENCABEZADO.getBytes(StandardCharsets.UTF_8));
+        byte[] digitos = new byte[10];
+        for (int i = 0; i < codigo.size(); i++) {
+            String instr = codigo.get(i);
+            // Peor caso: 3 bytes UTF-8 por char, número, ": " y fin de línea
+            long necesario = 3L * instr.length() + 16;
+            if (buf.remaining() < necesario) {
+                destino.escribir(buf);
+                buf.clear();
+                if (buf.remaining() < necesario) {
+                    escribirLarga(buf, destino, i, instr, digitos);
+                    continue;
+                }
+            }
+            escribirNumero(buf, i, digitos);
+            buf.put((byte) ':').put((byte) ' ');
+            escribirTexto(buf, instr);
+            buf.put(FIN_LINEA);
+        }
+        destino.escribir(buf);
+    }
+
+    /** Instrucción que no entra en el buffer: se escribe en bloques propios */
+    private static void escribirLarga(ByteBuffer buf, Destino destino, int i, String instr,
+                                      byte[] digitos) throws IOException {
+        escribirNumero(buf, i, digitos);
+        buf.put((byte) ':').put((byte) ' ');
+        byte[] bytes = instr.getBytes(StandardCharsets.UTF_8);
+        for (int k = 0; k < bytes.length; ) {
+            if (!buf.hasRemaining()) {
+                destino.escribir(buf);
+                buf.clear();
+            }
+            int n = Math.min(buf.remaining(), bytes.length - k);
+            buf.put(bytes, k, n);
+            k += n;
+        }
+        if (buf.remaining() < FIN_LINEA.length) {
+            destino.escribir(buf);
+            buf.clear();
+        }
+        buf.put(FIN_LINEA);
+    }
+
+    /** Equivalente a {@code %3d} para n >= 0: alineado a la derecha en 3 columnas */
+    static void escribirNumero(ByteBuffer buf, int n, byte[] digitos) {
+        int len = 0;
+        do {
+            digitos[len++] = (byte) ('0' + n % 10);
+            n /= 10;
+        } while (n > 0);
+        for (int k = len; k < 3; k++) {
+            buf.put((byte) ' ');
+        }
+        while (len > 0) {
+            buf.put(digitos[--len]);
+        }
+    }
+
+    private static void escribirTexto(ByteBuffer buf, String s) {
+        int n = s.length();
+        for (int k = 0; k < n; k++) {
+            char c = s.charAt(k);
+            if (c >= 0x80) {
+                buf.put(s.substring(k).getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            buf.put((byte) c);
+        }
+    }
+}
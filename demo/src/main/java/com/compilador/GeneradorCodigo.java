@@ -1,72 +1,79 @@
 package com.compilador;
 
+import com.compilador.traza.Nivel;
+import com.compilador.traza.Traza;
+import com.compilador.traza.TrazaSalida;
+
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Constructor de código intermedio de 3 direcciones:
- * • Crea temporales (t0, t1, …)
- * • Crea etiquetas (L0, L1, …)
- * • Almacena y luego imprime las instrucciones
+ * • Cada función se genera en su propio {@link BufferFuncion}
+ *   (temporales y etiquetas locales)
+ * • Registra los buffers en orden de declaración
+ * • Al pedir el código, el {@link Enlazador} los concatena y reubica
+ *   los nombres en un espacio global (t0, t1, …, L0, L1, …)
+ * <p>
+ * El registro está sincronizado, por lo que una misma instancia puede
+ * compartirse entre hilos y reutilizarse con {@link #reiniciar()}.
  */
 public class GeneradorCodigo {
-    private final List<String> codigo = new ArrayList<>();
-    private int tempCounter  = 0;
-    private int labelCounter = 0;
+    private final List<BufferFuncion> funciones = new ArrayList<>();
 
     public GeneradorCodigo() {
-        System.out.println("🔧 GENERADOR: Iniciado");
-    }
-
-    /** Nuevo temporal tN */
-    public String newTemp() {
-        String t = "t" + tempCounter++;
-        return t;
+        this(Traza.NULA);
     }
 
-    /** Nueva etiqueta LN */
-    public String newLabel() {
-        String L = "L" + labelCounter++;
-        return L;
+    public GeneradorCodigo(Traza traza) {
+        if (traza.habilitado(Nivel.TRAZA)) {
+            traza.emitir(Nivel.TRAZA, "🔧 GENERADOR: Iniciado");
+        }
     }
 
-    /**  t = left op right */
-    public String genOperacionBinaria(String op, String left, String right) {
-        String t = newTemp();
-        String inst = t + " = " + left + " " + op + " " + right;
-        codigo.add(inst);
-        return t;
+    /** Crea y registra el buffer de una nueva función */
+    public synchronized BufferFuncion nuevaFuncion(String nombre) {
+        BufferFuncion f = new BufferFuncion(nombre);
+        funciones.add(f);
+        return f;
     }
 
-    /**  x = valor */
-    public void genAsignacion(String x, String valor) {
-        codigo.add(x + " = " + valor);
+    /** Registra un buffer generado por separado (otro hilo, caché, …) */
+    public synchronized void agregarFuncion(BufferFuncion f) {
+        funciones.add(f);
     }
 
-    /**  label: */
-    public void genLabel(String label) {
-        codigo.add(label + ":");
+    /** Copia de los buffers registrados, en orden */
+    public synchronized List<BufferFuncion> getFunciones() {
+        return new ArrayList<>(funciones);
     }
 
-    /**  if !cond goto label */
-    public void genIfFalse(String cond, String label) {
-        codigo.add("if !" + cond + " goto " + label);
+    /** Descarta todo lo generado para reutilizar el generador */
+    public synchronized void reiniciar() {
+        funciones.clear();
     }
 
-    /**  goto label */
-    public void genGoto(String label) {
-        codigo.add("goto " + label);
+    /** Imprime el código generado en la salida estándar */
+    public void imprimirCodigo() {
+        Traza salida = new TrazaSalida(System.out, Nivel.DETALLE);
+        imprimirCodigo(salida);
+        salida.vaciar();
     }
 
-    /** Imprime el código generado */
-    public void imprimirCodigo() {
-        System.out.println("\n📝 === CÓDIGO DE TRES DIRECCIONES ===");
+    /** Emite el código numerado en nivel DETALLE; si ese nivel está apagado no lo enlaza */
+    public void imprimirCodigo(Traza traza) {
+        if (!traza.habilitado(Nivel.DETALLE)) {
+            return;
+        }
+        List<String> codigo = getCodigo();
+        traza.emitir(Nivel.DETALLE, "\n📝 === CÓDIGO DE TRES DIRECCIONES ===");
         for (int i = 0; i < codigo.size(); i++) {
-            System.out.printf("%3d: %s%n", i, codigo.get(i));
+            traza.emitir(Nivel.DETALLE, String.format("%3d: %s", i, codigo.get(i)));
         }
     }
 
+    /** Código enlazado de todas las funciones registradas */
     public List<String> getCodigo() {
-        return codigo;
+        return Enlazador.enlazar(getFunciones());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,298 @@
+package com.compilador;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Grafo de llamadas de un C3D enlazado, armado a partir de las instrucciones
+ * que emite {@link CodigoVisitor} en cada llamada:
+ * • {@code t = call f, n} y {@code tailcall f, n}
+ * • {@code goto func_f} de una recursión en cola convertida en ciclo
+ * Cada función va desde su etiqueta {@code func_f:} hasta la siguiente.
+ * <p>
+ * Para cada función guarda su tamaño, a quién llama, quién la llama, si es
+ * recursiva (directa o mutuamente), si es alcanzable desde {@code main} y si
+ * es pura.
+ * <p>
+ * El lenguaje no tiene variables globales ni punteros: una función sólo
+ * escribe sus propias variables, y el único efecto visible es llamar a algo
+ * que no está en el código (printf y demás funciones externas). Por eso es
+ * pura la que no llama a ninguna externa ni a otra función impura. "Pura" no
+ * promete que termine ni que no divida por cero: quitar una llamada pura
+ * cuyo resultado no se usa puede quitar también un ciclo infinito o una
+ * división por cero, como con {@code __attribute__((const))} en C.
+ */
+public class GrafoLlamadas {
+
+    static final String PREFIJO = "func_";
+
+    /** Métricas de una función del grafo */
+    public static final class Funcion {
+        private final String nombre;
+        private final int inicio;
+        private int fin;
+        private int sitiosDeLlamada;
+        private final Set<String> llamados = new LinkedHashSet<>();
+        private final Set<String> llamadores = new LinkedHashSet<>();
+        private boolean recursiva;
+        private boolean alcanzable;
+        private boolean externas;
+        private boolean pura;
+        private boolean devuelveValor;
+
+        Funcion(String nombre, int inicio) {
+            this.nombre = nombre;
+            this.inicio = inicio;
+        }
+
+        public String getNombre() { return nombre; }
+        /** Índice de la etiqueta func_ en el código */
+        public int getInicio() { return inicio; }
+        /** Índice siguiente a su última instrucción */
+        public int getFin() { return fin; }
+        /** Instrucciones, contando la etiqueta */
+        public int getInstrucciones() { return fin - inicio; }
+        /** Llamadas que hace (call y tailcall), contando repetidas */
+        public int getSitiosDeLlamada() { return sitiosDeLlamada; }
+        public Set<String> getLlamados() { return Collections.unmodifiableSet(llamados); }
+        public Set<String> getLlamadores() { return Collections.unmodifiableSet(llamadores); }
+        /** Si no llama a ninguna función */
+        public boolean esHoja() { return llamados.isEmpty(); }
+        /** Si está en un ciclo del grafo (se llama a sí misma directa o indirectamente) */
+        public boolean esRecursiva() { return recursiva; }
+        public boolean esAlcanzable() { return alcanzable; }
+        /** Si llama a funciones que no están en el código */
+        public boolean llamaExternas() { return externas; }
+        /** Si no tiene efectos: no llama a funciones externas ni a otras impuras */
+        public boolean esPura() { return pura; }
+        /**
+         * Si tiene algún {@code return = v} o {@code tailcall}; si no (una función
+         * void), el temporal de {@code t = call f, n} no recibe ningún valor
+         */
+        public boolean devuelveValor() { return devuelveValor; }
+
+        @Override
+        public String toString() {
+            return nombre + " [" + getInstrucciones() + " instr, llama a " + llamados
+                    + ", llamada por " + llamadores + (recursiva ? ", recursiva" : "")
+                    + (pura ? ", pura" : "")
+                    + (alcanzable ? "" : ", inalcanzable") + "]";
+        }
+    }
+
+    private final Map<String, Funcion> funciones = new LinkedHashMap<>();
+    private final boolean tieneMain;
+
+    private GrafoLlamadas(List<String> codigo) {
+        Funcion actual = null;
+        for (int i = 0; i < codigo.size(); i++) {
+            String ln = codigo.get(i);
+            if (ln.startsWith(PREFIJO) && ln.endsWith(":")) {
+                if (actual != null) {
+                    actual.fin = i;
+                }
+                actual = new Funcion(ln.substring(PREFIJO.length(), ln.length() - 1), i);
+                // Con nombres repetidos (error semántico) se queda la primera
+                funciones.putIfAbsent(actual.nombre, actual);
+                continue;
+            }
+            if (actual != null && ((ln.startsWith("return = ") && ln.length() > 9) || ln.startsWith("tailcall "))) {
+                actual.devuelveValor = true;
+            }
+            String llamado = llamado(ln);
+            if (actual != null && llamado != null) {
+                actual.llamados.add(llamado);
+                if (!ln.startsWith("goto ")) {
+                    actual.sitiosDeLlamada++;
+                }
+            }
+        }
+        if (actual != null) {
+            actual.fin = codigo.size();
+        }
+        for (Funcion f : funciones.values()) {
+            // Llamadas a funciones que no están en el código (externas) no son aristas
+            f.externas = f.llamados.removeIf(n -> !funciones.containsKey(n));
+            for (String n : f.llamados) {
+                funciones.get(n).llamadores.add(f.nombre);
+            }
+        }
+        tieneMain = funciones.containsKey("main");
+        marcarAlcanzables();
+        marcarRecursivas();
+        marcarPuras();
+    }
+
+    public static GrafoLlamadas construir(List<String> codigo) {
+        return new GrafoLlamadas(codigo);
+    }
+
+    /** Función a la que transfiere el control la instrucción, o null */
+    static String llamado(String ln) {
+        int desde;
+        if (ln.startsWith("tailcall ")) {
+            desde = 9;
+        } else if (ln.startsWith("goto " + PREFIJO)) {
+            return ln.substring(5 + PREFIJO.length());
+        } else {
+            int call = ln.indexOf(" = call ");
+            if (call < 0) {
+                return null;
+            }
+            desde = call + 8;
+        }
+        int coma = ln.indexOf(", ", desde);
+        return coma < 0 ? null : ln.substring(desde, coma);
+    }
+
+    /** Funciones en orden de aparición */
+    public Collection<Funcion> getFunciones() {
+        return Collections.unmodifiableCollection(funciones.values());
+    }
+
+    public Funcion getFuncion(String nombre) {
+        return funciones.get(nombre);
+    }
+
+    /** Si hay una función main; sin ella se consideran todas alcanzables */
+    public boolean tieneMain() {
+        return tieneMain;
+    }
+
+    public int getCantidadInalcanzables() {
+        int n = 0;
+        for (Funcion f : funciones.values()) {
+            n += f.alcanzable ? 0 : 1;
+        }
+        return n;
+    }
+
+    public int getCantidadRecursivas() {
+        int n = 0;
+        for (Funcion f : funciones.values()) {
+            n += f.recursiva ? 1 : 0;
+        }
+        return n;
+    }
+
+    public int getCantidadPuras() {
+        int n = 0;
+        for (Funcion f : funciones.values()) {
+            n += f.pura ? 1 : 0;
+        }
+        return n;
+    }
+
+    /** Parte de todas puras y propaga la impureza de las que llaman externas a sus llamadores */
+    private void marcarPuras() {
+        Deque<Funcion> pendientes = new ArrayDeque<>();
+        for (Funcion f : funciones.values()) {
+            f.pura = !f.externas;
+            if (!f.pura) {
+                pendientes.push(f);
+            }
+        }
+        while (!pendientes.isEmpty()) {
+            for (String n : pendientes.pop().llamadores) {
+                Funcion g = funciones.get(n);
+                if (g.pura) {
+                    g.pura = false;
+                    pendientes.push(g);
+                }
+            }
+        }
+    }
+
+    private void marcarAlcanzables() {
+        if (!tieneMain) {
+            funciones.values().forEach(f -> f.alcanzable = true);
+            return;
+        }
+        Deque<Funcion> pendientes = new ArrayDeque<>();
+        Funcion main = funciones.get("main");
+        main.alcanzable = true;
+        pendientes.push(main);
+        while (!pendientes.isEmpty()) {
+            for (String n : pendientes.pop().llamados) {
+                Funcion g = funciones.get(n);
+                if (!g.alcanzable) {
+                    g.alcanzable = true;
+                    pendientes.push(g);
+                }
+            }
+        }
+    }
+
+    /**
+     * Componentes fuertemente conexas (Tarjan, sin recursión para no depender
+     * de la profundidad del grafo): una función es recursiva si su componente
+     * tiene más de una función o si se llama a sí misma.
+     */
+    private void marcarRecursivas() {
+        Map<String, Integer> indice = new HashMap<>();
+        Map<String, Integer> bajo = new HashMap<>();
+        Deque<String> pila = new ArrayDeque<>();
+        Set<String> enPila = new LinkedHashSet<>();
+        int siguiente = 0;
+        for (String raiz : funciones.keySet()) {
+            if (indice.containsKey(raiz)) {
+                continue;
+            }
+            Deque<Marco> marcos = new ArrayDeque<>();
+            marcos.push(new Marco(raiz, funciones.get(raiz).llamados.iterator()));
+            indice.put(raiz, siguiente);
+            bajo.put(raiz, siguiente++);
+            pila.push(raiz);
+            enPila.add(raiz);
+            while (!marcos.isEmpty()) {
+                Marco m = marcos.peek();
+                String v = m.funcion();
+                if (m.llamados().hasNext()) {
+                    String w = m.llamados().next();
+                    if (!indice.containsKey(w)) {
+                        indice.put(w, siguiente);
+                        bajo.put(w, siguiente++);
+                        pila.push(w);
+                        enPila.add(w);
+                        marcos.push(new Marco(w, funciones.get(w).llamados.iterator()));
+                    } else if (enPila.contains(w)) {
+                        bajo.put(v, Math.min(bajo.get(v), indice.get(w)));
+                    }
+                    continue;
+                }
+                marcos.pop();
+                if (!marcos.isEmpty()) {
+                    String padre = marcos.peek().funcion();
+                    bajo.put(padre, Math.min(bajo.get(padre), bajo.get(v)));
+                }
+                if (bajo.get(v).equals(indice.get(v))) {
+                    List<String> componente = new ArrayList<>();
+                    String w;
+                    do {
+                        w = pila.pop();
+                        enPila.remove(w);
+                        componente.add(w);
+                    } while (!w.equals(v));
+                    boolean ciclo = componente.size() > 1 || funciones.get(v).llamados.contains(v);
+                    for (String c : componente) {
+                        funciones.get(c).recursiva = ciclo;
+                    }
+                }
+            }
+        }
+    }
+
+    /** Función en recorrido y los llamados que faltan visitar */
+    private record Marco(String funcion, Iterator<String> llamados) {
+    }
+}
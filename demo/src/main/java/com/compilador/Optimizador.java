@@ -1,131 +1,1063 @@
 package com.compilador;
 
+import com.compilador.c3d.Instruccion;
+import com.compilador.c3d.Operacion;
+import com.compilador.jfr.EventoPasada;
+import com.compilador.metricas.Medicion;
+import com.compilador.metricas.RegistroMetricas;
+import com.compilador.perfil.Perfil;
+
 import java.util.*;
+import java.util.regex.Pattern;
 
 /**
- * Optimizador de código de tres direcciones
+ * Optimizador de código de tres direcciones.
+ * Acepta tanto código enlazado (t0, L0) como el de un único
+ * {@link BufferFuncion} con nombres locales (#t0, #L0), y tanto operaciones
+ * tipadas ({@link Operacion}) como operadores sin tipo.
+ * <p>
+ * La especialización de funciones necesita los nombres de los parámetros,
+ * que el C3D no tiene; sin ellos ({@link #Optimizador(List)}) esa pasada no hace nada.
+ * Con el perfil de una ejecución ({@link #setPerfil(Perfil)}) se ordenan los
+ * bloques y la especialización prefiere las llamadas calientes; sin perfil
+ * el orden de los bloques no cambia.
  */
 public class Optimizador {
 
+    /** Pasadas de optimización, en el orden en que las aplica {@link #optimizar()} */
+    public enum Pasada {
+        FUNCIONES_MUERTAS,
+        CODIGO_MUERTO,
+        PROPAGAR_CONSTANTES,
+        ESPECIALIZAR_FUNCIONES,
+        LLAMADAS_PURAS,
+        SIMPLIFICAR_EXPRESIONES,
+        SENTENCIAS_REDUNDANTES,
+        ORDENAR_BLOQUES
+    }
+
+    /** Veces que tiene que aparecer una misma combinación de argumentos constantes para clonar */
+    static final int MIN_LLAMADAS_CLON = 2;
+    /** Funciones con más instrucciones no se clonan */
+    static final int MAX_TAMANIO_CLON = 400;
+    /** Instrucciones que pueden agregar los clones, como fracción del código… */
+    static final double CRECIMIENTO_CLONES = 0.2;
+    /** …pero nunca menos que esto, para que un programa chico también se especialice */
+    static final int CRECIMIENTO_MINIMO = 64;
+    /** Sólo las primeras posiciones constantes de una llamada se combinan para buscar candidatos */
+    static final int MAX_POSICIONES_CLON = 4;
+    /** Separa el nombre de la función del número de clon: f.1, f.2 (no puede ser parte de un ID) */
+    public static final char SEPARADOR_CLON = '.';
+
     private List<String> codigo;
+    /** Grafo del código que recibió la pasada de funciones muertas */
+    private GrafoLlamadas grafo;
+    /** Nombres de los parámetros de cada función, o null */
+    private final Map<String, List<String>> parametros;
+    /** Frecuencias del perfil con las etiquetas de este código, o null */
+    private Perfil.Frecuencias frecuencias;
+    private int clones;
+    private int eliminadas;
+    private int bloquesMovidos;
+    private int saltosInvertidos;
 
     public Optimizador(List<String> codigo) {
+        this(codigo, null);
+    }
+
+    /**
+     * @param parametros nombres de los parámetros de cada función, en orden
+     *                   ({@link com.compilador.semantico.TablaSimbolos#getParametrosPorFuncion()})
+     */
+    public Optimizador(List<String> codigo, Map<String, List<String>> parametros) {
         // Hacemos copia defensiva
         this.codigo = new ArrayList<>(codigo);
+        this.parametros = parametros;
+    }
+
+    /**
+     * Usa el perfil de una ejecución anterior; se traduce a las etiquetas del
+     * código recibido, así que hay que darlo antes de ejecutar las pasadas
+     */
+    public void setPerfil(Perfil perfil) {
+        frecuencias = perfil != null ? perfil.aplicar(codigo) : null;
+    }
+
+    /** Frecuencias del perfil dado con {@link #setPerfil(Perfil)}, o null */
+    public Perfil.Frecuencias getFrecuencias() {
+        return frecuencias;
     }
 
     /** Ejecuta todas las pasadas de optimización */
     public List<String> optimizar() {
-        eliminarCodigoMuerto();
-        propagarConstantes();
-        simplificarExpresiones();
-        eliminarSentenciasRedundantes();
+        for (Pasada p : Pasada.values()) {
+            ejecutar(p);
+        }
+        return codigo;
+    }
+
+    /** Igual que {@link #optimizar()}, midiendo cada pasada como fase "optimizador.&lt;pasada&gt;" */
+    public List<String> optimizar(RegistroMetricas metricas) {
+        for (Pasada p : Pasada.values()) {
+            try (Medicion m = metricas.medir("optimizador." + p.name().toLowerCase())) {
+                ejecutar(p);
+            }
+        }
         return codigo;
     }
 
-    /** 1) Eliminación de código muerto */
+    /** Ejecuta una sola pasada sobre el código actual (benchmarks, métricas por pasada) */
+    public void ejecutar(Pasada pasada) {
+        EventoPasada evento = new EventoPasada();
+        int entrada = codigo.size();
+        evento.begin();
+        switch (pasada) {
+            case FUNCIONES_MUERTAS:       eliminarFuncionesMuertas(); break;
+            case ESPECIALIZAR_FUNCIONES:  especializarFunciones(); break;
+            case CODIGO_MUERTO:           eliminarCodigoMuerto(); break;
+            case PROPAGAR_CONSTANTES:     propagarConstantes(); break;
+            case LLAMADAS_PURAS:          optimizarLlamadasPuras(); break;
+            case SIMPLIFICAR_EXPRESIONES: simplificarExpresiones(); break;
+            case SENTENCIAS_REDUNDANTES:  eliminarSentenciasRedundantes(); break;
+            case ORDENAR_BLOQUES:         ordenarBloques(); break;
+        }
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.pasada = pasada.name();
+            evento.instruccionesEntrada = entrada;
+            evento.instruccionesSalida = codigo.size();
+            evento.commit();
+        }
+    }
+
+    /**
+     * Grafo de llamadas (tamaño, llamadores, recursión de cada función) del código
+     * antes de la última eliminación de funciones muertas (si hubo especialización,
+     * ya con los clones); se arma al pedirlo si esa pasada no se ejecutó
+     */
+    public GrafoLlamadas getGrafoLlamadas() {
+        if (grafo == null) {
+            grafo = GrafoLlamadas.construir(codigo);
+        }
+        return grafo;
+    }
+
+    /** Funciones inalcanzables quitadas (incluidos los originales que la especialización dejó sin llamadas) */
+    public int getFuncionesEliminadas() {
+        return eliminadas;
+    }
+
+    /** Clones creados por la especialización de funciones */
+    public int getClones() {
+        return clones;
+    }
+
+    /** Bloques que el orden por perfil cambió de lugar */
+    public int getBloquesMovidos() {
+        return bloquesMovidos;
+    }
+
+    /** Saltos que el orden por perfil invirtió para que el camino frecuente siga de largo */
+    public int getSaltosInvertidos() {
+        return saltosInvertidos;
+    }
+
+    /** Código tras las pasadas ejecutadas hasta ahora */
+    public List<String> getCodigo() {
+        return codigo;
+    }
+
+    /**
+     * 0) Eliminación de funciones que no se alcanzan desde main en el
+     * {@link GrafoLlamadas}; sin main no se quita ninguna
+     */
+    private void eliminarFuncionesMuertas() {
+        grafo = GrafoLlamadas.construir(codigo);
+        eliminadas += grafo.getCantidadInalcanzables();
+        if (grafo.getCantidadInalcanzables() == 0) return;
+        List<String> nuevo = new ArrayList<>(codigo.size());
+        int desde = 0;
+        for (GrafoLlamadas.Funcion f : grafo.getFunciones()) {
+            if (desde < f.getInicio()) {
+                // Lo que hay antes de la primera función (o entre funciones repetidas)
+                nuevo.addAll(codigo.subList(desde, f.getInicio()));
+            }
+            if (f.esAlcanzable()) {
+                nuevo.addAll(codigo.subList(f.getInicio(), f.getFin()));
+            }
+            desde = Math.max(desde, f.getFin());
+        }
+        nuevo.addAll(codigo.subList(Math.min(desde, codigo.size()), codigo.size()));
+        codigo = nuevo;
+    }
+
+    /**
+     * 1) Eliminación de código muerto: instrucciones a las que no se llega
+     * desde el inicio ni desde la etiqueta de ninguna función
+     */
     private void eliminarCodigoMuerto() {
-        Set<Integer> alcanzables = new HashSet<>();
+        boolean[] alcanzables = new boolean[codigo.size()];
         Map<String,Integer> etiquetas = new HashMap<>();
-        // Registrar etiquetas
+        Deque<Integer> pendientes = new ArrayDeque<>();
+        // Registrar etiquetas; cada función es una raíz
         for(int i=0; i<codigo.size(); i++){
             String ln = codigo.get(i);
             if(ln.endsWith(":")){
                 etiquetas.put(ln.substring(0, ln.length()-1), i);
+                if(ln.startsWith(GrafoLlamadas.PREFIJO)) pendientes.push(i);
             }
         }
-        // Marcar desde inicio
-        marcar(0, alcanzables, etiquetas);
-        // Si existe func_main, también partir de ahí
-        if(etiquetas.containsKey("func_main")){
-            marcar(etiquetas.get("func_main"), alcanzables, etiquetas);
-        }
+        pendientes.push(0);
+        marcar(pendientes, alcanzables, etiquetas);
         // Filtrar
         List<String> nuevo = new ArrayList<>();
         for(int i=0; i<codigo.size(); i++){
-            if(alcanzables.contains(i)) nuevo.add(codigo.get(i));
+            if(alcanzables[i]) nuevo.add(codigo.get(i));
         }
         codigo = nuevo;
     }
-    private void marcar(int i, Set<Integer> vis, Map<String,Integer> et) {
-        if(i<0||i>=codigo.size()||vis.contains(i)) return;
-        vis.add(i);
-        String instr = codigo.get(i);
-        if(instr.startsWith("goto ")){
-            String lbl = instr.substring(5);
-            if(et.containsKey(lbl)) marcar(et.get(lbl), vis, et);
-            return;
-        }
-        if(instr.startsWith("if ")){
-            String[] p = instr.split(" goto ");
-            if(p.length==2 && et.containsKey(p[1])) marcar(et.get(p[1]), vis, et);
+
+    /** Marca todo lo alcanzable desde las posiciones pendientes, sin recursión */
+    private void marcar(Deque<Integer> pendientes, boolean[] vis, Map<String,Integer> et) {
+        while(!pendientes.isEmpty()){
+            int i = pendientes.pop();
+            // Recorre en línea recta hasta un salto incondicional, un return o algo ya visto
+            while(i>=0 && i<codigo.size() && !vis[i]){
+                vis[i] = true;
+                String instr = codigo.get(i);
+                if(instr.startsWith("goto ")){
+                    Integer destino = et.get(instr.substring(5));
+                    if(destino != null) pendientes.push(destino);
+                    break;
+                }
+                if(instr.startsWith("if ")){
+                    String[] p = instr.split(" goto ");
+                    if(p.length==2 && et.containsKey(p[1])) pendientes.push(et.get(p[1]));
+                }
+                if(instr.equals("return")||instr.startsWith("return ")||instr.startsWith("tailcall ")) break;
+                i++;
+            }
         }
-        if(instr.equals("return")||instr.startsWith("return ")) return;
-        marcar(i+1, vis, et);
     }
 
-    /** 2) Propagación de constantes */
+    /** Literal numérico que la propagación puede copiar */
+    private static final Pattern LITERAL = Pattern.compile("-?\\d+(\\.\\d+)?");
+
+    /**
+     * 2) Propagación de constantes, dentro de cada bloque básico:
+     * • Una asignación de un literal (o de algo que ya vale un literal) registra la constante
+     * • Cualquier otra asignación a la variable la olvida
+     * • En una etiqueta se olvida todo, porque se puede llegar desde otro camino
+     * • Sólo se reemplazan operandos; nunca el destino, la función de un call
+     *   ni la etiqueta de un salto
+     * Los "t = a op b" con dos enteros se evalúan para registrar la constante
+     * (la línea la reescribe después la pasada 3), así una cadena como
+     * "i = 0; t0 = i + 1; i = t0; t1 = i + 1" se propaga en una sola vuelta.
+     */
     private void propagarConstantes() {
         Map<String,String> consts = new HashMap<>();
-        List<String> out = new ArrayList<>();
+        List<String> out = new ArrayList<>(codigo.size());
         for(String ln : codigo){
-            // asignación simple a literal?
-            if(ln.matches("\\s*\\w+\\s*=\\s*[-]?\\d+(\\.\\d+)?\\s*")){
-                String[] ps = ln.split("=");
-                String dest = ps[0].trim(), val = ps[1].trim();
-                consts.put(dest, val);
+            if(ln.endsWith(":")){
+                consts.clear();
                 out.add(ln);
                 continue;
             }
-            // reemplazar operandos
-            String mod = ln;
-            for(Map.Entry<String,String> e: consts.entrySet()){
-                mod = mod.replaceAll("\\b"+e.getKey()+"\\b", e.getValue());
+            if(ln.startsWith("if ")){
+                int g = ln.lastIndexOf(" goto ");
+                out.add(g < 0 ? ln : "if " + reemplazarOperandos(ln.substring(3, g), consts) + ln.substring(g));
+                continue;
+            }
+            int igual = ln.indexOf(" = ");
+            if(igual <= 0 || ln.startsWith("goto ") || ln.startsWith("tailcall ")){
+                out.add(ln);
+                continue;
+            }
+            String dest = ln.substring(0, igual);
+            String valor = ln.substring(igual + 3);
+            if(!valor.startsWith("call ")){
+                valor = reemplazarOperandos(valor, consts);
+            }
+            String constante = LITERAL.matcher(valor).matches() ? valor : evaluar(valor);
+            if(constante != null){
+                consts.put(dest, constante);
+            } else {
+                consts.remove(dest);
+            }
+            out.add(dest + " = " + valor);
+        }
+        codigo = out;
+    }
+
+    /** Reemplaza los operandos (separados por espacios, con o sin '!' delante) que son constantes */
+    private static String reemplazarOperandos(String expr, Map<String,String> consts) {
+        if(consts.isEmpty()) return expr;
+        String[] tk = expr.split(" ", -1);
+        boolean cambio = false;
+        for(int i=0; i<tk.length; i++){
+            boolean negado = tk[i].startsWith("!");
+            String c = consts.get(negado ? tk[i].substring(1) : tk[i]);
+            if(c != null){
+                tk[i] = negado ? "!" + c : c;
+                cambio = true;
+            }
+        }
+        return cambio ? String.join(" ", tk) : expr;
+    }
+
+    /**
+     * Valor de "a OP b" / "I2D a" con la aritmética de la operación tipada,
+     * o de "a op b" sin tipo con dos enteros; null si no se puede calcular
+     */
+    private static String evaluar(String expr) {
+        String[] tk = expr.split(" ");
+        if(tk.length == 2){
+            return Operacion.buscar(tk[0]) == Operacion.I2D ? Operacion.I2D.evaluar(tk[1], null) : null;
+        }
+        if(tk.length != 3) return null;
+        Operacion tipada = Operacion.buscar(tk[1]);
+        if(tipada != null) return tipada.evaluar(tk[0], tk[2]);
+        try {
+            int a = Integer.parseInt(tk[0]), b = Integer.parseInt(tk[2]);
+            switch(tk[1]){
+                case "+": return String.valueOf(a+b);
+                case "-": return String.valueOf(a-b);
+                case "*": return String.valueOf(a*b);
+                case "/": return b!=0 ? String.valueOf(a/b) : null;
+                case "%": return b!=0 ? String.valueOf(a%b) : null;
+                default:  return null;
+            }
+        } catch(NumberFormatException ex){
+            return null;
+        }
+    }
+
+    /**
+     * 3) Especialización: una función que se llama al menos
+     * {@value #MIN_LLAMADAS_CLON} veces con las mismas constantes en algunas
+     * posiciones (p. ej. un modo fijo: f(1, x) y f(1, 5) comparten f(1, _)) se clona como
+     * {@code f.1}, y en el clon esos parámetros se reemplazan por las
+     * constantes y se pliega: propagación, simplificación (incluidas las
+     * condiciones), código muerto y saltos redundantes. Esas llamadas pasan a llamar al clon;
+     * siguen pasando todos los argumentos, así el clon tiene los mismos
+     * parámetros que el original.
+     * <p>
+     * Las combinaciones más repetidas se clonan primero (y entre iguales la de
+     * más constantes); cada llamada se redirige a un solo clon, y se clona mientras el clon ya
+     * plegado entre en el presupuesto de crecimiento. Los clones se agregan al
+     * final y las funciones que quedan sin llamadas se eliminan. Es una sola
+     * ronda: las llamadas dentro de un clon no se vuelven a especializar, y
+     * una recursión en cola convertida en ciclo ({@code goto func_f}) vuelve
+     * al original, porque sus argumentos ya no son los constantes.
+     * <p>
+     * Con perfil cada llamada cuenta tantas veces como se ejecutó su bloque, y
+     * las que no se ejecutaron no se redirigen: una sola llamada dentro de un
+     * ciclo caliente alcanza para clonar, y el presupuesto se gasta primero
+     * en las más ejecutadas.
+     */
+    private void especializarFunciones() {
+        if (parametros == null) return;
+        GrafoLlamadas g = GrafoLlamadas.construir(codigo);
+        int n = codigo.size();
+        Instruccion[] ins = new Instruccion[n];
+        for(int i=0; i<n; i++) ins[i] = Instruccion.parsear(codigo.get(i));
+
+        // Llamadas con argumentos constantes, agrupadas por función y constantes
+        Map<String,Candidato> candidatos = new LinkedHashMap<>();
+        Deque<Integer> params = new ArrayDeque<>();
+        String bloque = null;
+        for(int i=0; i<n; i++){
+            Instruccion in = ins[i];
+            if(in.getTipo() == Instruccion.Tipo.ETIQUETA){
+                params.clear();
+                bloque = in.getOperando(0);
+                continue;
+            }
+            if(in.getTipo() == Instruccion.Tipo.COPIA && in.getOperando(0).equals("param")){
+                params.push(i);
+                continue;
+            }
+            boolean cola = in.getTipo() == Instruccion.Tipo.LLAMADA_COLA;
+            if(!cola && in.getTipo() != Instruccion.Tipo.LLAMADA) continue;
+            String f = in.getOperando(cola ? 0 : 1);
+            int[] args = desapilar(params, in.getOperando(cola ? 1 : 2));
+            List<String> nombres = parametros.get(f);
+            long peso = pesoDeLlamada(bloque);
+            if(args == null || g.getFuncion(f) == null || f.equals("main")
+                    || nombres == null || nombres.size() != args.length || peso == 0) continue;
+            List<Integer> posiciones = new ArrayList<>();
+            for(int j=0; j<args.length; j++){
+                if(LITERAL.matcher(ins[args[j]].getOperando(1)).matches()) posiciones.add(j);
+            }
+            // Cada subconjunto de las constantes es un candidato: f(1, 5) y f(1, x) comparten f(1, _)
+            int p = posiciones.size();
+            for(int mascara=1; mascara < (1 << Math.min(p, MAX_POSICIONES_CLON)); mascara++){
+                String[] constantes = new String[args.length];
+                for(int b=0; b<p; b++){
+                    if((mascara & (1 << b)) != 0) constantes[posiciones.get(b)] = ins[args[posiciones.get(b)]].getOperando(1);
+                }
+                candidatos.computeIfAbsent(f + Arrays.toString(constantes), k -> new Candidato(f, constantes))
+                        .sitios.put(i, peso);
+            }
+        }
+
+        // Más llamadas primero y, entre iguales, más constantes
+        List<Candidato> orden = new ArrayList<>();
+        for(Candidato c : candidatos.values()){
+            if(c.llamadas() >= MIN_LLAMADAS_CLON) orden.add(c);
+        }
+        if(orden.isEmpty()) return;
+        orden.sort(Comparator.comparingLong((Candidato c) -> -c.llamadas())
+                .thenComparingInt(c -> -c.cantidadConstantes()));
+        Set<Integer> redirigidos = new HashSet<>();
+
+        Renombrador nuevos = new Renombrador(codigo);
+        int presupuesto = Math.max(CRECIMIENTO_MINIMO, (int) (n * CRECIMIENTO_CLONES));
+        Map<String,Integer> numeroDeClon = new HashMap<>();
+        List<String> agregados = new ArrayList<>();
+        for(Candidato c : orden){
+            GrafoLlamadas.Funcion fn = g.getFuncion(c.funcion);
+            c.sitios.keySet().removeAll(redirigidos);
+            if(c.llamadas() < MIN_LLAMADAS_CLON || fn.getInstrucciones() > MAX_TAMANIO_CLON) continue;
+            String nombre = c.funcion + SEPARADOR_CLON + numeroDeClon.merge(c.funcion, 1, Integer::sum);
+            List<String> clon = clonar(fn, ins, nombre, c.constantes, nuevos);
+            if(clon.size() > presupuesto){
+                numeroDeClon.merge(c.funcion, -1, Integer::sum);
+                continue;
+            }
+            presupuesto -= clon.size();
+            agregados.addAll(clon);
+            clones++;
+            redirigidos.addAll(c.sitios.keySet());
+            for(int i : c.sitios.keySet()){
+                Instruccion in = ins[i];
+                ins[i] = in.getTipo() == Instruccion.Tipo.LLAMADA
+                        ? new Instruccion(Instruccion.Tipo.LLAMADA, in.getOperando(0), nombre, in.getOperando(2))
+                        : new Instruccion(Instruccion.Tipo.LLAMADA_COLA, nombre, in.getOperando(1));
             }
-            out.add(mod);
         }
+        if(agregados.isEmpty()) return;
+        List<String> out = new ArrayList<>(n + agregados.size());
+        for(Instruccion in : ins) out.add(in.toString());
+        out.addAll(agregados);
         codigo = out;
+        // Originales que quedaron sin llamadas
+        eliminarFuncionesMuertas();
     }
 
-    /** 3) Simplificación de expresiones constantes  (e.g. 2+3->5) */
+    /**
+     * Veces que se ejecuta una llamada del bloque de la etiqueta según el
+     * perfil: 0 si el bloque no se ejecutó, 1 si no hay perfil o no se conoce
+     */
+    private long pesoDeLlamada(String bloque) {
+        long veces = frecuencias != null && bloque != null ? frecuencias.getBloque(bloque) : -1;
+        return veces < 0 ? 1 : veces;
+    }
+
+    /** Llamadas a una función con las mismas constantes en las mismas posiciones */
+    private static final class Candidato {
+        final String funcion;
+        /** Argumento constante de cada posición, o null */
+        final String[] constantes;
+        /** Línea de cada llamada → veces que se ejecuta (1 sin perfil) */
+        final Map<Integer,Long> sitios = new LinkedHashMap<>();
+
+        Candidato(String funcion, String[] constantes) {
+            this.funcion = funcion;
+            this.constantes = constantes;
+        }
+
+        long llamadas() {
+            long k = 0;
+            for(long p : sitios.values()) k += p;
+            return k;
+        }
+
+        int cantidadConstantes() {
+            int k = 0;
+            for(String c : constantes) k += c != null ? 1 : 0;
+            return k;
+        }
+    }
+
+    /**
+     * Copia de la función {@code fn} como {@code nombre}, con los parámetros
+     * constantes reemplazados y ya plegada. Un parámetro que la función
+     * reasigna no se reemplaza en cada uso sino que recibe la constante al
+     * entrar. Los temporales y etiquetas de la copia son nuevos.
+     */
+    private List<String> clonar(GrafoLlamadas.Funcion fn, Instruccion[] ins, String nombre,
+                                String[] constantes, Renombrador nuevos) {
+        List<String> nombres = parametros.get(fn.getNombre());
+        Set<String> escritos = new HashSet<>();
+        for(int i=fn.getInicio()+1; i<fn.getFin(); i++){
+            String d = definido(ins[i]);
+            if(d != null) escritos.add(d);
+        }
+        List<String> clon = new ArrayList<>();
+        clon.add(GrafoLlamadas.PREFIJO + nombre + ":");
+        Map<String,String> fijos = new HashMap<>();
+        for(int j=0; j<constantes.length; j++){
+            if(constantes[j] == null) continue;
+            if(escritos.contains(nombres.get(j))) clon.add(nombres.get(j) + " = " + constantes[j]);
+            else fijos.put(nombres.get(j), constantes[j]);
+        }
+        Map<String,String> renombres = new HashMap<>();
+        for(int i=fn.getInicio()+1; i<fn.getFin(); i++){
+            clon.add(nuevos.copiar(ins[i], fijos, renombres).toString());
+        }
+        Optimizador plegado = new Optimizador(clon);
+        plegado.ejecutar(Pasada.PROPAGAR_CONSTANTES);
+        plegado.ejecutar(Pasada.SIMPLIFICAR_EXPRESIONES);
+        plegado.ejecutar(Pasada.CODIGO_MUERTO);
+        plegado.ejecutar(Pasada.SENTENCIAS_REDUNDANTES);
+        return plegado.getCodigo();
+    }
+
+    /** Da temporales y etiquetas nuevos (siguientes al mayor del código) a las copias de instrucciones */
+    private static final class Renombrador {
+        private static final Pattern NUMERADO = Pattern.compile("\\b([tL])(\\d+)\\b");
+        private int temporal = -1;
+        private int etiqueta = -1;
+
+        Renombrador(List<String> codigo) {
+            for(String ln : codigo){
+                java.util.regex.Matcher m = NUMERADO.matcher(ln);
+                while(m.find()){
+                    int k = Integer.parseInt(m.group(2));
+                    if(m.group(1).equals("t")) temporal = Math.max(temporal, k);
+                    else etiqueta = Math.max(etiqueta, k);
+                }
+            }
+        }
+
+        /**
+         * Copia de {@code in} con las lecturas de {@code fijos} reemplazadas por su
+         * constante y los temporales y etiquetas cambiados según {@code renombres}
+         * (que se completa con los nuevos)
+         */
+        Instruccion copiar(Instruccion in, Map<String,String> fijos, Map<String,String> renombres) {
+            Instruccion.Tipo tipo = in.getTipo();
+            String[] op = new String[tipo.getOperandos()];
+            for(int k=0; k<op.length; k++) op[k] = in.getOperando(k);
+            switch(tipo){
+                case ETIQUETA:
+                case SALTO:
+                    if(!op[0].startsWith(GrafoLlamadas.PREFIJO)) op[0] = nombre(op[0], renombres);
+                    break;
+                case COPIA:
+                    op[0] = nombre(op[0], renombres);
+                    op[1] = leido(op[1], fijos, renombres);
+                    break;
+                case BINARIA:
+                    op[0] = nombre(op[0], renombres);
+                    op[1] = leido(op[1], fijos, renombres);
+                    op[3] = leido(op[3], fijos, renombres);
+                    break;
+                case CONVERSION:
+                    op[0] = nombre(op[0], renombres);
+                    op[2] = leido(op[2], fijos, renombres);
+                    break;
+                case SI_FALSO:
+                case SI:
+                    op[0] = leido(op[0], fijos, renombres);
+                    op[1] = nombre(op[1], renombres);
+                    break;
+                case SI_COMPARA:
+                    op[0] = leido(op[0], fijos, renombres);
+                    op[2] = leido(op[2], fijos, renombres);
+                    op[3] = nombre(op[3], renombres);
+                    break;
+                case LLAMADA:
+                    op[0] = nombre(op[0], renombres);
+                    break;
+                default:
+                    return in;
+            }
+            return new Instruccion(tipo, op);
+        }
+
+        /** Una etiqueta que no está en el código */
+        String etiquetaNueva() {
+            return "L" + ++etiqueta;
+        }
+
+        private String leido(String op, Map<String,String> fijos, Map<String,String> renombres) {
+            boolean negado = op.startsWith("!");
+            String v = negado ? op.substring(1) : op;
+            String c = fijos.get(v);
+            v = c != null ? c : nombre(v, renombres);
+            return negado ? "!" + v : v;
+        }
+
+        /** Nombre nuevo de un temporal o etiqueta (t5, L2); cualquier otro nombre queda igual */
+        private String nombre(String op, Map<String,String> renombres) {
+            if(op.length() < 2 || (op.charAt(0) != 't' && op.charAt(0) != 'L')) return op;
+            for(int k=1; k<op.length(); k++){
+                if(!Character.isDigit(op.charAt(k))) return op;
+            }
+            return renombres.computeIfAbsent(op, o -> o.charAt(0) == 't' ? "t" + ++temporal : "L" + ++etiqueta);
+        }
+    }
+
+    /** Temporales del generador, enlazados (t0) o locales (#t0) */
+    private static final Pattern TEMPORAL = Pattern.compile("#?t\\d+");
+
+    /**
+     * 4) Llamadas a funciones puras ({@link GrafoLlamadas.Funcion#esPura()}):
+     * • Dentro de un bloque básico, una llamada con la misma función y los mismos
+     *   argumentos que otra anterior (sin que se haya reasignado ninguno ni el
+     *   resultado) se reemplaza por una copia del resultado, sin sus param. Si
+     *   nadie lee la copia se quita, y con ella puede quedar muerta la primera.
+     *   Las llamadas a funciones void no se reúsan: no tienen resultado
+     * • Una llamada cuyo resultado no se lee se quita con sus param, y con ella
+     *   los temporales que sólo servían para calcular los argumentos
+     * Los param se apilan y cada llamada toma los últimos n, así que se
+     * emparejan con una pila; una llamada cuyos param no están todos en su
+     * mismo bloque no se toca.
+     */
+    private void optimizarLlamadasPuras() {
+        GrafoLlamadas g = getGrafoLlamadas();
+        if (g.getCantidadPuras() == 0) return;
+        int n = codigo.size();
+        Instruccion[] ins = new Instruccion[n];
+        for(int i=0; i<n; i++) ins[i] = Instruccion.parsear(codigo.get(i));
+        boolean[] quitar = new boolean[n];
+        // Líneas de los param de cada llamada pura con los param conocidos
+        Map<Integer,int[]> argumentos = new HashMap<>();
+        // Operandos de los param quitados: lo que los calculaba puede quedar muerto
+        Set<String> semillas = new HashSet<>();
+
+        // Llamadas repetidas
+        Deque<Integer> params = new ArrayDeque<>();
+        // Param cuya variable se reasignó antes de la llamada (f(x, x++)): no sirven de clave
+        Set<Integer> viejos = new HashSet<>();
+        Map<String,String> disponibles = new HashMap<>();
+        Map<String,List<String>> clavesQueUsan = new HashMap<>();
+        for(int i=0; i<n; i++){
+            Instruccion in = ins[i];
+            if(in.getTipo() == Instruccion.Tipo.ETIQUETA){
+                params.clear();
+                disponibles.clear();
+                clavesQueUsan.clear();
+                continue;
+            }
+            if(in.getTipo() == Instruccion.Tipo.COPIA && in.getOperando(0).equals("param")){
+                params.push(i);
+                continue;
+            }
+            boolean cola = in.getTipo() == Instruccion.Tipo.LLAMADA_COLA;
+            int[] args = in.getTipo() == Instruccion.Tipo.LLAMADA || cola
+                    ? desapilar(params, in.getOperando(cola ? 1 : 2)) : null;
+            String d = definido(in);
+            if(d != null){
+                List<String> claves = clavesQueUsan.remove(d);
+                if(claves != null) claves.forEach(disponibles::remove);
+                for(int p : params){
+                    if(ins[p].getOperando(1).equals(d)) viejos.add(p);
+                }
+            }
+            if(cola || args == null) continue;
+            GrafoLlamadas.Funcion fn = g.getFuncion(in.getOperando(1));
+            if(fn == null || !fn.esPura()) continue;
+            argumentos.put(i, args);
+            if(!fn.devuelveValor()) continue;
+            StringBuilder sb = new StringBuilder(fn.getNombre());
+            for(int p : args){
+                if(viejos.contains(p)) sb = null;
+                if(sb == null) continue;
+                sb.append('\0').append(ins[p].getOperando(1));
+            }
+            if(sb == null) continue;
+            String clave = sb.toString();
+            String previo = disponibles.get(clave);
+            if(previo != null){
+                ins[i] = new Instruccion(Instruccion.Tipo.COPIA, d, previo);
+                argumentos.remove(i);
+                semillas.add(d);
+                for(int p : args){
+                    quitar[p] = true;
+                    semillas.add(ins[p].getOperando(1));
+                }
+                continue;
+            }
+            disponibles.put(clave, d);
+            clavesQueUsan.computeIfAbsent(d, k -> new ArrayList<>()).add(clave);
+            for(int p : args){
+                clavesQueUsan.computeIfAbsent(ins[p].getOperando(1), k -> new ArrayList<>()).add(clave);
+            }
+        }
+
+        // Llamadas cuyo resultado no se lee, y lo que quede muerto al quitarlas
+        Map<String,Integer> lecturas = new HashMap<>();
+        Map<String,List<Integer>> definiciones = new HashMap<>();
+        for(int i=0; i<n; i++){
+            if(quitar[i]) continue;
+            for(String v : leidos(ins[i])) lecturas.merge(v, 1, Integer::sum);
+            String d = definido(ins[i]);
+            if(d != null && TEMPORAL.matcher(d).matches()){
+                definiciones.computeIfAbsent(d, k -> new ArrayList<>()).add(i);
+            }
+        }
+        Deque<String> muertos = new ArrayDeque<>(semillas);
+        for(int i : argumentos.keySet()) muertos.push(ins[i].getOperando(0));
+        while(!muertos.isEmpty()){
+            String t = muertos.pop();
+            List<Integer> defs = definiciones.get(t);
+            if(defs == null || lecturas.containsKey(t)) continue;
+            // Una llamada impura (o con param desconocidos) deja vivo al temporal
+            boolean quitable = true;
+            for(int i : defs){
+                quitable &= ins[i].getTipo() != Instruccion.Tipo.LLAMADA || argumentos.containsKey(i);
+            }
+            if(!quitable) continue;
+            definiciones.remove(t);
+            for(int i : defs){
+                List<Integer> lineas = new ArrayList<>();
+                lineas.add(i);
+                for(int p : argumentos.getOrDefault(i, new int[0])) lineas.add(p);
+                for(int l : lineas){
+                    if(quitar[l]) continue;
+                    quitar[l] = true;
+                    for(String v : leidos(ins[l])){
+                        if(lecturas.merge(v, -1, (a, b) -> a + b == 0 ? null : a + b) == null) muertos.push(v);
+                    }
+                }
+            }
+        }
+
+        List<String> out = new ArrayList<>(n);
+        for(int i=0; i<n; i++){
+            if(!quitar[i]) out.add(ins[i].toString());
+        }
+        codigo = out;
+    }
+
+    /** Líneas de los últimos {@code cantidad} param, de la primera a la última; null si no están todos */
+    private static int[] desapilar(Deque<Integer> params, String cantidad) {
+        int k;
+        try {
+            k = Integer.parseInt(cantidad);
+        } catch(NumberFormatException ex){
+            params.clear();
+            return null;
+        }
+        if(params.size() < k){
+            params.clear();
+            return null;
+        }
+        int[] args = new int[k];
+        for(int j=k-1; j>=0; j--) args[j] = params.pop();
+        return args;
+    }
+
+    /** Variable que escribe la instrucción (sin contar param y return), o null */
+    private static String definido(Instruccion in) {
+        switch(in.getTipo()){
+            case COPIA:
+                String d = in.getOperando(0);
+                return d.equals("param") || d.equals("return") ? null : d;
+            case BINARIA:
+            case CONVERSION:
+            case LLAMADA:
+                return in.getOperando(0);
+            default:
+                return null;
+        }
+    }
+
+    /** Operandos que lee la instrucción; de una línea no reconocida, todas sus palabras */
+    private static List<String> leidos(Instruccion in) {
+        switch(in.getTipo()){
+            case COPIA:       return List.of(sinNegacion(in.getOperando(1)));
+            case BINARIA:     return List.of(in.getOperando(1), in.getOperando(3));
+            case CONVERSION:  return List.of(in.getOperando(2));
+            case SI_FALSO:
+            case SI:          return List.of(sinNegacion(in.getOperando(0)));
+            case SI_COMPARA:  return List.of(in.getOperando(0), in.getOperando(2));
+            case OTRA:        return Arrays.asList(in.getOperando(0).split(" "));
+            default:          return List.of();
+        }
+    }
+
+    private static String sinNegacion(String operando) {
+        return operando.startsWith("!") ? operando.substring(1) : operando;
+    }
+
+    /**
+     * 5) Simplificación de expresiones constantes  (e.g. 2+3->5), también en
+     * las condiciones: un if que siempre salta pasa a goto y uno que nunca
+     * salta se quita (lo que queda inalcanzable lo quita la pasada 1)
+     */
     private void simplificarExpresiones() {
         List<String> out = new ArrayList<>();
         for(String ln: codigo){
-            if(ln.contains("=") && ln.matches(".*=\\s*[-]?\\d+\\s*[+\\-*/%]\\s*[-]?\\d+.*")){
-                String[] ps = ln.split("=");
-                String dest = ps[0].trim(), expr = ps[1].trim();
-                String[] tk = expr.split("\\s+");
-                try {
-                    int a = Integer.parseInt(tk[0]), b = Integer.parseInt(tk[2]);
-                    int r=0;
-                    switch(tk[1]){
-                        case "+": r=a+b; break;
-                        case "-": r=a-b; break;
-                        case "*": r=a*b; break;
-                        case "/": r=b!=0? a/b : null; break;
-                        case "%": r=b!=0? a%b : null; break;
-                    }
-                    if(tk[1].equals("/")||tk[1].equals("%")){
-                        if(b==0){ out.add(ln); continue; }
-                    }
-                    out.add(dest + " = " + r);
-                    continue;
-                } catch(Exception ex){}
+            if(ln.startsWith("if ")){
+                int g = ln.lastIndexOf(" goto ");
+                String cond = g > 3 ? ln.substring(3, g) : "";
+                boolean negada = cond.startsWith("!");
+                if(negada) cond = cond.substring(1);
+                String v = LITERAL.matcher(cond).matches() ? cond : evaluar(cond);
+                if(v == null) out.add(ln);
+                else if((Double.parseDouble(v) != 0) != negada) out.add("goto " + ln.substring(g + 6));
+                continue;
             }
-            out.add(ln);
+            int igual = ln.indexOf(" = ");
+            String r = igual > 0 && !ln.startsWith("if ") ? evaluar(ln.substring(igual + 3)) : null;
+            out.add(r != null ? ln.substring(0, igual) + " = " + r : ln);
         }
         codigo = out;
     }
 
-    /** 4) Eliminación de asignaciones redundantes (a = a) */
+    /** 6) Eliminación de asignaciones redundantes (a = a) y de saltos a la línea siguiente (goto L; L:) */
     private void eliminarSentenciasRedundantes() {
         List<String> out = new ArrayList<>();
-        for(String ln: codigo){
-            if(ln.matches("\\s*(\\w+)\\s*=\\s*\\1\\s*;?")) {
+        for(int i=0; i<codigo.size(); i++){
+            String ln = codigo.get(i);
+            if(ln.matches("\\s*([#\\w]+)\\s*=\\s*\\1\\s*;?")) {
+                continue;
+            }
+            if(ln.startsWith("goto ") && i+1 < codigo.size() && codigo.get(i+1).equals(ln.substring(5) + ":")) {
                 continue;
             }
             out.add(ln);
         }
         codigo = out;
     }
+
+    /**
+     * 7) Orden de los bloques según el perfil, en cada función con datos
+     * vigentes que se ejecutó. Parte del bloque de entrada y sigue siempre
+     * por el sucesor más frecuente que falta ubicar; cuando no queda ninguno,
+     * sigue por el bloque pendiente más ejecutado. Al final van los bloques
+     * sin datos y después los que no se ejecutaron, en su orden original,
+     * así el camino caliente queda contiguo y lo frío fuera de él.
+     * <p>
+     * Los saltos se arreglan para el nuevo orden: un bloque que seguía de
+     * largo a otro que ya no está debajo recibe un goto, un goto al bloque
+     * siguiente se quita, y un if cuyo destino quedó debajo se invierte
+     * ({@code if !c goto L} pasa a {@code if c goto M}) para que el caso más
+     * probable siga de largo. Las comparaciones de double no se invierten,
+     * porque con NaN son falsas en los dos sentidos; en ese caso queda el if
+     * y un goto. El último bloque de una función que termina sin return
+     * queda último, porque sigue de largo hasta la función siguiente.
+     */
+    private void ordenarBloques() {
+        if (frecuencias == null) return;
+        GrafoLlamadas g = GrafoLlamadas.construir(codigo);
+        Renombrador nuevos = new Renombrador(codigo);
+        List<String> out = new ArrayList<>(codigo.size());
+        int desde = 0;
+        for (GrafoLlamadas.Funcion f : g.getFunciones()) {
+            if (desde < f.getInicio()) {
+                out.addAll(codigo.subList(desde, f.getInicio()));
+            }
+            String entrada = GrafoLlamadas.PREFIJO + f.getNombre();
+            if (frecuencias.getBloque(entrada) > 0) {
+                out.addAll(ordenarBloques(f.getInicio(), f.getFin(), nuevos));
+            } else {
+                out.addAll(codigo.subList(f.getInicio(), f.getFin()));
+            }
+            desde = Math.max(desde, f.getFin());
+        }
+        out.addAll(codigo.subList(Math.min(desde, codigo.size()), codigo.size()));
+        codigo = out;
+    }
+
+    /** Bloque básico de una función, para {@link #ordenarBloques()} */
+    private static final class Bloque {
+        /** Etiqueta con la que empieza, o null (sigue a un if) */
+        String etiqueta;
+        final List<Instruccion> cuerpo = new ArrayList<>();
+        /** if, goto, return o tailcall con que termina; null si sigue de largo */
+        Instruccion fin;
+        /** Veces que se ejecutó, o -1 si no se conoce */
+        long frecuencia = -1;
+        /** Bloque al que salta el if o goto final, y el que sigue debajo; null si no hay */
+        Bloque tomado, siguiente;
+        long pesoTomado, pesoSiguiente;
+
+        Bloque(String etiqueta) {
+            this.etiqueta = etiqueta;
+        }
+    }
+
+    private List<String> ordenarBloques(int inicio, int fin, Renombrador nuevos) {
+        List<Bloque> bloques = new ArrayList<>();
+        Map<String,Bloque> porEtiqueta = new HashMap<>();
+        // Bloque (etiqueta) y número de if dentro de él, como los cuenta el perfil
+        Map<Bloque,String> zona = new HashMap<>();
+        Map<Bloque,Integer> ordinal = new HashMap<>();
+        Bloque actual = null;
+        String etiqueta = null;
+        int ifs = 0;
+        for (int i = inicio; i < fin; i++) {
+            Instruccion in = Instruccion.parsear(codigo.get(i));
+            if (in.getTipo() == Instruccion.Tipo.ETIQUETA) {
+                etiqueta = in.getOperando(0);
+                ifs = 0;
+                actual = new Bloque(etiqueta);
+                bloques.add(actual);
+                porEtiqueta.put(etiqueta, actual);
+                continue;
+            }
+            if (actual == null || actual.fin != null) {
+                actual = new Bloque(null);
+                bloques.add(actual);
+            }
+            if (terminaBloque(in)) {
+                actual.fin = in;
+                if (Perfil.destinoDeIf(in) != null) {
+                    zona.put(actual, etiqueta);
+                    ordinal.put(actual, ifs++);
+                }
+            } else {
+                actual.cuerpo.add(in);
+            }
+        }
+
+        // Frecuencias y sucesores
+        for (int b = 0; b < bloques.size(); b++) {
+            Bloque x = bloques.get(b);
+            Bloque debajo = b + 1 < bloques.size() ? bloques.get(b + 1) : null;
+            if (x.etiqueta != null) {
+                x.frecuencia = frecuencias.getBloque(x.etiqueta);
+            }
+            Instruccion.Tipo tipo = x.fin != null ? x.fin.getTipo() : null;
+            String destino = x.fin == null ? null
+                    : tipo == Instruccion.Tipo.SALTO ? x.fin.getOperando(0) : Perfil.destinoDeIf(x.fin);
+            x.tomado = destino != null ? porEtiqueta.get(destino) : null;
+            if (tipo == Instruccion.Tipo.SALTO) {
+                x.pesoTomado = x.frecuencia;
+                if (debajo != null && debajo.etiqueta == null) debajo.frecuencia = 0;
+            } else if (destino != null) {
+                x.siguiente = debajo;
+                long[] rama = frecuencias.getRama(zona.get(x), ordinal.get(x), destino);
+                if (rama != null) {
+                    x.pesoTomado = rama[1];
+                    x.pesoSiguiente = rama[0] - rama[1];
+                    if (debajo != null && debajo.etiqueta == null) debajo.frecuencia = x.pesoSiguiente;
+                } else {
+                    // Sin datos del if se mantiene lo de debajo
+                    x.pesoSiguiente = x.frecuencia;
+                }
+            } else if (x.fin == null) {
+                x.siguiente = debajo;
+                x.pesoSiguiente = x.frecuencia;
+            } else if (debajo != null && debajo.etiqueta == null) {
+                debajo.frecuencia = 0;
+            }
+        }
+
+        // El último bloque queda último si sigue de largo fuera de la función
+        Bloque ultimo = bloques.get(bloques.size() - 1);
+        Bloque fijo = ultimo.fin == null || Perfil.destinoDeIf(ultimo.fin) != null ? ultimo : null;
+        List<Bloque> orden = new ArrayList<>(bloques.size());
+        Set<Bloque> puestos = new HashSet<>();
+        Bloque x = bloques.get(0);
+        while (x != null) {
+            orden.add(x);
+            puestos.add(x);
+            Bloque sig = null;
+            long peso = 0;
+            if (x.siguiente != null && x.siguiente != fijo && !puestos.contains(x.siguiente) && x.pesoSiguiente > 0) {
+                sig = x.siguiente;
+                peso = x.pesoSiguiente;
+            }
+            if (x.tomado != null && x.tomado != fijo && !puestos.contains(x.tomado) && x.pesoTomado > peso) {
+                sig = x.tomado;
+            }
+            if (sig == null) {
+                for (Bloque b : bloques) {
+                    if (b != fijo && !puestos.contains(b) && b.frecuencia > 0
+                            && (sig == null || b.frecuencia > sig.frecuencia)) sig = b;
+                }
+            }
+            x = sig;
+        }
+        for (Bloque b : bloques) {
+            if (b != fijo && !puestos.contains(b) && b.frecuencia < 0) orden.add(b);
+        }
+        for (Bloque b : bloques) {
+            if (b != fijo && !puestos.contains(b) && b.frecuencia == 0) orden.add(b);
+        }
+        if (fijo != null && fijo != bloques.get(0)) orden.add(fijo);
+        for (int b = 0; b < orden.size(); b++) {
+            if (orden.get(b) != bloques.get(b)) bloquesMovidos++;
+        }
+
+        // Etiquetas nuevas para los bloques que dejan de estar debajo de su if
+        for (int b = 0; b < orden.size(); b++) {
+            Bloque y = orden.get(b);
+            Bloque debajo = b + 1 < orden.size() ? orden.get(b + 1) : null;
+            if (y.siguiente != null && y.siguiente != debajo && y.siguiente.etiqueta == null) {
+                y.siguiente.etiqueta = nuevos.etiquetaNueva();
+            }
+        }
+
+        List<String> out = new ArrayList<>(fin - inicio);
+        for (int b = 0; b < orden.size(); b++) {
+            Bloque y = orden.get(b);
+            Bloque debajo = b + 1 < orden.size() ? orden.get(b + 1) : null;
+            if (y.etiqueta != null) out.add(y.etiqueta + ":");
+            for (Instruccion in : y.cuerpo) out.add(in.toString());
+            if (y.fin == null) {
+                if (y.siguiente != null && y.siguiente != debajo) out.add("goto " + y.siguiente.etiqueta);
+                continue;
+            }
+            if (y.fin.getTipo() == Instruccion.Tipo.SALTO) {
+                if (y.tomado == null || y.tomado != debajo) out.add(y.fin.toString());
+                continue;
+            }
+            Instruccion invertido = y.siguiente != null && y.tomado == debajo && y.siguiente != debajo
+                    ? negarSalto(y.fin, y.siguiente.etiqueta) : null;
+            if (invertido != null) {
+                out.add(invertido.toString());
+                saltosInvertidos++;
+                continue;
+            }
+            out.add(y.fin.toString());
+            if (y.siguiente != null && y.siguiente != debajo) out.add("goto " + y.siguiente.etiqueta);
+        }
+        return out;
+    }
+
+    /** Si la instrucción termina un bloque básico: if, goto, return o tailcall */
+    private static boolean terminaBloque(Instruccion in) {
+        switch (in.getTipo()) {
+            case SI_FALSO:
+            case SI:
+            case SI_COMPARA:
+            case SALTO:
+            case LLAMADA_COLA:
+                return true;
+            case COPIA:
+                return in.getOperando(0).equals("return");
+            case OTRA:
+                String ln = in.getOperando(0);
+                return ln.equals("return") || ln.startsWith("return ");
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * El if con la condición contraria, que salta a {@code destino}; null si
+     * negarla puede cambiar el resultado (comparaciones de double o sin tipo)
+     */
+    private static Instruccion negarSalto(Instruccion in, String destino) {
+        switch (in.getTipo()) {
+            case SI_FALSO:
+                return new Instruccion(Instruccion.Tipo.SI, in.getOperando(0), destino);
+            case SI:
+                return new Instruccion(Instruccion.Tipo.SI_FALSO, in.getOperando(0), destino);
+            case SI_COMPARA:
+                Operacion op = Operacion.buscar(in.getOperando(1));
+                if (op == null || !op.esRelacional() || op.esDoble()) return null;
+                return new Instruccion(Instruccion.Tipo.SI_COMPARA,
+                        in.getOperando(0), op.negada().name(), in.getOperando(2), destino);
+            default:
+                return null;
+        }
+    }
 }
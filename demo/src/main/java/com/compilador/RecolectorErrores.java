@@ -0,0 +1,34 @@
+package com.compilador;
+
+import com.compilador.diagnostico.CodigoDiagnostico;
+import com.compilador.diagnostico.Diagnosticos;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+
+/**
+ * Listener de errores que, en vez de cortar la compilación en el primer
+ * error, agrega cada uno como diagnóstico y deja que ANTLR se recupere
+ * (DefaultErrorStrategy) para seguir analizando el resto del archivo.
+ */
+public class RecolectorErrores extends BaseErrorListener {
+
+    private final CodigoDiagnostico codigo;
+    private final Diagnosticos diagnosticos;
+
+    /**
+     * @param codigo       ERROR_LEXICO o ERROR_SINTACTICO; el mensaje de ANTLR va como argumento
+     * @param diagnosticos colector donde se agregan los errores
+     */
+    public RecolectorErrores(CodigoDiagnostico codigo, Diagnosticos diagnosticos) {
+        this.codigo = codigo;
+        this.diagnosticos = diagnosticos;
+    }
+
+    @Override
+    public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol,
+                            int line, int charPositionInLine, String msg,
+                            RecognitionException e) {
+        diagnosticos.agregar(codigo, line, charPositionInLine, msg);
+    }
+}
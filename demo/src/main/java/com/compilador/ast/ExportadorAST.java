@@ -0,0 +1,164 @@
+package com.compilador.ast;
+
+import com.compilador.diagnostico.Diagnosticos;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.Vocabulary;
+import org.antlr.v4.runtime.tree.ErrorNode;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Exporta el árbol de parseo a archivos, sin depender de Swing ni del
+ * paquete completo de ANTLR:
+ * • DOT (Graphviz): reglas como elipses, tokens como cajas
+ * • JSON: {"regla": …, "hijos": […]} y {"token": …, "texto": …, "linea": …, "columna": …}
+ * El árbol se escribe nodo por nodo a un Writer con buffer.
+ */
+public class ExportadorAST {
+
+    private final String[] reglas;
+    private final Vocabulary vocabulario;
+
+    /**
+     * @param reglas      nombres de las reglas del parser ({@code Parser.getRuleNames()})
+     * @param vocabulario nombres de los tokens ({@code MiniLenguajeLexer.VOCABULARY})
+     */
+    public ExportadorAST(String[] reglas, Vocabulary vocabulario) {
+        this.reglas = reglas;
+        this.vocabulario = vocabulario;
+    }
+
+    public void guardarDot(ParseTree arbol, Path ruta) throws IOException {
+        try (Writer w = new BufferedWriter(Files.newBufferedWriter(ruta, StandardCharsets.UTF_8), 1 << 16)) {
+            escribirDot(arbol, w);
+        }
+    }
+
+    public void guardarJson(ParseTree arbol, Path ruta) throws IOException {
+        try (Writer w = new BufferedWriter(Files.newBufferedWriter(ruta, StandardCharsets.UTF_8), 1 << 16)) {
+            escribirJson(arbol, w);
+        }
+    }
+
+    // ------------------------------------------------------------
+    // DOT
+    // ------------------------------------------------------------
+
+    public void escribirDot(ParseTree arbol, Writer w) throws IOException {
+        w.write("digraph AST {\n  node [fontname=\"monospace\"];\n");
+        nodoDot(arbol, w, new int[]{0});
+        w.write("}\n");
+    }
+
+    /** Escribe el nodo y su subárbol; devuelve el id asignado al nodo */
+    private int nodoDot(ParseTree nodo, Writer w, int[] siguiente) throws IOException {
+        int id = siguiente[0]++;
+        StringBuilder sb = new StringBuilder("  n").append(id).append(" [");
+        if (nodo instanceof TerminalNode) {
+            Token t = ((TerminalNode) nodo).getSymbol();
+            sb.append("shape=box");
+            if (nodo instanceof ErrorNode) {
+                sb.append(", color=red");
+            }
+            sb.append(", label=");
+            cadenaDot(sb, nombreToken(t) + "\n" + t.getText());
+        } else {
+            sb.append("label=");
+            cadenaDot(sb, nombreRegla(nodo));
+        }
+        sb.append("];\n");
+        w.write(sb.toString());
+        for (int i = 0; i < nodo.getChildCount(); i++) {
+            int hijo = nodoDot(nodo.getChild(i), w, siguiente);
+            w.write("  n" + id + " -> n" + hijo + ";\n");
+        }
+        return id;
+    }
+
+    private static void cadenaDot(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char ch = s.charAt(i);
+            switch (ch) {
+                case '"':  sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': break;
+                default:   sb.append(ch);
+            }
+        }
+        sb.append('"');
+    }
+
+    // ------------------------------------------------------------
+    // JSON
+    // ------------------------------------------------------------
+
+    public void escribirJson(ParseTree arbol, Writer w) throws IOException {
+        nodoJson(arbol, w);
+        w.write('\n');
+    }
+
+    private void nodoJson(ParseTree nodo, Writer w) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        if (nodo instanceof TerminalNode) {
+            Token t = ((TerminalNode) nodo).getSymbol();
+            sb.append("{\"token\":");
+            Diagnosticos.escaparJson(sb, nombreToken(t));
+            sb.append(",\"texto\":");
+            Diagnosticos.escaparJson(sb, t.getText());
+            sb.append(",\"linea\":").append(t.getLine())
+              .append(",\"columna\":").append(t.getCharPositionInLine());
+            if (nodo instanceof ErrorNode) {
+                sb.append(",\"error\":true");
+            }
+            sb.append('}');
+            w.write(sb.toString());
+            return;
+        }
+        sb.append("{\"regla\":");
+        Diagnosticos.escaparJson(sb, nombreRegla(nodo));
+        sb.append(",\"hijos\":[");
+        w.write(sb.toString());
+        for (int i = 0; i < nodo.getChildCount(); i++) {
+            if (i > 0) {
+                w.write(',');
+            }
+            nodoJson(nodo.getChild(i), w);
+        }
+        w.write("]}");
+    }
+
+    // ------------------------------------------------------------
+    // Nombres
+    // ------------------------------------------------------------
+
+    /** Nombre de la regla; las alternativas etiquetadas (#expBinaria) usan el nombre de la etiqueta */
+    private String nombreRegla(ParseTree nodo) {
+        ParserRuleContext ctx = (ParserRuleContext) nodo;
+        String regla = reglas[ctx.getRuleIndex()];
+        String clase = ctx.getClass().getSimpleName();
+        if (clase.endsWith("Context")) {
+            String etiqueta = clase.substring(0, clase.length() - "Context".length());
+            if (!etiqueta.equalsIgnoreCase(regla)) {
+                return regla + ":" + Character.toLowerCase(etiqueta.charAt(0)) + etiqueta.substring(1);
+            }
+        }
+        return regla;
+    }
+
+    private String nombreToken(Token t) {
+        if (t.getType() == Token.EOF) {
+            return "EOF";
+        }
+        return vocabulario.getDisplayName(t.getType());
+    }
+}
@@ -0,0 +1,56 @@
+package com.compilador.ast;
+
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.Tree;
+
+import javax.swing.JComponent;
+import javax.swing.JFrame;
+import java.awt.GraphicsEnvironment;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Ventana con el árbol de parseo usando el {@code TreeViewer} de ANTLR.
+ * <p>
+ * {@code TreeViewer} está en el paquete completo {@code org.antlr:antlr4}, que
+ * sólo se incluye con el perfil Maven {@code gui}; por eso se carga por
+ * reflexión y la compilación normal queda sólo con {@code antlr4-runtime}.
+ * App también carga esta clase por reflexión, así AWT/Swing sólo se cargan
+ * si se pide {@code --ast} y no entran en el ejecutable de native-image.
+ */
+public final class VisorAST {
+
+    private static final String TREE_VIEWER = "org.antlr.v4.gui.TreeViewer";
+
+    private VisorAST() {
+    }
+
+    /** ¿Se puede abrir la ventana? Si no, devuelve el motivo; si sí, null */
+    public static String motivoNoDisponible() {
+        if (GraphicsEnvironment.isHeadless()) {
+            return "entorno sin pantalla (headless)";
+        }
+        try {
+            Class.forName(TREE_VIEWER, false, VisorAST.class.getClassLoader());
+        } catch (ClassNotFoundException ex) {
+            return "TreeViewer no está en el classpath (compilar con -Pgui)";
+        }
+        return null;
+    }
+
+    /** Abre la ventana; lanza excepción si {@link #motivoNoDisponible()} no es null */
+    public static void mostrar(ParseTree arbol, String[] reglas, String titulo) throws ReflectiveOperationException {
+        Class<?> clase = Class.forName(TREE_VIEWER);
+        JComponent viewer = (JComponent) clase
+                .getConstructor(List.class, Tree.class)
+                .newInstance(Arrays.asList(reglas), arbol);
+        clase.getMethod("setScale", double.class).invoke(viewer, 1.5);
+
+        JFrame frame = new JFrame(titulo);
+        frame.add(viewer);
+        frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        frame.setSize(800, 600);
+        frame.setLocationRelativeTo(null);
+        frame.setVisible(true);
+    }
+}
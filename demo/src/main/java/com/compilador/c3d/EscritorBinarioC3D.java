@@ -0,0 +1,182 @@
+package com.compilador.c3d;
+
+import com.compilador.semantico.Simbolo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Escritor del formato binario de C3D ({@code .c3db}), pensado para que otras
+ * herramientas lo lean con {@link LectorBinarioC3D} sin volver a parsear texto.
+ * <p>
+ * Todos los enteros fijos son little-endian; los variables son varint
+ * (LEB128 sin signo, o zigzag para los que pueden ser negativos).
+ * <pre>
+ * Cabecera (24 bytes)
+ *   u32 magia "C3DB" · u16 versión · u16 reservado
+ *   u32 offset cadenas · u32 offset código · u32 offset símbolos · u32 longitud total
+ * Cadenas
+ *   u32 N · u32 inicio[N+1] (relativo a los bytes) · bytes UTF-8
+ * Código
+ *   u32 L · por lista: u32 nombre · u32 instrucciones · u32 offset · u32 bytes
+ *   por instrucción: varint tipo (ordinal de Instruccion.Tipo) · varint cadena por operando
+ * Símbolos
+ *   varint S · por símbolo: nombre, tipo, categoría, zz línea, zz columna,
+ *   ámbito, flags (1 const, 2 inicializada, 4 usada), zz orden, varint P, tipos de parámetros
+ * </pre>
+ * Cada string (nombres, literales, operadores, instrucciones OTRA) se guarda
+ * una sola vez en la tabla de cadenas.
+ */
+public class EscritorBinarioC3D {
+
+    public static final int MAGIA   = 0x42443343; // "C3DB" leído como u32 little-endian
+    public static final int VERSION = 4;
+    static final int TAMANIO_CABECERA = 24;
+
+    private final Map<String, Integer> indices = new HashMap<>();
+    private final List<String> cadenas = new ArrayList<>();
+    private final List<String> nombresListas = new ArrayList<>();
+    private final List<Integer> cantidades = new ArrayList<>();
+    private final List<Salida> listas = new ArrayList<>();
+    private final Salida simbolos = new Salida();
+    private int cantidadSimbolos;
+
+    /** Agrega una lista de instrucciones con nombre (p. ej. "raw", "opt") */
+    public void agregarCodigo(String nombre, List<String> codigo) {
+        cadena(nombre);
+        Salida s = new Salida();
+        for (String linea : codigo) {
+            Instruccion instr = Instruccion.parsear(linea);
+            s.varint(instr.getTipo().ordinal());
+            for (int k = 0; k < instr.getTipo().getOperandos(); k++) {
+                s.varint(cadena(instr.getOperando(k)));
+            }
+        }
+        nombresListas.add(nombre);
+        cantidades.add(codigo.size());
+        listas.add(s);
+    }
+
+    /** Agrega la tabla de símbolos, en el orden de {@code getTodosLosSimbolos()} */
+    public void agregarSimbolos(List<Simbolo> tabla) {
+        for (Simbolo s : tabla) {
+            simbolos.varint(cadena(s.getNombre()));
+            simbolos.varint(cadena(s.getTipo()));
+            simbolos.varint(s.getCategoria().ordinal());
+            simbolos.zigzag(s.getLinea());
+            simbolos.zigzag(s.getColumna());
+            simbolos.varint(cadena(s.getAmbito()));
+            simbolos.varint((s.esConstante() ? 1 : 0) | (s.esInicializada() ? 2 : 0) | (s.esUsada() ? 4 : 0));
+            simbolos.zigzag(s.getOrden());
+            simbolos.varint(s.getParametros().size());
+            for (String p : s.getParametros()) {
+                simbolos.varint(cadena(p));
+            }
+            cantidadSimbolos++;
+        }
+    }
+
+    public void escribir(Path ruta) throws IOException {
+        ByteBuffer buf = aBytes();
+        try (FileChannel ch = FileChannel.open(ruta, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buf.hasRemaining()) {
+                ch.write(buf);
+            }
+        }
+    }
+
+    /** El archivo completo en memoria, listo para leer (posición 0) */
+    public ByteBuffer aBytes() {
+        List<byte[]> utf8 = new ArrayList<>(cadenas.size());
+        int bytesCadenas = 0;
+        for (String c : cadenas) {
+            byte[] b = c.getBytes(StandardCharsets.UTF_8);
+            utf8.add(b);
+            bytesCadenas += b.length;
+        }
+        Salida cantSimbolos = new Salida();
+        cantSimbolos.varint(cantidadSimbolos);
+
+        int offCadenas = TAMANIO_CABECERA;
+        int offCodigo = offCadenas + 4 + 4 * (cadenas.size() + 1) + bytesCadenas;
+        int bytesCodigo = 4 + 16 * listas.size();
+        for (Salida s : listas) {
+            bytesCodigo += s.largo;
+        }
+        int offSimbolos = offCodigo + bytesCodigo;
+        int total = offSimbolos + cantSimbolos.largo + simbolos.largo;
+
+        ByteBuffer buf = ByteBuffer.allocate(total).order(ByteOrder.LITTLE_ENDIAN);
+        buf.putInt(MAGIA).putShort((short) VERSION).putShort((short) 0)
+           .putInt(offCadenas).putInt(offCodigo).putInt(offSimbolos).putInt(total);
+
+        buf.putInt(cadenas.size());
+        int inicio = 0;
+        for (byte[] b : utf8) {
+            buf.putInt(inicio);
+            inicio += b.length;
+        }
+        buf.putInt(inicio);
+        for (byte[] b : utf8) {
+            buf.put(b);
+        }
+
+        buf.putInt(listas.size());
+        int off = offCodigo + 4 + 16 * listas.size();
+        for (int k = 0; k < listas.size(); k++) {
+            buf.putInt(indices.get(nombresListas.get(k)))
+               .putInt(cantidades.get(k)).putInt(off).putInt(listas.get(k).largo);
+            off += listas.get(k).largo;
+        }
+        for (Salida s : listas) {
+            buf.put(s.bytes, 0, s.largo);
+        }
+
+        buf.put(cantSimbolos.bytes, 0, cantSimbolos.largo);
+        buf.put(simbolos.bytes, 0, simbolos.largo);
+        buf.flip();
+        return buf;
+    }
+
+    private int cadena(String s) {
+        Integer i = indices.get(s);
+        if (i == null) {
+            i = cadenas.size();
+            indices.put(s, i);
+            cadenas.add(s);
+        }
+        return i;
+    }
+
+    /** Bytes que crecen según haga falta, con escritura de varints */
+    private static final class Salida {
+        byte[] bytes = new byte[256];
+        int largo;
+
+        void varint(int v) {
+            if (largo + 5 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            while ((v & ~0x7F) != 0) {
+                bytes[largo++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            bytes[largo++] = (byte) v;
+        }
+
+        void zigzag(int v) {
+            varint((v << 1) ^ (v >> 31));
+        }
+    }
+}
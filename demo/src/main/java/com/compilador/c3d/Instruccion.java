@@ -0,0 +1,180 @@
+package com.compilador.c3d;
+
+import java.util.Arrays;
+
+/**
+ * Instrucción de C3D ya separada en tipo y operandos, en las formas que
+ * emite {@link com.compilador.BufferFuncion}:
+ * <pre>
+ *     ETIQUETA  L:                 [L]
+ *     COPIA     x = v              [x, v]
+ *     BINARIA   t = a op b         [t, a, op, b]
+ *     CONVERSION t = OP a          [t, OP, a]
+ *     SI_FALSO  if !c goto L       [c, L]
+ *     SI        if c goto L        [c, L]
+ *     SI_COMPARA if a op b goto L  [a, op, b, L]
+ *     SALTO     goto L             [L]
+ *     LLAMADA   t = call f, n      [t, f, n]
+ *     LLAMADA_COLA tailcall f, n   [f, n]
+ * </pre>
+ * Cualquier otro texto queda como {@code OTRA} con la línea completa como
+ * único operando. Siempre vale {@code parsear(s).toString().equals(s)}.
+ */
+public final class Instruccion {
+
+    public enum Tipo {
+        ETIQUETA(1),
+        COPIA(2),
+        BINARIA(4),
+        CONVERSION(3),
+        SI_FALSO(2),
+        SI(2),
+        SI_COMPARA(4),
+        SALTO(1),
+        LLAMADA(3),
+        LLAMADA_COLA(2),
+        OTRA(1);
+
+        private final int operandos;
+
+        Tipo(int operandos) {
+            this.operandos = operandos;
+        }
+
+        public int getOperandos() {
+            return operandos;
+        }
+    }
+
+    private final Tipo tipo;
+    private final String[] operandos;
+
+    public Instruccion(Tipo tipo, String... operandos) {
+        if (operandos.length != tipo.getOperandos()) {
+            throw new IllegalArgumentException(tipo + " lleva " + tipo.getOperandos() + " operandos");
+        }
+        this.tipo = tipo;
+        this.operandos = operandos.clone();
+    }
+
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    public String getOperando(int i) {
+        return operandos[i];
+    }
+
+    public static Instruccion parsear(String linea) {
+        Instruccion i = reconocer(linea);
+        // Lo que no se puede reconstruir igual (p. ej. texto ya deformado) se guarda tal cual
+        return i != null && i.toString().equals(linea) ? i : new Instruccion(Tipo.OTRA, linea);
+    }
+
+    private static Instruccion reconocer(String s) {
+        if (s.endsWith(":") && s.indexOf(' ') < 0) {
+            return new Instruccion(Tipo.ETIQUETA, s.substring(0, s.length() - 1));
+        }
+        if (s.startsWith("goto ")) {
+            return new Instruccion(Tipo.SALTO, s.substring(5));
+        }
+        if (s.startsWith("if !")) {
+            int g = s.lastIndexOf(" goto ");
+            return g < 4 ? null : new Instruccion(Tipo.SI_FALSO, s.substring(4, g), s.substring(g + 6));
+        }
+        if (s.startsWith("tailcall ")) {
+            int coma = s.indexOf(", ");
+            return coma < 0 ? null : new Instruccion(Tipo.LLAMADA_COLA, s.substring(9, coma), s.substring(coma + 2));
+        }
+        if (s.startsWith("if ")) {
+            int g = s.lastIndexOf(" goto ");
+            return g < 3 ? null : reconocerSi(s.substring(3, g), s.substring(g + 6));
+        }
+        int igual = s.indexOf(" = ");
+        if (igual <= 0) {
+            return null;
+        }
+        String destino = s.substring(0, igual);
+        int desde = igual + 3;
+        if (s.startsWith("call ", desde)) {
+            int coma = s.indexOf(", ", desde);
+            return coma < 0 ? null
+                    : new Instruccion(Tipo.LLAMADA, destino, s.substring(desde + 5, coma), s.substring(coma + 2));
+        }
+        int finIzq = finOperando(s, desde);
+        if (finIzq == s.length()) {
+            return new Instruccion(Tipo.COPIA, destino, s.substring(desde));
+        }
+        // a op b: el operador no tiene espacios y el operando derecho llega hasta el final
+        int finOp = s.indexOf(' ', finIzq + 1);
+        if (finOp < 0 && s.charAt(finIzq) == ' ' && Operacion.buscar(s.substring(desde, finIzq)) == Operacion.I2D) {
+            return new Instruccion(Tipo.CONVERSION, destino, s.substring(desde, finIzq), s.substring(finIzq + 1));
+        }
+        if (s.charAt(finIzq) != ' ' || finOp < 0 || finOp == finIzq + 1) {
+            return null;
+        }
+        return new Instruccion(Tipo.BINARIA, destino, s.substring(desde, finIzq),
+                s.substring(finIzq + 1, finOp), s.substring(finOp + 1));
+    }
+
+    /** Condición de un {@code if c goto L} / {@code if a op b goto L} */
+    private static Instruccion reconocerSi(String cond, String destino) {
+        int finIzq = finOperando(cond, 0);
+        if (finIzq == cond.length()) {
+            return new Instruccion(Tipo.SI, cond, destino);
+        }
+        int finOp = cond.indexOf(' ', finIzq + 1);
+        if (cond.charAt(finIzq) != ' ' || finOp < 0 || finOp == finIzq + 1) {
+            return null;
+        }
+        return new Instruccion(Tipo.SI_COMPARA, cond.substring(0, finIzq),
+                cond.substring(finIzq + 1, finOp), cond.substring(finOp + 1), destino);
+    }
+
+    /** Fin de un operando: hasta el próximo espacio, o hasta la comilla que cierra un literal */
+    private static int finOperando(String s, int desde) {
+        if (desde < s.length() && (s.charAt(desde) == '"' || s.charAt(desde) == '\'')) {
+            char comilla = s.charAt(desde);
+            for (int k = desde + 1; k < s.length(); k++) {
+                char c = s.charAt(k);
+                if (c == '\\') {
+                    k++;
+                } else if (c == comilla) {
+                    return k + 1;
+                }
+            }
+            return s.length();
+        }
+        int esp = s.indexOf(' ', desde);
+        return esp < 0 ? s.length() : esp;
+    }
+
+    @Override
+    public String toString() {
+        switch (tipo) {
+            case ETIQUETA: return operandos[0] + ":";
+            case COPIA:    return operandos[0] + " = " + operandos[1];
+            case BINARIA:  return operandos[0] + " = " + operandos[1] + " " + operandos[2] + " " + operandos[3];
+            case CONVERSION: return operandos[0] + " = " + operandos[1] + " " + operandos[2];
+            case SI_FALSO: return "if !" + operandos[0] + " goto " + operandos[1];
+            case SI:       return "if " + operandos[0] + " goto " + operandos[1];
+            case SI_COMPARA: return "if " + operandos[0] + " " + operandos[1] + " " + operandos[2]
+                    + " goto " + operandos[3];
+            case SALTO:    return "goto " + operandos[0];
+            case LLAMADA:  return operandos[0] + " = call " + operandos[1] + ", " + operandos[2];
+            case LLAMADA_COLA: return "tailcall " + operandos[0] + ", " + operandos[1];
+            default:       return operandos[0];
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Instruccion && tipo == ((Instruccion) o).tipo
+                && Arrays.equals(operandos, ((Instruccion) o).operandos);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * tipo.hashCode() + Arrays.hashCode(operandos);
+    }
+}
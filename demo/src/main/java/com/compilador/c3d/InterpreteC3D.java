@@ -0,0 +1,488 @@
+package com.compilador.c3d;
+
+import java.io.PrintStream;
+import java.util.*;
+
+/**
+ * Intérprete de C3D enlazado, en las formas de {@link Instruccion}.
+ * <p>
+ * Cada función va desde su etiqueta {@code func_f:} hasta la siguiente; llegar
+ * a la etiqueta de otra función (o al final del código) es un {@code return}
+ * sin valor. Los {@code param = v} se apilan y {@code t = call f, n} toma los
+ * últimos n, que se asignan a los parámetros de {@code f} por nombre: el C3D
+ * usa los parámetros por su nombre y no tiene prólogo, por eso los nombres se
+ * reciben aparte (de la tabla de símbolos); un clon {@code f.1} de la
+ * especialización usa los de {@code f}. Las funciones que no están en el
+ * código son externas; {@code printf}, {@code print} y {@code println}
+ * escriben sus argumentos en la salida.
+ * <p>
+ * Los valores son {@link Integer} (int y char), {@link Double} y
+ * {@link String}. Los marcos van en una pila propia, así que la profundidad
+ * de la recursión no depende de la pila de Java.
+ * <p>
+ * Con {@link #memoizar(Set, int)} el resultado de las funciones indicadas
+ * (puras: mismo resultado para los mismos argumentos y sin efectos) se guarda
+ * en una caché LRU acotada por función; una llamada que acierta no ejecuta
+ * la función. Sirve para recursiones como fib, que repiten llamadas.
+ * <p>
+ * Con {@link #setPerfilar(boolean)} cuenta, por índice de instrucción, las
+ * veces que se ejecutó cada una y las que saltó cada {@code if}; las de una
+ * etiqueta son las entradas a su bloque. Con eso se arma un
+ * {@link com.compilador.perfil.Perfil}.
+ */
+public class InterpreteC3D {
+
+    /** Error al ejecutar: función o variable desconocida, división entera por cero, … */
+    public static class ErrorEjecucion extends RuntimeException {
+        public ErrorEjecucion(String mensaje) {
+            super(mensaje);
+        }
+    }
+
+    private static final String PREFIJO = "func_";
+
+    private final Instruccion[] codigo;
+    /** Índice de cada etiqueta */
+    private final Map<String, Integer> etiquetas = new HashMap<>();
+    private final Map<String, List<String>> parametros;
+    private PrintStream salida = System.out;
+
+    private final Map<String, Map<List<Object>, Object>> memos = new HashMap<>();
+    private long pasos;
+    private long llamadas;
+    private long aciertosMemo;
+    private long fallosMemo;
+    /** Ejecuciones y saltos tomados por instrucción; null si no se perfila */
+    private long[] ejecuciones;
+    private long[] saltos;
+    private final Map<String, Long> llamadasPorFuncion = new LinkedHashMap<>();
+
+    /**
+     * @param codigo     C3D enlazado
+     * @param parametros nombres de los parámetros de cada función, en orden
+     */
+    public InterpreteC3D(List<String> codigo, Map<String, List<String>> parametros) {
+        this.codigo = new Instruccion[codigo.size()];
+        for (int i = 0; i < codigo.size(); i++) {
+            this.codigo[i] = Instruccion.parsear(codigo.get(i));
+            if (this.codigo[i].getTipo() == Instruccion.Tipo.ETIQUETA) {
+                etiquetas.putIfAbsent(this.codigo[i].getOperando(0), i);
+            }
+        }
+        this.parametros = parametros;
+    }
+
+    /** Salida de printf / print / println (por defecto System.out) */
+    public void setSalida(PrintStream salida) {
+        this.salida = salida;
+    }
+
+    /**
+     * Memoiza las funciones indicadas con una caché LRU de hasta
+     * {@code capacidad} resultados cada una; con capacidad 0 no memoiza.
+     * Sólo es correcto para funciones puras.
+     */
+    public void memoizar(Set<String> funciones, int capacidad) {
+        memos.clear();
+        if (capacidad <= 0) {
+            return;
+        }
+        for (String f : funciones) {
+            memos.put(f, new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<List<Object>, Object> e) {
+                    return size() > capacidad;
+                }
+            });
+        }
+    }
+
+    /** Cuenta ejecuciones por instrucción y saltos por if en las próximas ejecuciones */
+    public void setPerfilar(boolean perfilar) {
+        ejecuciones = perfilar ? new long[codigo.length] : null;
+        saltos = perfilar ? new long[codigo.length] : null;
+    }
+
+    /**
+     * Veces que se ejecutó cada instrucción en la última ejecución, o null si
+     * no se perfiló. Una etiqueta cuenta también cada llamada que entra a la
+     * función (que empieza por la instrucción siguiente).
+     */
+    public long[] getEjecuciones() { return ejecuciones; }
+    /** Veces que saltó cada if en la última ejecución (0 para el resto), o null si no se perfiló */
+    public long[] getSaltos() { return saltos; }
+    /** Llamadas (contando main y las llamadas en cola) por función en la última ejecución perfilada */
+    public Map<String, Long> getLlamadasPorFuncion() { return Collections.unmodifiableMap(llamadasPorFuncion); }
+
+    /** Instrucciones ejecutadas en la última ejecución */
+    public long getPasos() { return pasos; }
+    /** Llamadas hechas (sin contar las que resolvió la memoización) */
+    public long getLlamadas() { return llamadas; }
+    public long getAciertosMemo() { return aciertosMemo; }
+    public long getFallosMemo() { return fallosMemo; }
+
+    /** Marco de una llamada en curso */
+    private static final class Marco {
+        String funcion;
+        int pc;
+        final Map<String, Object> variables = new HashMap<>();
+        /** Variable del llamador que recibe el resultado */
+        final String destino;
+        /** Cachés donde guardar el resultado al volver (la llamada y sus llamadas en cola) */
+        List<Object[]> memos;
+
+        Marco(String funcion, int pc, String destino) {
+            this.funcion = funcion;
+            this.pc = pc;
+            this.destino = destino;
+        }
+    }
+
+    /**
+     * Ejecuta desde {@code func_main} (o desde el principio si no hay main)
+     * hasta que main vuelve.
+     *
+     * @return valor que devuelve main, o null si no devuelve nada
+     * @throws ErrorEjecucion si la ejecución falla
+     */
+    public Object ejecutar() {
+        pasos = llamadas = aciertosMemo = fallosMemo = 0;
+        llamadasPorFuncion.clear();
+        if (ejecuciones != null) {
+            Arrays.fill(ejecuciones, 0);
+            Arrays.fill(saltos, 0);
+        }
+        Integer main = etiquetas.get(PREFIJO + "main");
+        Deque<Marco> pila = new ArrayDeque<>();
+        pila.push(main != null ? new Marco("main", main + 1, null) : new Marco(funcionEn(0), 0, null));
+        if (main != null) {
+            contarEntrada("main", main);
+        }
+        Deque<Object> params = new ArrayDeque<>();
+        Object resultado = null;
+
+        while (true) {
+            Marco m = pila.peek();
+            Object devuelto = null;
+            boolean vuelve = m.pc >= codigo.length;
+            while (!vuelve) {
+                int pc = m.pc++;
+                Instruccion in = codigo[pc];
+                pasos++;
+                if (ejecuciones != null) {
+                    ejecuciones[pc]++;
+                }
+                switch (in.getTipo()) {
+                    case ETIQUETA:
+                        String et = in.getOperando(0);
+                        vuelve = et.startsWith(PREFIJO) && !et.equals(PREFIJO + m.funcion);
+                        break;
+                    case COPIA: {
+                        String d = in.getOperando(0);
+                        // "return = " sin valor es el return de una función void
+                        Object v = in.getOperando(1).isEmpty() ? null : valor(in.getOperando(1), m);
+                        if (d.equals("param")) {
+                            params.push(v);
+                        } else if (d.equals("return")) {
+                            devuelto = v;
+                            vuelve = true;
+                        } else {
+                            m.variables.put(d, v);
+                        }
+                        break;
+                    }
+                    case BINARIA:
+                        m.variables.put(in.getOperando(0),
+                                operar(in.getOperando(2), valor(in.getOperando(1), m), valor(in.getOperando(3), m)));
+                        break;
+                    case CONVERSION:
+                        m.variables.put(in.getOperando(0), ((Number) valor(in.getOperando(2), m)).doubleValue());
+                        break;
+                    case SI_FALSO:
+                        if (!verdadero(valor(in.getOperando(0), m))) m.pc = saltar(pc, in.getOperando(1));
+                        break;
+                    case SI:
+                        if (verdadero(valor(in.getOperando(0), m))) m.pc = saltar(pc, in.getOperando(1));
+                        break;
+                    case SI_COMPARA:
+                        if (verdadero(operar(in.getOperando(1), valor(in.getOperando(0), m), valor(in.getOperando(2), m)))) {
+                            m.pc = saltar(pc, in.getOperando(3));
+                        }
+                        break;
+                    case SALTO:
+                        m.pc = destino(in.getOperando(0));
+                        if (in.getOperando(0).startsWith(PREFIJO)) {
+                            // Recursión en cola hecha ciclo; desde un clon vuelve al original
+                            m.funcion = in.getOperando(0).substring(PREFIJO.length());
+                        }
+                        break;
+                    case LLAMADA:
+                    case LLAMADA_COLA: {
+                        boolean cola = in.getTipo() == Instruccion.Tipo.LLAMADA_COLA;
+                        String f = in.getOperando(cola ? 0 : 1);
+                        Object[] args = desapilar(params, Integer.parseInt(in.getOperando(cola ? 1 : 2)));
+                        Integer inicio = etiquetas.get(PREFIJO + f);
+                        if (inicio == null) {
+                            Object v = externa(f, args);
+                            if (cola) {
+                                devuelto = v;
+                                vuelve = true;
+                            } else {
+                                m.variables.put(in.getOperando(0), v);
+                            }
+                            break;
+                        }
+                        Map<List<Object>, Object> memo = memos.get(f);
+                        List<Object> clave = memo != null ? Arrays.asList(args) : null;
+                        if (memo != null && memo.containsKey(clave)) {
+                            aciertosMemo++;
+                            if (cola) {
+                                devuelto = memo.get(clave);
+                                vuelve = true;
+                            } else {
+                                m.variables.put(in.getOperando(0), memo.get(clave));
+                            }
+                            break;
+                        }
+                        if (memo != null) {
+                            fallosMemo++;
+                        }
+                        llamadas++;
+                        Marco nuevo;
+                        if (cola) {
+                            // Reutiliza el marco: el resultado de f es el de la función actual
+                            m.funcion = f;
+                            m.pc = inicio + 1;
+                            m.variables.clear();
+                            nuevo = m;
+                        } else {
+                            nuevo = new Marco(f, inicio + 1, in.getOperando(0));
+                            pila.push(nuevo);
+                        }
+                        asignarParametros(f, args, nuevo);
+                        contarEntrada(f, inicio);
+                        if (memo != null) {
+                            if (nuevo.memos == null) nuevo.memos = new ArrayList<>(1);
+                            nuevo.memos.add(new Object[]{memo, clave});
+                        }
+                        m = nuevo;
+                        break;
+                    }
+                    default:
+                        if (in.getOperando(0).equals("return")) {
+                            vuelve = true;
+                            break;
+                        }
+                        throw new ErrorEjecucion("Instrucción desconocida en " + (m.pc - 1) + ": " + in);
+                }
+                if (m.pc >= codigo.length) {
+                    vuelve = true;
+                }
+            }
+
+            pila.pop();
+            if (m.memos != null) {
+                for (Object[] memo : m.memos) {
+                    @SuppressWarnings("unchecked")
+                    Map<List<Object>, Object> cache = (Map<List<Object>, Object>) memo[0];
+                    @SuppressWarnings("unchecked")
+                    List<Object> clave = (List<Object>) memo[1];
+                    cache.put(clave, devuelto);
+                }
+            }
+            if (pila.isEmpty()) {
+                resultado = devuelto;
+                break;
+            }
+            pila.peek().variables.put(m.destino, devuelto);
+        }
+        return resultado;
+    }
+
+    /** Nombre de la función cuya etiqueta está en {@code i}, o "" */
+    private String funcionEn(int i) {
+        if (i < codigo.length && codigo[i].getTipo() == Instruccion.Tipo.ETIQUETA
+                && codigo[i].getOperando(0).startsWith(PREFIJO)) {
+            return codigo[i].getOperando(0).substring(PREFIJO.length());
+        }
+        return "";
+    }
+
+    /** Destino de un if que salta, contando el salto si se perfila */
+    private int saltar(int pc, String etiqueta) {
+        if (saltos != null) {
+            saltos[pc]++;
+        }
+        return destino(etiqueta);
+    }
+
+    /** Cuenta una llamada que entra a {@code f} sin pasar por su etiqueta */
+    private void contarEntrada(String f, int etiqueta) {
+        if (ejecuciones != null) {
+            ejecuciones[etiqueta]++;
+            llamadasPorFuncion.merge(f, 1L, Long::sum);
+        }
+    }
+
+    private int destino(String etiqueta) {
+        Integer i = etiquetas.get(etiqueta);
+        if (i == null) {
+            throw new ErrorEjecucion("Etiqueta no definida: " + etiqueta);
+        }
+        return i;
+    }
+
+    private static Object[] desapilar(Deque<Object> params, int n) {
+        if (params.size() < n) {
+            throw new ErrorEjecucion("Faltan param para una llamada de " + n + " argumentos");
+        }
+        Object[] args = new Object[n];
+        for (int i = n - 1; i >= 0; i--) {
+            args[i] = params.pop();
+        }
+        return args;
+    }
+
+    private void asignarParametros(String f, Object[] args, Marco m) {
+        if (args.length == 0) {
+            return;
+        }
+        List<String> nombres = parametros.get(f);
+        int clon = f.indexOf('.');
+        if (nombres == null && clon > 0) {
+            // Un clon f.1 de la especialización tiene los parámetros de f
+            nombres = parametros.get(f.substring(0, clon));
+        }
+        if (nombres == null || nombres.size() != args.length) {
+            throw new ErrorEjecucion("No se conocen los " + args.length + " parámetros de " + f);
+        }
+        for (int i = 0; i < args.length; i++) {
+            m.variables.put(nombres.get(i), args[i]);
+        }
+    }
+
+    private Object externa(String f, Object[] args) {
+        switch (f) {
+            case "printf":
+            case "print":
+            case "println":
+                StringJoiner linea = new StringJoiner(" ");
+                for (Object a : args) {
+                    linea.add(String.valueOf(a));
+                }
+                salida.println(linea);
+                return 0;
+            default:
+                throw new ErrorEjecucion("Función no definida: " + f);
+        }
+    }
+
+    /** Valor de un operando: literal, variable del marco, o su negación lógica con '!' */
+    private static Object valor(String op, Marco m) {
+        if (op.startsWith("!") && op.length() > 1) {
+            return verdadero(valor(op.substring(1), m)) ? 0 : 1;
+        }
+        Object v = m.variables.get(op);
+        if (v != null || m.variables.containsKey(op)) {
+            // null: el resultado de una llamada a una función void, que se puede copiar
+            return v;
+        }
+        char c = op.isEmpty() ? ' ' : op.charAt(0);
+        if (Character.isDigit(c) || (c == '-' && op.length() > 1)) {
+            try {
+                return op.indexOf('.') >= 0 ? (Object) Double.parseDouble(op) : (Object) Integer.parseInt(op);
+            } catch (NumberFormatException ex) {
+                throw new ErrorEjecucion("Literal inválido: " + op);
+            }
+        }
+        if (c == '\'' && op.length() >= 3) {
+            return (int) sinEscapes(op.substring(1, op.length() - 1)).charAt(0);
+        }
+        if (c == '"' && op.length() >= 2) {
+            return sinEscapes(op.substring(1, op.length() - 1));
+        }
+        throw new ErrorEjecucion("Variable sin valor en " + m.funcion + ": " + op);
+    }
+
+    private static String sinEscapes(String s) {
+        if (s.indexOf('\\') < 0) {
+            return s;
+        }
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\' && i + 1 < s.length()) {
+                c = s.charAt(++i);
+                switch (c) {
+                    case 'n': c = '\n'; break;
+                    case 't': c = '\t'; break;
+                    case 'r': c = '\r'; break;
+                    case '0': c = '\0'; break;
+                    default:  break;
+                }
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    private static boolean verdadero(Object v) {
+        if (v instanceof Number) {
+            return ((Number) v).doubleValue() != 0;
+        }
+        return v != null;
+    }
+
+    /** Operación tipada ({@link Operacion}) o, en código sin tipos, según los valores */
+    private static Object operar(String op, Object a, Object b) {
+        Operacion tipada = Operacion.buscar(op);
+        boolean doble = tipada != null ? tipada.esDoble() : a instanceof Double || b instanceof Double;
+        if (tipada == null) {
+            tipada = Operacion.binaria(op, doble);
+            if (tipada == null) {
+                throw new ErrorEjecucion("Operador desconocido: " + op);
+            }
+        }
+        if (tipada == Operacion.LAND || tipada == Operacion.LOR) {
+            boolean x = verdadero(a), y = verdadero(b);
+            return (tipada == Operacion.LAND ? x && y : x || y) ? 1 : 0;
+        }
+        if (!(a instanceof Number) || !(b instanceof Number)) {
+            throw new ErrorEjecucion("Operandos no numéricos para " + op + ": " + a + ", " + b);
+        }
+        if (doble) {
+            double x = ((Number) a).doubleValue(), y = ((Number) b).doubleValue();
+            switch (tipada) {
+                case DADD: return x + y;
+                case DSUB: return x - y;
+                case DMUL: return x * y;
+                case DDIV: return x / y;
+                case DMOD: return x % y;
+                case DLT:  return x < y ? 1 : 0;
+                case DLE:  return x <= y ? 1 : 0;
+                case DGT:  return x > y ? 1 : 0;
+                case DGE:  return x >= y ? 1 : 0;
+                case DEQ:  return x == y ? 1 : 0;
+                default:   return x != y ? 1 : 0;
+            }
+        }
+        int x = ((Number) a).intValue(), y = ((Number) b).intValue();
+        switch (tipada) {
+            case IADD: return x + y;
+            case ISUB: return x - y;
+            case IMUL: return x * y;
+            case IDIV:
+            case IMOD:
+                if (y == 0) {
+                    throw new ErrorEjecucion("División entera por cero");
+                }
+                return tipada == Operacion.IDIV ? x / y : x % y;
+            case ILT:  return x < y ? 1 : 0;
+            case ILE:  return x <= y ? 1 : 0;
+            case IGT:  return x > y ? 1 : 0;
+            case IGE:  return x >= y ? 1 : 0;
+            case IEQ:  return x == y ? 1 : 0;
+            default:   return x != y ? 1 : 0;
+        }
+    }
+}
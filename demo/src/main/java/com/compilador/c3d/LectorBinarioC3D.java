@@ -0,0 +1,216 @@
+package com.compilador.c3d;
+
+import com.compilador.semantico.Simbolo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lector del formato {@code .c3db} (ver {@link EscritorBinarioC3D}).
+ * <p>
+ * El archivo se mapea en memoria y se recorre con un {@link Cursor}: avanzar
+ * de instrucción no crea objetos, los operandos son índices de la tabla de
+ * cadenas y cada cadena se decodifica a lo sumo una vez.
+ */
+public final class LectorBinarioC3D {
+
+    private static final Instruccion.Tipo[] TIPOS = Instruccion.Tipo.values();
+    private static final Simbolo.Categoria[] CATEGORIAS = Simbolo.Categoria.values();
+
+    private final ByteBuffer buf;
+    private final int cantidadCadenas;
+    /** Posición de la tabla de inicios y de los bytes UTF-8 */
+    private final int offInicios;
+    private final int offBytes;
+    private final String[] decodificadas;
+    private final int offCodigo;
+    private final int cantidadListas;
+    private final int offSimbolos;
+
+    public static LectorBinarioC3D abrir(Path ruta) throws IOException {
+        try (FileChannel ch = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            return new LectorBinarioC3D(ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()));
+        }
+    }
+
+    public LectorBinarioC3D(ByteBuffer datos) throws IOException {
+        this.buf = datos.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if (buf.limit() < EscritorBinarioC3D.TAMANIO_CABECERA || buf.getInt(0) != EscritorBinarioC3D.MAGIA) {
+            throw new IOException("No es un archivo C3DB");
+        }
+        int version = buf.getShort(4) & 0xFFFF;
+        if (version != EscritorBinarioC3D.VERSION) {
+            throw new IOException("Versión de C3DB no soportada: " + version);
+        }
+        if (buf.getInt(20) != buf.limit()) {
+            throw new IOException("Archivo C3DB truncado");
+        }
+        int offCadenas = buf.getInt(8);
+        this.offCodigo = buf.getInt(12);
+        this.offSimbolos = buf.getInt(16);
+        this.cantidadCadenas = buf.getInt(offCadenas);
+        this.offInicios = offCadenas + 4;
+        this.offBytes = offInicios + 4 * (cantidadCadenas + 1);
+        this.decodificadas = new String[cantidadCadenas];
+        this.cantidadListas = buf.getInt(offCodigo);
+    }
+
+    public int getCantidadCadenas() {
+        return cantidadCadenas;
+    }
+
+    /** Cadena {@code i} de la tabla; se decodifica la primera vez que se pide */
+    public String cadena(int i) {
+        String s = decodificadas[i];
+        if (s == null) {
+            int desde = buf.getInt(offInicios + 4 * i);
+            int hasta = buf.getInt(offInicios + 4 * (i + 1));
+            byte[] b = new byte[hasta - desde];
+            buf.get(offBytes + desde, b);
+            s = new String(b, StandardCharsets.UTF_8);
+            decodificadas[i] = s;
+        }
+        return s;
+    }
+
+    public int getCantidadListas() {
+        return cantidadListas;
+    }
+
+    public String getNombreLista(int k) {
+        return cadena(buf.getInt(directorio(k)));
+    }
+
+    public int getCantidadInstrucciones(int k) {
+        return buf.getInt(directorio(k) + 4);
+    }
+
+    /** Índice de la lista con ese nombre, o -1 */
+    public int buscarLista(String nombre) {
+        for (int k = 0; k < cantidadListas; k++) {
+            if (getNombreLista(k).equals(nombre)) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    public Cursor cursor(int lista) {
+        return new Cursor(buf.getInt(directorio(lista) + 8), getCantidadInstrucciones(lista));
+    }
+
+    /** Reconstruye el texto de una lista (crea un String por instrucción) */
+    public List<String> leerCodigo(int lista) {
+        List<String> out = new ArrayList<>(getCantidadInstrucciones(lista));
+        Cursor c = cursor(lista);
+        while (c.siguiente()) {
+            out.add(c.instruccion().toString());
+        }
+        return out;
+    }
+
+    public List<Simbolo> leerSimbolos() {
+        int[] pos = {offSimbolos};
+        int n = varint(pos);
+        List<Simbolo> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            String nombre = cadena(varint(pos));
+            String tipo = cadena(varint(pos));
+            Simbolo.Categoria categoria = CATEGORIAS[varint(pos)];
+            int linea = zigzag(varint(pos));
+            int columna = zigzag(varint(pos));
+            String ambito = cadena(varint(pos));
+            int flags = varint(pos);
+            int orden = zigzag(varint(pos));
+            Simbolo s = new Simbolo(nombre, tipo, categoria, linea, columna, ambito, (flags & 1) != 0, orden);
+            s.setInicializada((flags & 2) != 0);
+            s.setUsada((flags & 4) != 0);
+            int params = varint(pos);
+            for (int p = 0; p < params; p++) {
+                s.agregarParametro(cadena(varint(pos)));
+            }
+            out.add(s);
+        }
+        return out;
+    }
+
+    /**
+     * Recorrido secuencial de una lista de instrucciones. Después de cada
+     * {@link #siguiente()} exitoso, {@link #tipo()} y {@link #operando(int)}
+     * describen la instrucción actual.
+     */
+    public final class Cursor {
+        private final int[] pos = new int[1];
+        private final int[] operandos = new int[4];
+        private int restantes;
+        private Instruccion.Tipo tipo;
+
+        private Cursor(int offset, int cantidad) {
+            this.pos[0] = offset;
+            this.restantes = cantidad;
+        }
+
+        public boolean siguiente() {
+            if (restantes == 0) {
+                return false;
+            }
+            restantes--;
+            tipo = TIPOS[varint(pos)];
+            for (int k = 0; k < tipo.getOperandos(); k++) {
+                operandos[k] = varint(pos);
+            }
+            return true;
+        }
+
+        public Instruccion.Tipo tipo() {
+            return tipo;
+        }
+
+        /** Índice en la tabla de cadenas del operando {@code k} */
+        public int operando(int k) {
+            return operandos[k];
+        }
+
+        public String texto(int k) {
+            return cadena(operandos[k]);
+        }
+
+        public Instruccion instruccion() {
+            String[] ops = new String[tipo.getOperandos()];
+            for (int k = 0; k < ops.length; k++) {
+                ops[k] = texto(k);
+            }
+            return new Instruccion(tipo, ops);
+        }
+    }
+
+    private int directorio(int k) {
+        if (k < 0 || k >= cantidadListas) {
+            throw new IndexOutOfBoundsException("Lista " + k);
+        }
+        return offCodigo + 4 + 16 * k;
+    }
+
+    private int varint(int[] pos) {
+        int v = 0;
+        int desplazamiento = 0;
+        byte b;
+        do {
+            b = buf.get(pos[0]++);
+            v |= (b & 0x7F) << desplazamiento;
+            desplazamiento += 7;
+        } while (b < 0);
+        return v;
+    }
+
+    private static int zigzag(int v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+}
@@ -0,0 +1,162 @@
+package com.compilador.c3d;
+
+/**
+ * Operaciones tipadas del C3D. El prefijo dice el tipo de los operandos
+ * (I: int o char, D: double, L: lógicos), así quien ejecute o traduzca el
+ * código no necesita mirar los valores para saber qué operación hacer:
+ * <pre>
+ *     t = a IADD b        if a DLT b goto L        t = I2D a
+ * </pre>
+ * Las relacionales y lógicas dan un int (0 o 1).
+ */
+public enum Operacion {
+    IADD("+", false), ISUB("-", false), IMUL("*", false), IDIV("/", false), IMOD("%", false),
+    DADD("+", true),  DSUB("-", true),  DMUL("*", true),  DDIV("/", true),  DMOD("%", true),
+    ILT("<", false),  ILE("<=", false), IGT(">", false),  IGE(">=", false), IEQ("==", false), INE("!=", false),
+    DLT("<", true),   DLE("<=", true),  DGT(">", true),   DGE(">=", true),  DEQ("==", true),  DNE("!=", true),
+    LAND("&&", false), LOR("||", false),
+    /** Conversión int → double; es la única unaria */
+    I2D("", false);
+
+    private final String simbolo;
+    private final boolean doble;
+
+    Operacion(String simbolo, boolean doble) {
+        this.simbolo = simbolo;
+        this.doble = doble;
+    }
+
+    /** Operador del lenguaje (+, &lt;=, &amp;&amp;, …) */
+    public String getSimbolo() {
+        return simbolo;
+    }
+
+    /** Si los operandos son double */
+    public boolean esDoble() {
+        return doble;
+    }
+
+    public boolean esRelacional() {
+        return ordinal() >= ILT.ordinal() && ordinal() <= DNE.ordinal();
+    }
+
+    /** Tipo del resultado: "double" para la aritmética con double y la conversión, si no "int" */
+    public String getTipoResultado() {
+        return this == I2D || (doble && !esRelacional()) ? "double" : "int";
+    }
+
+    /**
+     * Operación para un operador binario del lenguaje (=&gt; y =&lt; son alias
+     * de &gt;= y &lt;=), o null si no hay.
+     *
+     * @param doble si los operandos son double (ya convertidos)
+     */
+    public static Operacion binaria(String simbolo, boolean doble) {
+        switch (simbolo) {
+            case "=>": simbolo = ">="; break;
+            case "=<": simbolo = "<="; break;
+            case "&&": return LAND;
+            case "||": return LOR;
+            default:   break;
+        }
+        for (Operacion o : values()) {
+            if (o.doble == doble && o.simbolo.equals(simbolo) && o != I2D) {
+                return o;
+            }
+        }
+        return null;
+    }
+
+    /** La operación con ese nombre, o null (p. ej. para un operador sin tipo como "+") */
+    public static Operacion buscar(String nombre) {
+        if (nombre.isEmpty() || !Character.isUpperCase(nombre.charAt(0))) {
+            return null;
+        }
+        try {
+            return valueOf(nombre);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Relacional opuesta (ILT → IGE); para no negar el resultado de la comparación.
+     * En las D* no es la negación cuando hay NaN: DLT y DGE son falsas las dos.
+     */
+    public Operacion negada() {
+        switch (this) {
+            case ILT: return IGE;
+            case ILE: return IGT;
+            case IGT: return ILE;
+            case IGE: return ILT;
+            case IEQ: return INE;
+            case INE: return IEQ;
+            case DLT: return DGE;
+            case DLE: return DGT;
+            case DGT: return DLE;
+            case DGE: return DLT;
+            case DEQ: return DNE;
+            case DNE: return DEQ;
+            default:  throw new IllegalStateException(this + " no es relacional");
+        }
+    }
+
+    /**
+     * Resultado de aplicar la operación a dos literales, con la aritmética del
+     * tipo (división entera, desborde de int, double de Java), o null si no se
+     * puede calcular en compilación: operandos que no son literales, división
+     * entera por cero, o un double que no se escribe como literal del lenguaje.
+     * Para {@link #I2D} se ignora {@code b}.
+     */
+    public String evaluar(String a, String b) {
+        try {
+            if (this == I2D) {
+                return literal((double) Integer.parseInt(a));
+            }
+            if (doble) {
+                double x = Double.parseDouble(a), y = Double.parseDouble(b);
+                switch (this) {
+                    case DADD: return literal(x + y);
+                    case DSUB: return literal(x - y);
+                    case DMUL: return literal(x * y);
+                    case DDIV: return literal(x / y);
+                    case DMOD: return literal(x % y);
+                    case DLT:  return booleano(x < y);
+                    case DLE:  return booleano(x <= y);
+                    case DGT:  return booleano(x > y);
+                    case DGE:  return booleano(x >= y);
+                    case DEQ:  return booleano(x == y);
+                    default:   return booleano(x != y);
+                }
+            }
+            int x = Integer.parseInt(a), y = Integer.parseInt(b);
+            switch (this) {
+                case IADD: return String.valueOf(x + y);
+                case ISUB: return String.valueOf(x - y);
+                case IMUL: return String.valueOf(x * y);
+                case IDIV: return y != 0 ? String.valueOf(x / y) : null;
+                case IMOD: return y != 0 ? String.valueOf(x % y) : null;
+                case ILT:  return booleano(x < y);
+                case ILE:  return booleano(x <= y);
+                case IGT:  return booleano(x > y);
+                case IGE:  return booleano(x >= y);
+                case IEQ:  return booleano(x == y);
+                case INE:  return booleano(x != y);
+                case LAND: return booleano(x != 0 && y != 0);
+                default:   return booleano(x != 0 || y != 0);
+            }
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    private static String booleano(boolean b) {
+        return b ? "1" : "0";
+    }
+
+    /** Literal DECIMAL (dígitos.dígitos, con signo) o null si no tiene esa forma (1E10, NaN, ∞) */
+    private static String literal(double d) {
+        String s = Double.toString(d);
+        return s.matches("-?\\d+\\.\\d+") ? s : null;
+    }
+}
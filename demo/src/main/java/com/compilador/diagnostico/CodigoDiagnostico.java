@@ -0,0 +1,66 @@
+package com.compilador.diagnostico;
+
+/**
+ * Catálogo de diagnósticos del compilador. Cada código tiene su severidad y
+ * la plantilla del mensaje; los dos primeros {@code %d} son línea y columna y
+ * los {@code %s} siguientes, los argumentos del {@link Diagnostico}.
+ */
+public enum CodigoDiagnostico {
+
+    // ---------- Léxicos y sintácticos (mensaje de ANTLR como argumento) ----------
+    ERROR_LEXICO(Severidad.ERROR, "[Error léxico] Línea %d:%d %s"),
+    ERROR_SINTACTICO(Severidad.ERROR, "[Error sintáctico] Línea %d:%d %s"),
+    SIMBOLO_INESPERADO(Severidad.ERROR, "[Error sintáctico] Línea %d:%d. Símbolo inesperado '%s'."),
+
+    // ---------- Errores semánticos ----------
+    FUNCION_REDECLARADA(Severidad.ERROR, "[Error] Línea %d:%d. Función '%s' ya declarada en ámbito global."),
+    PARAMETRO_REDECLARADO(Severidad.ERROR, "[Error] Línea %d:%d. Parámetro '%s' ya declarado en función '%s'."),
+    VARIABLE_REDECLARADA_CON_OTRO_TIPO(Severidad.ERROR,
+            "[Error] Línea %d:%d. Variable '%s' ya declarada con tipo '%s' en ámbito '%s'; no se puede redeclarar como '%s'."),
+    IDENTIFICADOR_NO_DECLARADO(Severidad.ERROR, "[Error] Línea %d:%d. Identificador '%s' no declarado."),
+    ASIGNACION_A_NO_DECLARADA(Severidad.ERROR, "[Error] Línea %d:%d. Asignación a variable '%s' no declarada."),
+    ASIGNACION_A_CONSTANTE(Severidad.ERROR, "[Error] Línea %d:%d. No se puede reasignar a la constante '%s'."),
+    ASIGNACION_TIPO_INCOMPATIBLE(Severidad.ERROR, "[Error] Línea %d:%d. Tipo mismatched: no se puede asignar '%s' a '%s'."),
+    FUNCION_NO_DECLARADA(Severidad.ERROR, "[Error] Línea %d:%d. Función '%s' no declarada."),
+    LLAMADA_ANTES_DE_DECLARACION(Severidad.ERROR, "[Error] Línea %d:%d. Llamada a función '%s' antes de su declaración."),
+    CANTIDAD_DE_ARGUMENTOS(Severidad.ERROR,
+            "[Error] Línea %d:%d. Llamada a '%s' con %s parámetro(s), pero se esperaban %s."),
+    TIPO_DE_ARGUMENTO(Severidad.ERROR,
+            "[Error] Línea %d:%d. En llamada a '%s', parámetro %s: se esperaba '%s', se encontró '%s'."),
+    RETURN_FUERA_DE_FUNCION(Severidad.ERROR, "[Error] Línea %d:%d. 'return' fuera de una función."),
+    RETURN_EN_FUNCION_VOID(Severidad.ERROR, "[Error] Línea %d:%d. Función '%s' es void y no debe retornar valor."),
+    RETURN_SIN_VALOR(Severidad.ERROR, "[Error] Línea %d:%d. Función '%s' debe retornar tipo '%s'."),
+    RETURN_TIPO_INCOMPATIBLE(Severidad.ERROR,
+            "[Error] Línea %d:%d. No se puede retornar tipo '%s' desde función '%s' que espera '%s'."),
+    OPERACION_NO_PERMITIDA(Severidad.ERROR, "[Error] Línea %d:%d. Operación '%s' no permitida entre '%s' y '%s'."),
+
+    // ---------- Warnings ----------
+    PARAMETRO_NO_USADO(Severidad.WARNING, "[Warning] Línea %d:%d. Parámetro '%s' en función '%s' nunca usado."),
+    VARIABLE_REDECLARADA(Severidad.WARNING,
+            "[Warning] Línea %d:%d. Variable '%s' ya declarada en ámbito '%s'; ignorando redeclaración."),
+    VARIABLE_SIN_INICIALIZAR(Severidad.WARNING,
+            "[Warning] Línea %d:%d. Variable '%s' declarada sin inicializar en ámbito '%s'."),
+    VARIABLE_FOR_SIN_INICIALIZAR(Severidad.WARNING,
+            "[Warning] Línea %d:%d. Variable '%s' en for declarada sin inicializar en ámbito '%s'."),
+    USO_NO_INICIALIZADA(Severidad.WARNING, "[Warning] Línea %d:%d. Uso de variable '%s' no inicializada."),
+    VARIABLE_NO_USADA(Severidad.WARNING, "[Warning] Línea %d:%d. Variable '%s' declarada pero nunca usada."),
+    FUNCION_NO_LLAMADA(Severidad.WARNING, "[Warning] Línea %d:%d. Función '%s' declarada pero nunca llamada."),
+    WHILE_INFINITO(Severidad.WARNING, "[Warning] Línea %d:%d. Bucle 'while' potencialmente infinito."),
+    FOR_INFINITO(Severidad.WARNING, "[Warning] Línea %d:%d. Bucle 'for' potencialmente infinito.");
+
+    private final Severidad severidad;
+    private final String plantilla;
+
+    CodigoDiagnostico(Severidad severidad, String plantilla) {
+        this.severidad = severidad;
+        this.plantilla = plantilla;
+    }
+
+    public Severidad getSeveridad() {
+        return severidad;
+    }
+
+    public String getPlantilla() {
+        return plantilla;
+    }
+}
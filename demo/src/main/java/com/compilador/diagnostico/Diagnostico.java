@@ -0,0 +1,73 @@
+package com.compilador.diagnostico;
+
+import java.util.List;
+
+/**
+ * Diagnóstico estructurado: código, posición y argumentos. El texto sólo se
+ * arma con {@link #mensaje()} cuando alguien lo imprime, así los warnings
+ * que nadie mira no cuestan un String.format.
+ *
+ * @param codigo  qué se detectó (define severidad y plantilla)
+ * @param linea   línea del token (1..n)
+ * @param columna columna del token (0..n)
+ * @param args    argumentos de la plantilla, ya convertidos a texto
+ */
+public record Diagnostico(CodigoDiagnostico codigo, int linea, int columna, List<String> args) {
+
+    public Diagnostico {
+        args = List.copyOf(args);
+    }
+
+    public static Diagnostico de(CodigoDiagnostico codigo, int linea, int columna, Object... args) {
+        String[] texto = new String[args.length];
+        for (int i = 0; i < args.length; i++) {
+            texto[i] = String.valueOf(args[i]);
+        }
+        return new Diagnostico(codigo, linea, columna, List.of(texto));
+    }
+
+    public Severidad severidad() {
+        return codigo.getSeveridad();
+    }
+
+    public boolean esError() {
+        return codigo.getSeveridad() == Severidad.ERROR;
+    }
+
+    /** El mismo diagnóstico {@code delta} líneas más abajo (o más arriba si es negativo) */
+    public Diagnostico desplazar(int delta) {
+        return delta == 0 ? this : new Diagnostico(codigo, linea + delta, columna, args);
+    }
+
+    /** Texto legible, p. ej. "[Warning] Línea 4:8. Uso de variable 'x' no inicializada." */
+    public String mensaje() {
+        Object[] valores = new Object[args.size() + 2];
+        valores[0] = linea;
+        valores[1] = columna;
+        for (int i = 0; i < args.size(); i++) {
+            valores[i + 2] = args.get(i);
+        }
+        return String.format(codigo.getPlantilla(), valores);
+    }
+
+    /** Agrega el diagnóstico como objeto JSON */
+    public void escribirJson(StringBuilder sb) {
+        sb.append("{\"codigo\":\"").append(codigo.name())
+          .append("\",\"severidad\":\"").append(severidad().name().toLowerCase())
+          .append("\",\"linea\":").append(linea)
+          .append(",\"columna\":").append(columna)
+          .append(",\"args\":[");
+        for (int i = 0; i < args.size(); i++) {
+            if (i > 0) sb.append(',');
+            Diagnosticos.escaparJson(sb, args.get(i));
+        }
+        sb.append("],\"mensaje\":");
+        Diagnosticos.escaparJson(sb, mensaje());
+        sb.append('}');
+    }
+
+    @Override
+    public String toString() {
+        return mensaje();
+    }
+}
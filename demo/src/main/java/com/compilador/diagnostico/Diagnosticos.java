@@ -0,0 +1,180 @@
+package com.compilador.diagnostico;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Colector de diagnósticos:
+ * • Descarta duplicados exactos (mismo código, posición y argumentos)
+ * • Aplica un tope por código; lo que lo supera sólo se cuenta como suprimido
+ *   (sin guardarse, así que un duplicado suprimido se cuenta dos veces)
+ * • Permite ignorar códigos por completo
+ * • Exporta todo como JSON
+ * Errores y warnings se guardan por separado, cada uno en orden de llegada.
+ */
+public class Diagnosticos {
+
+    private static final int CODIGOS = CodigoDiagnostico.values().length;
+
+    private final List<Diagnostico> errores  = new ArrayList<>();
+    private final List<Diagnostico> warnings = new ArrayList<>();
+    private final Set<Diagnostico> vistos    = new HashSet<>();
+
+    private final int[] limites    = new int[CODIGOS];
+    private final int[] aceptados  = new int[CODIGOS];
+    private final int[] suprimidos = new int[CODIGOS];
+    private final boolean[] ignorados = new boolean[CODIGOS];
+
+    /** Sin tope por código */
+    public Diagnosticos() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /** @param limitePorCodigo máximo de diagnósticos que se guardan de cada código */
+    public Diagnosticos(int limitePorCodigo) {
+        Arrays.fill(limites, limitePorCodigo);
+    }
+
+    public void setLimite(CodigoDiagnostico codigo, int limite) {
+        limites[codigo.ordinal()] = limite;
+    }
+
+    /** Los diagnósticos de este código se descartan sin contarse como suprimidos */
+    public void ignorar(CodigoDiagnostico codigo) {
+        ignorados[codigo.ordinal()] = true;
+    }
+
+    public boolean agregar(CodigoDiagnostico codigo, int linea, int columna, Object... args) {
+        if (ignorados[codigo.ordinal()]) {
+            return false;
+        }
+        return agregar(Diagnostico.de(codigo, linea, columna, args));
+    }
+
+    /**
+     * @return {@code true} si el diagnóstico se guardó; {@code false} si era un
+     *         duplicado, su código está ignorado o ya alcanzó el tope
+     */
+    public boolean agregar(Diagnostico d) {
+        int c = d.codigo().ordinal();
+        if (ignorados[c]) {
+            return false;
+        }
+        // Pasado el tope no se guarda nada, ni siquiera en vistos: la memoria
+        // queda acotada aunque lleguen millones de errores
+        if (aceptados[c] >= limites[c]) {
+            suprimidos[c]++;
+            return false;
+        }
+        if (!vistos.add(d)) {
+            return false;
+        }
+        aceptados[c]++;
+        (d.esError() ? errores : warnings).add(d);
+        return true;
+    }
+
+    public void agregarTodos(List<Diagnostico> lista) {
+        for (Diagnostico d : lista) {
+            agregar(d);
+        }
+    }
+
+    public List<Diagnostico> getErrores() {
+        return Collections.unmodifiableList(errores);
+    }
+
+    public List<Diagnostico> getWarnings() {
+        return Collections.unmodifiableList(warnings);
+    }
+
+    public boolean hayErrores() {
+        return !errores.isEmpty();
+    }
+
+    /** Cantidad de diagnósticos descartados por el tope, por código, contando las repeticiones */
+    public Map<CodigoDiagnostico, Integer> getSuprimidos() {
+        Map<CodigoDiagnostico, Integer> m = new EnumMap<>(CodigoDiagnostico.class);
+        for (CodigoDiagnostico codigo : CodigoDiagnostico.values()) {
+            if (suprimidos[codigo.ordinal()] > 0) {
+                m.put(codigo, suprimidos[codigo.ordinal()]);
+            }
+        }
+        return m;
+    }
+
+    /**
+     * Vista de sólo lectura con el texto de cada diagnóstico; el mensaje se
+     * arma recién al pedir cada elemento y sigue los cambios de {@code lista}.
+     */
+    public static List<String> mensajes(List<Diagnostico> lista) {
+        return new AbstractList<String>() {
+            @Override
+            public String get(int i) {
+                return lista.get(i).mensaje();
+            }
+
+            @Override
+            public int size() {
+                return lista.size();
+            }
+        };
+    }
+
+    /**
+     * Documento JSON con los totales, lo suprimido por el tope y cada
+     * diagnóstico (errores primero, luego warnings).
+     */
+    public String aJson() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"errores\":").append(errores.size())
+          .append(",\"warnings\":").append(warnings.size())
+          .append(",\"suprimidos\":{");
+        boolean primero = true;
+        for (Map.Entry<CodigoDiagnostico, Integer> e : getSuprimidos().entrySet()) {
+            if (!primero) sb.append(',');
+            primero = false;
+            sb.append('"').append(e.getKey().name()).append("\":").append(e.getValue());
+        }
+        sb.append("},\"diagnosticos\":[");
+        primero = true;
+        for (List<Diagnostico> lista : List.of(errores, warnings)) {
+            for (Diagnostico d : lista) {
+                sb.append(primero ? "\n  " : ",\n  ");
+                primero = false;
+                d.escribirJson(sb);
+            }
+        }
+        sb.append("\n]}\n");
+        return sb.toString();
+    }
+
+    /** Agrega {@code s} como string JSON entre comillas */
+    public static void escaparJson(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char ch = s.charAt(i);
+            switch (ch) {
+                case '"':  sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (ch < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) ch));
+                    } else {
+                        sb.append(ch);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+}
@@ -0,0 +1,10 @@
+package com.compilador.diagnostico;
+
+/**
+ * Gravedad de un diagnóstico: los errores impiden generar código, los
+ * warnings sólo se informan.
+ */
+public enum Severidad {
+    ERROR,
+    WARNING
+}
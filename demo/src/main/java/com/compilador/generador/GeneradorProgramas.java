@@ -0,0 +1,535 @@
+package com.compilador.generador;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generador de programas sintéticos de MiniLenguaje para benchmarks y
+ * pruebas de estrés. Con la misma configuración y semilla produce siempre
+ * el mismo programa.
+ * <p>
+ * El programa se escribe a medida que se genera: la firma de cada función
+ * se deriva de la semilla y de su índice, así que para llamar a una función
+ * anterior no hace falta recordarla y la memoria usada no depende del
+ * tamaño de la salida.
+ * <p>
+ * Sin errores inyectados el programa es sintáctica y semánticamente válido
+ * (puede tener warnings, p. ej. funciones que nadie llama):
+ * <ul>
+ *     <li>cada función sólo llama a funciones declaradas antes, con la
+ *     cantidad y el tipo de argumentos correctos;</li>
+ *     <li>toda variable se declara inicializada y con nombre único en su función;</li>
+ *     <li>divisiones y módulos siempre por un literal distinto de cero;</li>
+ *     <li>los ciclos tienen un contador y terminan.</li>
+ * </ul>
+ * Con {@link #tasaErrores(double)} cada función puede llevar un error
+ * semántico que produce exactamente un diagnóstico de error.
+ */
+public class GeneradorProgramas {
+
+    /** Errores semánticos que se pueden inyectar (uno por función como máximo) */
+    public enum ErrorInyectado {
+        IDENTIFICADOR_NO_DECLARADO,
+        ASIGNACION_A_NO_DECLARADA,
+        FUNCION_NO_DECLARADA,
+        CANTIDAD_DE_ARGUMENTOS,
+        ASIGNACION_TIPO_INCOMPATIBLE
+    }
+
+    /** Lo que se escribió */
+    public record Resumen(long lineas, int funciones, int erroresInyectados) {
+    }
+
+    private static final String[] OPERADORES_INT = {"+", "-", "*", "/", "%"};
+    private static final String[] OPERADORES_DOUBLE = {"+", "-", "*", "/"};
+    private static final String[] RELACIONALES = {"<", ">", "<=", ">=", "==", "!="};
+
+    private long semilla = 42;
+    private int funciones = 100;
+    private long lineasObjetivo = 0;
+    private int sentencias = 4;
+    private int profundidad = 3;
+    private int longitudExpresion = 4;
+    private double densidadCiclos = 0.3;
+    private int llamadas = 2;
+    private int maxParametros = 3;
+    private double tasaErrores = 0;
+
+    // Estado de la generación en curso
+    private Writer out;
+    private Random r;
+    private long lineas;
+    private int errores;
+    private int sangria;
+    private int siguienteVariable;
+    private final List<Variable> visibles = new ArrayList<>();
+
+    /** {@code contador}: variable de control de un ciclo; se lee pero no se asigna */
+    private record Variable(String nombre, boolean esDouble, boolean contador) {
+        Variable(String nombre, boolean esDouble) {
+            this(nombre, esDouble, false);
+        }
+    }
+
+    /** Firma de una función, derivable en cualquier momento de la semilla y el índice */
+    private record Firma(String retorno, boolean[] paramsDouble) {
+    }
+
+    public GeneradorProgramas semilla(long semilla) {
+        this.semilla = semilla;
+        return this;
+    }
+
+    /** Cantidad de funciones antes de {@code main} (se ignora si se fijaron líneas) */
+    public GeneradorProgramas funciones(int funciones) {
+        this.funciones = Math.max(1, funciones);
+        return this;
+    }
+
+    /** Genera funciones hasta superar esta cantidad de líneas (0 = usar {@link #funciones(int)}) */
+    public GeneradorProgramas lineas(long lineas) {
+        this.lineasObjetivo = Math.max(0, lineas);
+        return this;
+    }
+
+    /** Sentencias por bloque */
+    public GeneradorProgramas sentencias(int sentencias) {
+        this.sentencias = Math.max(1, sentencias);
+        return this;
+    }
+
+    /** Máximo anidamiento de if/while/for dentro de una función */
+    public GeneradorProgramas profundidad(int profundidad) {
+        this.profundidad = Math.max(0, profundidad);
+        return this;
+    }
+
+    /** Máximo de operandos por expresión */
+    public GeneradorProgramas longitudExpresion(int longitud) {
+        this.longitudExpresion = Math.max(1, longitud);
+        return this;
+    }
+
+    /** Probabilidad (0-1) de que una sentencia compuesta sea un ciclo en vez de un if */
+    public GeneradorProgramas densidadCiclos(double densidad) {
+        this.densidadCiclos = Math.min(1, Math.max(0, densidad));
+        return this;
+    }
+
+    /** Llamadas a funciones anteriores dentro de cada función (fan-out) */
+    public GeneradorProgramas llamadas(int llamadas) {
+        this.llamadas = Math.max(0, llamadas);
+        return this;
+    }
+
+    public GeneradorProgramas maxParametros(int maxParametros) {
+        this.maxParametros = Math.max(0, maxParametros);
+        return this;
+    }
+
+    /** Probabilidad (0-1) de inyectar un error semántico en cada función */
+    public GeneradorProgramas tasaErrores(double tasa) {
+        this.tasaErrores = Math.min(1, Math.max(0, tasa));
+        return this;
+    }
+
+    /** Escribe el programa en un archivo (UTF-8, con buffer de 1 MiB) */
+    public Resumen generar(Path destino) throws IOException {
+        try (Writer w = new BufferedWriter(new OutputStreamWriter(
+                Files.newOutputStream(destino), StandardCharsets.UTF_8), 1 << 20)) {
+            return generar(w);
+        }
+    }
+
+    /** Programa completo como cadena (tamaños chicos: tests y benchmarks) */
+    public String generarTexto() {
+        StringWriter sw = new StringWriter();
+        try {
+            generar(sw);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+        return sw.toString();
+    }
+
+    /** Escribe el programa; no cierra el writer */
+    public Resumen generar(Writer destino) throws IOException {
+        out = destino;
+        r = new Random(semilla);
+        lineas = 0;
+        errores = 0;
+        sangria = 0;
+
+        int n = 0;
+        while (lineasObjetivo > 0 ? lineas < lineasObjetivo : n < funciones) {
+            funcion(n++);
+        }
+        principal(n);
+        out.flush();
+        return new Resumen(lineas, n, errores);
+    }
+
+    // ------------------------------------------------------------
+    // Funciones
+    // ------------------------------------------------------------
+
+    private Firma firma(int indice) {
+        Random rf = new Random(semilla * 0x9E3779B97F4A7C15L + indice);
+        int p = rf.nextInt(maxParametros + 1);
+        boolean[] dobles = new boolean[p];
+        for (int i = 0; i < p; i++) {
+            dobles[i] = rf.nextInt(4) == 0;
+        }
+        int t = rf.nextInt(8);
+        String retorno = t < 5 ? "int" : t < 7 ? "double" : "void";
+        return new Firma(retorno, dobles);
+    }
+
+    private void funcion(int indice) throws IOException {
+        Firma f = firma(indice);
+        visibles.clear();
+        siguienteVariable = 0;
+
+        StringBuilder cab = new StringBuilder();
+        cab.append(f.retorno()).append(" f").append(indice).append('(');
+        for (int i = 0; i < f.paramsDouble().length; i++) {
+            if (i > 0) {
+                cab.append(", ");
+            }
+            String nombre = "p" + i;
+            cab.append(f.paramsDouble()[i] ? "double " : "int ").append(nombre);
+            visibles.add(new Variable(nombre, f.paramsDouble()[i]));
+        }
+        cab.append(") {");
+        linea(cab.toString());
+        sangria++;
+
+        // Primera sentencia: usa todos los parámetros (evita warnings de parámetro no usado)
+        boolean algunDouble = false;
+        StringBuilder ini = new StringBuilder();
+        for (Variable v : visibles) {
+            algunDouble |= v.esDouble();
+            ini.append(ini.length() == 0 ? "" : " + ").append(v.nombre());
+        }
+        if (ini.length() == 0) {
+            ini.append(1 + r.nextInt(9));
+        }
+        declarar(algunDouble, ini.toString());
+
+        int errorEn = indice > 0 && r.nextDouble() < tasaErrores ? r.nextInt(sentencias) : -1;
+        int pendientes = indice > 0 ? llamadas : 0;
+        int huecos = sentencias + pendientes;
+        for (int s = 0; s < sentencias; s++) {
+            while (pendientes > 0 && r.nextInt(huecos) < pendientes) {
+                llamada(indice);
+                pendientes--;
+                huecos--;
+            }
+            if (s == errorEn) {
+                inyectarError(indice);
+            }
+            sentencia(0);
+            huecos--;
+        }
+        while (pendientes-- > 0) {
+            llamada(indice);
+        }
+
+        switch (f.retorno()) {
+            case "int":    linea("return " + expresion(false) + ";"); break;
+            case "double": linea("return " + expresion(true) + ";"); break;
+            default:       linea("return;");
+        }
+        sangria--;
+        linea("}");
+    }
+
+    /** main llama a las últimas funciones para que no queden todas sin usar */
+    private void principal(int cantidad) throws IOException {
+        visibles.clear();
+        siguienteVariable = 0;
+        linea("void main() {");
+        sangria++;
+        int desde = Math.max(0, cantidad - Math.max(1, llamadas));
+        for (int i = cantidad - 1; i >= desde; i--) {
+            llamarA(i);
+        }
+        sangria--;
+        linea("}");
+    }
+
+    // ------------------------------------------------------------
+    // Sentencias
+    // ------------------------------------------------------------
+
+    private void sentencia(int nivel) throws IOException {
+        int k = r.nextInt(10);
+        if (nivel < profundidad && k < 3) {
+            if (r.nextDouble() < densidadCiclos) {
+                if (r.nextBoolean()) {
+                    cicloFor(nivel);
+                } else {
+                    cicloWhile(nivel);
+                }
+            } else {
+                condicional(nivel);
+            }
+        } else if (k < 6 || !asignarVariable()) {
+            boolean esDouble = r.nextInt(4) == 0;
+            declarar(esDouble, expresion(esDouble));
+        }
+    }
+
+    private boolean asignarVariable() throws IOException {
+        if (visibles.isEmpty()) {
+            return false;
+        }
+        Variable v = visibles.get(r.nextInt(visibles.size()));
+        if (v.contador()) {
+            return false;
+        }
+        linea(v.nombre() + " = " + expresion(v.esDouble()) + ";");
+        return true;
+    }
+
+    private void condicional(int nivel) throws IOException {
+        linea("if (" + condicion() + ") {");
+        bloque(nivel + 1);
+        if (r.nextBoolean()) {
+            linea("} else {");
+            bloque(nivel + 1);
+        }
+        linea("}");
+    }
+
+    private void cicloFor(int nivel) throws IOException {
+        String i = nuevoNombre();
+        linea("for (int " + i + " = 0; " + i + " < " + (1 + r.nextInt(10)) + "; " + i + "++) {");
+        int marca = visibles.size();
+        visibles.add(new Variable(i, false, true));
+        bloque(nivel + 1);
+        recortar(marca);
+        linea("}");
+    }
+
+    private void cicloWhile(int nivel) throws IOException {
+        String w = nuevoNombre();
+        linea("int " + w + " = 0;");
+        int marca = visibles.size();
+        visibles.add(new Variable(w, false, true));
+        linea("while (" + w + " < " + (1 + r.nextInt(10)) + ") {");
+        bloque(nivel + 1);
+        sangria++;
+        linea(w + " = " + w + " + 1;");
+        sangria--;
+        linea("}");
+        recortar(marca);
+        visibles.add(new Variable(w, false));
+    }
+
+    /** Sentencias de un bloque anidado; lo declarado adentro no es visible afuera */
+    private void bloque(int nivel) throws IOException {
+        int marca = visibles.size();
+        sangria++;
+        int n = 1 + r.nextInt(Math.max(1, sentencias / 2));
+        for (int i = 0; i < n; i++) {
+            sentencia(nivel);
+        }
+        sangria--;
+        recortar(marca);
+    }
+
+    private void llamada(int indice) throws IOException {
+        llamarA(r.nextInt(indice));
+    }
+
+    private void llamarA(int destino) throws IOException {
+        Firma f = firma(destino);
+        StringBuilder sb = new StringBuilder();
+        sb.append('f').append(destino).append('(');
+        for (int i = 0; i < f.paramsDouble().length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(expresion(f.paramsDouble()[i]));
+        }
+        sb.append(')');
+        switch (f.retorno()) {
+            case "int":    declarar(false, sb.toString()); break;
+            case "double": declarar(true, sb.toString()); break;
+            default:       linea(sb + ";");
+        }
+    }
+
+    private void inyectarError(int indice) throws IOException {
+        ErrorInyectado tipo = ErrorInyectado.values()[r.nextInt(ErrorInyectado.values().length)];
+        String sufijo = indice + "_" + lineas;
+        switch (tipo) {
+            case IDENTIFICADOR_NO_DECLARADO:
+                declarar(false, "noDeclarada" + sufijo + " + 1");
+                break;
+            case ASIGNACION_A_NO_DECLARADA:
+                linea("noDeclarada" + sufijo + " = 1;");
+                break;
+            case FUNCION_NO_DECLARADA:
+                linea("noExiste" + sufijo + "(1);");
+                break;
+            case CANTIDAD_DE_ARGUMENTOS: {
+                int destino = r.nextInt(indice);
+                StringBuilder sb = new StringBuilder("f").append(destino).append('(');
+                for (int i = 0; i <= firma(destino).paramsDouble().length; i++) {
+                    sb.append(i > 0 ? ", " : "").append(i + 1);
+                }
+                linea(sb.append(");").toString());
+                break;
+            }
+            case ASIGNACION_TIPO_INCOMPATIBLE: {
+                String v = declarar(false, "0");
+                linea(v + " = " + r.nextInt(10) + ".5;");
+                break;
+            }
+        }
+        errores++;
+    }
+
+    // ------------------------------------------------------------
+    // Expresiones
+    // ------------------------------------------------------------
+
+    /** Expresión de tipo int, o double si {@code esDouble} (acepta operandos int) */
+    private String expresion(boolean esDouble) {
+        return expresion(esDouble, 1 + r.nextInt(longitudExpresion), 0);
+    }
+
+    private String expresion(boolean esDouble, int operandos, int parentesis) {
+        StringBuilder sb = new StringBuilder();
+        operando(sb, esDouble, parentesis);
+        for (int i = 1; i < operandos; i++) {
+            String op = esDouble
+                    ? OPERADORES_DOUBLE[r.nextInt(OPERADORES_DOUBLE.length)]
+                    : OPERADORES_INT[r.nextInt(OPERADORES_INT.length)];
+            sb.append(' ').append(op).append(' ');
+            if (op.equals("/") || op.equals("%")) {
+                // Todos los operadores tienen la misma precedencia: el divisor es este literal
+                sb.append(1 + r.nextInt(9));
+            } else {
+                operando(sb, esDouble, parentesis);
+            }
+        }
+        return sb.toString();
+    }
+
+    private void operando(StringBuilder sb, boolean esDouble, int parentesis) {
+        int k = r.nextInt(10);
+        if (k == 0 && parentesis < 2 && longitudExpresion > 1) {
+            sb.append('(').append(expresion(esDouble, 2 + r.nextInt(longitudExpresion - 1), parentesis + 1)).append(')');
+            return;
+        }
+        if (k < 6) {
+            Variable v = variable(esDouble);
+            if (v != null) {
+                sb.append(v.nombre());
+                return;
+            }
+        }
+        if (esDouble && k == 9) {
+            sb.append(r.nextInt(100)).append('.').append(r.nextInt(10));
+        } else {
+            sb.append(r.nextInt(100));
+        }
+    }
+
+    private String condicion() {
+        return expresion(false, 1 + r.nextInt(longitudExpresion), 0)
+                + ' ' + RELACIONALES[r.nextInt(RELACIONALES.length)] + ' ' + r.nextInt(100);
+    }
+
+    /** Variable visible utilizable en una expresión del tipo pedido, o null */
+    private Variable variable(boolean esDouble) {
+        if (visibles.isEmpty()) {
+            return null;
+        }
+        for (int intento = 0; intento < 4; intento++) {
+            Variable v = visibles.get(r.nextInt(visibles.size()));
+            if (esDouble || !v.esDouble()) {
+                return v;
+            }
+        }
+        return null;
+    }
+
+    // ------------------------------------------------------------
+    // Salida
+    // ------------------------------------------------------------
+
+    private String nuevoNombre() {
+        return "v" + siguienteVariable++;
+    }
+
+    private String declarar(boolean esDouble, String valor) throws IOException {
+        String nombre = nuevoNombre();
+        linea((esDouble ? "double " : "int ") + nombre + " = " + valor + ";");
+        visibles.add(new Variable(nombre, esDouble));
+        return nombre;
+    }
+
+    private void recortar(int tamanio) {
+        while (visibles.size() > tamanio) {
+            visibles.remove(visibles.size() - 1);
+        }
+    }
+
+    private void linea(String texto) throws IOException {
+        for (int i = 0; i < sangria; i++) {
+            out.write("    ");
+        }
+        out.write(texto);
+        out.write('\n');
+        lineas++;
+    }
+
+    /**
+     * Uso: {@code GeneradorProgramas <salida> [--funciones N] [--lineas N] [--semilla S]
+     * [--sentencias N] [--profundidad N] [--expresion N] [--ciclos P] [--llamadas N]
+     * [--parametros N] [--errores P]}
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Uso: GeneradorProgramas <salida> [--funciones N] [--lineas N] [--semilla S]"
+                    + " [--sentencias N] [--profundidad N] [--expresion N] [--ciclos P]"
+                    + " [--llamadas N] [--parametros N] [--errores P]");
+            System.exit(2);
+        }
+        GeneradorProgramas g = new GeneradorProgramas();
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            String v = args[i + 1];
+            switch (args[i]) {
+                case "--funciones":   g.funciones(Integer.parseInt(v)); break;
+                case "--lineas":      g.lineas(Long.parseLong(v)); break;
+                case "--semilla":     g.semilla(Long.parseLong(v)); break;
+                case "--sentencias":  g.sentencias(Integer.parseInt(v)); break;
+                case "--profundidad": g.profundidad(Integer.parseInt(v)); break;
+                case "--expresion":   g.longitudExpresion(Integer.parseInt(v)); break;
+                case "--ciclos":      g.densidadCiclos(Double.parseDouble(v)); break;
+                case "--llamadas":    g.llamadas(Integer.parseInt(v)); break;
+                case "--parametros":  g.maxParametros(Integer.parseInt(v)); break;
+                case "--errores":     g.tasaErrores(Double.parseDouble(v)); break;
+                default:
+                    System.err.println("Opción desconocida: " + args[i]);
+                    System.exit(2);
+            }
+        }
+        Resumen res = g.generar(Path.of(args[0]));
+        System.out.println(args[0] + ": " + res.lineas() + " líneas, " + res.funciones()
+                + " funciones, " + res.erroresInyectados() + " errores inyectados");
+    }
+}
@@ -0,0 +1,264 @@
+package com.compilador.incremental;
+
+import com.compilador.BufferFuncion;
+import com.compilador.CodigoVisitor;
+import com.compilador.MiniLenguajeLexer;
+import com.compilador.MiniLenguajeParser;
+import com.compilador.Optimizador;
+import com.compilador.diagnostico.CodigoDiagnostico;
+import com.compilador.diagnostico.Diagnostico;
+import com.compilador.semantico.Simbolo;
+import com.compilador.semantico.SimbolosListener;
+import com.compilador.semantico.TablaSimbolos;
+import org.antlr.v4.runtime.*;
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Operaciones por función compartidas por {@link CompiladorIncremental} y
+ * {@link FrontEndIncremental}: huella y clave de caché, análisis aislado de
+ * una función y ensamblado de los diagnósticos de todo el programa.
+ */
+final class AnalizadorFunciones {
+
+    private AnalizadorFunciones() { }
+
+    /** Hash del contenido de una función y los identificadores que nombra */
+    static final class Huella {
+        final String hash;
+        final Set<String> ids;
+
+        Huella(String hash, Set<String> ids) {
+            this.hash = hash;
+            this.ids = ids;
+        }
+    }
+
+    /**
+     * Tokens de la función (tipo, texto y posición relativa a su primera
+     * línea). Las posiciones entran en el hash para que los diagnósticos
+     * cacheados sigan siendo exactos.
+     */
+    static Huella huella(List<Token> tokens, SegmentoFuncion seg) {
+        int base = tokens.get(seg.getInicio()).getLine();
+        MessageDigest md = sha256();
+        actualizar(md, "v" + CacheFunciones.VERSION);
+        Set<String> ids = new LinkedHashSet<>();
+        for (int k = seg.getInicio(); k <= seg.getFin(); k++) {
+            Token t = tokens.get(k);
+            actualizar(md, t.getType() + ":" + (t.getLine() - base) + ":" + t.getCharPositionInLine()
+                    + ":" + t.getText());
+            if (t.getType() == MiniLenguajeLexer.ID) {
+                ids.add(t.getText());
+            }
+        }
+        return new Huella(hex(md.digest()), ids);
+    }
+
+    /**
+     * Clave de caché: la huella más, por cada función global que la función
+     * nombra, su firma si está declarada antes o sólo el nombre si no.
+     */
+    static String clave(Huella h, List<SegmentoFuncion> segmentos, int idx,
+                        Map<String, Integer> indicePorNombre) {
+        MessageDigest md = sha256();
+        actualizar(md, h.hash);
+        for (String nombre : h.ids) {
+            Integer j = indicePorNombre.get(nombre);
+            if (j != null) {
+                actualizar(md, "ref:" + (j < idx ? segmentos.get(j).getFirma() : nombre + "?"));
+            }
+        }
+        return hex(md.digest());
+    }
+
+    static Map<String, Integer> indicePorNombre(List<SegmentoFuncion> segmentos) {
+        Map<String, Integer> m = new HashMap<>();
+        for (int i = 0; i < segmentos.size(); i++) {
+            m.put(segmentos.get(i).getNombre(), i);
+        }
+        return m;
+    }
+
+    // ------------------------------------------------------------
+    // Análisis aislado
+    // ------------------------------------------------------------
+
+    /**
+     * Parsea y analiza una función con las anteriores ya declaradas.
+     *
+     * @param generarCodigo si además se genera y optimiza su C3D
+     * @param tolerante     si es {@code false} el primer error sintáctico lanza
+     *                      {@link IllegalArgumentException}; si es {@code true} los
+     *                      errores se guardan en la entrada y se analiza el árbol
+     *                      recuperado por ANTLR
+     */
+    static EntradaCache analizar(List<Token> tokens, List<SegmentoFuncion> segmentos, int idx,
+                                 boolean generarCodigo, boolean tolerante) {
+        SegmentoFuncion seg = segmentos.get(idx);
+        int base = tokens.get(seg.getInicio()).getLine();
+
+        List<Diagnostico> sintaxis = new ArrayList<>();
+        MiniLenguajeParser.DeclaracionFuncionContext fCtx =
+                parsear(tokens, seg, tolerante ? sintaxis : null);
+
+        SimbolosListener sem = new SimbolosListener();
+        for (int j = 0; j < idx; j++) {
+            SegmentoFuncion previa = segmentos.get(j);
+            Token id = previa.getId(tokens);
+            sem.predeclararFuncion(previa.getNombre(), previa.getTipoRetorno(),
+                    previa.getTiposParametros(), id.getLine(), id.getCharPositionInLine());
+        }
+        new ParseTreeWalker().walk(sem, fCtx);
+
+        TablaSimbolos tabla = sem.getTablaSimbolos();
+        List<Simbolo> locales = tabla.getSimbolosDeAmbito(seg.getNombre());
+        int nWarnings = sem.getDiagnosticos().getWarnings().size();
+        sem.advertirNoUsados(locales);
+
+        EntradaCache e = new EntradaCache();
+        for (Simbolo s : locales) {
+            e.simbolos.add(new EntradaCache.SimboloLocal(s.getNombre(), s.getTipo(), s.getCategoria(),
+                    s.getLinea() - base, s.getColumna(), s.esInicializada(), s.esUsada()));
+        }
+        e.errores.addAll(desplazarLineas(sintaxis, -base));
+        e.errores.addAll(desplazarLineas(sem.getDiagnosticos().getErrores(), -base));
+        List<Diagnostico> ws = sem.getDiagnosticos().getWarnings();
+        for (int k = 0; k < ws.size(); k++) {
+            (k < nWarnings ? e.warnings : e.warningsNoUsados).add(ws.get(k).desplazar(-base));
+        }
+        for (int j = 0; j <= idx; j++) {
+            Simbolo f = tabla.buscarEnAmbitoExacto("global", segmentos.get(j).getNombre());
+            if (f != null && f.esUsada()) {
+                e.funcionesUsadas.add(f.getNombre());
+            }
+        }
+
+        if (generarCodigo) {
+            BufferFuncion buffer = new CodigoVisitor(tabla).generarFuncion(fCtx);
+            e.codigoRaw.addAll(buffer.getCodigo());
+            e.codigoOpt.addAll(new Optimizador(buffer.getCodigo()).optimizar());
+            e.temporales = buffer.getNumTemporales();
+            e.etiquetas  = buffer.getNumEtiquetas();
+        }
+        return e;
+    }
+
+    private static MiniLenguajeParser.DeclaracionFuncionContext parsear(List<Token> tokens, SegmentoFuncion seg,
+                                                                       List<Diagnostico> errores) {
+        List<Token> sub = new ArrayList<>(tokens.subList(seg.getInicio(), seg.getFin() + 1));
+        MiniLenguajeParser parser = new MiniLenguajeParser(new CommonTokenStream(new ListTokenSource(sub)));
+        parser.removeErrorListeners();
+        parser.addErrorListener(new BaseErrorListener() {
+            @Override
+            public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol,
+                                    int line, int charPositionInLine, String msg,
+                                    RecognitionException e) {
+                if (errores == null) {
+                    throw new IllegalArgumentException("Línea " + line + ":" + charPositionInLine + " " + msg);
+                }
+                errores.add(Diagnostico.de(CodigoDiagnostico.ERROR_SINTACTICO, line, charPositionInLine, msg));
+            }
+        });
+        return parser.declaracionFuncion();
+    }
+
+    // ------------------------------------------------------------
+    // Ensamblado del programa completo
+    // ------------------------------------------------------------
+
+    /**
+     * Junta los diagnósticos de todas las funciones en el mismo orden que la
+     * compilación completa: los de cada recorrido y, al final, los de
+     * exitPrograma (función no llamada seguida de sus variables no usadas).
+     */
+    static void ensamblarDiagnosticos(List<Token> tokens, List<SegmentoFuncion> segmentos,
+                                      List<EntradaCache> entradas,
+                                      List<Diagnostico> errores, List<Diagnostico> warnings) {
+        Set<String> usadas = funcionesUsadas(entradas);
+        List<Diagnostico> noUsados = new ArrayList<>();
+        for (int i = 0; i < segmentos.size(); i++) {
+            SegmentoFuncion seg = segmentos.get(i);
+            EntradaCache e = entradas.get(i);
+            int base = tokens.get(seg.getInicio()).getLine();
+
+            errores.addAll(desplazarLineas(e.errores, base));
+            warnings.addAll(desplazarLineas(e.warnings, base));
+            Diagnostico noLlamada = advertenciaNoLlamada(tokens, seg, usadas);
+            if (noLlamada != null) noUsados.add(noLlamada);
+            noUsados.addAll(desplazarLineas(e.warningsNoUsados, base));
+        }
+        warnings.addAll(noUsados);
+    }
+
+    /** Warning de exitPrograma para una función que nadie llama (salvo main) */
+    static Diagnostico advertenciaNoLlamada(List<Token> tokens, SegmentoFuncion seg, Set<String> usadas) {
+        if (usadas.contains(seg.getNombre()) || seg.getNombre().equals("main")) {
+            return null;
+        }
+        Token id = seg.getId(tokens);
+        return Diagnostico.de(CodigoDiagnostico.FUNCION_NO_LLAMADA,
+                id.getLine(), id.getCharPositionInLine(), seg.getNombre());
+    }
+
+    static List<Diagnostico> desplazarLineas(List<Diagnostico> diagnosticos, int delta) {
+        List<Diagnostico> out = new ArrayList<>(diagnosticos.size());
+        for (Diagnostico d : diagnosticos) {
+            out.add(d.desplazar(delta));
+        }
+        return out;
+    }
+
+    static Set<String> funcionesUsadas(List<EntradaCache> entradas) {
+        Set<String> usadas = new HashSet<>();
+        for (EntradaCache e : entradas) {
+            usadas.addAll(e.funcionesUsadas);
+        }
+        return usadas;
+    }
+
+    /** Reconstruye en la tabla el símbolo de la función y sus locales */
+    static void restaurarSimbolos(TablaSimbolos tabla, SegmentoFuncion seg, Token id, EntradaCache e,
+                                  int base, boolean usada) {
+        tabla.agregar(new Simbolo(seg.getNombre(), seg.getTipoRetorno(), Simbolo.Categoria.FUNCION,
+                id.getLine(), id.getCharPositionInLine(), "global"));
+        Simbolo fun = tabla.buscarEnAmbitoExacto("global", seg.getNombre());
+        for (String t : seg.getTiposParametros()) fun.agregarParametro(t);
+        fun.setUsada(usada);
+
+        tabla.entrarAmbito(seg.getNombre());
+        for (EntradaCache.SimboloLocal s : e.simbolos) {
+            tabla.agregar(new Simbolo(s.nombre, s.tipo, s.categoria, s.lineaRel + base, s.columna,
+                    seg.getNombre()));
+            Simbolo restaurado = tabla.buscarEnAmbitoExacto(seg.getNombre(), s.nombre);
+            restaurado.setInicializada(s.inicializada);
+            restaurado.setUsada(s.usada);
+        }
+        tabla.salirAmbito();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static void actualizar(MessageDigest md, String s) {
+        md.update(s.getBytes(StandardCharsets.UTF_8));
+        md.update((byte) 0);
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,51 @@
+package com.compilador.incremental;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Caché en disco de {@link EntradaCache}, un archivo por clave de función.
+ * Una entrada ilegible (otra versión, archivo truncado) se trata como fallo.
+ */
+public class CacheFunciones {
+    /** Cambiar al modificar el formato o el código que produce las entradas */
+    static final int VERSION = 5;
+
+    private final Path dir;
+
+    public CacheFunciones(Path dir) throws IOException {
+        this.dir = dir;
+        Files.createDirectories(dir);
+    }
+
+    public EntradaCache cargar(String clave) {
+        Path p = dir.resolve(clave + ".fn");
+        if (!Files.isRegularFile(p)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(p)))) {
+            if (in.readInt() != VERSION) {
+                return null;
+            }
+            return EntradaCache.leer(in);
+        } catch (IOException | IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    /** Escribe en un temporal y lo renombra, para no dejar entradas a medias */
+    public void guardar(String clave, EntradaCache entrada) throws IOException {
+        Path tmp = Files.createTempFile(dir, clave, ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(VERSION);
+            entrada.escribir(out);
+        }
+        Files.move(tmp, dir.resolve(clave + ".fn"), StandardCopyOption.REPLACE_EXISTING);
+    }
+}
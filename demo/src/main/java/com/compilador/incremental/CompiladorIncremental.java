@@ -0,0 +1,111 @@
+package com.compilador.incremental;
+
+import com.compilador.BufferFuncion;
+import com.compilador.Enlazador;
+import com.compilador.Optimizador;
+import com.compilador.diagnostico.Diagnostico;
+import com.compilador.diagnostico.Diagnosticos;
+import com.compilador.semantico.TablaSimbolos;
+import org.antlr.v4.runtime.Token;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Compilación incremental por función.
+ * <p>
+ * El programa se segmenta en funciones a partir de los tokens y cada una se
+ * identifica con un hash de:
+ * <ul>
+ *     <li>sus tokens (tipo, texto y posición relativa a su primera línea);</li>
+ *     <li>la firma de cada función global que nombra y si está declarada antes.</li>
+ * </ul>
+ * Si la clave está en la caché se reutilizan sus símbolos, diagnósticos y C3D
+ * (crudo y optimizado); si no, sólo esa función se parsea, se analiza con la
+ * tabla global de las funciones anteriores y se optimiza.
+ * <p>
+ * A diferencia de la compilación completa, el optimizador trabaja función por
+ * función y las constantes no se propagan de una función a otra; sólo lo que
+ * necesita ver todas las funciones (eliminar las inalcanzables desde main, y
+ * las llamadas puras repetidas o sin usar) se hace sobre el código ya enlazado.
+ */
+public class CompiladorIncremental {
+
+    private final CacheFunciones cache;
+
+    public CompiladorIncremental(CacheFunciones cache) {
+        this.cache = cache;
+    }
+
+    /** Resultado equivalente al de las fases 2-7 de la compilación completa */
+    public static class Resultado {
+        private final TablaSimbolos tabla = new TablaSimbolos();
+        private final Diagnosticos diagnosticos = new Diagnosticos();
+        private List<String> codigoRaw;
+        private List<String> codigoOpt;
+        private int aciertos;
+        private int fallos;
+
+        public TablaSimbolos getTablaSimbolos() { return tabla; }
+        public Diagnosticos getDiagnosticos() { return diagnosticos; }
+        public List<String> getErrores() { return Diagnosticos.mensajes(diagnosticos.getErrores()); }
+        public List<String> getWarnings() { return Diagnosticos.mensajes(diagnosticos.getWarnings()); }
+        public List<String> getCodigoRaw() { return codigoRaw; }
+        public List<String> getCodigoOpt() { return codigoOpt; }
+        public int getAciertos() { return aciertos; }
+        public int getFallos() { return fallos; }
+    }
+
+    /**
+     * Compila a partir de los tokens ya léxicamente analizados (incluido EOF).
+     * Devuelve {@code null} si el programa no se puede segmentar; en ese caso
+     * hay que compilarlo completo.
+     */
+    public Resultado compilar(List<Token> tokens) throws IOException {
+        List<SegmentoFuncion> segmentos = Segmentador.segmentar(tokens);
+        if (segmentos == null) {
+            return null;
+        }
+        Map<String, Integer> indices = AnalizadorFunciones.indicePorNombre(segmentos);
+
+        Resultado r = new Resultado();
+        List<EntradaCache> entradas = new ArrayList<>();
+        for (int i = 0; i < segmentos.size(); i++) {
+            AnalizadorFunciones.Huella h = AnalizadorFunciones.huella(tokens, segmentos.get(i));
+            String clave = AnalizadorFunciones.clave(h, segmentos, i, indices);
+            EntradaCache e = cache.cargar(clave);
+            if (e != null) {
+                r.aciertos++;
+            } else {
+                r.fallos++;
+                e = AnalizadorFunciones.analizar(tokens, segmentos, i, true, false);
+                cache.guardar(clave, e);
+            }
+            entradas.add(e);
+        }
+
+        Set<String> usadas = AnalizadorFunciones.funcionesUsadas(entradas);
+        List<BufferFuncion> raw = new ArrayList<>();
+        List<BufferFuncion> opt = new ArrayList<>();
+        for (int i = 0; i < segmentos.size(); i++) {
+            SegmentoFuncion seg = segmentos.get(i);
+            EntradaCache e = entradas.get(i);
+            int base = tokens.get(seg.getInicio()).getLine();
+            AnalizadorFunciones.restaurarSimbolos(r.tabla, seg, seg.getId(tokens), e, base,
+                    usadas.contains(seg.getNombre()));
+            raw.add(new BufferFuncion(seg.getNombre(), e.codigoRaw, e.temporales, e.etiquetas));
+            opt.add(new BufferFuncion(seg.getNombre(), e.codigoOpt, e.temporales, e.etiquetas));
+        }
+        List<Diagnostico> errores = new ArrayList<>();
+        List<Diagnostico> warnings = new ArrayList<>();
+        AnalizadorFunciones.ensamblarDiagnosticos(tokens, segmentos, entradas, errores, warnings);
+        r.diagnosticos.agregarTodos(errores);
+        r.diagnosticos.agregarTodos(warnings);
+        r.codigoRaw = Enlazador.enlazar(raw);
+        Optimizador enlazado = new Optimizador(Enlazador.enlazar(opt));
+        enlazado.ejecutar(Optimizador.Pasada.FUNCIONES_MUERTAS);
+        enlazado.ejecutar(Optimizador.Pasada.LLAMADAS_PURAS);
+        r.codigoOpt = enlazado.getCodigo();
+        return r;
+    }
+}
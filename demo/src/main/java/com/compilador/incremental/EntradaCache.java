@@ -0,0 +1,138 @@
+package com.compilador.incremental;
+
+import com.compilador.diagnostico.CodigoDiagnostico;
+import com.compilador.diagnostico.Diagnostico;
+import com.compilador.semantico.Simbolo;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resultado cacheado del análisis de una función:
+ * • Símbolos locales (parámetros y variables) con sus flags
+ * • Errores y warnings emitidos al recorrerla
+ * • C3D crudo y optimizado con nombres locales (#tN, #LN)
+ * Las líneas se guardan relativas a la primera línea de la función, así la
+ * entrada sigue valiendo si la función sólo se desplazó dentro del archivo.
+ */
+public class EntradaCache {
+
+    /** Símbolo local tal como quedó en la tabla tras analizar la función */
+    public static class SimboloLocal {
+        final String nombre;
+        final String tipo;
+        final Simbolo.Categoria categoria;
+        final int lineaRel;
+        final int columna;
+        final boolean inicializada;
+        final boolean usada;
+
+        SimboloLocal(String nombre, String tipo, Simbolo.Categoria categoria, int lineaRel,
+                     int columna, boolean inicializada, boolean usada) {
+            this.nombre = nombre;
+            this.tipo = tipo;
+            this.categoria = categoria;
+            this.lineaRel = lineaRel;
+            this.columna = columna;
+            this.inicializada = inicializada;
+            this.usada = usada;
+        }
+    }
+
+    final List<SimboloLocal> simbolos = new ArrayList<>();
+    final List<Diagnostico> errores = new ArrayList<>();
+    final List<Diagnostico> warnings = new ArrayList<>();
+    /** Warnings de variables no usadas (se emiten al final, como en exitPrograma) */
+    final List<Diagnostico> warningsNoUsados = new ArrayList<>();
+    /** Funciones globales que quedaron marcadas como usadas por esta función */
+    final List<String> funcionesUsadas = new ArrayList<>();
+    final List<String> codigoRaw = new ArrayList<>();
+    final List<String> codigoOpt = new ArrayList<>();
+    int temporales;
+    int etiquetas;
+
+    void escribir(DataOutputStream out) throws IOException {
+        out.writeInt(simbolos.size());
+        for (SimboloLocal s : simbolos) {
+            out.writeUTF(s.nombre);
+            out.writeUTF(s.tipo);
+            out.writeUTF(s.categoria.name());
+            out.writeInt(s.lineaRel);
+            out.writeInt(s.columna);
+            out.writeBoolean(s.inicializada);
+            out.writeBoolean(s.usada);
+        }
+        escribirDiagnosticos(out, errores);
+        escribirDiagnosticos(out, warnings);
+        escribirDiagnosticos(out, warningsNoUsados);
+        escribirLista(out, funcionesUsadas);
+        escribirLista(out, codigoRaw);
+        escribirLista(out, codigoOpt);
+        out.writeInt(temporales);
+        out.writeInt(etiquetas);
+    }
+
+    static EntradaCache leer(DataInputStream in) throws IOException {
+        EntradaCache e = new EntradaCache();
+        int n = in.readInt();
+        for (int i = 0; i < n; i++) {
+            e.simbolos.add(new SimboloLocal(
+                    in.readUTF(),
+                    in.readUTF(),
+                    Simbolo.Categoria.valueOf(in.readUTF()),
+                    in.readInt(),
+                    in.readInt(),
+                    in.readBoolean(),
+                    in.readBoolean()
+            ));
+        }
+        leerDiagnosticos(in, e.errores);
+        leerDiagnosticos(in, e.warnings);
+        leerDiagnosticos(in, e.warningsNoUsados);
+        leerLista(in, e.funcionesUsadas);
+        leerLista(in, e.codigoRaw);
+        leerLista(in, e.codigoOpt);
+        e.temporales = in.readInt();
+        e.etiquetas  = in.readInt();
+        return e;
+    }
+
+    private static void escribirLista(DataOutputStream out, List<String> lista) throws IOException {
+        out.writeInt(lista.size());
+        for (String s : lista) {
+            out.writeUTF(s);
+        }
+    }
+
+    private static void escribirDiagnosticos(DataOutputStream out, List<Diagnostico> lista) throws IOException {
+        out.writeInt(lista.size());
+        for (Diagnostico d : lista) {
+            out.writeUTF(d.codigo().name());
+            out.writeInt(d.linea());
+            out.writeInt(d.columna());
+            escribirLista(out, d.args());
+        }
+    }
+
+    private static void leerDiagnosticos(DataInputStream in, List<Diagnostico> destino) throws IOException {
+        int n = in.readInt();
+        for (int i = 0; i < n; i++) {
+            CodigoDiagnostico codigo = CodigoDiagnostico.valueOf(in.readUTF());
+            int linea = in.readInt();
+            int columna = in.readInt();
+            List<String> args = new ArrayList<>();
+            leerLista(in, args);
+            destino.add(new Diagnostico(codigo, linea, columna, args));
+        }
+    }
+
+    private static void leerLista(DataInputStream in, List<String> destino) throws IOException {
+        int n = in.readInt();
+        for (int i = 0; i < n; i++) {
+            destino.add(in.readUTF());
+        }
+    }
+}
@@ -0,0 +1,415 @@
+package com.compilador.incremental;
+
+import com.compilador.MiniLenguajeLexer;
+import com.compilador.MiniLenguajeParser;
+import com.compilador.RecolectorErrores;
+import com.compilador.diagnostico.CodigoDiagnostico;
+import com.compilador.diagnostico.Diagnostico;
+import com.compilador.diagnostico.Diagnosticos;
+import com.compilador.semantico.SimbolosListener;
+import org.antlr.v4.runtime.*;
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
+
+import java.util.*;
+
+/**
+ * Front-end incremental para editores: mantiene el texto, los tokens y los
+ * diagnósticos de un archivo y los actualiza con cada edición
+ * (offset, longitud, reemplazo).
+ * <ul>
+ *     <li><b>Léxico:</b> se re-lexea desde el último token cuya lectura no llegó
+ *     al punto editado hasta que los tokens nuevos vuelven a coincidir con los
+ *     viejos; el resto sólo se desplaza.</li>
+ *     <li><b>Sintaxis y semántica:</b> sólo se parsean y analizan las funciones
+ *     cuyos tokens cambiaron o cuyas referencias a firmas globales cambiaron.</li>
+ *     <li><b>Diagnósticos:</b> {@link #getErrores()} y {@link #getWarnings()}
+ *     devuelven siempre las mismas listas, actualizadas en el lugar; los
+ *     mensajes sólo se formatean al leerlos.</li>
+ * </ul>
+ * Mientras el archivo no se pueda segmentar en funciones (p. ej. llaves sin
+ * cerrar al tipear), se analiza completo con recuperación de errores de ANTLR.
+ * Los offsets son posiciones UTF-16, como en LSP.
+ */
+public class FrontEndIncremental {
+
+    /** Análisis de funciones recordados por clave (deshacer/rehacer los reutiliza) */
+    private static final int LIMITE_MEMO = 4096;
+
+    /** Estado de una función ya analizada */
+    private static final class EstadoFuncion {
+        final Token primero;
+        final Token ultimo;
+        final AnalizadorFunciones.Huella huella;
+        final String clave;
+        final EntradaCache entrada;
+
+        /** Diagnósticos ya desplazados a la línea {@code base} */
+        int base = -1;
+        List<Diagnostico> errores;
+        List<Diagnostico> warnings;
+        List<Diagnostico> noUsados;
+
+        void desplazarA(int nuevaBase) {
+            if (base != nuevaBase) {
+                errores  = AnalizadorFunciones.desplazarLineas(entrada.errores, nuevaBase);
+                warnings = AnalizadorFunciones.desplazarLineas(entrada.warnings, nuevaBase);
+                noUsados = AnalizadorFunciones.desplazarLineas(entrada.warningsNoUsados, nuevaBase);
+                base = nuevaBase;
+            }
+        }
+
+        EstadoFuncion(Token primero, Token ultimo, AnalizadorFunciones.Huella huella,
+                      String clave, EntradaCache entrada) {
+            this.primero = primero;
+            this.ultimo = ultimo;
+            this.huella = huella;
+            this.clave = clave;
+            this.entrada = entrada;
+        }
+    }
+
+    private final TextoEditable texto;
+    /** Tokens del canal por defecto; el último es EOF */
+    private final List<Token> tokens = new ArrayList<>();
+    /** Por token: posición más lejana que leyó el lexer para producirlo */
+    private int[] alcance = new int[0];
+    /** Máximo acumulado de {@link #alcance} (no decreciente) */
+    private int[] alcanceMax = new int[0];
+
+    /** Funciones del texto actual, o {@code null} si no se pudo segmentar */
+    private List<SegmentoFuncion> segmentos;
+    /** Por segmento: índice del segmento anterior del que proviene, o -1 */
+    private int[] origen = new int[0];
+    private List<EstadoFuncion> estados = new ArrayList<>();
+    /** Funciones marcadas como usadas por alguna función del texto */
+    private Set<String> usadas;
+    private List<String> firmas = Collections.emptyList();
+    private final Map<String, EntradaCache> memo = new LinkedHashMap<String, EntradaCache>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, EntradaCache> eldest) {
+            return size() > LIMITE_MEMO;
+        }
+    };
+
+    private final List<Diagnostico> errores  = new ArrayList<>();
+    private final List<Diagnostico> warnings = new ArrayList<>();
+    private final List<String> mensajesErrores  = Diagnosticos.mensajes(errores);
+    private final List<String> mensajesWarnings = Diagnosticos.mensajes(warnings);
+
+    private int tokensRelexados;
+    private int funcionesAnalizadas;
+
+    public FrontEndIncremental(String textoInicial) {
+        this.texto = new TextoEditable(textoInicial);
+        int[] sucio = relexar(0, 0, textoInicial.length());
+        reanalizar(sucio);
+    }
+
+    /** Reemplaza {@code longitud} caracteres desde {@code offset} por {@code reemplazo} */
+    public void editar(int offset, int longitud, String reemplazo) {
+        if (offset < 0 || longitud < 0 || offset + longitud > texto.size()) {
+            throw new IndexOutOfBoundsException("Edición fuera del texto: " + offset + "+" + longitud);
+        }
+        texto.reemplazar(offset, longitud, reemplazo);
+        int[] sucio = relexar(offset, longitud, reemplazo.length());
+        reanalizar(sucio);
+    }
+
+    public String getTexto() { return texto.toString(); }
+    public List<Token> getTokens() { return Collections.unmodifiableList(tokens); }
+    public List<String> getErrores() { return mensajesErrores; }
+    public List<String> getWarnings() { return mensajesWarnings; }
+    public List<Diagnostico> getDiagnosticosErrores() { return Collections.unmodifiableList(errores); }
+    public List<Diagnostico> getDiagnosticosWarnings() { return Collections.unmodifiableList(warnings); }
+    /** Tokens producidos por el lexer en la última edición */
+    public int getTokensRelexados() { return tokensRelexados; }
+    /** Funciones parseadas y analizadas en la última edición */
+    public int getFuncionesAnalizadas() { return funcionesAnalizadas; }
+
+    // ------------------------------------------------------------
+    // Léxico
+    // ------------------------------------------------------------
+
+    /**
+     * Re-lexea la zona afectada por una edición ya aplicada al texto.
+     *
+     * @return {inicio, fin) de los tokens nuevos, la línea (nueva) desde la
+     *         que se reutilizaron los tokens viejos (o -1 si se llegó a EOF) y
+     *         el fin (exclusivo) de los tokens viejos reemplazados
+     */
+    private int[] relexar(int offset, int largoViejo, int largoNuevo) {
+        int delta    = largoNuevo - largoViejo;
+        int finNuevo = offset + largoNuevo;
+
+        int i = ultimoIndependiente(offset);
+        int r = i + 1;
+        int inicio = 0, linea = 1, col = 0;
+        if (i >= 0) {
+            Token t = tokens.get(i);
+            inicio = t.getStopIndex() + 1;
+            linea  = t.getLine();
+            col    = t.getCharPositionInLine() + (t.getStopIndex() - t.getStartIndex() + 1);
+        }
+
+        MiniLenguajeLexer lexer = new MiniLenguajeLexer(texto);
+        lexer.removeErrorListeners();
+        lexer.setTokenFactory(new CommonTokenFactory(true));
+        texto.seek(inicio);
+        lexer.setLine(linea);
+        lexer.setCharPositionInLine(col);
+
+        List<Token> nuevos = new ArrayList<>();
+        int[] alcNuevos = new int[16];
+        int k = -1;
+        while (true) {
+            int pos = texto.index();
+            if (pos >= finNuevo) {
+                k = tokenQueEmpiezaEn(pos - delta, r);
+                if (k >= 0) break;
+            }
+            texto.reiniciarAlcance();
+            Token t = lexer.nextToken();
+            if (nuevos.size() == alcNuevos.length) alcNuevos = Arrays.copyOf(alcNuevos, alcNuevos.length * 2);
+            alcNuevos[nuevos.size()] = texto.getAlcance();
+            nuevos.add(t);
+            if (t.getType() == Token.EOF) break;
+        }
+
+        int lineaSync = -1;
+        int kFin = tokens.size();
+        if (k >= 0) {
+            kFin = k;
+            int lineaQ = 1, colQ = 0;
+            if (k > 0) {
+                Token prev = tokens.get(k - 1);
+                lineaQ = prev.getLine();
+                colQ   = prev.getCharPositionInLine() + (prev.getStopIndex() - prev.getStartIndex() + 1);
+            }
+            int dLinea = lexer.getLine() - lineaQ;
+            int dCol   = lexer.getCharPositionInLine() - colQ;
+            for (int j = k; j < tokens.size(); j++) {
+                CommonToken t = (CommonToken) tokens.get(j);
+                if (t.getLine() == lineaQ) t.setCharPositionInLine(t.getCharPositionInLine() + dCol);
+                t.setLine(t.getLine() + dLinea);
+                t.setStartIndex(t.getStartIndex() + delta);
+                t.setStopIndex(t.getStopIndex() + delta);
+                alcance[j] += delta;
+            }
+            lineaSync = lexer.getLine();
+        }
+
+        // Reemplazar tokens [r, kFin) por los nuevos
+        if (nuevos.size() == kFin - r) {
+            for (int j = 0; j < nuevos.size(); j++) {
+                tokens.set(r + j, nuevos.get(j));
+            }
+        } else {
+            tokens.subList(r, kFin).clear();
+            tokens.addAll(r, nuevos);
+        }
+        if (nuevos.size() != kFin - r) {
+            int[] alc = new int[tokens.size()];
+            System.arraycopy(alcance, 0, alc, 0, r);
+            System.arraycopy(alcance, kFin, alc, r + nuevos.size(), alcance.length - kFin);
+            alcance = alc;
+            alcanceMax = Arrays.copyOf(alcanceMax, tokens.size());
+        }
+        System.arraycopy(alcNuevos, 0, alcance, r, nuevos.size());
+        for (int j = r; j < tokens.size(); j++) {
+            alcanceMax[j] = j == 0 ? alcance[0] : Math.max(alcanceMax[j - 1], alcance[j]);
+        }
+
+        tokensRelexados = nuevos.size();
+        return new int[] { r, r + nuevos.size(), lineaSync, kFin };
+    }
+
+    /** Mayor índice de token (sin EOF) que no leyó nada desde {@code offset}, o -1 */
+    private int ultimoIndependiente(int offset) {
+        int lo = 0, hi = tokens.size() - 2, res = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (alcanceMax[mid] < offset) {
+                res = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return res;
+    }
+
+    /** Índice del token viejo (desde {@code desde}) cuyo lexeo empezó en {@code pos}, o -1 */
+    private int tokenQueEmpiezaEn(int pos, int desde) {
+        if (pos == 0) {
+            return desde == 0 && !tokens.isEmpty() ? 0 : -1;
+        }
+        int lo = Math.max(desde - 1, 0), hi = tokens.size() - 2;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int fin = tokens.get(mid).getStopIndex() + 1;
+            if (fin == pos) {
+                return mid + 1 >= desde ? mid + 1 : -1;
+            }
+            if (fin < pos) lo = mid + 1; else hi = mid - 1;
+        }
+        return -1;
+    }
+
+    // ------------------------------------------------------------
+    // Sintaxis y semántica
+    // ------------------------------------------------------------
+
+    private void reanalizar(int[] sucio) {
+        int inicioSucio = sucio[0], finSucio = sucio[1], lineaSync = sucio[2], finViejo = sucio[3];
+        funcionesAnalizadas = 0;
+        segmentos = resegmentar(inicioSucio, finSucio, finViejo);
+        if (segmentos == null) {
+            analizarCompleto();
+            return;
+        }
+
+        List<String> nuevasFirmas = new ArrayList<>(segmentos.size());
+        for (SegmentoFuncion s : segmentos) {
+            nuevasFirmas.add(s.getFirma());
+        }
+        boolean mismoContexto = nuevasFirmas.equals(firmas);
+        Map<String, Integer> indices = AnalizadorFunciones.indicePorNombre(segmentos);
+
+        List<EstadoFuncion> nuevosEstados = new ArrayList<>(segmentos.size());
+        for (int i = 0; i < segmentos.size(); i++) {
+            SegmentoFuncion seg = segmentos.get(i);
+            Token primero = tokens.get(seg.getInicio());
+            Token ultimo  = tokens.get(seg.getFin());
+
+            // Reutilizable si no toca tokens nuevos ni la línea donde cambiaron las columnas
+            boolean limpio = seg.getFin() < inicioSucio || seg.getInicio() >= finSucio;
+            if (limpio && seg.getInicio() >= finSucio && lineaSync >= 0
+                    && primero.getLine() <= lineaSync && lineaSync <= ultimo.getLine()) {
+                limpio = false;
+            }
+            EstadoFuncion prev = limpio && origen[i] >= 0 ? estados.get(origen[i]) : null;
+            if (prev != null && (prev.primero != primero || prev.ultimo != ultimo)) {
+                prev = null;
+            }
+
+            AnalizadorFunciones.Huella h = prev != null ? prev.huella : AnalizadorFunciones.huella(tokens, seg);
+            String clave = prev != null && mismoContexto
+                    ? prev.clave
+                    : AnalizadorFunciones.clave(h, segmentos, i, indices);
+            if (prev != null && clave.equals(prev.clave)) {
+                nuevosEstados.add(prev);
+                continue;
+            }
+            EntradaCache e = memo.get(clave);
+            if (e == null) {
+                e = AnalizadorFunciones.analizar(tokens, segmentos, i, false, true);
+                memo.put(clave, e);
+                funcionesAnalizadas++;
+            }
+            nuevosEstados.add(new EstadoFuncion(primero, ultimo, h, clave, e));
+        }
+        boolean cambioUso = funcionesAnalizadas > 0 || nuevosEstados.size() != estados.size();
+        for (int i = 0; !cambioUso && i < nuevosEstados.size(); i++) {
+            cambioUso = nuevosEstados.get(i).entrada != estados.get(i).entrada;
+        }
+        estados = nuevosEstados;
+        firmas  = nuevasFirmas;
+        actualizarDiagnosticos(cambioUso);
+    }
+
+    /**
+     * Segmenta reutilizando las funciones viejas que quedan antes y después de
+     * los tokens re-lexeados; sólo se recorre la zona intermedia.
+     */
+    private List<SegmentoFuncion> resegmentar(int inicioSucio, int finSucio, int finViejo) {
+        if (segmentos == null) {
+            List<SegmentoFuncion> todos = Segmentador.segmentar(tokens);
+            origen = new int[todos != null ? todos.size() : 0];
+            Arrays.fill(origen, -1);
+            return todos;
+        }
+        int delta = finSucio - finViejo;
+        List<SegmentoFuncion> out = new ArrayList<>(segmentos.size() + 1);
+        int[] org = new int[segmentos.size() + 8];
+        int j = 0;
+        while (j < segmentos.size() && segmentos.get(j).getFin() < inicioSucio) {
+            org[j] = j;
+            out.add(segmentos.get(j++));
+        }
+        int i = out.isEmpty() ? 0 : out.get(out.size() - 1).getFin() + 1;
+        int k = j;
+        while (tokens.get(i).getType() != Token.EOF) {
+            if (i >= finSucio) {
+                while (k < segmentos.size() && segmentos.get(k).getInicio() + delta < i) k++;
+                if (k < segmentos.size() && segmentos.get(k).getInicio() >= finViejo
+                        && segmentos.get(k).getInicio() + delta == i) {
+                    for (; k < segmentos.size(); k++) {
+                        org = agregarOrigen(org, out.size(), k);
+                        out.add(segmentos.get(k).desplazar(delta));
+                    }
+                    break;
+                }
+            }
+            SegmentoFuncion seg = Segmentador.siguiente(tokens, i);
+            if (seg == null) return null;
+            org = agregarOrigen(org, out.size(), -1);
+            out.add(seg);
+            i = seg.getFin() + 1;
+        }
+        origen = org;
+        return out.isEmpty() || !Segmentador.nombresUnicos(out) ? null : out;
+    }
+
+    private static int[] agregarOrigen(int[] org, int pos, int valor) {
+        if (pos == org.length) {
+            org = Arrays.copyOf(org, org.length * 2);
+        }
+        org[pos] = valor;
+        return org;
+    }
+
+    /** Mismo orden que la compilación completa (ver AnalizadorFunciones.ensamblarDiagnosticos) */
+    private void actualizarDiagnosticos(boolean cambioUso) {
+        if (cambioUso || usadas == null) {
+            List<EntradaCache> entradas = new ArrayList<>(estados.size());
+            for (EstadoFuncion e : estados) {
+                entradas.add(e.entrada);
+            }
+            usadas = AnalizadorFunciones.funcionesUsadas(entradas);
+        }
+
+        errores.clear();
+        warnings.clear();
+        List<Diagnostico> noUsados = new ArrayList<>();
+        for (int i = 0; i < estados.size(); i++) {
+            EstadoFuncion e = estados.get(i);
+            e.desplazarA(e.primero.getLine());
+            errores.addAll(e.errores);
+            warnings.addAll(e.warnings);
+            Diagnostico noLlamada = AnalizadorFunciones.advertenciaNoLlamada(tokens, segmentos.get(i), usadas);
+            if (noLlamada != null) noUsados.add(noLlamada);
+            noUsados.addAll(e.noUsados);
+        }
+        warnings.addAll(noUsados);
+    }
+
+    /** Análisis completo con recuperación de errores de ANTLR */
+    private void analizarCompleto() {
+        segmentos = null;
+        estados = new ArrayList<>();
+        firmas  = Collections.emptyList();
+        errores.clear();
+        warnings.clear();
+
+        MiniLenguajeParser parser = new MiniLenguajeParser(
+                new CommonTokenStream(new ListTokenSource(new ArrayList<>(tokens))));
+        parser.removeErrorListeners();
+        Diagnosticos diagnosticos = new Diagnosticos();
+        parser.addErrorListener(new RecolectorErrores(CodigoDiagnostico.ERROR_SINTACTICO, diagnosticos));
+        MiniLenguajeParser.ProgramaContext prog = parser.programa();
+        new ParseTreeWalker().walk(new SimbolosListener(diagnosticos), prog);
+        errores.addAll(diagnosticos.getErrores());
+        warnings.addAll(diagnosticos.getWarnings());
+        funcionesAnalizadas = -1;
+    }
+}
@@ -0,0 +1,98 @@
+package com.compilador.incremental;
+
+import com.compilador.MiniLenguajeLexer;
+import org.antlr.v4.runtime.Token;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Divide el flujo de tokens de un programa en sus funciones sin invocar al
+ * parser: reconoce la cabecera {@code tipo ID ( parametros ) } y busca la llave
+ * que cierra el cuerpo.
+ * <p>
+ * Si el programa no tiene esa forma (errores, funciones duplicadas, …)
+ * devuelve {@code null} y el llamador debe compilar el archivo completo, que
+ * es quien reporta el error.
+ */
+public final class Segmentador {
+
+    private Segmentador() { }
+
+    public static List<SegmentoFuncion> segmentar(List<Token> tokens) {
+        List<SegmentoFuncion> segmentos = new ArrayList<>();
+        int i = 0;
+        while (tokens.get(i).getType() != Token.EOF) {
+            SegmentoFuncion seg = siguiente(tokens, i);
+            if (seg == null) return null;
+            segmentos.add(seg);
+            i = seg.getFin() + 1;
+        }
+        return segmentos.isEmpty() || !nombresUnicos(segmentos) ? null : segmentos;
+    }
+
+    /** Función que empieza en el token {@code i}, o {@code null} si no la hay */
+    static SegmentoFuncion siguiente(List<Token> tokens, int i) {
+        int n = tokens.size();
+        int inicio = i;
+        if (i >= n || !esTipo(tokens.get(i))) return null;
+        String tipoRetorno = tokens.get(i++).getText();
+
+        if (i >= n || tokens.get(i).getType() != MiniLenguajeLexer.ID) return null;
+        Token id = tokens.get(i++);
+
+        if (i >= n || tokens.get(i).getType() != MiniLenguajeLexer.PA) return null;
+        i++;
+
+        // Parámetros: ( tipo ID ( , tipo ID )* )?
+        List<String> tipos = new ArrayList<>();
+        Set<String> nombresParam = new HashSet<>();
+        while (i < n && tokens.get(i).getType() != MiniLenguajeLexer.PC) {
+            if (!tipos.isEmpty()) {
+                if (tokens.get(i).getType() != MiniLenguajeLexer.COMA) return null;
+                i++;
+            }
+            if (i + 1 >= n || !esTipo(tokens.get(i))
+                    || tokens.get(i + 1).getType() != MiniLenguajeLexer.ID) return null;
+            if (!nombresParam.add(tokens.get(i + 1).getText())) return null;
+            tipos.add(tokens.get(i).getText());
+            i += 2;
+        }
+        if (i >= n) return null;
+        i++; // PC
+
+        if (i >= n || tokens.get(i).getType() != MiniLenguajeLexer.LLAVE_A) return null;
+        int profundidad = 0;
+        do {
+            int tipo = tokens.get(i).getType();
+            if (tipo == MiniLenguajeLexer.LLAVE_A) profundidad++;
+            else if (tipo == MiniLenguajeLexer.LLAVE_C) profundidad--;
+            else if (tipo == Token.EOF) return null;
+            i++;
+        } while (profundidad > 0);
+
+        return new SegmentoFuncion(id.getText(), tipoRetorno, tipos, inicio, i - 1);
+    }
+
+    static boolean nombresUnicos(List<SegmentoFuncion> segmentos) {
+        Set<String> nombres = new HashSet<>();
+        for (SegmentoFuncion s : segmentos) {
+            if (!nombres.add(s.getNombre())) return false;
+        }
+        return true;
+    }
+
+    private static boolean esTipo(Token t) {
+        switch (t.getType()) {
+            case MiniLenguajeLexer.INT:
+            case MiniLenguajeLexer.CHAR:
+            case MiniLenguajeLexer.DOUBLE:
+            case MiniLenguajeLexer.VOID:
+                return true;
+            default:
+                return false;
+        }
+    }
+}
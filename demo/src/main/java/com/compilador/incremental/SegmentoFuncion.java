@@ -0,0 +1,50 @@
+package com.compilador.incremental;
+
+import org.antlr.v4.runtime.Token;
+
+import java.util.List;
+
+/**
+ * Rango de tokens de una {@code declaracionFuncion} junto con su firma,
+ * obtenida sin parsear el cuerpo.
+ */
+public class SegmentoFuncion {
+    private final String nombre;
+    private final String tipoRetorno;
+    private final List<String> tiposParametros;
+    private final int inicio;   // índice del token del tipo de retorno
+    private final int fin;      // índice de la llave de cierre (inclusive)
+    private final String firma;
+
+    public SegmentoFuncion(String nombre, String tipoRetorno, List<String> tiposParametros,
+                           int inicio, int fin) {
+        this.nombre = nombre;
+        this.tipoRetorno = tipoRetorno;
+        this.tiposParametros = tiposParametros;
+        this.inicio = inicio;
+        this.fin = fin;
+        this.firma = tipoRetorno + " " + nombre + "(" + String.join(",", tiposParametros) + ")";
+    }
+
+    public String getNombre() { return nombre; }
+    public String getTipoRetorno() { return tipoRetorno; }
+    public List<String> getTiposParametros() { return tiposParametros; }
+    public int getInicio() { return inicio; }
+    public int getFin() { return fin; }
+
+    /** Token del nombre de la función (da su línea y columna) */
+    public Token getId(List<Token> tokens) {
+        return tokens.get(inicio + 1);
+    }
+
+    /** Firma usada en las claves de caché, p. ej. {@code int f(int,double)} */
+    public String getFirma() {
+        return firma;
+    }
+
+    /** El mismo segmento con sus índices de token desplazados */
+    public SegmentoFuncion desplazar(int delta) {
+        return delta == 0 ? this
+                : new SegmentoFuncion(nombre, tipoRetorno, tiposParametros, inicio + delta, fin + delta);
+    }
+}
@@ -0,0 +1,99 @@
+package com.compilador.incremental;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.misc.Interval;
+
+/**
+ * {@link CharStream} sobre un texto que se edita en el lugar.
+ * <p>
+ * Los índices son posiciones UTF-16 (las mismas que usan los editores y LSP)
+ * y se registra la posición más lejana leída, para saber de qué caracteres
+ * dependió cada token al re-lexear sólo una parte del texto.
+ */
+final class TextoEditable implements CharStream {
+    private final StringBuilder texto;
+    private int p = 0;
+    private int maxLeido = -1;
+
+    TextoEditable(String inicial) {
+        this.texto = new StringBuilder(inicial);
+    }
+
+    void reemplazar(int offset, int longitud, String reemplazo) {
+        texto.replace(offset, offset + longitud, reemplazo);
+    }
+
+    /** Reinicia el registro de la posición más lejana leída */
+    void reiniciarAlcance() {
+        maxLeido = -1;
+    }
+
+    int getAlcance() {
+        return maxLeido;
+    }
+
+    @Override
+    public String toString() {
+        return texto.toString();
+    }
+
+    @Override
+    public int LA(int i) {
+        if (i == 0) {
+            return 0;
+        }
+        int idx = i > 0 ? p + i - 1 : p + i;
+        if (i > 0 && idx > maxLeido) {
+            maxLeido = Math.min(idx, texto.length());
+        }
+        if (idx < 0 || idx >= texto.length()) {
+            return IntStream.EOF;
+        }
+        return texto.charAt(idx);
+    }
+
+    @Override
+    public void consume() {
+        if (p >= texto.length()) {
+            throw new IllegalStateException("cannot consume EOF");
+        }
+        p++;
+    }
+
+    @Override
+    public int mark() {
+        return -1;
+    }
+
+    @Override
+    public void release(int marker) {
+    }
+
+    @Override
+    public int index() {
+        return p;
+    }
+
+    @Override
+    public void seek(int index) {
+        p = Math.min(index, texto.length());
+    }
+
+    @Override
+    public int size() {
+        return texto.length();
+    }
+
+    @Override
+    public String getSourceName() {
+        return IntStream.UNKNOWN_SOURCE_NAME;
+    }
+
+    @Override
+    public String getText(Interval interval) {
+        int inicio = Math.max(0, interval.a);
+        int fin = Math.min(interval.b + 1, texto.length());
+        return inicio >= fin ? "" : texto.substring(inicio, fin);
+    }
+}
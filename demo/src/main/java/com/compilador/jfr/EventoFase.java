@@ -0,0 +1,24 @@
+package com.compilador.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Fase de la compilación (léxico, sintáctico, semántico, generación,
+ * pasadas del optimizador, E/S). Lo emite cada
+ * {@link com.compilador.metricas.Medicion}, con los mismos nombres de fase.
+ */
+@Name("com.compilador.Fase")
+@Label("Fase del compilador")
+@Category({"Compilador"})
+@Description("Duración de una fase de la compilación")
+@StackTrace(false)
+public class EventoFase extends Event {
+
+    @Label("Fase")
+    public String fase;
+}
@@ -0,0 +1,32 @@
+package com.compilador.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Generación de C3D de una declaracionFuncion en {@link com.compilador.CodigoVisitor}.
+ * Con --paralelo el hilo del evento es el del pool que generó la función.
+ */
+@Name("com.compilador.Funcion")
+@Label("Generación de función")
+@Category({"Compilador", "Generación"})
+@Description("C3D generado para una función")
+@StackTrace(false)
+public class EventoFuncion extends Event {
+
+    @Label("Función")
+    public String funcion;
+
+    @Label("Línea")
+    public int linea;
+
+    @Label("Instrucciones")
+    public int instrucciones;
+
+    @Label("Temporales")
+    public int temporales;
+}
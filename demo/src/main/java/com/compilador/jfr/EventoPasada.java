@@ -0,0 +1,26 @@
+package com.compilador.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** Una pasada del optimizador con el tamaño del código antes y después */
+@Name("com.compilador.Pasada")
+@Label("Pasada del optimizador")
+@Category({"Compilador", "Optimizador"})
+@Description("Ejecución de una pasada de Optimizador")
+@StackTrace(false)
+public class EventoPasada extends Event {
+
+    @Label("Pasada")
+    public String pasada;
+
+    @Label("Instrucciones de entrada")
+    public int instruccionesEntrada;
+
+    @Label("Instrucciones de salida")
+    public int instruccionesSalida;
+}
@@ -0,0 +1,96 @@
+package com.compilador.lexico;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Tokens de {@link EscanerLexico} en arreglos paralelos, sin un objeto por
+ * token: tipo, inicio y longitud (en code points, como los índices de un
+ * {@code CharStream} de ANTLR), línea, columna y el byte del UTF-8 donde
+ * empieza. Recorrerlos no asigna memoria y el texto se decodifica sólo si se
+ * pide. No incluye el EOF; su posición está en {@link #getIndiceFin()},
+ * {@link #getLineaFin()} y {@link #getColumnaFin()}.
+ */
+public final class BufferTokens {
+
+    private final byte[] fuente;
+    private int cantidad;
+    private int[] tipos;
+    private int[] inicios;
+    private int[] longitudes;
+    private int[] lineas;
+    private int[] columnas;
+    private int[] bytes;
+    private int indiceFin;
+    private int lineaFin;
+    private int columnaFin;
+
+    BufferTokens(byte[] fuente, int capacidad) {
+        this.fuente = fuente;
+        tipos = new int[capacidad];
+        inicios = new int[capacidad];
+        longitudes = new int[capacidad];
+        lineas = new int[capacidad];
+        columnas = new int[capacidad];
+        bytes = new int[capacidad];
+    }
+
+    void agregar(int tipo, int inicio, int longitud, int linea, int columna, int byteInicio) {
+        if (cantidad == tipos.length) {
+            int capacidad = cantidad + (cantidad >> 1) + 16;
+            tipos = Arrays.copyOf(tipos, capacidad);
+            inicios = Arrays.copyOf(inicios, capacidad);
+            longitudes = Arrays.copyOf(longitudes, capacidad);
+            lineas = Arrays.copyOf(lineas, capacidad);
+            columnas = Arrays.copyOf(columnas, capacidad);
+            bytes = Arrays.copyOf(bytes, capacidad);
+        }
+        tipos[cantidad] = tipo;
+        inicios[cantidad] = inicio;
+        longitudes[cantidad] = longitud;
+        lineas[cantidad] = linea;
+        columnas[cantidad] = columna;
+        bytes[cantidad] = byteInicio;
+        cantidad++;
+    }
+
+    void cerrar(int indice, int linea, int columna) {
+        indiceFin = indice;
+        lineaFin = linea;
+        columnaFin = columna;
+    }
+
+    /** Cantidad de tokens, sin el EOF */
+    public int size() { return cantidad; }
+    /** Tipo del token k (las constantes de {@code MiniLenguajeLexer}) */
+    public int getTipo(int k) { return tipos[k]; }
+    /** Índice (en code points) de su primer carácter */
+    public int getInicio(int k) { return inicios[k]; }
+    /** Code points del token */
+    public int getLongitud(int k) { return longitudes[k]; }
+    /** Línea, desde 1 */
+    public int getLinea(int k) { return lineas[k]; }
+    /** Columna, desde 0, en code points */
+    public int getColumna(int k) { return columnas[k]; }
+    /** Byte de la fuente donde empieza */
+    public int getByte(int k) { return bytes[k]; }
+    /** Índice del EOF: la cantidad de code points de la fuente */
+    public int getIndiceFin() { return indiceFin; }
+    public int getLineaFin() { return lineaFin; }
+    public int getColumnaFin() { return columnaFin; }
+
+    /** Fuente UTF-8 escaneada; no se copia */
+    public byte[] getFuente() {
+        return fuente;
+    }
+
+    /** Texto del token k, decodificado de la fuente */
+    public String getTexto(int k) {
+        int desde = bytes[k];
+        int hasta = desde;
+        for (int i = 0; i < longitudes[k]; i++) {
+            hasta += EscanerLexico.bytesDe(fuente, hasta);
+        }
+        return new String(fuente, desde, hasta - desde, StandardCharsets.UTF_8);
+    }
+}
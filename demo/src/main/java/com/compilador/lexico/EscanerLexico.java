@@ -0,0 +1,306 @@
+package com.compilador.lexico;
+
+import com.compilador.MiniLenguajeLexer;
+import org.antlr.v4.runtime.Vocabulary;
+
+import java.nio.charset.StandardCharsets;
+
+import static com.compilador.MiniLenguajeLexer.*;
+
+/**
+ * Lexer escrito a mano, equivalente token por token a {@link MiniLenguajeLexer}
+ * (mismos tipos, textos, líneas, columnas e índices) pero sin simular el DFA
+ * de ANTLR ni crear un objeto por token: recorre una vez los bytes UTF-8 de
+ * la fuente y deja los tokens en un {@link BufferTokens}. Para dárselos al
+ * parser está {@link FuenteTokens}.
+ * <p>
+ * Sigue las reglas de la gramática: la coincidencia más larga y, a igual
+ * largo, la regla que aparece primero (las palabras clave antes que ID). Un
+ * carácter que no empieza ningún token, o la comilla de un carácter o una
+ * cadena sin cerrar, es un ERROR de un carácter y el escaneo sigue en el
+ * siguiente; un comentario de bloque sin cerrar es una división. Las
+ * palabras clave se buscan en una tabla hash armada con el vocabulario del
+ * lexer generado, así que agregar una a la gramática no requiere tocar esto.
+ * <p>
+ * Espera UTF-8 válido. Como en un CharStream de ANTLR, los índices y las
+ * columnas cuentan code points; sólo el salto de línea ({@code \n}) cambia
+ * de línea.
+ */
+public final class EscanerLexico {
+
+    /** Tabla de palabras clave, con direccionamiento abierto; potencia de 2 */
+    private static final int TAMANIO_TABLA = 64;
+    private static final byte[][] PALABRAS = new byte[TAMANIO_TABLA][];
+    private static final int[] TIPOS_PALABRA = new int[TAMANIO_TABLA];
+
+    /** Clase de cada byte: inicio de ID, dígito o ninguna */
+    private static final byte[] CLASE = new byte[256];
+    private static final byte LETRA = 1;
+    private static final byte DIGITO = 2;
+
+    static {
+        for (int c = 'a'; c <= 'z'; c++) CLASE[c] = LETRA;
+        for (int c = 'A'; c <= 'Z'; c++) CLASE[c] = LETRA;
+        CLASE['_'] = LETRA;
+        for (int c = '0'; c <= '9'; c++) CLASE[c] = DIGITO;
+
+        Vocabulary v = MiniLenguajeLexer.VOCABULARY;
+        for (int tipo = 1; tipo <= v.getMaxTokenType(); tipo++) {
+            String literal = v.getLiteralName(tipo);
+            if (literal == null || !Character.isLetter(literal.charAt(1))) {
+                continue;
+            }
+            byte[] palabra = literal.substring(1, literal.length() - 1).getBytes(StandardCharsets.US_ASCII);
+            int h = hash(palabra, 0, palabra.length);
+            while (PALABRAS[h] != null) {
+                h = (h + 1) & (TAMANIO_TABLA - 1);
+            }
+            PALABRAS[h] = palabra;
+            TIPOS_PALABRA[h] = tipo;
+        }
+    }
+
+    private final byte[] src;
+    private final int n;
+    private final BufferTokens out;
+    /** Byte, code point, línea y columna de la posición actual */
+    private int p;
+    private int cp;
+    private int linea = 1;
+    private int col;
+
+    private EscanerLexico(byte[] fuente) {
+        src = fuente;
+        n = fuente.length;
+        // Unos 3,2 bytes por token en código típico: casi nunca hay que agrandar los arreglos
+        out = new BufferTokens(fuente, Math.max(16, n / 3));
+    }
+
+    /** Tokens de una fuente UTF-8 */
+    public static BufferTokens escanear(byte[] fuente) {
+        EscanerLexico e = new EscanerLexico(fuente);
+        e.escanear();
+        return e.out;
+    }
+
+    private void escanear() {
+        while (p < n) {
+            int c = src[p] & 0xFF;
+            int sig = p + 1 < n ? src[p + 1] & 0xFF : -1;
+            switch (c) {
+                case ' ':
+                case '\t':
+                case '\r':
+                    p++;
+                    cp++;
+                    col++;
+                    break;
+                case '\n':
+                    p++;
+                    cp++;
+                    linea++;
+                    col = 0;
+                    break;
+                case '(': simple(PA, 1); break;
+                case ')': simple(PC, 1); break;
+                case '[': simple(CA, 1); break;
+                case ']': simple(CC, 1); break;
+                case '{': simple(LLAVE_A, 1); break;
+                case '}': simple(LLAVE_C, 1); break;
+                case ';': simple(PYC, 1); break;
+                case ',': simple(COMA, 1); break;
+                case '*': simple(MULTIPLICACION, 1); break;
+                case '%': simple(MODULO, 1); break;
+                case '+':
+                    if (sig == '+') simple(PLUSPLUS, 2);
+                    else simple(SUMA, 1);
+                    break;
+                case '-':
+                    if (sig == '-') simple(MINUSMINUS, 2);
+                    else simple(RESTA, 1);
+                    break;
+                case '=':
+                    if (sig == '=') simple(IGUAL_IGUAL, 2);
+                    else if (sig == '>') simple(MAYOR_IGUAL_B, 2);
+                    else if (sig == '<') simple(MENOR_IGUAL_B, 2);
+                    else simple(IGUAL, 1);
+                    break;
+                case '!':
+                    if (sig == '=') simple(DISTINTO, 2);
+                    else simple(NOT_LOGICO, 1);
+                    break;
+                case '>':
+                    if (sig == '=') simple(MAYOR_IGUAL_A, 2);
+                    else simple(MAYOR, 1);
+                    break;
+                case '<':
+                    if (sig == '=') simple(MENOR_IGUAL_A, 2);
+                    else simple(MENOR, 1);
+                    break;
+                case '&':
+                    if (sig == '&') simple(AND_LOGICO, 2);
+                    else simple(ERROR, 1);
+                    break;
+                case '|':
+                    if (sig == '|') simple(OR_LOGICO, 2);
+                    else simple(ERROR, 1);
+                    break;
+                case '/':
+                    if (sig == '/') {
+                        int q = p + 2;
+                        while (q < n && src[q] != '\n' && src[q] != '\r') q++;
+                        avanzar(q);
+                    } else if (sig == '*' && cierreComentario(p + 2) >= 0) {
+                        avanzar(cierreComentario(p + 2));
+                    } else {
+                        simple(DIVISION, 1);
+                    }
+                    break;
+                case '\'': {
+                    int fin = cierreCaracter();
+                    if (fin >= 0) token(CHARACTER, fin);
+                    else simple(ERROR, 1);
+                    break;
+                }
+                case '"': {
+                    int fin = cierreCadena();
+                    if (fin >= 0) token(STRING_literal, fin);
+                    else simple(ERROR, 1);
+                    break;
+                }
+                default:
+                    if (CLASE[c] == DIGITO) {
+                        numero();
+                    } else if (CLASE[c] == LETRA) {
+                        int q = p + 1;
+                        while (q < n && CLASE[src[q] & 0xFF] != 0) q++;
+                        simple(palabraClave(p, q - p), q - p);
+                    } else {
+                        token(ERROR, p + bytesDe(src, p));
+                    }
+            }
+        }
+        out.cerrar(cp, linea, col);
+    }
+
+    /** Token de {@code largo} caracteres ASCII sin saltos de línea */
+    private void simple(int tipo, int largo) {
+        out.agregar(tipo, cp, largo, linea, col, p);
+        p += largo;
+        cp += largo;
+        col += largo;
+    }
+
+    /** Token hasta el byte {@code fin}, que puede tener caracteres fuera de ASCII y saltos de línea */
+    private void token(int tipo, int fin) {
+        int inicio = cp, l = linea, c = col, b = p;
+        avanzar(fin);
+        out.agregar(tipo, inicio, cp - inicio, l, c, b);
+    }
+
+    /** Avanza hasta el byte {@code fin} contando code points, líneas y columnas */
+    private void avanzar(int fin) {
+        while (p < fin) {
+            if (src[p] == '\n') {
+                linea++;
+                col = 0;
+            } else {
+                col++;
+            }
+            cp++;
+            p += bytesDe(src, p);
+        }
+    }
+
+    /** INTEGER: DIGITO+  |  DECIMAL: DIGITO+ '.' DIGITO+ */
+    private void numero() {
+        int q = p + 1;
+        while (q < n && CLASE[src[q] & 0xFF] == DIGITO) q++;
+        int tipo = INTEGER;
+        if (q + 1 < n && src[q] == '.' && CLASE[src[q + 1] & 0xFF] == DIGITO) {
+            q += 2;
+            while (q < n && CLASE[src[q] & 0xFF] == DIGITO) q++;
+            tipo = DECIMAL;
+        }
+        simple(tipo, q - p);
+    }
+
+    /** Byte siguiente al '*' '/' que cierra un comentario de bloque, o -1 */
+    private int cierreComentario(int desde) {
+        for (int q = desde; q + 1 < n; q++) {
+            if (src[q] == '*' && src[q + 1] == '/') {
+                return q + 2;
+            }
+        }
+        return -1;
+    }
+
+    /** Byte siguiente a la comilla que cierra '\'' ( ~['\\\r\n] | '\\' . ) '\'', o -1 */
+    private int cierreCaracter() {
+        int q = p + 1;
+        if (q >= n) {
+            return -1;
+        }
+        byte b = src[q];
+        if (b == '\\') {
+            if (q + 1 >= n) return -1;
+            q += 1 + bytesDe(src, q + 1);
+        } else if (b == '\'' || b == '\r' || b == '\n') {
+            return -1;
+        } else {
+            q += bytesDe(src, q);
+        }
+        return q < n && src[q] == '\'' ? q + 1 : -1;
+    }
+
+    /** Byte siguiente a la comilla que cierra '"' ( ~["\\\r\n] | '\\' . )* '"', o -1 */
+    private int cierreCadena() {
+        int q = p + 1;
+        while (q < n) {
+            byte b = src[q];
+            if (b == '"') {
+                return q + 1;
+            }
+            if (b == '\\') {
+                if (q + 1 >= n) return -1;
+                q += 1 + bytesDe(src, q + 1);
+            } else if (b == '\r' || b == '\n') {
+                return -1;
+            } else {
+                q += bytesDe(src, q);
+            }
+        }
+        return -1;
+    }
+
+    /** Tipo de la palabra clave en src[desde, desde+largo), o ID */
+    private int palabraClave(int desde, int largo) {
+        int h = hash(src, desde, largo);
+        byte[] palabra;
+        while ((palabra = PALABRAS[h]) != null) {
+            if (palabra.length == largo && igual(palabra, desde)) {
+                return TIPOS_PALABRA[h];
+            }
+            h = (h + 1) & (TAMANIO_TABLA - 1);
+        }
+        return ID;
+    }
+
+    private boolean igual(byte[] palabra, int desde) {
+        for (int i = 0; i < palabra.length; i++) {
+            if (src[desde + i] != palabra[i]) return false;
+        }
+        return true;
+    }
+
+    private static int hash(byte[] s, int desde, int largo) {
+        return (s[desde] * 31 + s[desde + largo - 1] * 7 + largo) & (TAMANIO_TABLA - 1);
+    }
+
+    /** Bytes del carácter UTF-8 que empieza en {@code i} (1 para un byte inválido) */
+    static int bytesDe(byte[] s, int i) {
+        int b = s[i] & 0xFF;
+        int k = b < 0x80 ? 1 : (b & 0xE0) == 0xC0 ? 2 : (b & 0xF0) == 0xE0 ? 3 : (b & 0xF8) == 0xF0 ? 4 : 1;
+        return Math.min(k, s.length - i);
+    }
+}
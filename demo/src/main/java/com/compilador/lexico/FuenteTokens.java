@@ -0,0 +1,134 @@
+package com.compilador.lexico;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.CommonTokenFactory;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenFactory;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.misc.Pair;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * {@link TokenSource} de ANTLR sobre {@link EscanerLexico}, para usarlo en
+ * lugar de {@code MiniLenguajeLexer} con un {@code CommonTokenStream} y el
+ * parser generado. Escanea toda la fuente al construirse; después cada
+ * {@link #nextToken()} sólo arma el token del buffer. El texto de los tokens
+ * se decodifica cuando se pide, y el {@link CharStream} de la fuente (el que
+ * devuelve {@code getInputStream()}, que usan algunos mensajes de error) se
+ * crea sólo si alguien lo pide.
+ * <p>
+ * Los tokens se saltan comentarios y espacios igual que el lexer generado,
+ * así que todos van al canal por defecto.
+ */
+public final class FuenteTokens implements TokenSource {
+
+    private final byte[] fuente;
+    private final String nombre;
+    private final BufferTokens buffer;
+    private final Pair<TokenSource, CharStream> origen;
+    private CharStream entrada;
+    private TokenFactory<?> fabrica;
+    private int siguiente;
+
+    public FuenteTokens(byte[] fuente, String nombre) {
+        this.fuente = fuente;
+        this.nombre = nombre;
+        this.buffer = EscanerLexico.escanear(fuente);
+        this.origen = new Pair<>(this, null);
+    }
+
+    public static FuenteTokens desdeArchivo(Path ruta) throws IOException {
+        return new FuenteTokens(Files.readAllBytes(ruta), ruta.toString());
+    }
+
+    /** Tokens ya escaneados, para recorrerlos sin objetos */
+    public BufferTokens getBuffer() {
+        return buffer;
+    }
+
+    @Override
+    public Token nextToken() {
+        int k = siguiente;
+        if (k >= buffer.size()) {
+            return crear(Token.EOF, buffer.getIndiceFin(), buffer.getIndiceFin() - 1,
+                    buffer.getLineaFin(), buffer.getColumnaFin(), -1);
+        }
+        siguiente++;
+        return crear(buffer.getTipo(k), buffer.getInicio(k), buffer.getInicio(k) + buffer.getLongitud(k) - 1,
+                buffer.getLinea(k), buffer.getColumna(k), k);
+    }
+
+    private Token crear(int tipo, int inicio, int fin, int linea, int columna, int k) {
+        if (fabrica != null) {
+            String texto = tipo == Token.EOF ? "<EOF>" : null;
+            return fabrica.create(new Pair<>(this, getInputStream()), tipo, texto,
+                    Token.DEFAULT_CHANNEL, inicio, fin, linea, columna);
+        }
+        TokenBuffer t = new TokenBuffer(origen, tipo, inicio, fin, k);
+        t.setLine(linea);
+        t.setCharPositionInLine(columna);
+        return t;
+    }
+
+    /** Token que toma el texto del buffer en vez del CharStream */
+    private final class TokenBuffer extends CommonToken {
+        private final int k;
+
+        TokenBuffer(Pair<TokenSource, CharStream> origen, int tipo, int inicio, int fin, int k) {
+            super(origen, tipo, Token.DEFAULT_CHANNEL, inicio, fin);
+            this.k = k;
+        }
+
+        @Override
+        public String getText() {
+            if (text == null) {
+                text = k < 0 ? "<EOF>" : buffer.getTexto(k);
+            }
+            return text;
+        }
+
+        @Override
+        public CharStream getInputStream() {
+            return FuenteTokens.this.getInputStream();
+        }
+    }
+
+    @Override
+    public int getLine() {
+        return siguiente < buffer.size() ? buffer.getLinea(siguiente) : buffer.getLineaFin();
+    }
+
+    @Override
+    public int getCharPositionInLine() {
+        return siguiente < buffer.size() ? buffer.getColumna(siguiente) : buffer.getColumnaFin();
+    }
+
+    @Override
+    public CharStream getInputStream() {
+        if (entrada == null) {
+            entrada = CharStreams.fromString(new String(fuente, StandardCharsets.UTF_8), nombre);
+        }
+        return entrada;
+    }
+
+    @Override
+    public String getSourceName() {
+        return nombre;
+    }
+
+    @Override
+    public void setTokenFactory(TokenFactory<?> factory) {
+        this.fabrica = factory;
+    }
+
+    @Override
+    public TokenFactory<?> getTokenFactory() {
+        return fabrica != null ? fabrica : CommonTokenFactory.DEFAULT;
+    }
+}
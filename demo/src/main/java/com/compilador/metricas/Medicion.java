@@ -0,0 +1,54 @@
+package com.compilador.metricas;
+
+import com.compilador.jfr.EventoFase;
+
+/**
+ * Medición en curso de una fase. Se abre con {@link RegistroMetricas#medir(String)}
+ * y se cierra en el mismo hilo, con {@link #terminar()} o con try-with-resources.
+ * También emite un {@link EventoFase} de JFR (sin costo si no se está grabando).
+ */
+public class Medicion implements AutoCloseable {
+    private final RegistroMetricas registro;
+    private final String fase;
+    private final long wall0;
+    private final long cpu0;
+    private final long bytes0;
+    private final long pausas0;
+    private final long gcMillis0;
+    private final EventoFase evento = new EventoFase();
+    private long wall = -1;
+
+    Medicion(RegistroMetricas registro, String fase) {
+        this.registro = registro;
+        this.fase = fase;
+        this.pausas0 = RegistroMetricas.gcPausas();
+        this.gcMillis0 = RegistroMetricas.gcMillis();
+        this.bytes0 = registro.bytesHilo();
+        this.cpu0 = registro.cpuHilo();
+        this.wall0 = System.nanoTime();
+        evento.begin();
+    }
+
+    /** Registra la fase (sólo la primera vez) y devuelve su tiempo de reloj en nanosegundos */
+    public long terminar() {
+        if (wall >= 0) {
+            return wall;
+        }
+        wall = System.nanoTime() - wall0;
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.fase = fase;
+            evento.commit();
+        }
+        long cpu = cpu0 < 0 ? -1 : registro.cpuHilo() - cpu0;
+        long bytes = bytes0 < 0 ? -1 : registro.bytesHilo() - bytes0;
+        registro.registrar(fase, wall, cpu, bytes,
+                RegistroMetricas.gcPausas() - pausas0, RegistroMetricas.gcMillis() - gcMillis0);
+        return wall;
+    }
+
+    @Override
+    public void close() {
+        terminar();
+    }
+}
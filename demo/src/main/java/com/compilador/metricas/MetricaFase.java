@@ -0,0 +1,52 @@
+package com.compilador.metricas;
+
+/**
+ * Totales acumulados de una fase (una fase puede medirse varias veces,
+ * p. ej. una por función o una por archivo).
+ */
+public class MetricaFase {
+    private final String nombre;
+    private long mediciones;
+    private long wallNanos;
+    private long cpuNanos;
+    private long bytesAsignados;
+    private long gcPausas;
+    private long gcMillis;
+
+    MetricaFase(String nombre) {
+        this.nombre = nombre;
+    }
+
+    void acumular(long wall, long cpu, long bytes, long pausas, long millis) {
+        mediciones++;
+        wallNanos += wall;
+        cpuNanos = (cpu < 0 || cpuNanos < 0) ? -1 : cpuNanos + cpu;
+        bytesAsignados = (bytes < 0 || bytesAsignados < 0) ? -1 : bytesAsignados + bytes;
+        gcPausas += pausas;
+        gcMillis += millis;
+    }
+
+    MetricaFase copia() {
+        MetricaFase c = new MetricaFase(nombre);
+        c.mediciones = mediciones;
+        c.wallNanos = wallNanos;
+        c.cpuNanos = cpuNanos;
+        c.bytesAsignados = bytesAsignados;
+        c.gcPausas = gcPausas;
+        c.gcMillis = gcMillis;
+        return c;
+    }
+
+    public String getNombre() { return nombre; }
+    public long getMediciones() { return mediciones; }
+    /** Tiempo de reloj */
+    public long getWallNanos() { return wallNanos; }
+    /** Tiempo de CPU del hilo que ejecutó la fase (-1 si la JVM no lo mide) */
+    public long getCpuNanos() { return cpuNanos; }
+    /** Bytes asignados en el heap por el hilo de la fase (-1 si la JVM no lo mide) */
+    public long getBytesAsignados() { return bytesAsignados; }
+    /** Colecciones (stop-the-world) de toda la JVM mientras duró la fase */
+    public long getGcPausas() { return gcPausas; }
+    /** Tiempo acumulado de esas colecciones */
+    public long getGcMillis() { return gcMillis; }
+}
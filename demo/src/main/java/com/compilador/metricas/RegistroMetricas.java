@@ -0,0 +1,167 @@
+package com.compilador.metricas;
+
+import com.compilador.diagnostico.Diagnosticos;
+import com.compilador.traza.Nivel;
+import com.compilador.traza.Traza;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Métricas por fase de la compilación (léxico, sintáctico, semántico,
+ * generación, cada pasada del optimizador, E/S):
+ * • tiempo de reloj y de CPU del hilo
+ * • bytes asignados por el hilo ({@code com.sun.management.ThreadMXBean})
+ * • pausas de GC de la JVM ocurridas durante la fase
+ * <p>
+ * CPU y bytes son los del hilo que abre y cierra la medición; lo que hagan
+ * otros hilos (generación con --paralelo) se mide abriendo la medición en ellos.
+ * Es segura entre hilos; las fases se listan en el orden en que se midieron
+ * por primera vez.
+ */
+public class RegistroMetricas {
+
+    private final Map<String, MetricaFase> fases = new LinkedHashMap<>();
+    private final ThreadMXBean hilos = ManagementFactory.getThreadMXBean();
+    private final com.sun.management.ThreadMXBean hilosSun;
+
+    public RegistroMetricas() {
+        if (hilos.isCurrentThreadCpuTimeSupported() && !hilos.isThreadCpuTimeEnabled()) {
+            hilos.setThreadCpuTimeEnabled(true);
+        }
+        com.sun.management.ThreadMXBean sun = null;
+        if (hilos instanceof com.sun.management.ThreadMXBean) {
+            sun = (com.sun.management.ThreadMXBean) hilos;
+            if (sun.isThreadAllocatedMemorySupported() && !sun.isThreadAllocatedMemoryEnabled()) {
+                sun.setThreadAllocatedMemoryEnabled(true);
+            }
+            if (!sun.isThreadAllocatedMemorySupported()) {
+                sun = null;
+            }
+        }
+        hilosSun = sun;
+    }
+
+    /** Empieza a medir una fase en el hilo actual */
+    public Medicion medir(String fase) {
+        return new Medicion(this, fase);
+    }
+
+    synchronized void registrar(String fase, long wall, long cpu, long bytes, long pausas, long gcMillis) {
+        fases.computeIfAbsent(fase, MetricaFase::new).acumular(wall, cpu, bytes, pausas, gcMillis);
+    }
+
+    /** Copia de las fases medidas, en orden */
+    public synchronized List<MetricaFase> getFases() {
+        List<MetricaFase> copia = new ArrayList<>(fases.size());
+        for (MetricaFase f : fases.values()) {
+            copia.add(f.copia());
+        }
+        return copia;
+    }
+
+    /** Totales de una fase, o null si nunca se midió */
+    public synchronized MetricaFase getFase(String nombre) {
+        MetricaFase f = fases.get(nombre);
+        return f != null ? f.copia() : null;
+    }
+
+    long cpuHilo() {
+        return hilos.isCurrentThreadCpuTimeSupported() ? hilos.getCurrentThreadCpuTime() : -1;
+    }
+
+    long bytesHilo() {
+        return hilosSun != null ? hilosSun.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    /** Colecciones hasta ahora, sin contar los ciclos concurrentes (no detienen la aplicación) */
+    static long gcPausas() {
+        long n = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (!gc.getName().contains("Concurrent") && gc.getCollectionCount() > 0) {
+                n += gc.getCollectionCount();
+            }
+        }
+        return n;
+    }
+
+    static long gcMillis() {
+        long ms = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (!gc.getName().contains("Concurrent") && gc.getCollectionTime() > 0) {
+                ms += gc.getCollectionTime();
+            }
+        }
+        return ms;
+    }
+
+    // ────────────────────────────────────────────────────────────────────────────
+    //  Reporte
+    // ────────────────────────────────────────────────────────────────────────────
+
+    public String aJson() {
+        StringBuilder sb = new StringBuilder("{\"fases\":[");
+        boolean primero = true;
+        for (MetricaFase f : getFases()) {
+            sb.append(primero ? "\n  " : ",\n  ");
+            primero = false;
+            sb.append("{\"fase\":");
+            Diagnosticos.escaparJson(sb, f.getNombre());
+            sb.append(",\"mediciones\":").append(f.getMediciones())
+              .append(",\"wallNanos\":").append(f.getWallNanos())
+              .append(",\"cpuNanos\":").append(f.getCpuNanos())
+              .append(",\"bytesAsignados\":").append(f.getBytesAsignados())
+              .append(",\"gcPausas\":").append(f.getGcPausas())
+              .append(",\"gcMillis\":").append(f.getGcMillis())
+              .append('}');
+        }
+        sb.append("\n]}\n");
+        return sb.toString();
+    }
+
+    public String aCsv() {
+        StringBuilder sb = new StringBuilder("fase,mediciones,wall_ns,cpu_ns,bytes_asignados,gc_pausas,gc_ms\n");
+        for (MetricaFase f : getFases()) {
+            sb.append(f.getNombre()).append(',')
+              .append(f.getMediciones()).append(',')
+              .append(f.getWallNanos()).append(',')
+              .append(f.getCpuNanos()).append(',')
+              .append(f.getBytesAsignados()).append(',')
+              .append(f.getGcPausas()).append(',')
+              .append(f.getGcMillis()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /** Guarda en CSV si la ruta termina en .csv, si no en JSON */
+    public void guardar(Path ruta) throws IOException {
+        boolean csv = ruta.getFileName().toString().toLowerCase().endsWith(".csv");
+        Files.writeString(ruta, csv ? aCsv() : aJson());
+    }
+
+    /** Tabla legible de las fases, en nivel DETALLE */
+    public void imprimir(Traza traza) {
+        if (!traza.habilitado(Nivel.DETALLE)) {
+            return;
+        }
+        traza.emitir(Nivel.DETALLE, String.format("%-36s %10s %10s %12s %6s %8s",
+                "FASE", "WALL ms", "CPU ms", "ASIGNADO KB", "GC", "GC ms"));
+        for (MetricaFase f : getFases()) {
+            traza.emitir(Nivel.DETALLE, String.format("%-36s %10.2f %10.2f %12d %6d %8d",
+                    f.getNombre(),
+                    f.getWallNanos() / 1e6,
+                    f.getCpuNanos() < 0 ? -1.0 : f.getCpuNanos() / 1e6,
+                    f.getBytesAsignados() < 0 ? -1 : f.getBytesAsignados() / 1024,
+                    f.getGcPausas(),
+                    f.getGcMillis()));
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package com.compilador.perfil;
+
+import com.compilador.GrafoLlamadas;
+import com.compilador.c3d.Instruccion;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Perfil de una ejecución del C3D enlazado ({@link com.compilador.c3d.InterpreteC3D}
+ * con {@code setPerfilar(true)}): por función, las llamadas y las
+ * instrucciones ejecutadas, las entradas a cada bloque (etiqueta) y las veces
+ * que saltó cada {@code if}. Lo usan {@link com.compilador.CodigoVisitor}
+ * (cuánto desenrollar en cada función) y {@link com.compilador.Optimizador}
+ * (orden de los bloques, especialización de las llamadas calientes).
+ * <p>
+ * Las etiquetas del C3D enlazado se numeran en todo el programa, así que
+ * cambiar una función renumera las de las siguientes. Por eso en el perfil
+ * las etiquetas se renombran dentro de cada función (L0, L1, … por orden de
+ * aparición) y cada función lleva una huella de su código con temporales y
+ * etiquetas renombrados igual: si la función cambió, sus bloques y saltos se
+ * ignoran, pero sus llamadas y pasos se siguen usando.
+ * <p>
+ * Es texto, una línea por dato:
+ * <pre>
+ *     # perfil C3D v1
+ *     funcion fib 3f2a09c1e4b7d655 21891 350256    nombre, huella, llamadas, instrucciones
+ *     bloque fib L0 10945                          función, etiqueta, entradas
+ *     rama fib func_fib 0 L0 21891 10946           función, bloque, n.º de if en el bloque,
+ *                                                  destino, ejecuciones, saltos
+ * </pre>
+ */
+public final class Perfil {
+
+    public static final int VERSION = 1;
+    /** Fracción de las instrucciones ejecutadas desde la que una función es caliente */
+    public static final double PROPORCION_CALIENTE = 0.1;
+
+    private static final String CABECERA = "# perfil C3D v" + VERSION;
+    private static final Pattern NUMERADO = Pattern.compile("\\b([tL])(\\d+)\\b");
+
+    private static final class DatosFuncion {
+        final String huella;
+        long llamadas;
+        long pasos;
+        final Map<String, Long> bloques = new LinkedHashMap<>();
+        /** "bloque n destino" → {ejecuciones, saltos} */
+        final Map<String, long[]> ramas = new LinkedHashMap<>();
+
+        DatosFuncion(String huella) {
+            this.huella = huella;
+        }
+    }
+
+    private final Map<String, DatosFuncion> funciones = new LinkedHashMap<>();
+    private long pasos;
+
+    private Perfil() {
+    }
+
+    /**
+     * Perfil de una ejecución de {@code codigo}.
+     *
+     * @param ejecuciones veces que se ejecutó cada instrucción
+     * @param saltos      veces que saltó cada if
+     * @param llamadas    llamadas a cada función
+     */
+    public static Perfil medir(List<String> codigo, long[] ejecuciones, long[] saltos, Map<String, Long> llamadas) {
+        Perfil p = new Perfil();
+        for (GrafoLlamadas.Funcion f : GrafoLlamadas.construir(codigo).getFunciones()) {
+            Local local = new Local(codigo, f.getInicio(), f.getFin());
+            DatosFuncion d = new DatosFuncion(local.huella);
+            d.llamadas = llamadas.getOrDefault(f.getNombre(), 0L);
+            String bloque = null;
+            int ordinal = 0;
+            for (int i = f.getInicio(); i < f.getFin(); i++) {
+                d.pasos += ejecuciones[i];
+                Instruccion in = Instruccion.parsear(codigo.get(i));
+                if (in.getTipo() == Instruccion.Tipo.ETIQUETA) {
+                    bloque = local.nombre(in.getOperando(0));
+                    ordinal = 0;
+                    d.bloques.put(bloque, ejecuciones[i]);
+                    continue;
+                }
+                String destino = destinoDeIf(in);
+                if (destino != null) {
+                    d.ramas.put(clave(bloque, ordinal++, local.nombre(destino)),
+                            new long[]{ejecuciones[i], saltos[i]});
+                }
+            }
+            p.pasos += d.pasos;
+            p.funciones.putIfAbsent(f.getNombre(), d);
+        }
+        return p;
+    }
+
+    /** Etiqueta a la que salta un if, o null si no es un if */
+    public static String destinoDeIf(Instruccion in) {
+        switch (in.getTipo()) {
+            case SI_FALSO:
+            case SI:         return in.getOperando(1);
+            case SI_COMPARA: return in.getOperando(3);
+            default:         return null;
+        }
+    }
+
+    private static String clave(String bloque, int ordinal, String destino) {
+        return bloque + " " + ordinal + " " + destino;
+    }
+
+    /** Si el perfil tiene datos de la función */
+    public boolean conoce(String funcion) {
+        return funciones.containsKey(funcion);
+    }
+
+    public long getLlamadas(String funcion) {
+        DatosFuncion d = funciones.get(funcion);
+        return d != null ? d.llamadas : 0;
+    }
+
+    /** Instrucciones ejecutadas dentro de la función */
+    public long getPasos(String funcion) {
+        DatosFuncion d = funciones.get(funcion);
+        return d != null ? d.pasos : 0;
+    }
+
+    /** Instrucciones ejecutadas en todo el programa */
+    public long getPasosTotales() {
+        return pasos;
+    }
+
+    /** Si la función está en el perfil y no se llamó nunca */
+    public boolean esFria(String funcion) {
+        return conoce(funcion) && getLlamadas(funcion) == 0;
+    }
+
+    /** Si ejecutó al menos {@link #PROPORCION_CALIENTE} de las instrucciones del programa */
+    public boolean esCaliente(String funcion) {
+        long p = getPasos(funcion);
+        return p > 0 && p >= PROPORCION_CALIENTE * pasos;
+    }
+
+    /**
+     * Frecuencias de bloques y saltos con los nombres de {@code codigo}, sólo
+     * de las funciones cuyo código coincide con el perfilado.
+     */
+    public Frecuencias aplicar(List<String> codigo) {
+        Frecuencias fr = new Frecuencias();
+        for (GrafoLlamadas.Funcion f : GrafoLlamadas.construir(codigo).getFunciones()) {
+            DatosFuncion d = funciones.get(f.getNombre());
+            if (d == null) {
+                continue;
+            }
+            Local local = new Local(codigo, f.getInicio(), f.getFin());
+            if (!local.huella.equals(d.huella)) {
+                fr.desactualizadas++;
+                continue;
+            }
+            fr.vigentes++;
+            Map<String, String> global = new HashMap<>();
+            local.etiquetas.forEach((g, l) -> global.put(l, g));
+            for (Map.Entry<String, Long> e : d.bloques.entrySet()) {
+                fr.bloques.put(global.getOrDefault(e.getKey(), e.getKey()), e.getValue());
+            }
+            for (Map.Entry<String, long[]> e : d.ramas.entrySet()) {
+                String[] k = e.getKey().split(" ");
+                fr.ramas.put(clave(global.getOrDefault(k[0], k[0]), Integer.parseInt(k[1]),
+                        global.getOrDefault(k[2], k[2])), e.getValue());
+            }
+        }
+        return fr;
+    }
+
+    /** Frecuencias del perfil traducidas a las etiquetas de un código ({@link #aplicar(List)}) */
+    public static final class Frecuencias {
+        private final Map<String, Long> bloques = new HashMap<>();
+        private final Map<String, long[]> ramas = new HashMap<>();
+        private int vigentes;
+        private int desactualizadas;
+
+        /** Entradas al bloque de la etiqueta, o -1 si no se conocen */
+        public long getBloque(String etiqueta) {
+            return bloques.getOrDefault(etiqueta, -1L);
+        }
+
+        /**
+         * {ejecuciones, saltos} del if número {@code ordinal} (desde 0) del
+         * bloque, si salta a {@code destino}; null si no se conoce
+         */
+        public long[] getRama(String bloque, int ordinal, String destino) {
+            return ramas.get(clave(bloque, ordinal, destino));
+        }
+
+        /** Funciones con datos que se pudieron usar */
+        public int getVigentes() {
+            return vigentes;
+        }
+
+        /** Funciones del perfil cuyo código cambió desde que se perfiló */
+        public int getDesactualizadas() {
+            return desactualizadas;
+        }
+    }
+
+    /** Nombres locales de las etiquetas de una función y la huella de su código */
+    private static final class Local {
+        /** Etiqueta enlazada → local */
+        final Map<String, String> etiquetas = new HashMap<>();
+        final String huella;
+
+        Local(List<String> codigo, int inicio, int fin) {
+            Map<String, String> temporales = new HashMap<>();
+            MessageDigest md = sha256();
+            for (int i = inicio; i < fin; i++) {
+                Matcher m = NUMERADO.matcher(codigo.get(i));
+                StringBuilder sb = new StringBuilder();
+                while (m.find()) {
+                    Map<String, String> nombres = m.group(1).equals("t") ? temporales : etiquetas;
+                    String prefijo = m.group(1);
+                    m.appendReplacement(sb, nombres.computeIfAbsent(m.group(), k -> prefijo + nombres.size()));
+                }
+                m.appendTail(sb).append('\n');
+                md.update(sb.toString().getBytes(StandardCharsets.UTF_8));
+            }
+            huella = HexFormat.of().formatHex(md.digest(), 0, 8);
+        }
+
+        /** Nombre local de una etiqueta; las func_ quedan igual */
+        String nombre(String etiqueta) {
+            return etiquetas.getOrDefault(etiqueta, etiqueta);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    public void guardar(Path ruta) throws IOException {
+        try (BufferedWriter w = Files.newBufferedWriter(ruta, StandardCharsets.UTF_8)) {
+            w.write(CABECERA);
+            w.newLine();
+            for (Map.Entry<String, DatosFuncion> e : funciones.entrySet()) {
+                String f = e.getKey();
+                DatosFuncion d = e.getValue();
+                w.write("funcion " + f + " " + d.huella + " " + d.llamadas + " " + d.pasos);
+                w.newLine();
+                for (Map.Entry<String, Long> b : d.bloques.entrySet()) {
+                    w.write("bloque " + f + " " + b.getKey() + " " + b.getValue());
+                    w.newLine();
+                }
+                for (Map.Entry<String, long[]> r : d.ramas.entrySet()) {
+                    w.write("rama " + f + " " + r.getKey() + " " + r.getValue()[0] + " " + r.getValue()[1]);
+                    w.newLine();
+                }
+            }
+        }
+    }
+
+    public static Perfil cargar(Path ruta) throws IOException {
+        List<String> lineas = Files.readAllLines(ruta, StandardCharsets.UTF_8);
+        if (lineas.isEmpty() || !lineas.get(0).equals(CABECERA)) {
+            throw new IOException("No es un perfil C3D v" + VERSION + ": " + ruta);
+        }
+        Perfil p = new Perfil();
+        for (int k = 1; k < lineas.size(); k++) {
+            String ln = lineas.get(k);
+            if (ln.isBlank() || ln.startsWith("#")) {
+                continue;
+            }
+            boolean valida;
+            try {
+                valida = p.leer(ln.split(" "));
+            } catch (NumberFormatException ex) {
+                valida = false;
+            }
+            if (!valida) {
+                throw new IOException(ruta + ":" + (k + 1) + ": línea de perfil inválida: " + ln);
+            }
+        }
+        return p;
+    }
+
+    /** Agrega el dato de una línea ya separada; false si no tiene una forma conocida */
+    private boolean leer(String[] c) {
+        if (c[0].equals("funcion") && c.length == 5) {
+            DatosFuncion d = new DatosFuncion(c[2]);
+            d.llamadas = Long.parseLong(c[3]);
+            d.pasos = Long.parseLong(c[4]);
+            pasos += d.pasos;
+            funciones.put(c[1], d);
+            return true;
+        }
+        DatosFuncion d = c.length > 1 ? funciones.get(c[1]) : null;
+        if (d == null) {
+            return false;
+        }
+        if (c[0].equals("bloque") && c.length == 4) {
+            d.bloques.put(c[2], Long.parseLong(c[3]));
+            return true;
+        }
+        if (c[0].equals("rama") && c.length == 7) {
+            d.ramas.put(clave(c[2], Integer.parseInt(c[3]), c[4]),
+                    new long[]{Long.parseLong(c[5]), Long.parseLong(c[6])});
+            return true;
+        }
+        return false;
+    }
+}
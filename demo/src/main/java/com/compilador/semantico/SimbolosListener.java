@@ -2,6 +2,8 @@ package com.compilador.semantico;
 
 import com.compilador.MiniLenguajeParser.*;
 import com.compilador.MiniLenguajeParserBaseListener;
+import com.compilador.diagnostico.CodigoDiagnostico;
+import com.compilador.diagnostico.Diagnosticos;
 import org.antlr.v4.runtime.Token;
 import org.antlr.v4.runtime.tree.ErrorNode;
 import org.antlr.v4.runtime.tree.TerminalNode;
@@ -18,8 +20,7 @@ import java.util.List;
 public class SimbolosListener extends MiniLenguajeParserBaseListener {
 
     private final TablaSimbolos tabla    = new TablaSimbolos();
-    private final List<String> errores   = new ArrayList<>();
-    private final List<String> warnings  = new ArrayList<>();
+    private final Diagnosticos diagnosticos;
 
     // Pila para almacenar nombres y tipos de parámetros de funciones anidadas
     private final Deque<List<String>> pilaParamNames = new ArrayDeque<>();
@@ -28,11 +29,33 @@ public class SimbolosListener extends MiniLenguajeParserBaseListener {
     private String tipoRetornoActual   = null;
     private String nombreFuncionActual = null;
 
+    /** Ámbito usado para funciones cuya cabecera no se pudo parsear */
+    private static final String FUNCION_INCOMPLETA = "<error>";
+
+    public SimbolosListener() {
+        this(new Diagnosticos());
+    }
+
+    /** @param diagnosticos colector donde se agregan errores y warnings (con su tope y filtros) */
+    public SimbolosListener(Diagnosticos diagnosticos) {
+        this.diagnosticos = diagnosticos;
+    }
+
     // ------------------------------------------------------
     // 1) Declaración de función
     // ------------------------------------------------------
     @Override
     public void enterDeclaracionFuncion(DeclaracionFuncionContext ctx) {
+        if (ctx.tipo() == null || ctx.ID() == null) {
+            // Cabecera incompleta (árbol recuperado tras un error sintáctico):
+            // se abre un ámbito anónimo para que exitDeclaracionFuncion quede balanceado
+            pilaParamNames.push(new ArrayList<>());
+            pilaParamTypes.push(new ArrayList<>());
+            tabla.entrarAmbito(FUNCION_INCOMPLETA);
+            tipoRetornoActual   = null;
+            nombreFuncionActual = FUNCION_INCOMPLETA;
+            return;
+        }
         String tipoRetorno = ctx.tipo().getText();
         String nombreFun   = ctx.ID().getText();
         Token idToken      = ctx.ID().getSymbol();
@@ -42,10 +65,9 @@ public class SimbolosListener extends MiniLenguajeParserBaseListener {
         // Verificar redeclaración en ámbito global
         Simbolo existente = tabla.buscarEnAmbitoExacto("global", nombreFun);
         if (existente != null && existente.getCategoria() == Simbolo.Categoria.FUNCION) {
-            errores.add(String.format(
-                    "[Error] Línea %d:%d. Función '%s' ya declarada en ámbito global.",
+            diagnosticos.agregar(CodigoDiagnostico.FUNCION_REDECLARADA,
                     linea, col, nombreFun
-            ));
+            );
             // Aun así, procedemos a crear el símbolo para continuar el análisis
         }
 
@@ -91,13 +113,12 @@ public class SimbolosListener extends MiniLenguajeParserBaseListener {
         for (String nombreParam : nombres) {
             Simbolo paramSymbol = tabla.buscar(nombreParam);
             if (paramSymbol != null && !paramSymbol.esUsada()) {
-                warnings.add(String.format(
-                        "[Warning] Línea %d:%d. Parámetro '%s' en función '%s' nunca usado.",
+                diagnosticos.agregar(CodigoDiagnostico.PARAMETRO_NO_USADO,
                         paramSymbol.getLinea(),
                         paramSymbol.getColumna(),
                         nombreParam,
                         nombreFuncionActual
-                ));
+                );
             }
         }
 
@@ -113,6 +134,7 @@ public class SimbolosListener extends MiniLenguajeParserBaseListener {
     // ------------------------------------------------------
     @Override
     public void enterParametro(ParametroContext ctx) {
+        if (ctx.tipo() == null || ctx.ID() == null) return;
         String tipoParam = ctx.tipo().getText();
         String nombreParam = ctx.ID().getText();
         Token idToken = ctx.ID().getSymbol();
@@ -134,10 +156,9 @@ public class SimbolosListener extends MiniLenguajeParserBaseListener {
         // Verificar redeclaración de parámetro en esta función
         Simbolo existente = tabla.buscarEnAmbitoExacto(nombreFuncionActual, nombreParam);
         if (existente != null) {
-            errores.add(String.format(
-                    "[Error] Línea %d:%d. Parámetro '%s' ya declarado en función '%s'.",
+            diagnosticos.agregar(CodigoDiagnostico.PARAMETRO_REDECLARADO,
                     linea, col, nombreParam, nombreFuncionActual
-            ));
+            );
             return;
         }
 
@@ -153,6 +174,7 @@ public class SimbolosListener extends MiniLenguajeParserBaseListener {
     // ------------------------------------------------------
     @Override
     public void enterDeclaracionVariable(DeclaracionVariableContext ctx) {
+        if (ctx.tipo() == null || ctx.ID() == null) return;
         String tipoVar   = ctx.tipo().getText();
         String nombreVar = ctx.ID().getText();
         Token idToken    = ctx.ID().getSymbol();
@@ -164,15 +186,13 @@ public class SimbolosListener extends MiniLenguajeParserBaseListener {
         Simbolo existente = tabla.buscarEnAmbitoExacto(ambito, nombreVar);
         if (existente != null) {
             if (!existente.getTipo().equals(tipoVar)) {
-                errores.add(String.format(
-                        "[Error] Línea %d:%d. Variable '%s' ya declarada con tipo '%s' en ámbito '%s'; no se puede redeclarar como '%s'.",
+                diagnosticos.agregar(CodigoDiagnostico.VARIABLE_REDECLARADA_CON_OTRO_TIPO,
                         linea, col, nombreVar, existente.getTipo(), ambito, tipoVar
-                ));
+                );
             } else {
-                warnings.add(String.format(
-                        "[Warning] Línea %d:%d. Variable '%s' ya declarada en ámbito '%s'; ignorando redeclaración.",
+                diagnosticos.agregar(CodigoDiagnostico.VARIABLE_REDECLARADA,
                         linea, col, nombreVar, ambito
-                ));
+                );
             }
             return;
         }
@@ -192,10 +212,9 @@ public class SimbolosListener extends MiniLenguajeParserBaseListener {
         tabla.agregar(sVar);
 
         if (!inicializada) {
-            warnings.add(String.format(
-                    "[Warning] Línea %d:%d. Variable '%s' declarada sin inicializar en ámbito '%s'.",
+            diagnosticos.agregar(CodigoDiagnostico.VARIABLE_SIN_INICIALIZAR,
                     linea, col, nombreVar, ambito
-            ));
+            );
         }
     }
 
@@ -204,6 +223,7 @@ public class SimbolosListener extends MiniLenguajeParserBaseListener {
     // ------------------------------------------------------
     @Override
     public void enterDeclaracionFor(DeclaracionForContext ctx) {
+        if (ctx.tipo() == null || ctx.ID() == null) return;
         String tipoVar   = ctx.tipo().getText();
         String nombreVar = ctx.ID().getText();
         Token idToken    = ctx.ID().getSymbol();
@@ -215,15 +235,13 @@ public class SimbolosListener extends MiniLenguajeParserBaseListener {
         Simbolo existente = tabla.buscarEnAmbitoExacto(ambito, nombreVar);
         if (existente != null) {
             if (!existente.getTipo().equals(tipoVar)) {
-                errores.add(String.format(
-                        "[Error] Línea %d:%d. Variable '%s' ya declarada con tipo '%s' en ámbito '%s'; no se puede redeclarar como '%s'.",
+                diagnosticos.agregar(CodigoDiagnostico.VARIABLE_REDECLARADA_CON_OTRO_TIPO,
                         linea, col, nombreVar, existente.getTipo(), ambito, tipoVar
-                ));
+                );
             } else {
-                warnings.add(String.format(
-                        "[Warning] Línea %d:%d. Variable '%s' ya declarada en ámbito '%s'; ignorando redeclaración.",
+                diagnosticos.agregar(CodigoDiagnostico.VARIABLE_REDECLARADA,
                         linea, col, nombreVar, ambito
-                ));
+                );
             }
             return;
         }
@@ -243,10 +261,9 @@ public class SimbolosListener extends MiniLenguajeParserBaseListener {
         tabla.agregar(sVar);
 
         if (!inicializada) {
-            warnings.add(String.format(
-                    "[Warning] Línea %d:%d. Variable '%s' en for declarada sin inicializar en ámbito '%s'.",
+            diagnosticos.agregar(CodigoDiagnostico.VARIABLE_FOR_SIN_INICIALIZAR,
                     linea, col, nombreVar, ambito
-            ));
+            );
         }
     }
 
@@ -262,20 +279,18 @@ public class SimbolosListener extends MiniLenguajeParserBaseListener {
 
         Simbolo s = tabla.buscar(nombre);
         if (s == null) {
-            errores.add(String.format(
-                    "[Error] Línea %d:%d. Identificador '%s' no declarado.",
+            diagnosticos.agregar(CodigoDiagnostico.IDENTIFICADOR_NO_DECLARADO,
                     linea, col, nombre
-            ));
+            );
             return;
         }
 
         // Si es variable, advertir uso sin inicializar (solo la primera vez)
         if (s.getCategoria() == Simbolo.Categoria.VARIABLE) {
             if (!s.esInicializada() && !s.esUsada()) {
-                warnings.add(String.format(
-                        "[Warning] Línea %d:%d. Uso de variable '%s' no inicializada.",
+                diagnosticos.agregar(CodigoDiagnostico.USO_NO_INICIALIZADA,
                         linea, col, nombre
-                ));
+                );
             }
         }
 
@@ -287,6 +302,7 @@ public class SimbolosListener extends MiniLenguajeParserBaseListener {
     // ------------------------------------------------------
     @Override
     public void enterAsignacion(AsignacionContext ctx) {
+        if (ctx.ID() == null) return;
         String nombre = ctx.ID().getText();
         Token t       = ctx.ID().getSymbol();
         int linea     = t.getLine();
@@ -294,18 +310,16 @@ public class SimbolosListener extends MiniLenguajeParserBaseListener {
 
         Simbolo sVar = tabla.buscar(nombre);
         if (sVar == null) {
-            errores.add(String.format(
-                    "[Error] Línea %d:%d. Asignación a variable '%s' no declarada.",
+            diagnosticos.agregar(CodigoDiagnostico.ASIGNACION_A_NO_DECLARADA,
                     linea, col, nombre
-            ));
+            );
             return;
         }
 
         if (sVar.esConstante()) {
-            errores.add(String.format(
-                    "[Error] Línea %d:%d. No se puede reasignar a la constante '%s'.",
+            diagnosticos.agregar(CodigoDiagnostico.ASIGNACION_A_CONSTANTE,
                     linea, col, nombre
-            ));
+            );
             return;
         }
 
@@ -316,10 +330,9 @@ public class SimbolosListener extends MiniLenguajeParserBaseListener {
         }
 
         if (!esCompatible(tipoIzq, tipoDer)) {
-            errores.add(String.format(
-                    "[Error] Línea %d:%d. Tipo mismatched: no se puede asignar '%s' a '%s'.",
+            diagnosticos.agregar(CodigoDiagnostico.ASIGNACION_TIPO_INCOMPATIBLE,
                     linea, col, tipoDer, tipoIzq
-            ));
+            );
             return;
         }
 
@@ -332,6 +345,7 @@ public class SimbolosListener extends MiniLenguajeParserBaseListener {
     // ------------------------------------------------------
     @Override
     public void enterLlamada(LlamadaContext ctx) {
+        if (ctx.ID() == null) return;
         String nombreFun = ctx.ID().getText();
         Token t          = ctx.ID().getSymbol();
         int linea        = t.getLine();
@@ -339,19 +353,17 @@ public class SimbolosListener extends MiniLenguajeParserBaseListener {
 
         Simbolo sFun = tabla.buscar(nombreFun);
         if (sFun == null || sFun.getCategoria() != Simbolo.Categoria.FUNCION) {
-            errores.add(String.format(
-                    "[Error] Línea %d:%d. Función '%s' no declarada.",
+            diagnosticos.agregar(CodigoDiagnostico.FUNCION_NO_DECLARADA,
                     linea, col, nombreFun
-            ));
+            );
             return;
         }
 
         // Detectar si la función se llama antes de ser declarada
         if (sFun.getOrden() > getUltimoOrdenDeclarado()) {
-            errores.add(String.format(
-                    "[Error] Línea %d:%d. Llamada a función '%s' antes de su declaración.",
+            diagnosticos.agregar(CodigoDiagnostico.LLAMADA_ANTES_DE_DECLARACION,
                     linea, col, nombreFun
-            ));
+            );
         }
 
         sFun.setUsada(true);
@@ -361,10 +373,9 @@ public class SimbolosListener extends MiniLenguajeParserBaseListener {
                 ctx.expresion() != null ? ctx.expresion() : List.of();
 
         if (paramsActuales.size() != paramsEsperados.size()) {
-            errores.add(String.format(
-                    "[Error] Línea %d:%d. Llamada a '%s' con %d parámetro(s), pero se esperaban %d.",
+            diagnosticos.agregar(CodigoDiagnostico.CANTIDAD_DE_ARGUMENTOS,
                     linea, col, nombreFun, paramsActuales.size(), paramsEsperados.size()
-            ));
+            );
             return;
         }
 
@@ -375,11 +386,10 @@ public class SimbolosListener extends MiniLenguajeParserBaseListener {
             if (tipoAct == null) continue;
             if (!esCompatible(tipoEsp, tipoAct)) {
                 Token tParam = expCtx.getStart();
-                errores.add(String.format(
-                        "[Error] Línea %d:%d. En llamada a '%s', parámetro %d: se esperaba '%s', se encontró '%s'.",
+                diagnosticos.agregar(CodigoDiagnostico.TIPO_DE_ARGUMENTO,
                         tParam.getLine(), tParam.getCharPositionInLine(),
                         nombreFun, i + 1, tipoEsp, tipoAct
-                ));
+                );
             }
         }
     }
@@ -394,34 +404,30 @@ public class SimbolosListener extends MiniLenguajeParserBaseListener {
         int col   = t.getCharPositionInLine();
 
         if (tipoRetornoActual == null) {
-            errores.add(String.format(
-                    "[Error] Línea %d:%d. 'return' fuera de una función.",
+            diagnosticos.agregar(CodigoDiagnostico.RETURN_FUERA_DE_FUNCION,
                     linea, col
-            ));
+            );
             return;
         }
 
         if (tipoRetornoActual.equals("void") && ctx.expresion() != null) {
-            errores.add(String.format(
-                    "[Error] Línea %d:%d. Función '%s' es void y no debe retornar valor.",
+            diagnosticos.agregar(CodigoDiagnostico.RETURN_EN_FUNCION_VOID,
                     linea, col, nombreFuncionActual
-            ));
+            );
             return;
         }
         if (!tipoRetornoActual.equals("void") && ctx.expresion() == null) {
-            errores.add(String.format(
-                    "[Error] Línea %d:%d. Función '%s' debe retornar tipo '%s'.",
+            diagnosticos.agregar(CodigoDiagnostico.RETURN_SIN_VALOR,
                     linea, col, nombreFuncionActual, tipoRetornoActual
-            ));
+            );
             return;
         }
         if (ctx.expresion() != null) {
             String tipoExp = inferirTipo(ctx.expresion());
             if (tipoExp != null && !esCompatible(tipoRetornoActual, tipoExp)) {
-                errores.add(String.format(
-                        "[Error] Línea %d:%d. No se puede retornar tipo '%s' desde función '%s' que espera '%s'.",
+                diagnosticos.agregar(CodigoDiagnostico.RETURN_TIPO_INCOMPATIBLE,
                         linea, col, tipoExp, nombreFuncionActual, tipoRetornoActual
-                ));
+                );
             }
         }
     }
@@ -429,10 +435,9 @@ public class SimbolosListener extends MiniLenguajeParserBaseListener {
     @Override
     public void visitErrorNode(ErrorNode node) {
         Token t = ((TerminalNode) node).getSymbol();
-        errores.add(String.format(
-                "[Error sintáctico] Línea %d:%d. Símbolo inesperado '%s'.",
+        diagnosticos.agregar(CodigoDiagnostico.SIMBOLO_INESPERADO,
                 t.getLine(), t.getCharPositionInLine(), t.getText()
-        ));
+        );
     }
 
     // ------------------------------------------------------
@@ -457,18 +462,16 @@ public class SimbolosListener extends MiniLenguajeParserBaseListener {
 
             Simbolo s = tabla.buscar(nombre);
             if (s == null) {
-                errores.add(String.format(
-                        "[Error] Línea %d:%d. Identificador '%s' no declarado.",
+                diagnosticos.agregar(CodigoDiagnostico.IDENTIFICADOR_NO_DECLARADO,
                         linea, col, nombre
-                ));
+                );
                 return null;
             }
             if (s.getCategoria() == Simbolo.Categoria.VARIABLE) {
                 if (!s.esInicializada() && !s.esUsada()) {
-                    warnings.add(String.format(
-                            "[Warning] Línea %d:%d. Uso de variable '%s' no inicializada.",
+                    diagnosticos.agregar(CodigoDiagnostico.USO_NO_INICIALIZADA,
                             linea, col, nombre
-                    ));
+                    );
                 }
             }
             s.setUsada(true);
@@ -476,16 +479,16 @@ public class SimbolosListener extends MiniLenguajeParserBaseListener {
         }
         if (ctx instanceof ExpLlamadaContext) {
             ExpLlamadaContext callCtx = (ExpLlamadaContext) ctx;
+            if (callCtx.llamada().ID() == null) return null;
             String nombreFun = callCtx.llamada().ID().getText();
             Simbolo sFun = tabla.buscar(nombreFun);
             Token t = callCtx.llamada().ID().getSymbol();
             int linea = t.getLine();
             int col   = t.getCharPositionInLine();
             if (sFun == null || sFun.getCategoria() != Simbolo.Categoria.FUNCION) {
-                errores.add(String.format(
-                        "[Error] Línea %d:%d. Función '%s' no declarada.",
+                diagnosticos.agregar(CodigoDiagnostico.FUNCION_NO_DECLARADA,
                         linea, col, nombreFun
-                ));
+                );
                 return null;
             }
             sFun.setUsada(true);
@@ -496,16 +499,16 @@ public class SimbolosListener extends MiniLenguajeParserBaseListener {
         }
         if (ctx instanceof ExpPreIncrementoContext) {
             ExpPreIncrementoContext pre = (ExpPreIncrementoContext) ctx;
+            if (pre.ID() == null) return null;
             String nombre = pre.ID().getText();
             Token t = pre.ID().getSymbol();
             int linea = t.getLine();
             int col   = t.getCharPositionInLine();
             Simbolo s = tabla.buscar(nombre);
             if (s == null) {
-                errores.add(String.format(
-                        "[Error] Línea %d:%d. Identificador '%s' no declarado.",
+                diagnosticos.agregar(CodigoDiagnostico.IDENTIFICADOR_NO_DECLARADO,
                         linea, col, nombre
-                ));
+                );
                 return null;
             }
             s.setUsada(true);
@@ -513,16 +516,16 @@ public class SimbolosListener extends MiniLenguajeParserBaseListener {
         }
         if (ctx instanceof ExpPreDecrementoContext) {
             ExpPreDecrementoContext pre = (ExpPreDecrementoContext) ctx;
+            if (pre.ID() == null) return null;
             String nombre = pre.ID().getText();
             Token t = pre.ID().getSymbol();
             int linea = t.getLine();
             int col   = t.getCharPositionInLine();
             Simbolo s = tabla.buscar(nombre);
             if (s == null) {
-                errores.add(String.format(
-                        "[Error] Línea %d:%d. Identificador '%s' no declarado.",
+                diagnosticos.agregar(CodigoDiagnostico.IDENTIFICADOR_NO_DECLARADO,
                         linea, col, nombre
-                ));
+                );
                 return null;
             }
             s.setUsada(true);
@@ -530,16 +533,16 @@ public class SimbolosListener extends MiniLenguajeParserBaseListener {
         }
         if (ctx instanceof ExpPostIncrementoContext) {
             ExpPostIncrementoContext post = (ExpPostIncrementoContext) ctx;
+            if (post.ID() == null) return null;
             String nombre = post.ID().getText();
             Token t = post.ID().getSymbol();
             int linea = t.getLine();
             int col   = t.getCharPositionInLine();
             Simbolo s = tabla.buscar(nombre);
             if (s == null) {
-                errores.add(String.format(
-                        "[Error] Línea %d:%d. Identificador '%s' no declarado.",
+                diagnosticos.agregar(CodigoDiagnostico.IDENTIFICADOR_NO_DECLARADO,
                         linea, col, nombre
-                ));
+                );
                 return null;
             }
             s.setUsada(true);
@@ -547,16 +550,16 @@ public class SimbolosListener extends MiniLenguajeParserBaseListener {
         }
         if (ctx instanceof ExpPostDecrementoContext) {
             ExpPostDecrementoContext post = (ExpPostDecrementoContext) ctx;
+            if (post.ID() == null) return null;
             String nombre = post.ID().getText();
             Token t = post.ID().getSymbol();
             int linea = t.getLine();
             int col   = t.getCharPositionInLine();
             Simbolo s = tabla.buscar(nombre);
             if (s == null) {
-                errores.add(String.format(
-                        "[Error] Línea %d:%d. Identificador '%s' no declarado.",
+                diagnosticos.agregar(CodigoDiagnostico.IDENTIFICADOR_NO_DECLARADO,
                         linea, col, nombre
-                ));
+                );
                 return null;
             }
             s.setUsada(true);
@@ -578,21 +581,14 @@ public class SimbolosListener extends MiniLenguajeParserBaseListener {
             String op = bin.operadorBinario().getText();
             Token tOp  = bin.operadorBinario().getStart();
 
-            if (tipoL.equals("double") || tipoR.equals("double")) {
-                return "double";
-            }
-            if (tipoL.equals("int") && tipoR.equals("int")) {
-                return "int";
-            }
-            if (tipoL.equals("char") && tipoR.equals("char") &&
-                    (op.equals("==") || op.equals("!="))) {
-                return "int";
+            String tipo = Tipos.binario(op, tipoL, tipoR);
+            if (tipo != null) {
+                return tipo;
             }
 
-            errores.add(String.format(
-                    "[Error] Línea %d:%d. Operación '%s' no permitida entre '%s' y '%s'.",
+            diagnosticos.agregar(CodigoDiagnostico.OPERACION_NO_PERMITIDA,
                     tOp.getLine(), tOp.getCharPositionInLine(), op, tipoL, tipoR
-            ));
+            );
             return null;
         }
         return null;
@@ -602,12 +598,7 @@ public class SimbolosListener extends MiniLenguajeParserBaseListener {
     // Compatibilidad de tipos
     // ------------------------------------------------------
     private boolean esCompatible(String dest, String source) {
-        if (dest.equals(source)) return true;
-        if (dest.equals("double") &&
-                (source.equals("int") || source.equals("char") || source.equals("double"))) {
-            return true;
-        }
-        return false;
+        return Tipos.esCompatible(dest, source);
     }
 
     // ------------------------------------------------------
@@ -625,30 +616,33 @@ public class SimbolosListener extends MiniLenguajeParserBaseListener {
     @Override
     public void exitPrograma(ProgramaContext ctx) {
         // 10.1) Variables y funciones declaradas pero nunca usadas
-        for (Simbolo s : tabla.getTodosLosSimbolos()) {
+        advertirNoUsados(tabla.getTodosLosSimbolos());
+
+        // 10.2) Detectar bucles potencialmente infinitos
+        verificarBucleInfinito(ctx);
+    }
+
+    /** Warnings de variables y funciones (salvo main) que nunca se usaron */
+    public void advertirNoUsados(List<Simbolo> simbolos) {
+        for (Simbolo s : simbolos) {
             if (!s.esUsada()) {
                 if (s.getCategoria() == Simbolo.Categoria.VARIABLE) {
-                    warnings.add(String.format(
-                            "[Warning] Línea %d:%d. Variable '%s' declarada pero nunca usada.",
+                    diagnosticos.agregar(CodigoDiagnostico.VARIABLE_NO_USADA,
                             s.getLinea(),
                             s.getColumna(),
                             s.getNombre()
-                    ));
+                    );
                 }
                 if (s.getCategoria() == Simbolo.Categoria.FUNCION &&
                         !s.getNombre().equals("main")) {
-                    warnings.add(String.format(
-                            "[Warning] Línea %d:%d. Función '%s' declarada pero nunca llamada.",
+                    diagnosticos.agregar(CodigoDiagnostico.FUNCION_NO_LLAMADA,
                             s.getLinea(),
                             s.getColumna(),
                             s.getNombre()
-                    ));
+                    );
                 }
             }
         }
-
-        // 10.2) Detectar bucles potencialmente infinitos
-        verificarBucleInfinito(ctx);
     }
 
     private void verificarBucleInfinito(ProgramaContext ctx) {
@@ -661,11 +655,10 @@ public class SimbolosListener extends MiniLenguajeParserBaseListener {
                 if (cond instanceof ExpEnteroContext) {
                     String val = ((ExpEnteroContext)cond).INTEGER().getText();
                     if ("1".equals(val)) {
-                        warnings.add(String.format(
-                                "[Warning] Línea %d:%d. Bucle 'while' potencialmente infinito.",
+                        diagnosticos.agregar(CodigoDiagnostico.WHILE_INFINITO,
                                 cond.getStart().getLine(),
                                 cond.getStart().getCharPositionInLine()
-                        ));
+                        );
                     }
                 }
             }
@@ -677,16 +670,40 @@ public class SimbolosListener extends MiniLenguajeParserBaseListener {
                 boolean updEmpty  = f.actualizacionFor().getText().isEmpty();
                 if (initEmpty && condEmpty && updEmpty) {
                     Token tFor = f.getStart();
-                    warnings.add(String.format(
-                            "[Warning] Línea %d:%d. Bucle 'for' potencialmente infinito.",
+                    diagnosticos.agregar(CodigoDiagnostico.FOR_INFINITO,
                             tFor.getLine(),
                             tFor.getCharPositionInLine()
-                    ));
+                    );
                 }
             }
         }
     }
 
+    // ------------------------------------------------------
+    // 11) Análisis de una función aislada (compilación incremental)
+    // ------------------------------------------------------
+    /**
+     * Registra en el ámbito global una función declarada antes de la que se
+     * va a recorrer, como si ya se hubiera visitado su declaración.
+     */
+    public void predeclararFuncion(String nombre, String tipoRetorno, List<String> tiposParametros,
+                                   int linea, int col) {
+        tabla.agregar(new Simbolo(
+                nombre,
+                tipoRetorno,
+                Simbolo.Categoria.FUNCION,
+                linea,
+                col,
+                "global",
+                false,
+                -1
+        ));
+        Simbolo registrada = tabla.buscarEnAmbitoExacto("global", nombre);
+        for (String tipoParam : tiposParametros) {
+            registrada.agregarParametro(tipoParam);
+        }
+    }
+
     // ------------------------------------------------------
     // Getters para App.java
     // ------------------------------------------------------
@@ -694,11 +711,17 @@ public class SimbolosListener extends MiniLenguajeParserBaseListener {
         return tabla;
     }
 
+    public Diagnosticos getDiagnosticos() {
+        return diagnosticos;
+    }
+
+    /** Mensajes de error; se formatean recién al leerlos */
     public List<String> getErrores() {
-        return errores;
+        return Diagnosticos.mensajes(diagnosticos.getErrores());
     }
 
+    /** Mensajes de warning; se formatean recién al leerlos */
     public List<String> getWarnings() {
-        return warnings;
+        return Diagnosticos.mensajes(diagnosticos.getWarnings());
     }
 }
@@ -1,5 +1,9 @@
 package com.compilador.semantico;
 
+import com.compilador.traza.Nivel;
+import com.compilador.traza.Traza;
+import com.compilador.traza.TrazaSalida;
+
 import java.util.*;
 
 /**
@@ -124,11 +128,41 @@ public class TablaSimbolos {
         return lista;
     }
 
+    /** Símbolos de un único ámbito, en orden de declaración */
+    public List<Simbolo> getSimbolosDeAmbito(String ambito) {
+        LinkedHashMap<String, Simbolo> mapa = tablaPorAmbito.get(ambito);
+        return (mapa != null) ? new ArrayList<>(mapa.values()) : new ArrayList<>();
+    }
+
+    /** Nombres de los parámetros de cada función global, en orden de declaración */
+    public Map<String, List<String>> getParametrosPorFuncion() {
+        Map<String, List<String>> parametros = new HashMap<>();
+        for (Simbolo f : getSimbolosDeAmbito("global")) {
+            if (f.getCategoria() != Simbolo.Categoria.FUNCION) continue;
+            List<String> nombres = new ArrayList<>();
+            for (Simbolo s : getSimbolosDeAmbito(f.getNombre())) {
+                if (s.getCategoria() == Simbolo.Categoria.PARAMETRO) nombres.add(s.getNombre());
+            }
+            parametros.put(f.getNombre(), nombres);
+        }
+        return parametros;
+    }
+
     public void imprimir() {
-        System.out.println("\n=== TABLA DE SÍMBOLOS ===");
-        System.out.printf("%-12s %-10s %-9s %-5s %-5s %-11s %-15s %-10s%n",
-                "NOMBRE", "TIPO", "CATEGORIA", "LIN", "COL", "AMBITO", "PARAMETROS", "FLAGS");
-        System.out.println("------------------------------------------------------------------------------");
+        Traza salida = new TrazaSalida(System.out, Nivel.DETALLE);
+        imprimir(salida);
+        salida.vaciar();
+    }
+
+    /** Emite la tabla en nivel DETALLE; si ese nivel está apagado no arma ninguna fila */
+    public void imprimir(Traza traza) {
+        if (!traza.habilitado(Nivel.DETALLE)) {
+            return;
+        }
+        traza.emitir(Nivel.DETALLE, "\n=== TABLA DE SÍMBOLOS ===");
+        traza.emitir(Nivel.DETALLE, String.format("%-12s %-10s %-9s %-5s %-5s %-11s %-15s %-10s",
+                "NOMBRE", "TIPO", "CATEGORIA", "LIN", "COL", "AMBITO", "PARAMETROS", "FLAGS"));
+        traza.emitir(Nivel.DETALLE, "------------------------------------------------------------------------------");
         for (Simbolo s : getTodosLosSimbolos()) {
             String params = s.getCategoria() == Simbolo.Categoria.FUNCION
                     ? s.getParametros().toString()
@@ -136,7 +170,7 @@ public class TablaSimbolos {
             String flags = (s.esConstante() ? "const " : "")
                     + (s.esInicializada() ? "" : "no-inicializada ")
                     + (s.esUsada() ? "" : "no-usada");
-            System.out.printf("%-12s %-10s %-9s %-5d %-5d %-11s %-15s %-10s%n",
+            traza.emitir(Nivel.DETALLE, String.format("%-12s %-10s %-9s %-5d %-5d %-11s %-15s %-10s",
                     s.getNombre(),
                     s.getTipo(),
                     s.getCategoria().name().toLowerCase(),
@@ -144,7 +178,7 @@ public class TablaSimbolos {
                     s.getColumna(),
                     s.getAmbito(),
                     params,
-                    flags.trim());
+                    flags.trim()));
         }
     }
 }
@@ -0,0 +1,47 @@
+package com.compilador.semantico;
+
+/**
+ * Reglas de tipos del lenguaje, compartidas por el análisis semántico
+ * ({@link SimbolosListener}) y la generación de código, que las usa para
+ * elegir operaciones tipadas y dónde convertir int → double.
+ */
+public final class Tipos {
+
+    public static final String INT    = "int";
+    public static final String DOUBLE = "double";
+    public static final String CHAR   = "char";
+
+    private Tipos() {
+    }
+
+    /**
+     * Tipo de {@code izq op der}, o null si la operación no está permitida:
+     * • Si algún operando es double, el resultado es double
+     * • int con int da int
+     * • char con char sólo se compara con == o !=, y da int
+     */
+    public static String binario(String op, String izq, String der) {
+        if (izq.equals(DOUBLE) || der.equals(DOUBLE)) {
+            return DOUBLE;
+        }
+        if (izq.equals(INT) && der.equals(INT)) {
+            return INT;
+        }
+        if (izq.equals(CHAR) && der.equals(CHAR) && (op.equals("==") || op.equals("!="))) {
+            return INT;
+        }
+        return null;
+    }
+
+    /** Si un valor de tipo {@code origen} se puede guardar en uno de tipo {@code destino} */
+    public static boolean esCompatible(String destino, String origen) {
+        if (destino.equals(origen)) return true;
+        return destino.equals(DOUBLE) && (origen.equals(INT) || origen.equals(CHAR));
+    }
+
+    /** Si guardar un {@code origen} en un {@code destino} requiere convertir a double */
+    public static boolean requiereConversion(String destino, String origen) {
+        return destino != null && origen != null && destino.equals(DOUBLE) && !origen.equals(DOUBLE)
+                && esCompatible(destino, origen);
+    }
+}
@@ -0,0 +1,205 @@
+package com.compilador.sintactico;
+
+import com.compilador.MiniLenguajeLexer;
+import com.compilador.lexico.BufferTokens;
+
+import java.util.Arrays;
+
+/**
+ * AST de {@link ParserDescendente}: un nodo por construcción del lenguaje,
+ * sin los paréntesis, llaves, comas ni punto y coma que el árbol de ANTLR
+ * guarda como {@code TerminalNode}. Los nodos son índices en arreglos
+ * paralelos (tipo, dato, token, primer hijo, siguiente hermano), así que el
+ * árbol entero son cinco arreglos. El nombre, el valor y la posición de cada
+ * nodo se leen de su token en el {@link BufferTokens}.
+ * <p>
+ * Hijos de cada tipo (entre corchetes los opcionales):
+ * <pre>
+ *     PROGRAMA         FUNCION...
+ *     FUNCION          PARAMETRO... BLOQUE          token: nombre, dato: tipo
+ *     PARAMETRO                                     token: nombre, dato: tipo
+ *     BLOQUE           sentencias
+ *     DECLARACION      [expresión]                  token: nombre, dato: tipo
+ *     ASIGNACION       expresión                    token: variable
+ *     IF               condición BLOQUE [BLOQUE]
+ *     WHILE            condición BLOQUE
+ *     FOR              inicio condición paso BLOQUE inicio: DECLARACION o ASIGNACION;
+ *                                                   paso: ASIGNACION o un incremento
+ *     BREAK, CONTINUE
+ *     RETORNO          [expresión]
+ *     LLAMADA          argumentos...                token: función
+ *     BINARIA          izquierda derecha            token: operador
+ *     NEGACION         expresión
+ *     PRE_INCREMENTO, PRE_DECREMENTO,
+ *     POST_INCREMENTO, POST_DECREMENTO              token: variable
+ *     ID, ENTERO, DECIMAL, CARACTER, CADENA         token: el literal
+ * </pre>
+ * Una llamada usada como sentencia es un LLAMADA directamente en el bloque.
+ */
+public final class ArbolCompacto {
+
+    public enum Tipo {
+        PROGRAMA(false),
+        FUNCION(true),
+        PARAMETRO(true),
+        BLOQUE(false),
+        DECLARACION(true),
+        ASIGNACION(true),
+        IF(false),
+        WHILE(false),
+        FOR(false),
+        BREAK(false),
+        CONTINUE(false),
+        RETORNO(false),
+        LLAMADA(true),
+        BINARIA(true),
+        NEGACION(false),
+        PRE_INCREMENTO(true),
+        PRE_DECREMENTO(true),
+        POST_INCREMENTO(true),
+        POST_DECREMENTO(true),
+        ID(true),
+        ENTERO(true),
+        DECIMAL(true),
+        CARACTER(true),
+        CADENA(true);
+
+        private final boolean conTexto;
+
+        Tipo(boolean conTexto) {
+            this.conTexto = conTexto;
+        }
+
+        /** Si el texto del token es parte del nodo (un nombre, operador o literal) y no sólo su posición */
+        public boolean tieneTexto() {
+            return conTexto;
+        }
+    }
+
+    private static final Tipo[] TIPOS = Tipo.values();
+
+    private final BufferTokens tokens;
+    private int cantidad;
+    private byte[] tipos;
+    private byte[] datos;
+    private int[] tokenDe;
+    private int[] primerHijo;
+    private int[] siguiente;
+
+    ArbolCompacto(BufferTokens tokens, int capacidad) {
+        this.tokens = tokens;
+        tipos = new byte[capacidad];
+        datos = new byte[capacidad];
+        tokenDe = new int[capacidad];
+        primerHijo = new int[capacidad];
+        siguiente = new int[capacidad];
+    }
+
+    /** Agrega un nodo sin hijos y devuelve su índice */
+    int nuevo(Tipo tipo, int token, int dato) {
+        if (cantidad == tipos.length) {
+            int capacidad = cantidad + (cantidad >> 1) + 16;
+            tipos = Arrays.copyOf(tipos, capacidad);
+            datos = Arrays.copyOf(datos, capacidad);
+            tokenDe = Arrays.copyOf(tokenDe, capacidad);
+            primerHijo = Arrays.copyOf(primerHijo, capacidad);
+            siguiente = Arrays.copyOf(siguiente, capacidad);
+        }
+        tipos[cantidad] = (byte) tipo.ordinal();
+        datos[cantidad] = (byte) dato;
+        tokenDe[cantidad] = token;
+        primerHijo[cantidad] = -1;
+        siguiente[cantidad] = -1;
+        return cantidad++;
+    }
+
+    /** Pone {@code hijo} después de {@code ultimo} (-1 si es el primero); devuelve {@code hijo} */
+    int agregar(int padre, int ultimo, int hijo) {
+        if (ultimo < 0) {
+            primerHijo[padre] = hijo;
+        } else {
+            siguiente[ultimo] = hijo;
+        }
+        return hijo;
+    }
+
+    /** Cantidad de nodos */
+    public int size() { return cantidad; }
+    /** El nodo PROGRAMA */
+    public int getRaiz() { return 0; }
+    public Tipo getTipo(int n) { return TIPOS[tipos[n]]; }
+    /** Tipo de token del tipo declarado (INT, CHAR, …) en FUNCION, PARAMETRO y DECLARACION; 0 en los demás */
+    public int getDato(int n) { return datos[n]; }
+    /** Índice del token del nodo en {@link #getTokens()}, -1 en PROGRAMA */
+    public int getToken(int n) { return tokenDe[n]; }
+    /** Primer hijo, o -1 */
+    public int getPrimerHijo(int n) { return primerHijo[n]; }
+    /** Siguiente hermano, o -1 */
+    public int getSiguiente(int n) { return siguiente[n]; }
+
+    public BufferTokens getTokens() {
+        return tokens;
+    }
+
+    /** Texto del token del nodo: nombre, operador o literal */
+    public String getTexto(int n) {
+        return tokens.getTexto(tokenDe[n]);
+    }
+
+    public int getLinea(int n) {
+        return tokenDe[n] < 0 ? 1 : tokens.getLinea(tokenDe[n]);
+    }
+
+    public int getColumna(int n) {
+        return tokenDe[n] < 0 ? 0 : tokens.getColumna(tokenDe[n]);
+    }
+
+    public int cantidadHijos(int n) {
+        int k = 0;
+        for (int h = primerHijo[n]; h >= 0; h = siguiente[h]) {
+            k++;
+        }
+        return k;
+    }
+
+    /** Hijo número {@code i} (desde 0), o -1 si no hay tantos */
+    public int getHijo(int n, int i) {
+        int h = primerHijo[n];
+        while (h >= 0 && i-- > 0) {
+            h = siguiente[h];
+        }
+        return h;
+    }
+
+    /**
+     * El subárbol como expresión S, p. ej. {@code (DECLARACION int x (BINARIA + (ID a) (ENTERO 1)))}:
+     * el tipo del nodo, el tipo declarado y el texto del token si el nodo los tiene, y los hijos.
+     */
+    public String aTexto(int n) {
+        StringBuilder sb = new StringBuilder();
+        aTexto(n, sb);
+        return sb.toString();
+    }
+
+    private void aTexto(int n, StringBuilder sb) {
+        Tipo t = getTipo(n);
+        sb.append('(').append(t);
+        if (datos[n] != 0) {
+            String literal = MiniLenguajeLexer.VOCABULARY.getLiteralName(datos[n]);
+            sb.append(' ').append(literal, 1, literal.length() - 1);
+        }
+        if (t.tieneTexto()) {
+            sb.append(' ').append(getTexto(n));
+        }
+        for (int h = primerHijo[n]; h >= 0; h = siguiente[h]) {
+            sb.append(' ');
+            aTexto(h, sb);
+        }
+        sb.append(')');
+    }
+
+    @Override
+    public String toString() {
+        return cantidad == 0 ? "()" : aTexto(getRaiz());
+    }
+}
@@ -0,0 +1,373 @@
+package com.compilador.sintactico;
+
+import com.compilador.MiniLenguajeLexer;
+import com.compilador.lexico.BufferTokens;
+import com.compilador.lexico.EscanerLexico;
+import com.compilador.sintactico.ArbolCompacto.Tipo;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+
+import static com.compilador.MiniLenguajeLexer.*;
+
+/**
+ * Parser descendente recursivo escrito a mano para la gramática de
+ * {@code MiniLenguajeParser.g4}, con las expresiones por precedencia (Pratt).
+ * Lee los tokens de un {@link BufferTokens} sin crear objetos {@code Token}
+ * y arma un {@link ArbolCompacto} en vez del árbol de contextos de ANTLR.
+ * <p>
+ * Acepta exactamente los mismos programas que el parser generado y da el
+ * mismo árbol sin los terminales. Las expresiones se agrupan igual que en la
+ * regla recursiva a izquierda de ANTLR: todos los operadores binarios tienen
+ * la misma precedencia y asocian a izquierda, y {@code !} se aplica a todo lo
+ * que sigue ({@code !a && b} es {@code !(a && b)}).
+ * <p>
+ * No se recupera de errores: en el primero lanza
+ * {@link ParseCancellationException} con la línea, la columna y lo que se
+ * esperaba, como el modo sin {@code --recuperar} de {@code App}.
+ */
+public final class ParserDescendente {
+
+    /** Niveles de {@link #expresion(int)}: todo, un operador binario, sólo un operando */
+    private static final int PRECEDENCIA_MINIMA = 0;
+    private static final int PRECEDENCIA_BINARIA = 1;
+    private static final int PRECEDENCIA_OPERANDO = 2;
+
+    private final BufferTokens tokens;
+    private final int n;
+    private final ArbolCompacto arbol;
+    /** Token actual */
+    private int p;
+
+    private ParserDescendente(BufferTokens tokens) {
+        this.tokens = tokens;
+        this.n = tokens.size();
+        // Cada nodo tiene su token, salvo PROGRAMA; en código típico hay unos 0,6 nodos por token
+        this.arbol = new ArbolCompacto(tokens, n * 2 / 3 + 16);
+    }
+
+    /** AST de tokens ya escaneados */
+    public static ArbolCompacto analizar(BufferTokens tokens) {
+        ParserDescendente parser = new ParserDescendente(tokens);
+        parser.programa();
+        return parser.arbol;
+    }
+
+    /** AST de una fuente UTF-8 */
+    public static ArbolCompacto analizar(byte[] fuente) {
+        return analizar(EscanerLexico.escanear(fuente));
+    }
+
+    // ---------- Tokens ----------
+
+    private int tipo() {
+        return p < n ? tokens.getTipo(p) : Token.EOF;
+    }
+
+    private int tipo(int adelante) {
+        return p + adelante < n ? tokens.getTipo(p + adelante) : Token.EOF;
+    }
+
+    /** Consume el token actual, que tiene que ser de tipo {@code esperado}; devuelve su índice */
+    private int esperar(int esperado) {
+        if (tipo() != esperado) {
+            throw error(MiniLenguajeLexer.VOCABULARY.getDisplayName(esperado));
+        }
+        return p++;
+    }
+
+    private ParseCancellationException error(String esperado) {
+        int linea = p < n ? tokens.getLinea(p) : tokens.getLineaFin();
+        int columna = p < n ? tokens.getColumna(p) : tokens.getColumnaFin();
+        String encontrado = p < n ? "'" + tokens.getTexto(p) + "'" : "<EOF>";
+        return new ParseCancellationException("Línea " + linea + ":" + columna
+                + " se esperaba " + esperado + " y se encontró " + encontrado);
+    }
+
+    private static boolean esTipo(int t) {
+        return t == INT || t == CHAR || t == DOUBLE || t == VOID;
+    }
+
+    private int tipoDeclarado() {
+        int t = tipo();
+        if (!esTipo(t)) {
+            throw error("un tipo");
+        }
+        p++;
+        return t;
+    }
+
+    // ---------- Declaraciones ----------
+
+    /** programa : (declaracionFuncion)+ EOF */
+    private void programa() {
+        int raiz = arbol.nuevo(Tipo.PROGRAMA, -1, 0);
+        int ultimo = arbol.agregar(raiz, -1, funcion());
+        while (tipo() != Token.EOF) {
+            ultimo = arbol.agregar(raiz, ultimo, funcion());
+        }
+    }
+
+    /** declaracionFuncion : tipo ID PA parametros? PC bloque */
+    private int funcion() {
+        int t = tipoDeclarado();
+        int f = arbol.nuevo(Tipo.FUNCION, esperar(ID), t);
+        esperar(PA);
+        int ultimo = -1;
+        if (tipo() != PC) {
+            ultimo = arbol.agregar(f, ultimo, parametro());
+            while (tipo() == COMA) {
+                p++;
+                ultimo = arbol.agregar(f, ultimo, parametro());
+            }
+        }
+        esperar(PC);
+        arbol.agregar(f, ultimo, bloque());
+        return f;
+    }
+
+    /** parametro : tipo ID */
+    private int parametro() {
+        int t = tipoDeclarado();
+        return arbol.nuevo(Tipo.PARAMETRO, esperar(ID), t);
+    }
+
+    /** bloque : LLAVE_A ( sentencia )* LLAVE_C */
+    private int bloque() {
+        int b = arbol.nuevo(Tipo.BLOQUE, esperar(LLAVE_A), 0);
+        int ultimo = -1;
+        while (tipo() != LLAVE_C) {
+            ultimo = arbol.agregar(b, ultimo, sentencia());
+        }
+        p++;
+        return b;
+    }
+
+    // ---------- Sentencias ----------
+
+    private int sentencia() {
+        int t = tipo();
+        switch (t) {
+            case INT:
+            case CHAR:
+            case DOUBLE:
+            case VOID: {
+                int d = declaracion();
+                esperar(PYC);
+                return d;
+            }
+            case ID: {
+                int s;
+                if (tipo(1) == IGUAL) {
+                    s = asignacion();
+                } else if (tipo(1) == PA) {
+                    s = llamada();
+                } else {
+                    p++;
+                    throw error("'=' o '('");
+                }
+                esperar(PYC);
+                return s;
+            }
+            case IF:       return si();
+            case WHILE:    return mientras();
+            case FOR:      return para();
+            case BREAK:
+            case CONTINUE: {
+                int s = arbol.nuevo(t == BREAK ? Tipo.BREAK : Tipo.CONTINUE, p++, 0);
+                esperar(PYC);
+                return s;
+            }
+            case RETURN: {
+                int r = arbol.nuevo(Tipo.RETORNO, p++, 0);
+                if (tipo() != PYC) {
+                    arbol.agregar(r, -1, expresion(PRECEDENCIA_MINIMA));
+                }
+                esperar(PYC);
+                return r;
+            }
+            default:
+                throw error("una sentencia");
+        }
+    }
+
+    /** tipo ID ( IGUAL expresion )?, sin el PYC (también es el inicio de un for) */
+    private int declaracion() {
+        int t = tipoDeclarado();
+        int d = arbol.nuevo(Tipo.DECLARACION, esperar(ID), t);
+        if (tipo() == IGUAL) {
+            p++;
+            arbol.agregar(d, -1, expresion(PRECEDENCIA_MINIMA));
+        }
+        return d;
+    }
+
+    /** ID IGUAL expresion, sin el PYC */
+    private int asignacion() {
+        int a = arbol.nuevo(Tipo.ASIGNACION, esperar(ID), 0);
+        esperar(IGUAL);
+        arbol.agregar(a, -1, expresion(PRECEDENCIA_MINIMA));
+        return a;
+    }
+
+    /** ifStmt : IF PA expresion PC bloque ( ELSE bloque )? */
+    private int si() {
+        int s = arbol.nuevo(Tipo.IF, p++, 0);
+        int ultimo = arbol.agregar(s, -1, condicion());
+        ultimo = arbol.agregar(s, ultimo, bloque());
+        if (tipo() == ELSE) {
+            p++;
+            arbol.agregar(s, ultimo, bloque());
+        }
+        return s;
+    }
+
+    /** whileStmt : WHILE PA expresion PC bloque */
+    private int mientras() {
+        int w = arbol.nuevo(Tipo.WHILE, p++, 0);
+        int ultimo = arbol.agregar(w, -1, condicion());
+        arbol.agregar(w, ultimo, bloque());
+        return w;
+    }
+
+    /** PA expresion PC */
+    private int condicion() {
+        esperar(PA);
+        int c = expresion(PRECEDENCIA_MINIMA);
+        esperar(PC);
+        return c;
+    }
+
+    /** forStmt : FOR PA forInit PYC expresion PYC actualizacionFor PC bloque */
+    private int para() {
+        int f = arbol.nuevo(Tipo.FOR, p++, 0);
+        esperar(PA);
+        int inicio;
+        if (esTipo(tipo())) {
+            inicio = declaracion();
+        } else if (tipo() == ID) {
+            inicio = asignacion();
+        } else {
+            throw error("un tipo o ID");
+        }
+        int ultimo = arbol.agregar(f, -1, inicio);
+        esperar(PYC);
+        ultimo = arbol.agregar(f, ultimo, expresion(PRECEDENCIA_MINIMA));
+        esperar(PYC);
+        ultimo = arbol.agregar(f, ultimo, actualizacion());
+        esperar(PC);
+        arbol.agregar(f, ultimo, bloque());
+        return f;
+    }
+
+    /** actualizacionFor : ID IGUAL expresion | ID PLUSPLUS | ID MINUSMINUS | PLUSPLUS ID | MINUSMINUS ID */
+    private int actualizacion() {
+        switch (tipo()) {
+            case PLUSPLUS:
+                p++;
+                return arbol.nuevo(Tipo.PRE_INCREMENTO, esperar(ID), 0);
+            case MINUSMINUS:
+                p++;
+                return arbol.nuevo(Tipo.PRE_DECREMENTO, esperar(ID), 0);
+            case ID:
+                if (tipo(1) == PLUSPLUS) {
+                    p += 2;
+                    return arbol.nuevo(Tipo.POST_INCREMENTO, p - 2, 0);
+                }
+                if (tipo(1) == MINUSMINUS) {
+                    p += 2;
+                    return arbol.nuevo(Tipo.POST_DECREMENTO, p - 2, 0);
+                }
+                return asignacion();
+            default:
+                throw error("ID, '++' o '--'");
+        }
+    }
+
+    /** llamada : ID PA ( expresion ( COMA expresion )* )? PC */
+    private int llamada() {
+        int l = arbol.nuevo(Tipo.LLAMADA, esperar(ID), 0);
+        esperar(PA);
+        if (tipo() != PC) {
+            int ultimo = arbol.agregar(l, -1, expresion(PRECEDENCIA_MINIMA));
+            while (tipo() == COMA) {
+                p++;
+                ultimo = arbol.agregar(l, ultimo, expresion(PRECEDENCIA_MINIMA));
+            }
+        }
+        esperar(PC);
+        return l;
+    }
+
+    // ---------- Expresiones ----------
+
+    private static boolean esBinario(int t) {
+        switch (t) {
+            case SUMA: case RESTA: case MULTIPLICACION: case DIVISION: case MODULO:
+            case MAYOR: case MENOR: case MAYOR_IGUAL_A: case MAYOR_IGUAL_B:
+            case MENOR_IGUAL_A: case MENOR_IGUAL_B: case IGUAL_IGUAL: case DISTINTO:
+            case AND_LOGICO: case OR_LOGICO:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Expresión con operadores binarios sólo si {@code precedencia} no pasa
+     * de {@link #PRECEDENCIA_BINARIA}. Es el {@code expresion(int _p)} que
+     * genera ANTLR: el operando derecho de un binario no puede tener otro
+     * binario suelto (asociatividad a izquierda), y el de {@code !} sí.
+     */
+    private int expresion(int precedencia) {
+        int izquierda;
+        if (tipo() == NOT_LOGICO) {
+            izquierda = arbol.nuevo(Tipo.NEGACION, p++, 0);
+            arbol.agregar(izquierda, -1, expresion(PRECEDENCIA_BINARIA));
+        } else {
+            izquierda = operando();
+        }
+        while (precedencia <= PRECEDENCIA_BINARIA && esBinario(tipo())) {
+            int b = arbol.nuevo(Tipo.BINARIA, p++, 0);
+            int derecha = expresion(PRECEDENCIA_OPERANDO);
+            arbol.agregar(b, arbol.agregar(b, -1, izquierda), derecha);
+            izquierda = b;
+        }
+        return izquierda;
+    }
+
+    private int operando() {
+        switch (tipo()) {
+            case PLUSPLUS:
+                p++;
+                return arbol.nuevo(Tipo.PRE_INCREMENTO, esperar(ID), 0);
+            case MINUSMINUS:
+                p++;
+                return arbol.nuevo(Tipo.PRE_DECREMENTO, esperar(ID), 0);
+            case ID:
+                switch (tipo(1)) {
+                    case PLUSPLUS:
+                        p += 2;
+                        return arbol.nuevo(Tipo.POST_INCREMENTO, p - 2, 0);
+                    case MINUSMINUS:
+                        p += 2;
+                        return arbol.nuevo(Tipo.POST_DECREMENTO, p - 2, 0);
+                    case PA:
+                        return llamada();
+                    default:
+                        return arbol.nuevo(Tipo.ID, p++, 0);
+                }
+            case PA: {
+                p++;
+                int e = expresion(PRECEDENCIA_MINIMA);
+                esperar(PC);
+                return e;
+            }
+            case INTEGER:        return arbol.nuevo(Tipo.ENTERO, p++, 0);
+            case DECIMAL:        return arbol.nuevo(Tipo.DECIMAL, p++, 0);
+            case CHARACTER:      return arbol.nuevo(Tipo.CARACTER, p++, 0);
+            case STRING_literal: return arbol.nuevo(Tipo.CADENA, p++, 0);
+            default:
+                throw error("una expresión");
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.compilador.traza;
+
+/**
+ * Niveles de la traza, de menos a más detallado. Una traza configurada en un
+ * nivel emite los mensajes de ese nivel y de todos los anteriores.
+ */
+public enum Nivel {
+    /** Sólo errores y diagnósticos (--quiet) */
+    ERROR,
+    /** Fases, tiempos y resumen */
+    INFO,
+    /** Tabla de símbolos y listados de C3D (por defecto) */
+    DETALLE,
+    /** Un evento por nodo visitado e instrucción generada (--traza) */
+    TRAZA;
+
+    /**
+     * Nivel por nombre, sin distinguir mayúsculas ("info", "TRAZA", …)
+     *
+     * @throws IllegalArgumentException si no es ninguno de los niveles
+     */
+    public static Nivel desdeNombre(String nombre) {
+        for (Nivel n : values()) {
+            if (n.name().equalsIgnoreCase(nombre)) {
+                return n;
+            }
+        }
+        throw new IllegalArgumentException("Nivel desconocido '" + nombre + "' (error, info, detalle o traza)");
+    }
+}
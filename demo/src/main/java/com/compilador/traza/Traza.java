@@ -0,0 +1,51 @@
+package com.compilador.traza;
+
+/**
+ * Destino de los mensajes de progreso del compilador.
+ * <p>
+ * En los caminos calientes (visitor, generador) el mensaje se arma sólo si
+ * el nivel está habilitado:
+ * <pre>
+ *     if (traza.habilitado(Nivel.TRAZA)) {
+ *         traza.emitir(Nivel.TRAZA, "asignación -> " + var + " = " + val);
+ *     }
+ * </pre>
+ * Con {@link #NULA} la condición es siempre falsa, así que el costo es el de
+ * una llamada que el JIT resuelve a {@code false}.
+ */
+public interface Traza {
+
+    /** Traza que no emite nada */
+    Traza NULA = new Traza() {
+        @Override
+        public boolean habilitado(Nivel nivel) {
+            return false;
+        }
+
+        @Override
+        public void emitir(Nivel nivel, String mensaje) { }
+
+        @Override
+        public void vaciar() { }
+    };
+
+    boolean habilitado(Nivel nivel);
+
+    /** Emite el mensaje (una línea); no vuelve a chequear el nivel */
+    void emitir(Nivel nivel, String mensaje);
+
+    /** Fuerza la escritura de lo que quedó en el buffer */
+    void vaciar();
+
+    default void error(String mensaje) {
+        if (habilitado(Nivel.ERROR)) emitir(Nivel.ERROR, mensaje);
+    }
+
+    default void info(String mensaje) {
+        if (habilitado(Nivel.INFO)) emitir(Nivel.INFO, mensaje);
+    }
+
+    default void detalle(String mensaje) {
+        if (habilitado(Nivel.DETALLE)) emitir(Nivel.DETALLE, mensaje);
+    }
+}
@@ -0,0 +1,51 @@
+package com.compilador.traza;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Traza que escribe a un stream con un buffer grande y sin flush por línea;
+ * el contenido sale al llenarse el buffer o al llamar a {@link #vaciar()}.
+ * Es segura entre hilos (generación en paralelo).
+ */
+public class TrazaSalida implements Traza {
+
+    private static final int TAMANIO_BUFFER = 1 << 16;
+
+    private final Nivel nivel;
+    private final Writer salida;
+
+    public TrazaSalida(OutputStream salida, Nivel nivel) {
+        this.nivel = nivel;
+        this.salida = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8), TAMANIO_BUFFER);
+    }
+
+    @Override
+    public boolean habilitado(Nivel n) {
+        return n.compareTo(nivel) <= 0;
+    }
+
+    @Override
+    public synchronized void emitir(Nivel n, String mensaje) {
+        try {
+            salida.write(mensaje);
+            salida.write(System.lineSeparator());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public synchronized void vaciar() {
+        try {
+            salida.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
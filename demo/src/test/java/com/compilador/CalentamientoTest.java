@@ -0,0 +1,23 @@
+package com.compilador;
+
+import junit.framework.TestCase;
+
+/**
+ * El corpus de calentamiento es válido y deja poblado el DFA compartido.
+ */
+public class CalentamientoTest extends TestCase
+{
+    public void testCalentarPueblaElDFA()
+    {
+        Calentamiento.olvidar();
+        assertEquals( 0, Calentamiento.estadosDFA() );
+
+        assertTrue( Calentamiento.calentar() > 0 );
+        int estados = Calentamiento.estadosDFA();
+        assertTrue( estados > 0 );
+
+        // Un segundo paso sobre el mismo corpus ya no agrega estados
+        Calentamiento.calentar();
+        assertEquals( estados, Calentamiento.estadosDFA() );
+    }
+}
@@ -0,0 +1,168 @@
+package com.compilador;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
+
+import com.compilador.c3d.InterpreteC3D;
+import com.compilador.semantico.SimbolosListener;
+import com.compilador.semantico.TablaSimbolos;
+
+import junit.framework.TestCase;
+
+/**
+ * Condiciones como saltos y llamadas en cola.
+ */
+public class CodigoVisitorTest extends TestCase
+{
+    private static List<String> generar( String fuente )
+    {
+        MiniLenguajeParser parser = new MiniLenguajeParser(
+                new CommonTokenStream( new MiniLenguajeLexer( CharStreams.fromString( fuente ) ) ) );
+        CodigoVisitor visitor = new CodigoVisitor( new TablaSimbolos() );
+        visitor.visit( parser.programa() );
+        return visitor.getGenerador().getCodigo();
+    }
+
+    /** Con la tabla del análisis semántico, para que las operaciones salgan tipadas */
+    private static List<String> generarTipado( String fuente )
+    {
+        MiniLenguajeParser parser = new MiniLenguajeParser(
+                new CommonTokenStream( new MiniLenguajeLexer( CharStreams.fromString( fuente ) ) ) );
+        ParseTree arbol = parser.programa();
+        SimbolosListener semantico = new SimbolosListener();
+        ParseTreeWalker.DEFAULT.walk( semantico, arbol );
+        CodigoVisitor visitor = new CodigoVisitor( semantico.getTablaSimbolos() );
+        visitor.visit( arbol );
+        return visitor.getGenerador().getCodigo();
+    }
+
+    public void testCondicionEnCortocircuito()
+    {
+        List<String> esperado = Arrays.asList(
+                "func_f:",
+                "if a >= 1 goto L0",
+                "if !b goto L0",
+                "x = 1",
+                "L0:" );
+        assertEquals( esperado, generar( "void f(int a, int b) { if (a < 1 && !!b) { x = 1; } }" ) );
+    }
+
+    public void testRecursionEnColaSeVuelveCiclo()
+    {
+        List<String> esperado = Arrays.asList(
+                "func_f:",
+                "if a != 0 goto L0",
+                "return = b",
+                "L0:",
+                "t0 = a - 1",
+                "t1 = a",
+                "a = t0",
+                "b = t1",
+                "goto func_f" );
+        assertEquals( esperado, generar(
+                "int f(int a, int b) { if (a == 0) { return b; } return f(a - 1, a); }" ) );
+    }
+
+    public void testLlamadaEnColaAOtraFuncion()
+    {
+        List<String> esperado = Arrays.asList(
+                "func_f:",
+                "param = a",
+                "t0 = call g, 1",
+                "param = t0",
+                "tailcall h, 1" );
+        assertEquals( esperado, generar( "int f(int a) { return (h(g(a))); }" ) );
+    }
+
+    public void testForConstanteChicoSeDesenrollaCompleto()
+    {
+        List<String> esperado = Arrays.asList(
+                "func_f:",
+                "i = 0",
+                "t0 = s + i", "s = t0", "t1 = i + 1", "i = t1",
+                "t2 = s + i", "s = t2", "t3 = i + 1", "i = t3" );
+        assertEquals( esperado, generar( "void f(int s) { for (int i = 0; i < 2; i++) { s = s + i; } }" ) );
+    }
+
+    public void testForConstanteGrandeSeDesenrollaEnParteConEpilogo()
+    {
+        List<String> codigo = generar( "void f(int s) { for (int i = 0; i <= 100; i++) { s = s + i; } }" );
+        // 101 vueltas: ciclo de 4 copias hasta i = 100 y una copia de epílogo
+        assertTrue( codigo.contains( "if i >= 100 goto L1" ) );
+        int copias = 0;
+        for ( String ln : codigo )
+        {
+            copias += ln.endsWith( " = s + i" ) ? 1 : 0;
+        }
+        assertEquals( CodigoVisitor.FACTOR_PARCIAL + 1, copias );
+        assertEquals( "L1:", codigo.get( codigo.size() - 5 ) );
+    }
+
+    public void testElEpilogoEntraEnElPresupuesto()
+    {
+        // Cuerpo de 9 sentencias de 6 tokens más las llaves: 56 tokens, 4 copias entran en 256
+        StringBuilder cuerpo = new StringBuilder();
+        for ( int k = 0; k < 9; k++ )
+        {
+            cuerpo.append( "s = s + i; " );
+        }
+        int tamanio = 9 * 6 + 2;
+        // 103 vueltas: con factor 4 el epílogo serían 3 copias más (7 en total);
+        // con factor 3 queda un ciclo hasta i = 102 y una copia de epílogo
+        List<String> codigo = generar( "void f(int s) { for (int i = 0; i < 103; i++) { " + cuerpo + "} }" );
+        assertTrue( codigo.contains( "if i >= 102 goto L1" ) );
+        int sumas = 0;
+        for ( String ln : codigo )
+        {
+            sumas += ln.endsWith( " = s + i" ) ? 1 : 0;
+        }
+        int copias = sumas / 9;
+        assertEquals( 3 + 1, copias );
+        assertTrue( copias * tamanio <= CodigoVisitor.PRESUPUESTO_TOKENS );
+    }
+
+    public void testForQueModificaLaVariableNoSeDesenrolla()
+    {
+        List<String> codigo = generar( "void f() { for (int i = 0; i < 3; i++) { i = i + 1; } }" );
+        assertTrue( codigo.contains( "if i >= 3 goto L1" ) );
+        assertEquals( "goto L0", codigo.get( codigo.size() - 2 ) );
+    }
+
+    public void testComparacionDeDoubleNoSeNiegaPorNaN()
+    {
+        List<String> codigo = generarTipado(
+                "int main() { double z = 0.0; double n = z / z; if (n < 1.0) { return 1; } return 2; }" );
+        // Con n = NaN, n < 1.0 es falso pero también n >= 1.0: no se puede saltar al else por DGE
+        assertFalse( codigo.toString(), codigo.toString().contains( "DGE" ) );
+        assertTrue( codigo.toString(), codigo.contains( "if n DLT 1.0 goto L1" ) );
+        assertEquals( 2, ((Number) new InterpreteC3D( codigo, Map.of() ).ejecutar()).intValue() );
+
+        List<String> optimizado = new Optimizador( codigo, Map.of() ).optimizar();
+        assertEquals( 2, ((Number) new InterpreteC3D( optimizado, Map.of() ).ejecutar()).intValue() );
+    }
+
+    public void testOperacionesTipadasConConversion()
+    {
+        List<String> esperado = Arrays.asList(
+                "func_f:",
+                "t0 = I2D a",
+                "t1 = t0 DMUL d",
+                "t2 = t1 DADD 1.0",
+                "x = t2",
+                "t3 = a IMOD 2",
+                "if t3 INE 0 goto L0",
+                "x = 0.0",
+                "L0:",
+                "t4 = I2D a",
+                "return = t4" );
+        assertEquals( esperado, generarTipado(
+                "double f(int a, double d) { double x = a * d + 1; if (a % 2 == 0) { x = 0; } return a; }" ) );
+    }
+}
@@ -0,0 +1,41 @@
+package com.compilador;
+
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Reubicación de temporales y etiquetas al enlazar buffers por función.
+ */
+public class EnlazadorTest extends TestCase
+{
+    public void testReubicaNombresLocales()
+    {
+        BufferFuncion f = new BufferFuncion( "f" );
+        f.genLabel( "func_f" );
+        String t = f.genOperacionBinaria( "+", "a", "b" );
+        String L = f.newLabel();
+        f.genIfFalse( t, L );
+        f.genLabel( L );
+
+        BufferFuncion g = new BufferFuncion( "g" );
+        g.genLabel( "func_g" );
+        String u = g.genOperacionBinaria( "*", "t0", "2" );
+        String M = g.newLabel();
+        g.genGoto( M );
+        g.genLabel( M );
+        g.genAsignacion( "return", u );
+
+        List<String> esperado = Arrays.asList(
+                "func_f:", "t0 = a + b", "if !t0 goto L0", "L0:",
+                "func_g:", "t1 = t0 * 2", "goto L1", "L1:", "return = t1" );
+        assertEquals( esperado, Enlazador.enlazar( Arrays.asList( f, g ) ) );
+    }
+
+    public void testSinNombresLocalesDevuelveLaMismaInstruccion()
+    {
+        String instr = "x = y % z";
+        assertSame( instr, Enlazador.reubicar( instr, 5, 5 ) );
+    }
+}
@@ -0,0 +1,80 @@
+package com.compilador;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import junit.framework.TestCase;
+
+/**
+ * El escritor rápido produce lo mismo que String.format("%3d: %s%n", …).
+ */
+public class EscritorC3DTest extends TestCase
+{
+    public void testIgualQueStringFormat() throws Exception
+    {
+        List<String> codigo = codigo();
+        Path tmp = Files.createTempFile( "c3d", ".txt" );
+        try
+        {
+            new EscritorC3D( false ).escribir( codigo, tmp );
+            assertEquals( esperado( codigo ), Files.readString( tmp, StandardCharsets.UTF_8 ) );
+        }
+        finally
+        {
+            Files.deleteIfExists( tmp );
+        }
+    }
+
+    public void testGzip() throws Exception
+    {
+        List<String> codigo = codigo();
+        Path tmp = Files.createTempFile( "c3d", ".txt.gz" );
+        try
+        {
+            new EscritorC3D( true ).escribir( codigo, tmp );
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try ( InputStream in = new GZIPInputStream( Files.newInputStream( tmp ) ) )
+            {
+                in.transferTo( out );
+            }
+            assertEquals( esperado( codigo ), out.toString( StandardCharsets.UTF_8 ) );
+        }
+        finally
+        {
+            Files.deleteIfExists( tmp );
+        }
+    }
+
+    private static List<String> codigo()
+    {
+        List<String> codigo = new ArrayList<>();
+        for ( int i = 0; i < 1200; i++ )
+        {
+            codigo.add( i % 100 == 7 ? "x = \"año ñ\" + t" + i : "t" + i + " = a + " + i );
+        }
+        StringBuilder larga = new StringBuilder();
+        for ( int i = 0; i < 400_000; i++ )
+        {
+            larga.append( i % 2 == 0 ? 'é' : 'a' );
+        }
+        codigo.add( larga.toString() );
+        codigo.add( "return = t0" );
+        return codigo;
+    }
+
+    private static String esperado( List<String> codigo )
+    {
+        StringBuilder sb = new StringBuilder( EscritorC3D.ENCABEZADO );
+        for ( int i = 0; i < codigo.size(); i++ )
+        {
+            sb.append( String.format( "%3d: %s%n", i, codigo.get( i ) ) );
+        }
+        return sb.toString();
+    }
+}
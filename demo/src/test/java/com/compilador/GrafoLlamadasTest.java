@@ -0,0 +1,100 @@
+package com.compilador;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+/**
+ * Grafo de llamadas del C3D y eliminación de funciones inalcanzables.
+ */
+public class GrafoLlamadasTest extends TestCase
+{
+    private static final List<String> CODIGO = Arrays.asList(
+            "func_par:",
+            "if n IEQ 0 goto L0",
+            "t0 = n ISUB 1",
+            "param = t0",
+            "tailcall impar, 1",
+            "L0:",
+            "return = 1",
+            "func_impar:",
+            "t1 = n ISUB 1",
+            "param = t1",
+            "tailcall par, 1",
+            "func_cuenta:",
+            "t2 = n ISUB 1",
+            "n = t2",
+            "goto func_cuenta",
+            "func_muerta:",
+            "return = 0",
+            "func_main:",
+            "param = 4",
+            "t3 = call par, 1",
+            "param = 3",
+            "t4 = call cuenta, 1" );
+
+    public void testMetricasPorFuncion()
+    {
+        GrafoLlamadas grafo = GrafoLlamadas.construir( CODIGO );
+        assertEquals( 5, grafo.getFunciones().size() );
+        assertEquals( 3, grafo.getCantidadRecursivas() );
+        assertEquals( 1, grafo.getCantidadInalcanzables() );
+
+        GrafoLlamadas.Funcion par = grafo.getFuncion( "par" );
+        assertEquals( 7, par.getInstrucciones() );
+        assertEquals( Set.of( "impar", "main" ), par.getLlamadores() );
+        assertTrue( par.esRecursiva() );
+        assertTrue( grafo.getFuncion( "cuenta" ).esRecursiva() );
+        assertEquals( 0, grafo.getFuncion( "cuenta" ).getSitiosDeLlamada() );
+        assertFalse( grafo.getFuncion( "main" ).esRecursiva() );
+        assertEquals( 2, grafo.getFuncion( "main" ).getSitiosDeLlamada() );
+        assertFalse( grafo.getFuncion( "muerta" ).esAlcanzable() );
+        assertTrue( grafo.getFuncion( "muerta" ).esHoja() );
+    }
+
+    public void testSeEliminanLasFuncionesInalcanzables()
+    {
+        Optimizador opt = new Optimizador( CODIGO );
+        opt.ejecutar( Optimizador.Pasada.FUNCIONES_MUERTAS );
+        opt.ejecutar( Optimizador.Pasada.CODIGO_MUERTO );
+        assertFalse( opt.getCodigo().contains( "func_muerta:" ) );
+        assertEquals( CODIGO.size() - 2, opt.getCodigo().size() );
+    }
+
+    public void testSinMainNoSeEliminaNada()
+    {
+        Optimizador opt = new Optimizador( CODIGO.subList( 0, 17 ) );
+        opt.ejecutar( Optimizador.Pasada.FUNCIONES_MUERTAS );
+        assertEquals( 17, opt.getCodigo().size() );
+    }
+
+    public void testLaImpurezaSePropagaALosLlamadores()
+    {
+        GrafoLlamadas grafo = GrafoLlamadas.construir( Arrays.asList(
+                "func_doble:",
+                "t0 = x IMUL 2",
+                "return = t0",
+                "func_mostrar:",
+                "param = x",
+                "t1 = call printf, 1",
+                "func_calcular:",
+                "param = x",
+                "t2 = call mostrar, 1",
+                "param = x",
+                "t3 = call doble, 1",
+                "return = t3",
+                "func_main:",
+                "param = 1",
+                "t4 = call calcular, 1" ) );
+        assertTrue( grafo.getFuncion( "doble" ).esPura() );
+        assertTrue( grafo.getFuncion( "mostrar" ).llamaExternas() );
+        assertFalse( grafo.getFuncion( "mostrar" ).esPura() );
+        assertFalse( grafo.getFuncion( "calcular" ).llamaExternas() );
+        assertFalse( grafo.getFuncion( "calcular" ).esPura() );
+        assertFalse( grafo.getFuncion( "main" ).esPura() );
+        assertEquals( 1, grafo.getCantidadPuras() );
+        assertTrue( GrafoLlamadas.construir( CODIGO ).getFuncion( "par" ).esPura() );
+    }
+}
@@ -0,0 +1,209 @@
+package com.compilador;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
+
+import com.compilador.c3d.InterpreteC3D;
+import com.compilador.perfil.Perfil;
+import com.compilador.semantico.SimbolosListener;
+
+import junit.framework.TestCase;
+
+/**
+ * Propagación de constantes por bloque básico, especialización, llamadas a
+ * funciones puras y orden de los bloques por perfil.
+ */
+public class OptimizadorTest extends TestCase
+{
+    private static List<String> propagar( String... codigo )
+    {
+        Optimizador opt = new Optimizador( Arrays.asList( codigo ) );
+        opt.ejecutar( Optimizador.Pasada.PROPAGAR_CONSTANTES );
+        opt.ejecutar( Optimizador.Pasada.SIMPLIFICAR_EXPRESIONES );
+        return opt.getCodigo();
+    }
+
+    public void testPropagaEnCadenaSinTocarDestinos()
+    {
+        assertEquals(
+                Arrays.asList( "i = 0", "t0 = 1", "i = 1", "t1 = 2", "x = 2" ),
+                propagar( "i = 0", "t0 = i + 1", "i = t0", "t1 = i + 1", "x = t1" ) );
+    }
+
+    public void testReasignacionYEtiquetasOlvidanLaConstante()
+    {
+        assertEquals(
+                Arrays.asList( "x = 1", "x = a", "y = x", "x = 2", "L0:", "if x < 3 goto L0" ),
+                propagar( "x = 1", "x = a", "y = x", "x = 2", "L0:", "if x < 3 goto L0" ) );
+    }
+
+    public void testPlegadoConLaAritmeticaDelTipo()
+    {
+        assertEquals(
+                Arrays.asList( "k = 3", "t0 = 3.0", "t1 = 1.75", "t2 = 1", "t3 = 0 IDIV 0" ),
+                propagar( "k = 7 IDIV 2", "t0 = I2D k", "t1 = 3.5 DDIV 2.0", "t2 = k IGT 2", "t3 = 0 IDIV 0" ) );
+    }
+
+    private static final List<String> CUADRADO = Arrays.asList(
+            "func_cuadrado:",
+            "t0 = x IMUL x",
+            "return = t0",
+            "func_main:" );
+
+    private static List<String> llamadasPuras( String... main )
+    {
+        List<String> codigo = new java.util.ArrayList<>( CUADRADO );
+        codigo.addAll( Arrays.asList( main ) );
+        Optimizador opt = new Optimizador( codigo );
+        opt.ejecutar( Optimizador.Pasada.LLAMADAS_PURAS );
+        return opt.getCodigo().subList( CUADRADO.size(), opt.getCodigo().size() );
+    }
+
+    public void testLlamadaPuraRepetidaReusaElResultado()
+    {
+        assertEquals(
+                Arrays.asList( "param = a", "t1 = call cuadrado, 1", "t2 = t1", "t3 = t1 IADD t2", "return = t3" ),
+                llamadasPuras( "param = a", "t1 = call cuadrado, 1", "param = a", "t2 = call cuadrado, 1",
+                        "t3 = t1 IADD t2", "return = t3" ) );
+        // f(a, a++): el argumento cambió entre el param y la llamada
+        List<String> reasignado = Arrays.asList( "param = a", "t1 = call cuadrado, 1", "param = a", "a = 5",
+                "t2 = call cuadrado, 1", "param = a", "t3 = call cuadrado, 1", "t4 = t1 IADD t2", "t5 = t4 IADD t3",
+                "return = t5" );
+        assertEquals( reasignado, llamadasPuras( reasignado.toArray( new String[0] ) ) );
+    }
+
+    public void testLlamadaPuraSinUsarSeQuitaConSusArgumentos()
+    {
+        assertEquals(
+                Arrays.asList( "param = b", "t4 = call printf, 1" ),
+                llamadasPuras( "t1 = a IADD 1", "param = t1", "t2 = call cuadrado, 1",
+                        "t3 = 2 IMUL a", "param = t3", "t6 = call cuadrado, 1", "param = t6", "t7 = call cuadrado, 1",
+                        "param = b", "t4 = call printf, 1" ) );
+    }
+
+    public void testCopiaSinLeerDeUnaLlamadaRepetidaSeQuita()
+    {
+        // La segunda llamada pasa a ser t2 = t1; nadie la lee, y sin ella tampoco a t1
+        assertEquals(
+                Arrays.asList( "return = 0" ),
+                llamadasPuras( "param = a", "t1 = call cuadrado, 1", "param = a", "t2 = call cuadrado, 1",
+                        "return = 0" ) );
+    }
+
+    public void testLlamadasAVoidNoSeReusan()
+    {
+        List<String> codigo = Arrays.asList(
+                "func_g:",
+                "a = 1",
+                "func_main:",
+                "t0 = call g, 0",
+                "t1 = call g, 0",
+                "param = t0",
+                "param = t1",
+                "t2 = call printf, 2",
+                "return = 3" );
+        Optimizador opt = new Optimizador( codigo );
+        opt.ejecutar( Optimizador.Pasada.LLAMADAS_PURAS );
+        assertEquals( codigo, opt.getCodigo() );
+    }
+
+    public void testProgramaConLlamadasAVoidRepetidas()
+    {
+        String fuente = "void g(){int a=1;} int main(){g(); g(); return 3;}";
+        MiniLenguajeParser.ProgramaContext arbol = new MiniLenguajeParser( new CommonTokenStream(
+                new MiniLenguajeLexer( CharStreams.fromString( fuente ) ) ) ).programa();
+        SimbolosListener semantico = new SimbolosListener();
+        ParseTreeWalker.DEFAULT.walk( semantico, arbol );
+        CodigoVisitor visitor = new CodigoVisitor( semantico.getTablaSimbolos() );
+        visitor.visit( arbol );
+        Map<String, List<String>> parametros = semantico.getTablaSimbolos().getParametrosPorFuncion();
+        List<String> optimizado = new Optimizador( visitor.getGenerador().getCodigo(), parametros ).optimizar();
+        assertEquals( 3, new InterpreteC3D( optimizado, parametros ).ejecutar() );
+    }
+
+    public void testEspecializacionParaUnModoConstante()
+    {
+        List<String> codigo = Arrays.asList(
+                "func_escalar:",
+                "if modo IEQ 0 goto L0",
+                "t0 = x IMUL modo",
+                "return = t0",
+                "L0:",
+                "return = x",
+                "func_main:",
+                "a = 5",
+                "param = 0",
+                "param = a",
+                "t1 = call escalar, 2",
+                "param = 0",
+                "param = 7",
+                "t2 = call escalar, 2",
+                "param = 3",
+                "param = a",
+                "t3 = call escalar, 2",
+                "t4 = t1 IADD t2",
+                "t5 = t4 IADD t3",
+                "return = t5" );
+        Map<String, List<String>> parametros = Map.of( "escalar", List.of( "modo", "x" ) );
+        Optimizador opt = new Optimizador( codigo, parametros );
+        opt.ejecutar( Optimizador.Pasada.ESPECIALIZAR_FUNCIONES );
+        List<String> especializado = opt.getCodigo();
+        assertEquals( 1, opt.getClones() );
+        // En el clon modo vale 0: la condición se pliega y queda sólo la rama del if
+        assertEquals( Arrays.asList( "func_escalar.1:", "L1:", "return = x" ),
+                especializado.subList( especializado.size() - 3, especializado.size() ) );
+        assertEquals( "t1 = call escalar.1, 2", especializado.get( 10 ) );
+        assertEquals( "t2 = call escalar.1, 2", especializado.get( 13 ) );
+        assertEquals( "t3 = call escalar, 2", especializado.get( 16 ) );
+        assertEquals( new InterpreteC3D( codigo, parametros ).ejecutar(),
+                new InterpreteC3D( especializado, parametros ).ejecutar() );
+    }
+
+    public void testSinParametrosNoSeEspecializa()
+    {
+        List<String> codigo = Arrays.asList( "func_f:", "return = x", "func_main:",
+                "param = 1", "t0 = call f, 1", "param = 1", "t1 = call f, 1" );
+        Optimizador opt = new Optimizador( codigo );
+        opt.ejecutar( Optimizador.Pasada.ESPECIALIZAR_FUNCIONES );
+        assertEquals( codigo, opt.getCodigo() );
+    }
+
+    public void testOrdenPorPerfilInvierteElSaltoFrecuente()
+    {
+        // Nueve de cada diez vueltas van por L2: el bloque de +100 queda fuera del ciclo
+        List<String> codigo = Arrays.asList(
+                "func_main:", "i = 0", "s = 0",
+                "L0:", "if i IGE 100 goto L1", "t0 = i IMOD 10", "if t0 INE 0 goto L2",
+                "t1 = s IADD 100", "s = t1", "goto L3",
+                "L2:", "t2 = s IADD 1", "s = t2",
+                "L3:", "t3 = i IADD 1", "i = t3", "goto L0",
+                "L1:", "return = s" );
+        InterpreteC3D interprete = new InterpreteC3D( codigo, Map.of() );
+        interprete.setPerfilar( true );
+        assertEquals( 1090, interprete.ejecutar() );
+        Perfil perfil = Perfil.medir( codigo, interprete.getEjecuciones(), interprete.getSaltos(),
+                interprete.getLlamadasPorFuncion() );
+
+        Optimizador sinPerfil = new Optimizador( codigo );
+        sinPerfil.ejecutar( Optimizador.Pasada.ORDENAR_BLOQUES );
+        assertEquals( codigo, sinPerfil.getCodigo() );
+
+        Optimizador opt = new Optimizador( codigo );
+        opt.setPerfil( perfil );
+        opt.ejecutar( Optimizador.Pasada.ORDENAR_BLOQUES );
+        assertEquals( Arrays.asList(
+                "func_main:", "i = 0", "s = 0",
+                "L0:", "if i IGE 100 goto L1", "t0 = i IMOD 10", "if t0 IEQ 0 goto L4",
+                "L2:", "t2 = s IADD 1", "s = t2",
+                "L3:", "t3 = i IADD 1", "i = t3", "goto L0",
+                "L4:", "t1 = s IADD 100", "s = t1", "goto L3",
+                "L1:", "return = s" ), opt.getCodigo() );
+        assertEquals( 1, opt.getSaltosInvertidos() );
+        assertEquals( 1090, new InterpreteC3D( opt.getCodigo(), Map.of() ).ejecutar() );
+    }
+}
@@ -0,0 +1,71 @@
+package com.compilador.ast;
+
+import com.compilador.MiniLenguajeLexer;
+import com.compilador.MiniLenguajeParser;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.tree.ParseTree;
+
+import java.io.StringWriter;
+
+import junit.framework.TestCase;
+
+/**
+ * Exportación del árbol de parseo a DOT y JSON.
+ */
+public class ExportadorASTTest extends TestCase
+{
+    private static final String FUENTE = "void main() {\n    int x = 1 + 2;\n    char c = '\"';\n}\n";
+
+    public void testDot() throws Exception
+    {
+        StringWriter sw = new StringWriter();
+        exportador().escribirDot( arbol(), sw );
+        String dot = sw.toString();
+        assertTrue( dot.startsWith( "digraph AST {\n" ) );
+        assertTrue( dot.endsWith( "}\n" ) );
+        assertTrue( dot.contains( "n0 [label=\"programa\"];" ) );
+        assertTrue( dot.contains( "label=\"expresion:expBinaria\"" ) );
+        assertTrue( dot.contains( "shape=box, label=\"INTEGER\\n1\"" ) );
+        // Comillas del literal escapadas
+        assertTrue( dot.contains( "label=\"CHARACTER\\n'\\\"'\"" ) );
+        assertTrue( dot.contains( "n0 -> n1;" ) );
+    }
+
+    public void testJson() throws Exception
+    {
+        StringWriter sw = new StringWriter();
+        exportador().escribirJson( arbol(), sw );
+        String json = sw.toString();
+        assertTrue( json.startsWith( "{\"regla\":\"programa\",\"hijos\":[{\"regla\":\"declaracionFuncion\"" ) );
+        assertTrue( json.contains( "{\"token\":\"ID\",\"texto\":\"x\",\"linea\":2,\"columna\":8}" ) );
+        assertTrue( json.contains( "\"texto\":\"'\\\"'\"" ) );
+        assertTrue( json.contains( "{\"token\":\"EOF\"" ) );
+        assertEquals( count( json, '{' ), count( json, '}' ) );
+        assertEquals( count( json, '[' ), count( json, ']' ) );
+    }
+
+    private static ExportadorAST exportador()
+    {
+        return new ExportadorAST( MiniLenguajeParser.ruleNames, MiniLenguajeLexer.VOCABULARY );
+    }
+
+    private static ParseTree arbol()
+    {
+        return new MiniLenguajeParser( new CommonTokenStream(
+                new MiniLenguajeLexer( CharStreams.fromString( FUENTE ) ) ) ).programa();
+    }
+
+    private static int count( String s, char c )
+    {
+        int n = 0;
+        for ( int i = 0; i < s.length(); i++ )
+        {
+            if ( s.charAt( i ) == c )
+            {
+                n++;
+            }
+        }
+        return n;
+    }
+}
@@ -0,0 +1,94 @@
+package com.compilador.c3d;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.compilador.semantico.Simbolo;
+
+import junit.framework.TestCase;
+
+/**
+ * Parseo de instrucciones y ida y vuelta por el formato .c3db.
+ */
+public class FormatoBinarioC3DTest extends TestCase
+{
+    private static final List<String> CODIGO = Arrays.asList(
+            "func_main:",
+            "t0 = a + 1",
+            "x = t0",
+            "s = \"hola mundo\" + x",
+            "if !t0 goto L1",
+            "if a >= 10 goto L1",
+            "if t0 goto L0",
+            "t1 = call f, 2",
+            "tailcall g, 0",
+            "t2 = I2D x",
+            "t3 = t2 DADD 1.5",
+            "goto L0",
+            "return = ",
+            "0 = a",
+            "L1:",
+            "x = a + b c" );
+
+    public void testParsearReconoceLasFormasDelGenerador()
+    {
+        assertEquals( Instruccion.Tipo.ETIQUETA, Instruccion.parsear( "func_main:" ).getTipo() );
+        Instruccion bin = Instruccion.parsear( "s = \"hola mundo\" + x" );
+        assertEquals( Instruccion.Tipo.BINARIA, bin.getTipo() );
+        assertEquals( "\"hola mundo\"", bin.getOperando( 1 ) );
+        assertEquals( "+", bin.getOperando( 2 ) );
+        Instruccion si = Instruccion.parsear( "if !t0 goto L1" );
+        assertEquals( Instruccion.Tipo.SI_FALSO, si.getTipo() );
+        assertEquals( "L1", si.getOperando( 1 ) );
+        Instruccion compara = Instruccion.parsear( "if a >= 10 goto L1" );
+        assertEquals( Instruccion.Tipo.SI_COMPARA, compara.getTipo() );
+        assertEquals( ">=", compara.getOperando( 1 ) );
+        assertEquals( "L1", compara.getOperando( 3 ) );
+        assertEquals( Instruccion.Tipo.SI, Instruccion.parsear( "if t0 goto L0" ).getTipo() );
+        Instruccion llamada = Instruccion.parsear( "t1 = call f, 2" );
+        assertEquals( Instruccion.Tipo.LLAMADA, llamada.getTipo() );
+        assertEquals( "f", llamada.getOperando( 1 ) );
+        assertEquals( "2", llamada.getOperando( 2 ) );
+        assertEquals( Instruccion.Tipo.LLAMADA_COLA, Instruccion.parsear( "tailcall g, 0" ).getTipo() );
+        assertEquals( Instruccion.Tipo.CONVERSION, Instruccion.parsear( "t2 = I2D x" ).getTipo() );
+        assertEquals( Instruccion.Tipo.COPIA, Instruccion.parsear( "return = " ).getTipo() );
+        for ( String s : CODIGO )
+        {
+            assertEquals( s, Instruccion.parsear( s ).toString() );
+        }
+    }
+
+    public void testIdaYVuelta() throws Exception
+    {
+        Simbolo f = new Simbolo( "main", "void", Simbolo.Categoria.FUNCION, 3, 5, "global", false, 0 );
+        f.agregarParametro( "int" );
+        f.setUsada( true );
+        Simbolo x = new Simbolo( "x", "int", Simbolo.Categoria.VARIABLE, 4, 8, "main", false, -1 );
+        x.setInicializada( true );
+
+        EscritorBinarioC3D escritor = new EscritorBinarioC3D();
+        escritor.agregarCodigo( "raw", CODIGO );
+        escritor.agregarCodigo( "opt", CODIGO.subList( 0, 3 ) );
+        escritor.agregarSimbolos( Arrays.asList( f, x ) );
+        LectorBinarioC3D lector = new LectorBinarioC3D( escritor.aBytes() );
+
+        assertEquals( 2, lector.getCantidadListas() );
+        assertEquals( 1, lector.buscarLista( "opt" ) );
+        assertEquals( CODIGO, lector.leerCodigo( lector.buscarLista( "raw" ) ) );
+        assertEquals( CODIGO.subList( 0, 3 ), lector.leerCodigo( 1 ) );
+
+        LectorBinarioC3D.Cursor c = lector.cursor( 0 );
+        assertTrue( c.siguiente() );
+        assertTrue( c.siguiente() );
+        assertEquals( Instruccion.Tipo.BINARIA, c.tipo() );
+        assertEquals( "a", c.texto( 1 ) );
+
+        List<Simbolo> simbolos = lector.leerSimbolos();
+        assertEquals( 2, simbolos.size() );
+        assertEquals( "[int]", simbolos.get( 0 ).getParametros().toString() );
+        assertTrue( simbolos.get( 0 ).esUsada() );
+        assertEquals( -1, simbolos.get( 1 ).getOrden() );
+        assertTrue( simbolos.get( 1 ).esInicializada() );
+        assertEquals( 8, simbolos.get( 1 ).getColumna() );
+    }
+}
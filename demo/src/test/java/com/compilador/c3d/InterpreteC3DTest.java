@@ -0,0 +1,117 @@
+package com.compilador.c3d;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+/**
+ * Ejecución de C3D enlazado y memoización de funciones puras.
+ */
+public class InterpreteC3DTest extends TestCase
+{
+    private static final List<String> FIB = Arrays.asList(
+            "func_fib:",
+            "if n IGE 2 goto L0",
+            "return = n",
+            "L0:",
+            "t0 = n ISUB 1",
+            "param = t0",
+            "t1 = call fib, 1",
+            "t2 = n ISUB 2",
+            "param = t2",
+            "t3 = call fib, 1",
+            "t4 = t1 IADD t3",
+            "return = t4",
+            "func_main:",
+            "param = 20",
+            "t5 = call fib, 1",
+            "return = t5" );
+
+    private static final Map<String, List<String>> PARAMETROS = Map.of( "fib", List.of( "n" ) );
+
+    public void testFibConYSinMemoizacion()
+    {
+        InterpreteC3D interprete = new InterpreteC3D( FIB, PARAMETROS );
+        assertEquals( 6765, interprete.ejecutar() );
+        assertEquals( 21891, interprete.getLlamadas() );
+
+        interprete.memoizar( Set.of( "fib" ), 64 );
+        assertEquals( 6765, interprete.ejecutar() );
+        assertEquals( 21, interprete.getLlamadas() );
+        assertEquals( 18, interprete.getAciertosMemo() );
+    }
+
+    public void testLaCacheLRUEstaAcotada()
+    {
+        InterpreteC3D interprete = new InterpreteC3D( FIB, PARAMETROS );
+        // Con dos entradas fib(n-2) ya se desalojó cuando se pide: sólo se ahorra en parte
+        interprete.memoizar( Set.of( "fib" ), 2 );
+        assertEquals( 6765, interprete.ejecutar() );
+        assertTrue( interprete.getLlamadas() > 21 );
+        assertTrue( interprete.getLlamadas() < 21891 );
+    }
+
+    public void testLlamadasEnColaYFuncionesExternas()
+    {
+        List<String> codigo = Arrays.asList(
+                "func_suma:",
+                "if n IEQ 0 goto L0",
+                "t0 = acc IADD n",
+                "t1 = n ISUB 1",
+                "n = t1",
+                "acc = t0",
+                "goto func_suma",
+                "L0:",
+                "return = acc",
+                "func_mitad:",
+                "t2 = I2D x",
+                "t3 = t2 DDIV 2.0",
+                "return = t3",
+                "func_envolver:",
+                "param = x",
+                "tailcall mitad, 1",
+                "func_main:",
+                "param = 100000",
+                "param = 0",
+                "t4 = call suma, 2",
+                "param = t4",
+                "t5 = call printf, 1",
+                "param = 5",
+                "t6 = call envolver, 1",
+                "return = t6" );
+        InterpreteC3D interprete = new InterpreteC3D( codigo,
+                Map.of( "suma", List.of( "n", "acc" ), "mitad", List.of( "x" ), "envolver", List.of( "x" ) ) );
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        interprete.setSalida( new PrintStream( salida, true ) );
+        assertEquals( 2.5, interprete.ejecutar() );
+        assertEquals( "705082704", salida.toString().trim() );
+    }
+
+    public void testResultadoDeUnaFuncionVoid()
+    {
+        // El temporal de una llamada a void no tiene valor, pero se puede copiar
+        InterpreteC3D interprete = new InterpreteC3D( Arrays.asList(
+                "func_g:", "a = 1", "func_main:", "t0 = call g, 0", "t1 = t0", "return = 3" ), Map.of() );
+        assertEquals( 3, interprete.ejecutar() );
+    }
+
+    public void testErrorDeEjecucion()
+    {
+        InterpreteC3D interprete = new InterpreteC3D( Arrays.asList( "func_main:", "t0 = 1 IDIV 0", "return = t0" ),
+                Map.of() );
+        try
+        {
+            interprete.ejecutar();
+            fail();
+        }
+        catch ( InterpreteC3D.ErrorEjecucion ex )
+        {
+            assertTrue( ex.getMessage().contains( "cero" ) );
+        }
+    }
+}
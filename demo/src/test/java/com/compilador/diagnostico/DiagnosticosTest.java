@@ -0,0 +1,55 @@
+package com.compilador.diagnostico;
+
+import junit.framework.TestCase;
+
+/**
+ * Deduplicación, tope por código y formato de los diagnósticos.
+ */
+public class DiagnosticosTest extends TestCase
+{
+    public void testDescartaDuplicadosYAplicaTope()
+    {
+        Diagnosticos d = new Diagnosticos( 2 );
+        assertTrue( d.agregar( CodigoDiagnostico.USO_NO_INICIALIZADA, 3, 4, "x" ) );
+        assertFalse( d.agregar( CodigoDiagnostico.USO_NO_INICIALIZADA, 3, 4, "x" ) );
+        assertTrue( d.agregar( CodigoDiagnostico.USO_NO_INICIALIZADA, 5, 4, "x" ) );
+        assertFalse( d.agregar( CodigoDiagnostico.USO_NO_INICIALIZADA, 7, 4, "x" ) );
+        assertTrue( d.agregar( CodigoDiagnostico.IDENTIFICADOR_NO_DECLARADO, 7, 4, "y" ) );
+
+        assertEquals( 1, d.getErrores().size() );
+        assertEquals( 2, d.getWarnings().size() );
+        assertEquals( Integer.valueOf( 1 ), d.getSuprimidos().get( CodigoDiagnostico.USO_NO_INICIALIZADA ) );
+    }
+
+    public void testLosSuprimidosNoSeGuardan()
+    {
+        Diagnosticos d = new Diagnosticos( 1 );
+        assertTrue( d.agregar( CodigoDiagnostico.FUNCION_NO_DECLARADA, 1, 0, "f" ) );
+        for ( int i = 2; i <= 1000; i++ )
+        {
+            assertFalse( d.agregar( CodigoDiagnostico.FUNCION_NO_DECLARADA, i, 0, "f" ) );
+        }
+        // Pasado el tope no se recuerda nada, así que una repetición vuelve a contarse
+        assertFalse( d.agregar( CodigoDiagnostico.FUNCION_NO_DECLARADA, 1000, 0, "f" ) );
+        assertEquals( 1, d.getErrores().size() );
+        assertEquals( Integer.valueOf( 1000 ), d.getSuprimidos().get( CodigoDiagnostico.FUNCION_NO_DECLARADA ) );
+        // Con el tope alcanzado, hasta el duplicado de uno aceptado se cuenta
+        assertFalse( d.agregar( CodigoDiagnostico.FUNCION_NO_DECLARADA, 1, 0, "f" ) );
+        assertEquals( Integer.valueOf( 1001 ), d.getSuprimidos().get( CodigoDiagnostico.FUNCION_NO_DECLARADA ) );
+    }
+
+    public void testMensajeYDesplazamiento()
+    {
+        Diagnostico d = Diagnostico.de( CodigoDiagnostico.CANTIDAD_DE_ARGUMENTOS, 2, 8, "f", 1, 2 );
+        assertEquals( "[Error] Línea 2:8. Llamada a 'f' con 1 parámetro(s), pero se esperaban 2.", d.mensaje() );
+        assertEquals( "[Error] Línea 12:8. Llamada a 'f' con 1 parámetro(s), pero se esperaban 2.",
+                d.desplazar( 10 ).mensaje() );
+    }
+
+    public void testJsonEscapaArgumentos()
+    {
+        Diagnosticos d = new Diagnosticos();
+        d.agregar( CodigoDiagnostico.ERROR_SINTACTICO, 1, 0, "token \"x\"" );
+        assertTrue( d.aJson().contains( "\"args\":[\"token \\\"x\\\"\"]" ) );
+    }
+}
@@ -0,0 +1,74 @@
+package com.compilador.generador;
+
+import com.compilador.CodigoVisitor;
+import com.compilador.MiniLenguajeLexer;
+import com.compilador.MiniLenguajeParser;
+import com.compilador.semantico.SimbolosListener;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
+
+import java.io.StringWriter;
+
+import junit.framework.TestCase;
+
+/**
+ * Los programas generados parsean sin errores, pasan el análisis semántico
+ * y, en modo de errores, producen exactamente los errores inyectados.
+ */
+public class GeneradorProgramasTest extends TestCase
+{
+    public void testProgramasValidos() throws Exception
+    {
+        for ( long semilla = 1; semilla <= 5; semilla++ )
+        {
+            GeneradorProgramas g = new GeneradorProgramas().semilla( semilla ).funciones( 60 )
+                    .profundidad( 4 ).densidadCiclos( 0.5 ).llamadas( 3 );
+            SimbolosListener sem = analizar( g.generarTexto() );
+            assertEquals( "semilla " + semilla + ": " + sem.getErrores(), 0, sem.getErrores().size() );
+        }
+    }
+
+    public void testMismaSemillaMismoPrograma()
+    {
+        String a = new GeneradorProgramas().semilla( 7 ).funciones( 20 ).generarTexto();
+        String b = new GeneradorProgramas().semilla( 7 ).funciones( 20 ).generarTexto();
+        String c = new GeneradorProgramas().semilla( 8 ).funciones( 20 ).generarTexto();
+        assertEquals( a, b );
+        assertFalse( a.equals( c ) );
+    }
+
+    public void testLineasObjetivo() throws Exception
+    {
+        StringWriter sw = new StringWriter();
+        GeneradorProgramas.Resumen res = new GeneradorProgramas().lineas( 5000 ).generar( sw );
+        assertTrue( res.lineas() >= 5000 );
+        assertEquals( res.lineas(), sw.toString().lines().count() );
+    }
+
+    public void testErroresInyectados() throws Exception
+    {
+        StringWriter sw = new StringWriter();
+        GeneradorProgramas.Resumen res = new GeneradorProgramas().semilla( 3 ).funciones( 200 )
+                .tasaErrores( 0.3 ).generar( sw );
+        assertTrue( res.erroresInyectados() > 0 );
+        SimbolosListener sem = analizar( sw.toString() );
+        assertEquals( sem.getErrores().toString(), res.erroresInyectados(), sem.getErrores().size() );
+    }
+
+    private static SimbolosListener analizar( String fuente )
+    {
+        MiniLenguajeParser parser = new MiniLenguajeParser( new CommonTokenStream(
+                new MiniLenguajeLexer( CharStreams.fromString( fuente ) ) ) );
+        MiniLenguajeParser.ProgramaContext prog = parser.programa();
+        assertEquals( 0, parser.getNumberOfSyntaxErrors() );
+        SimbolosListener sem = new SimbolosListener();
+        new ParseTreeWalker().walk( sem, prog );
+        if ( sem.getErrores().isEmpty() )
+        {
+            // La generación de código tampoco debe fallar
+            new CodigoVisitor( sem.getTablaSimbolos() ).visit( prog );
+        }
+        return sem;
+    }
+}
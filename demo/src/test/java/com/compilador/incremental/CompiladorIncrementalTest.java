@@ -0,0 +1,157 @@
+package com.compilador.incremental;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
+
+import com.compilador.CodigoVisitor;
+import com.compilador.MiniLenguajeLexer;
+import com.compilador.MiniLenguajeParser;
+import com.compilador.semantico.SimbolosListener;
+
+import junit.framework.TestCase;
+
+/**
+ * Caché de funciones en disco: aciertos, fallos, invalidación por firmas y
+ * entradas corruptas. El C3D crudo que se arma desde la caché tiene que ser
+ * el mismo que el de una compilación completa.
+ */
+public class CompiladorIncrementalTest extends TestCase
+{
+    /** g llama a f; h y main no nombran a f */
+    private static final String PROGRAMA =
+            "int f(int a) {\n"
+            + "    return a + 1;\n"
+            + "}\n"
+            + "int g(int x) {\n"
+            + "    int y = f(x);\n"
+            + "    return y * 2;\n"
+            + "}\n"
+            + "int h(int z) {\n"
+            + "    int w = z - 1;\n"
+            + "    while (w > 0) { w = w - 2; }\n"
+            + "    return w;\n"
+            + "}\n"
+            + "int main() {\n"
+            + "    int r = g(3);\n"
+            + "    r = h(r);\n"
+            + "    return r;\n"
+            + "}\n";
+
+    private Path dir;
+
+    @Override
+    protected void setUp() throws IOException
+    {
+        dir = Files.createTempDirectory( "minicache" );
+    }
+
+    @Override
+    protected void tearDown() throws IOException
+    {
+        try ( Stream<Path> archivos = Files.walk( dir ) )
+        {
+            archivos.sorted( Comparator.reverseOrder() ).forEach( p -> p.toFile().delete() );
+        }
+    }
+
+    private CompiladorIncremental.Resultado compilar( String fuente ) throws IOException
+    {
+        CommonTokenStream ts = new CommonTokenStream( new MiniLenguajeLexer( CharStreams.fromString( fuente ) ) );
+        ts.fill();
+        List<Token> tokens = ts.getTokens();
+        CompiladorIncremental.Resultado r = new CompiladorIncremental( new CacheFunciones( dir ) ).compilar( tokens );
+        assertNotNull( r );
+        return r;
+    }
+
+    /** C3D crudo de la compilación completa (CodigoVisitor sobre todo el programa) */
+    private static List<String> completo( String fuente )
+    {
+        MiniLenguajeParser parser = new MiniLenguajeParser(
+                new CommonTokenStream( new MiniLenguajeLexer( CharStreams.fromString( fuente ) ) ) );
+        ParseTree arbol = parser.programa();
+        SimbolosListener semantico = new SimbolosListener();
+        ParseTreeWalker.DEFAULT.walk( semantico, arbol );
+        CodigoVisitor visitor = new CodigoVisitor( semantico.getTablaSimbolos() );
+        visitor.visit( arbol );
+        return visitor.getGenerador().getCodigo();
+    }
+
+    public void testSegundaCompilacionTodoAciertos() throws IOException
+    {
+        CompiladorIncremental.Resultado primera = compilar( PROGRAMA );
+        assertEquals( 0, primera.getAciertos() );
+        assertEquals( 4, primera.getFallos() );
+
+        CompiladorIncremental.Resultado segunda = compilar( PROGRAMA );
+        assertEquals( 4, segunda.getAciertos() );
+        assertEquals( 0, segunda.getFallos() );
+        assertEquals( primera.getCodigoRaw(), segunda.getCodigoRaw() );
+        assertEquals( primera.getCodigoOpt(), segunda.getCodigoOpt() );
+        assertEquals( completo( PROGRAMA ), segunda.getCodigoRaw() );
+    }
+
+    public void testEditarUnCuerpoEsUnSoloFallo() throws IOException
+    {
+        compilar( PROGRAMA );
+        String editado = PROGRAMA.replace( "int w = z - 1;", "int w = z - 7;" );
+        CompiladorIncremental.Resultado r = compilar( editado );
+        assertEquals( 1, r.getFallos() );
+        assertEquals( 3, r.getAciertos() );
+        // Los temporales y etiquetas locales de las entradas reutilizadas se renumeran bien
+        assertEquals( completo( editado ), r.getCodigoRaw() );
+    }
+
+    public void testCambiarParametrosInvalidaALosLlamadores() throws IOException
+    {
+        compilar( PROGRAMA );
+        String editado = PROGRAMA
+                .replace( "int f(int a) {", "int f(int a, int b) {" )
+                .replace( "return a + 1;", "return a + b;" );
+        CompiladorIncremental.Resultado r = compilar( editado );
+        // f y g, que la llama; h y main no la nombran
+        assertEquals( 2, r.getFallos() );
+        assertEquals( 2, r.getAciertos() );
+        assertEquals( 1, r.getErrores().size() );
+        assertEquals( completo( editado ), r.getCodigoRaw() );
+    }
+
+    public void testEntradaCorruptaEsUnFallo() throws IOException
+    {
+        CompiladorIncremental.Resultado limpia = compilar( PROGRAMA );
+        List<Path> entradas;
+        try ( Stream<Path> archivos = Files.list( dir ) )
+        {
+            entradas = archivos.filter( p -> p.toString().endsWith( ".fn" ) ).sorted().toList();
+        }
+        assertEquals( 4, entradas.size() );
+        // Una truncada después de la versión y otra con basura que pasa la versión
+        byte[] bytes = Files.readAllBytes( entradas.get( 0 ) );
+        Files.write( entradas.get( 0 ), Arrays.copyOf( bytes, 10 ) );
+        byte[] basura = Files.readAllBytes( entradas.get( 1 ) );
+        for ( int i = 4; i < basura.length; i++ )
+        {
+            basura[i] = (byte) ( i * 37 );
+        }
+        Files.write( entradas.get( 1 ), basura );
+
+        CompiladorIncremental.Resultado r = compilar( PROGRAMA );
+        assertEquals( 2, r.getFallos() );
+        assertEquals( 2, r.getAciertos() );
+        assertEquals( limpia.getCodigoRaw(), r.getCodigoRaw() );
+
+        // Se reescribieron: la siguiente vez son aciertos
+        assertEquals( 4, compilar( PROGRAMA ).getAciertos() );
+    }
+}
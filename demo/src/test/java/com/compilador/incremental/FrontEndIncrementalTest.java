@@ -0,0 +1,163 @@
+package com.compilador.incremental;
+
+import java.util.List;
+
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
+
+import com.compilador.MiniLenguajeLexer;
+import com.compilador.MiniLenguajeParser;
+import com.compilador.RecolectorErrores;
+import com.compilador.diagnostico.CodigoDiagnostico;
+import com.compilador.diagnostico.Diagnostico;
+import com.compilador.diagnostico.Diagnosticos;
+import com.compilador.semantico.SimbolosListener;
+
+import junit.framework.TestCase;
+
+/**
+ * Después de cada edición, los errores y warnings del front end incremental
+ * son los mismos que los de un análisis completo del texto resultante.
+ */
+public class FrontEndIncrementalTest extends TestCase
+{
+    private static final String PROGRAMA =
+            "int f(int a) {\n"
+            + "    int sinUso;\n"
+            + "    return a + 1;\n"
+            + "}\n"
+            + "int g(int x) {\n"
+            + "    int y = f(x);\n"
+            + "    return y * 2;\n"
+            + "}\n"
+            + "int h(int z) {\n"
+            + "    int w = z - 1;\n"
+            + "    return w;\n"
+            + "}\n"
+            + "int main() {\n"
+            + "    int r = g(3);\n"
+            + "    r = h(r) + f(r);\n"
+            + "    return r;\n"
+            + "}\n";
+
+    private FrontEndIncremental fe;
+
+    @Override
+    protected void setUp()
+    {
+        fe = new FrontEndIncremental( PROGRAMA );
+        verificar();
+    }
+
+    /** Mensajes de un análisis completo, con recuperación de errores sintácticos */
+    private static Diagnosticos completo( String texto )
+    {
+        MiniLenguajeParser parser = new MiniLenguajeParser(
+                new CommonTokenStream( new MiniLenguajeLexer( CharStreams.fromString( texto ) ) ) );
+        parser.removeErrorListeners();
+        Diagnosticos diagnosticos = new Diagnosticos();
+        parser.addErrorListener( new RecolectorErrores( CodigoDiagnostico.ERROR_SINTACTICO, diagnosticos ) );
+        MiniLenguajeParser.ProgramaContext prog = parser.programa();
+        new ParseTreeWalker().walk( new SimbolosListener( diagnosticos ), prog );
+        return diagnosticos;
+    }
+
+    private void verificar()
+    {
+        Diagnosticos esperado = completo( fe.getTexto() );
+        assertEquals( fe.getTexto(), Diagnosticos.mensajes( esperado.getErrores() ), fe.getErrores() );
+        assertEquals( fe.getTexto(), Diagnosticos.mensajes( esperado.getWarnings() ), fe.getWarnings() );
+    }
+
+    private void reemplazar( String viejo, String nuevo )
+    {
+        int offset = fe.getTexto().indexOf( viejo );
+        assertTrue( "no está: " + viejo, offset >= 0 );
+        fe.editar( offset, viejo.length(), nuevo );
+        verificar();
+    }
+
+    private int errores( CodigoDiagnostico codigo )
+    {
+        int n = 0;
+        for ( Diagnostico d : fe.getDiagnosticosErrores() )
+        {
+            if ( d.codigo() == codigo )
+            {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    public void testEdicionDentroDeUnCuerpo()
+    {
+        reemplazar( "int w = z - 1;", "int w = z - q;" );
+        assertEquals( 1, fe.getFuncionesAnalizadas() );
+        assertFalse( fe.getErrores().isEmpty() );
+
+        reemplazar( "z - q;", "z - 1;\n    w = w * 2;" );
+        assertEquals( 1, fe.getFuncionesAnalizadas() );
+        assertTrue( fe.getErrores().isEmpty() );
+
+        // Borrar la variable sin usar cambia los warnings de f y corre las líneas de las demás
+        assertTrue( fe.getWarnings().toString().contains( "sinUso" ) );
+        reemplazar( "    int sinUso;\n", "" );
+        assertFalse( fe.getWarnings().toString().contains( "sinUso" ) );
+    }
+
+    public void testUnirYSepararFunciones()
+    {
+        // g y h quedan en una sola función: main llama a una h que ya no existe
+        reemplazar( "    return y * 2;\n}\nint h(int z) {\n", "" );
+        assertFalse( fe.getErrores().isEmpty() );
+
+        // Se vuelve a separar
+        reemplazar( "    int w = z - 1;", "    return y * 2;\n}\nint h(int z) {\n    int w = z - 1;" );
+        assertEquals( PROGRAMA, fe.getTexto() );
+        assertTrue( fe.getErrores().isEmpty() );
+
+        // Partir main en dos
+        reemplazar( "    r = h(r) + f(r);\n", "    return r;\n}\nint k(int r) {\n    r = h(r) + f(r);\n" );
+    }
+
+    public void testCambioDeFirmaInvalidaALosLlamadores()
+    {
+        assertEquals( 0, errores( CodigoDiagnostico.CANTIDAD_DE_ARGUMENTOS ) );
+
+        // g y main llaman a f con un argumento
+        reemplazar( "int f(int a) {", "int f(int a, int b) {" );
+        assertEquals( 2, errores( CodigoDiagnostico.CANTIDAD_DE_ARGUMENTOS ) );
+        assertTrue( fe.getFuncionesAnalizadas() >= 3 );
+
+        reemplazar( "int y = f(x);", "int y = f(x, 1);" );
+        assertEquals( 1, errores( CodigoDiagnostico.CANTIDAD_DE_ARGUMENTOS ) );
+
+        reemplazar( "int f(int a, int b) {", "int f(int a) {" );
+        assertEquals( 1, errores( CodigoDiagnostico.CANTIDAD_DE_ARGUMENTOS ) );
+    }
+
+    public void testTipearUnaFuncionLetraPorLetra()
+    {
+        // Pasa por estados sin segmentar (llaves sin cerrar) y con errores de sintaxis
+        String nueva = "int suma(int a, int b) {\n    int c = a + b;\n    return c;\n}\n";
+        int offset = fe.getTexto().indexOf( "int main()" );
+        for ( int i = 0; i < nueva.length(); i++ )
+        {
+            fe.editar( offset + i, 0, nueva.substring( i, i + 1 ) );
+            verificar();
+        }
+        reemplazar( "r = h(r) + f(r);", "r = h(r) + suma(r, 2);" );
+
+        // Y se borra de a una letra desde el final
+        offset = fe.getTexto().indexOf( nueva );
+        for ( int i = nueva.length() - 1; i >= 0; i-- )
+        {
+            fe.editar( offset + i, 1, "" );
+            verificar();
+        }
+        List<String> errores = fe.getErrores();
+        assertFalse( errores.isEmpty() );
+    }
+}
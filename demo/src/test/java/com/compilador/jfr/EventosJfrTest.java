@@ -0,0 +1,82 @@
+package com.compilador.jfr;
+
+import com.compilador.CodigoVisitor;
+import com.compilador.MiniLenguajeLexer;
+import com.compilador.MiniLenguajeParser;
+import com.compilador.Optimizador;
+import com.compilador.metricas.RegistroMetricas;
+import com.compilador.semantico.SimbolosListener;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Con una grabación activa se emiten los eventos de fase, de pasada y de función.
+ */
+public class EventosJfrTest extends TestCase
+{
+    public void testEventos() throws Exception
+    {
+        String fuente = "int f(int a) {\n    int x = a + 1;\n    return x;\n}\n"
+                + "void main() {\n    int r = f(2);\n}\n";
+        Path archivo = Files.createTempFile( "compilador", ".jfr" );
+        try ( Recording grabacion = new Recording() )
+        {
+            grabacion.enable( EventoFase.class );
+            grabacion.enable( EventoPasada.class );
+            grabacion.enable( EventoFuncion.class );
+            grabacion.start();
+
+            MiniLenguajeParser.ProgramaContext prog = new MiniLenguajeParser( new CommonTokenStream(
+                    new MiniLenguajeLexer( CharStreams.fromString( fuente ) ) ) ).programa();
+            SimbolosListener sem = new SimbolosListener();
+            new ParseTreeWalker().walk( sem, prog );
+            CodigoVisitor cv = new CodigoVisitor( sem.getTablaSimbolos() );
+            cv.visit( prog );
+            List<String> codigo = cv.getGenerador().getCodigo();
+            new Optimizador( codigo ).optimizar( new RegistroMetricas() );
+
+            grabacion.stop();
+            grabacion.dump( archivo );
+
+            List<String> funciones = new ArrayList<>();
+            List<String> fases = new ArrayList<>();
+            int pasadas = 0;
+            for ( RecordedEvent e : RecordingFile.readAllEvents( archivo ) )
+            {
+                switch ( e.getEventType().getName() )
+                {
+                    case "com.compilador.Funcion":
+                        funciones.add( e.getString( "funcion" ) );
+                        assertTrue( e.getInt( "instrucciones" ) > 0 );
+                        break;
+                    case "com.compilador.Fase":
+                        fases.add( e.getString( "fase" ) );
+                        break;
+                    case "com.compilador.Pasada":
+                        pasadas++;
+                        assertTrue( e.getInt( "instruccionesEntrada" ) >= e.getInt( "instruccionesSalida" ) );
+                        break;
+                    default:
+                }
+            }
+            assertEquals( List.of( "f", "main" ), funciones );
+            assertEquals( Optimizador.Pasada.values().length, pasadas );
+            assertTrue( fases.toString(), fases.contains( "optimizador.codigo_muerto" ) );
+        }
+        finally
+        {
+            Files.deleteIfExists( archivo );
+        }
+    }
+}
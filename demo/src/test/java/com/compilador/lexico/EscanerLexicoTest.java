@@ -0,0 +1,100 @@
+package com.compilador.lexico;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import com.compilador.Calentamiento;
+import com.compilador.MiniLenguajeLexer;
+import com.compilador.MiniLenguajeParser;
+import com.compilador.generador.GeneradorProgramas;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.Token;
+
+import junit.framework.TestCase;
+
+/**
+ * El lexer escrito a mano da los mismos tokens que el generado por ANTLR:
+ * tipo, texto, posición e índices, EOF incluido.
+ */
+public class EscanerLexicoTest extends TestCase
+{
+    /** Casos borde de la gramática: prefijos comunes, literales sin cerrar, saltos de línea, fuera de ASCII */
+    private static final String BORDES =
+            "\uFEFFint iff _if if2 else_ x=<y =>z ==!= & | &&|| +++ --- 1.2.3 12. .5 007\n"
+            + "'a' 'ab' '\\'' '\\n' '' ' \"sin cerrar\n\"a\\\nb\" \"ok\\\"\" '\u00F1' \"\u20AC y \uD83D\uDE00\"\n"
+            + "/*/ */ a/ /b //fin\r\nc /* sin cerrar\r\n \u00F1\u20AC\uD83D\uDE00 # @ ~ 'x";
+
+    private static void comparar( String fuente )
+    {
+        CommonTokenStream esperado = new CommonTokenStream( new MiniLenguajeLexer( CharStreams.fromString( fuente ) ) );
+        esperado.fill();
+        CommonTokenStream obtenido = new CommonTokenStream(
+                new FuenteTokens( fuente.getBytes( StandardCharsets.UTF_8 ), "<cadena>" ) );
+        obtenido.fill();
+
+        List<Token> a = esperado.getTokens(), b = obtenido.getTokens();
+        for ( int i = 0; i < Math.min( a.size(), b.size() ); i++ )
+        {
+            assertEquals( "token " + i, describir( a.get( i ) ), describir( b.get( i ) ) );
+        }
+        assertEquals( a.size(), b.size() );
+        assertEquals( Token.EOF, b.get( b.size() - 1 ).getType() );
+    }
+
+    private static String describir( Token t )
+    {
+        return t.getType() + " [" + t.getText() + "] " + t.getLine() + ":" + t.getCharPositionInLine()
+                + " " + t.getStartIndex() + ".." + t.getStopIndex() + " canal " + t.getChannel();
+    }
+
+    public void testCasosBorde()
+    {
+        comparar( BORDES );
+        comparar( "" );
+        comparar( "\n\n" );
+        comparar( "x" );
+        comparar( "/*" );
+        comparar( "'\\" );
+        comparar( "\"\\" );
+    }
+
+    public void testCorpusDeCalentamiento() throws Exception
+    {
+        try ( InputStream in = Calentamiento.class.getResourceAsStream( Calentamiento.CORPUS ) )
+        {
+            comparar( new String( in.readAllBytes(), StandardCharsets.UTF_8 ) );
+        }
+    }
+
+    public void testProgramasGenerados()
+    {
+        for ( long semilla = 1; semilla <= 4; semilla++ )
+        {
+            comparar( new GeneradorProgramas().semilla( semilla ).funciones( 40 ).profundidad( 4 )
+                    .densidadCiclos( 0.5 ).tasaErrores( semilla % 2 == 0 ? 0.2 : 0 ).generarTexto() );
+        }
+    }
+
+    public void testElParserDaElMismoArbol()
+    {
+        String fuente = new GeneradorProgramas().semilla( 3 ).funciones( 20 ).generarTexto();
+        MiniLenguajeParser antlr = new MiniLenguajeParser(
+                new CommonTokenStream( new MiniLenguajeLexer( CharStreams.fromString( fuente ) ) ) );
+        MiniLenguajeParser rapido = new MiniLenguajeParser( new CommonTokenStream(
+                new FuenteTokens( fuente.getBytes( StandardCharsets.UTF_8 ), "<cadena>" ) ) );
+        assertEquals( antlr.programa().toStringTree( antlr ), rapido.programa().toStringTree( rapido ) );
+        assertEquals( 0, rapido.getNumberOfSyntaxErrors() );
+    }
+
+    public void testPalabrasClaveDesdeElVocabulario()
+    {
+        BufferTokens b = EscanerLexico.escanear( "while whilex int void".getBytes( StandardCharsets.UTF_8 ) );
+        assertEquals( 4, b.size() );
+        assertEquals( MiniLenguajeLexer.WHILE, b.getTipo( 0 ) );
+        assertEquals( MiniLenguajeLexer.ID, b.getTipo( 1 ) );
+        assertEquals( "whilex", b.getTexto( 1 ) );
+        assertEquals( 21, b.getIndiceFin() );
+    }
+}
@@ -0,0 +1,63 @@
+package com.compilador.metricas;
+
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Acumulación por fase, bytes asignados por el hilo y formatos de salida.
+ */
+public class RegistroMetricasTest extends TestCase
+{
+    private static volatile Object retenido;
+
+    public void testBytesAsignados()
+    {
+        RegistroMetricas r = new RegistroMetricas();
+        try ( Medicion m = r.medir( "asignar" ) )
+        {
+            retenido = new byte[4 << 20];
+        }
+        MetricaFase f = r.getFase( "asignar" );
+        if ( f.getBytesAsignados() >= 0 )
+        {
+            assertTrue( "" + f.getBytesAsignados(), f.getBytesAsignados() >= 4 << 20 );
+        }
+        assertTrue( f.getWallNanos() > 0 );
+    }
+
+    public void testAcumulaYConservaOrden()
+    {
+        RegistroMetricas r = new RegistroMetricas();
+        r.medir( "b" ).terminar();
+        r.medir( "a" ).terminar();
+        Medicion m = r.medir( "b" );
+        long dt = m.terminar();
+        assertEquals( dt, m.terminar() );
+
+        List<MetricaFase> fases = r.getFases();
+        assertEquals( 2, fases.size() );
+        assertEquals( "b", fases.get( 0 ).getNombre() );
+        assertEquals( 2, fases.get( 0 ).getMediciones() );
+        assertEquals( "a", fases.get( 1 ).getNombre() );
+        assertNull( r.getFase( "c" ) );
+    }
+
+    public void testJsonYCsv()
+    {
+        RegistroMetricas r = new RegistroMetricas();
+        r.medir( "lexico" ).terminar();
+        r.medir( "optimizador.codigo_muerto" ).terminar();
+
+        String json = r.aJson();
+        assertTrue( json.startsWith( "{\"fases\":[" ) );
+        assertTrue( json.contains( "{\"fase\":\"lexico\",\"mediciones\":1,\"wallNanos\":" ) );
+        assertTrue( json.contains( "\"fase\":\"optimizador.codigo_muerto\"" ) );
+
+        String[] lineas = r.aCsv().split( "\n" );
+        assertEquals( 3, lineas.length );
+        assertEquals( "fase,mediciones,wall_ns,cpu_ns,bytes_asignados,gc_pausas,gc_ms", lineas[0] );
+        assertTrue( lineas[1].startsWith( "lexico,1," ) );
+        assertEquals( 7, lineas[2].split( "," ).length );
+    }
+}
@@ -0,0 +1,97 @@
+package com.compilador.perfil;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import com.compilador.c3d.InterpreteC3D;
+
+import junit.framework.TestCase;
+
+/**
+ * Perfil de una ejecución: contadores, archivo y etiquetas locales por función.
+ */
+public class PerfilTest extends TestCase
+{
+    /** main llama diez veces a f; f salta la mitad de las veces */
+    private static final List<String> CODIGO = Arrays.asList(
+            "func_f:",
+            "if x IGE 5 goto L0",
+            "return = 0",
+            "L0:",
+            "return = 1",
+            "func_main:",
+            "i = 0",
+            "s = 0",
+            "L1:",
+            "if i IGE 10 goto L2",
+            "param = i",
+            "t0 = call f, 1",
+            "t1 = s IADD t0",
+            "s = t1",
+            "t2 = i IADD 1",
+            "i = t2",
+            "goto L1",
+            "L2:",
+            "return = s" );
+
+    private static Perfil perfilar( List<String> codigo )
+    {
+        InterpreteC3D interprete = new InterpreteC3D( codigo, Map.of( "f", List.of( "x" ) ) );
+        interprete.setPerfilar( true );
+        assertEquals( 5, interprete.ejecutar() );
+        return Perfil.medir( codigo, interprete.getEjecuciones(), interprete.getSaltos(),
+                interprete.getLlamadasPorFuncion() );
+    }
+
+    public void testBloquesYSaltosDeUnaEjecucion() throws Exception
+    {
+        Perfil perfil = perfilar( CODIGO );
+        assertEquals( 10, perfil.getLlamadas( "f" ) );
+        assertEquals( 1, perfil.getLlamadas( "main" ) );
+        assertTrue( perfil.esCaliente( "f" ) );
+
+        Perfil.Frecuencias fr = perfil.aplicar( CODIGO );
+        assertEquals( 2, fr.getVigentes() );
+        assertEquals( 11, fr.getBloque( "L1" ) );
+        assertEquals( 5, fr.getBloque( "L0" ) );
+        assertTrue( Arrays.equals( new long[]{ 10, 5 }, fr.getRama( "func_f", 0, "L0" ) ) );
+        assertTrue( Arrays.equals( new long[]{ 11, 1 }, fr.getRama( "L1", 0, "L2" ) ) );
+        assertNull( fr.getRama( "L1", 1, "L2" ) );
+
+        Path tmp = Files.createTempFile( "perfil", ".txt" );
+        try
+        {
+            perfil.guardar( tmp );
+            Perfil leido = Perfil.cargar( tmp );
+            assertEquals( perfil.getPasosTotales(), leido.getPasosTotales() );
+            assertTrue( Arrays.equals( new long[]{ 11, 1 }, leido.aplicar( CODIGO ).getRama( "L1", 0, "L2" ) ) );
+        }
+        finally
+        {
+            Files.deleteIfExists( tmp );
+        }
+    }
+
+    public void testFuncionCambiadaSeIgnoraYLasDemasSeRenumeran()
+    {
+        Perfil perfil = perfilar( CODIGO );
+        // g antes de todo corre las etiquetas; f cambió su condición
+        List<String> nuevo = Arrays.asList(
+                "func_g:", "L0:", "return = 0",
+                "func_f:", "if x IGT 5 goto L1", "return = 0", "L1:", "return = 1",
+                "func_main:", "i = 0", "s = 0", "L2:", "if i IGE 10 goto L3", "param = i",
+                "t0 = call f, 1", "t1 = s IADD t0", "s = t1", "t2 = i IADD 1", "i = t2",
+                "goto L2", "L3:", "return = s" );
+        Perfil.Frecuencias fr = perfil.aplicar( nuevo );
+        assertEquals( 1, fr.getVigentes() );
+        assertEquals( 1, fr.getDesactualizadas() );
+        assertEquals( -1, fr.getBloque( "L1" ) );
+        assertEquals( 11, fr.getBloque( "L2" ) );
+        assertTrue( Arrays.equals( new long[]{ 11, 1 }, fr.getRama( "L2", 0, "L3" ) ) );
+        // Las llamadas de f se siguen conociendo
+        assertEquals( 10, perfil.getLlamadas( "f" ) );
+    }
+}
@@ -0,0 +1,355 @@
+package com.compilador.sintactico;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import com.compilador.Calentamiento;
+import com.compilador.MiniLenguajeLexer;
+import com.compilador.MiniLenguajeParser;
+import com.compilador.MiniLenguajeParser.*;
+import com.compilador.generador.GeneradorProgramas;
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+
+import junit.framework.TestCase;
+
+/**
+ * El parser escrito a mano acepta los mismos programas que el de ANTLR y
+ * arma el mismo árbol sin los terminales: se comparan como expresiones S.
+ * Con un error de sintaxis, lo marca en el mismo token que ANTLR.
+ */
+public class ParserDescendenteTest extends TestCase
+{
+    private static ArbolCompacto compacto( String fuente )
+    {
+        return ParserDescendente.analizar( fuente.getBytes( StandardCharsets.UTF_8 ) );
+    }
+
+    /** Árbol de ANTLR, o null si tiene un error de sintaxis */
+    private static ProgramaContext antlr( String fuente )
+    {
+        MiniLenguajeParser parser = new MiniLenguajeParser(
+                new CommonTokenStream( new MiniLenguajeLexer( CharStreams.fromString( fuente ) ) ) );
+        parser.removeErrorListeners();
+        parser.setErrorHandler( new BailErrorStrategy() );
+        try
+        {
+            return parser.programa();
+        }
+        catch ( ParseCancellationException ex )
+        {
+            return null;
+        }
+    }
+
+    /** "Línea l:c" del primer error de sintaxis de ANTLR */
+    private static String posicionErrorAntlr( String fuente )
+    {
+        MiniLenguajeParser parser = new MiniLenguajeParser(
+                new CommonTokenStream( new MiniLenguajeLexer( CharStreams.fromString( fuente ) ) ) );
+        parser.removeErrorListeners();
+        StringBuilder posicion = new StringBuilder();
+        parser.addErrorListener( new BaseErrorListener()
+        {
+            @Override
+            public void syntaxError( Recognizer<?, ?> recognizer, Object offendingSymbol, int line,
+                                     int charPositionInLine, String msg, RecognitionException e )
+            {
+                if ( posicion.length() == 0 )
+                {
+                    posicion.append( "Línea " ).append( line ).append( ':' ).append( charPositionInLine );
+                }
+            }
+        } );
+        parser.programa();
+        return posicion.toString();
+    }
+
+    private static void comparar( String fuente )
+    {
+        ProgramaContext esperado = antlr( fuente );
+        assertNotNull( fuente, esperado );
+        assertEquals( aTexto( esperado ), compacto( fuente ).toString() );
+    }
+
+    // ---------- El árbol de ANTLR en el formato de ArbolCompacto.aTexto ----------
+
+    private static String aTexto( ParseTree t )
+    {
+        StringBuilder sb = new StringBuilder();
+        aTexto( t, sb );
+        return sb.toString();
+    }
+
+    private static void nodo( StringBuilder sb, String tipo, String texto, ParseTree... hijos )
+    {
+        sb.append( '(' ).append( tipo );
+        if ( texto != null )
+        {
+            sb.append( ' ' ).append( texto );
+        }
+        for ( ParseTree h : hijos )
+        {
+            if ( h != null )
+            {
+                sb.append( ' ' );
+                aTexto( h, sb );
+            }
+        }
+        sb.append( ')' );
+    }
+
+    private static String declarado( TipoContext t, TerminalNode id )
+    {
+        return t.getText() + " " + id.getText();
+    }
+
+    private static void aTexto( ParseTree t, StringBuilder sb )
+    {
+        if ( t instanceof ProgramaContext )
+        {
+            nodo( sb, "PROGRAMA", null, ( (ProgramaContext) t ).declaracionFuncion().toArray( new ParseTree[0] ) );
+        }
+        else if ( t instanceof DeclaracionFuncionContext )
+        {
+            DeclaracionFuncionContext f = (DeclaracionFuncionContext) t;
+            ParseTree[] hijos = f.parametros() == null ? new ParseTree[]{ f.bloque() } : concatenar(
+                    f.parametros().parametro().toArray( new ParseTree[0] ), f.bloque() );
+            nodo( sb, "FUNCION", declarado( f.tipo(), f.ID() ), hijos );
+        }
+        else if ( t instanceof ParametroContext )
+        {
+            nodo( sb, "PARAMETRO", declarado( ( (ParametroContext) t ).tipo(), ( (ParametroContext) t ).ID() ) );
+        }
+        else if ( t instanceof BloqueContext )
+        {
+            nodo( sb, "BLOQUE", null, ( (BloqueContext) t ).sentencia().toArray( new ParseTree[0] ) );
+        }
+        else if ( t instanceof SentenciaContext )
+        {
+            aTexto( t.getChild( 0 ), sb );
+        }
+        else if ( t instanceof DeclaracionVariableContext )
+        {
+            DeclaracionVariableContext d = (DeclaracionVariableContext) t;
+            nodo( sb, "DECLARACION", declarado( d.tipo(), d.ID() ), d.expresion() );
+        }
+        else if ( t instanceof DeclaracionForContext )
+        {
+            DeclaracionForContext d = (DeclaracionForContext) t;
+            nodo( sb, "DECLARACION", declarado( d.tipo(), d.ID() ), d.expresion() );
+        }
+        else if ( t instanceof AsignacionContext )
+        {
+            nodo( sb, "ASIGNACION", ( (AsignacionContext) t ).ID().getText(), ( (AsignacionContext) t ).expresion() );
+        }
+        else if ( t instanceof AsignacionForContext )
+        {
+            nodo( sb, "ASIGNACION", ( (AsignacionForContext) t ).ID().getText(), ( (AsignacionForContext) t ).expresion() );
+        }
+        else if ( t instanceof IfStmtContext )
+        {
+            IfStmtContext s = (IfStmtContext) t;
+            nodo( sb, "IF", null, concatenar( new ParseTree[]{ s.expresion() }, s.bloque().toArray( new ParseTree[0] ) ) );
+        }
+        else if ( t instanceof WhileStmtContext )
+        {
+            nodo( sb, "WHILE", null, ( (WhileStmtContext) t ).expresion(), ( (WhileStmtContext) t ).bloque() );
+        }
+        else if ( t instanceof ForStmtContext )
+        {
+            ForStmtContext s = (ForStmtContext) t;
+            nodo( sb, "FOR", null, s.forInit().getChild( 0 ), s.expresion(), s.actualizacionFor(), s.bloque() );
+        }
+        else if ( t instanceof ActualizacionForContext )
+        {
+            ActualizacionForContext a = (ActualizacionForContext) t;
+            if ( a.asignacionFor() != null )
+            {
+                aTexto( a.asignacionFor(), sb );
+            }
+            else
+            {
+                boolean prefijo = a.getChild( 0 ) instanceof TerminalNode
+                        && ( (TerminalNode) a.getChild( 0 ) ).getSymbol().getType() != MiniLenguajeLexer.ID;
+                nodo( sb, incremento( prefijo, a.PLUSPLUS() != null ), a.ID().getText() );
+            }
+        }
+        else if ( t instanceof BreakStmtContext )
+        {
+            nodo( sb, "BREAK", null );
+        }
+        else if ( t instanceof ContinueStmtContext )
+        {
+            nodo( sb, "CONTINUE", null );
+        }
+        else if ( t instanceof RetornoContext )
+        {
+            nodo( sb, "RETORNO", null, ( (RetornoContext) t ).expresion() );
+        }
+        else if ( t instanceof LlamadaContext )
+        {
+            nodo( sb, "LLAMADA", ( (LlamadaContext) t ).ID().getText(),
+                    ( (LlamadaContext) t ).expresion().toArray( new ParseTree[0] ) );
+        }
+        else if ( t instanceof ExpBinariaContext )
+        {
+            ExpBinariaContext e = (ExpBinariaContext) t;
+            nodo( sb, "BINARIA", e.operadorBinario().getText(), e.expresion( 0 ), e.expresion( 1 ) );
+        }
+        else if ( t instanceof ExpUnariaContext )
+        {
+            nodo( sb, "NEGACION", null, ( (ExpUnariaContext) t ).expresion() );
+        }
+        else if ( t instanceof ExpParentesisContext )
+        {
+            aTexto( ( (ExpParentesisContext) t ).expresion(), sb );
+        }
+        else if ( t instanceof ExpLlamadaContext )
+        {
+            aTexto( ( (ExpLlamadaContext) t ).llamada(), sb );
+        }
+        else if ( t instanceof ExpPreIncrementoContext || t instanceof ExpPreDecrementoContext
+                || t instanceof ExpPostIncrementoContext || t instanceof ExpPostDecrementoContext )
+        {
+            nodo( sb, incremento( t instanceof ExpPreIncrementoContext || t instanceof ExpPreDecrementoContext,
+                    t instanceof ExpPreIncrementoContext || t instanceof ExpPostIncrementoContext ),
+                    ( (ParserRuleContext) t ).getToken( MiniLenguajeLexer.ID, 0 ).getText() );
+        }
+        else if ( t instanceof ExpresionContext )
+        {
+            // ID y literales: un solo token
+            Token tk = ( (TerminalNode) t.getChild( 0 ) ).getSymbol();
+            String[] tipos = { "ID", "ENTERO", "DECIMAL", "CARACTER", "CADENA" };
+            int[] tokens = { MiniLenguajeLexer.ID, MiniLenguajeLexer.INTEGER, MiniLenguajeLexer.DECIMAL,
+                    MiniLenguajeLexer.CHARACTER, MiniLenguajeLexer.STRING_literal };
+            for ( int i = 0; i < tokens.length; i++ )
+            {
+                if ( tk.getType() == tokens[i] )
+                {
+                    nodo( sb, tipos[i], tk.getText() );
+                }
+            }
+        }
+        else
+        {
+            fail( "regla no esperada: " + t.getClass().getSimpleName() );
+        }
+    }
+
+    private static String incremento( boolean prefijo, boolean suma )
+    {
+        return ( prefijo ? "PRE_" : "POST_" ) + ( suma ? "INCREMENTO" : "DECREMENTO" );
+    }
+
+    private static ParseTree[] concatenar( ParseTree[] a, ParseTree... b )
+    {
+        ParseTree[] r = new ParseTree[a.length + b.length];
+        System.arraycopy( a, 0, r, 0, a.length );
+        System.arraycopy( b, 0, r, a.length, b.length );
+        return r;
+    }
+
+    // ---------- Tests ----------
+
+    public void testPrecedenciaComoANTLR()
+    {
+        String fuente = "int main() { int x = a + b * c - d; x = !a && b || c; x = a + !b + c;"
+                + " x = (a + b) * -- c + d ++ - f(1, g(2), 'c', \"s\", 1.5); return; }";
+        comparar( fuente );
+        ArbolCompacto a = compacto( "int f() { x = !a && b; }" );
+        assertEquals( "(PROGRAMA (FUNCION int f (BLOQUE (ASIGNACION x (NEGACION (BINARIA && (ID a) (ID b)))))))",
+                a.toString() );
+    }
+
+    public void testTodasLasSentencias()
+    {
+        comparar( "void f(int a, char b, double c) {\n"
+                + "  if (a > 0) { f(a - 1, b, c); } else { return; }\n"
+                + "  while (a =< 3) { a = a + 1; if (a == 2) { break; } continue; }\n"
+                + "  for (int i = 0; i < 10; i++) { }\n"
+                + "  for (i = 0; i >= 0; --i) { }\n"
+                + "  for (double d; d => 1; d = d / 2) { int z; }\n"
+                + "  return a % 2 != 0;\n"
+                + "}\n"
+                + "int main() { f(1, 'x', 2.5); return 0; }" );
+    }
+
+    public void testCorpusDeCalentamiento() throws Exception
+    {
+        try ( InputStream in = Calentamiento.class.getResourceAsStream( Calentamiento.CORPUS ) )
+        {
+            comparar( new String( in.readAllBytes(), StandardCharsets.UTF_8 ) );
+        }
+    }
+
+    public void testProgramasGenerados()
+    {
+        for ( long semilla = 1; semilla <= 4; semilla++ )
+        {
+            comparar( new GeneradorProgramas().semilla( semilla ).funciones( 40 ).profundidad( 4 )
+                    .densidadCiclos( 0.5 ).llamadas( 3 ).generarTexto() );
+        }
+    }
+
+    public void testRechazaEnElMismoTokenQueANTLR()
+    {
+        String[] invalidos = {
+                "",
+                "int main() { x = ; }",
+                "int main() { x + 1; }",
+                "int main() { int x = 1 }",
+                "int main() { if x { } }",
+                "int main() { for (;;) { } }",
+                "int main() { return a +; }",
+                "int main() { f(1,); }",
+                "int main() { x = a & b; }",
+                "int main( { }",
+                "int main() { { } }",
+                "int main() { x = a ++ b; }",
+                "int main() { ",
+                "int main() { x = (a; }",
+                "int 3() { }",
+                "int main() { else }",
+        };
+        for ( String fuente : invalidos )
+        {
+            String posicion = posicionErrorAntlr( fuente );
+            assertFalse( fuente, posicion.isEmpty() );
+            try
+            {
+                compacto( fuente );
+                fail( "aceptó: " + fuente );
+            }
+            catch ( ParseCancellationException ex )
+            {
+                assertTrue( ex.getMessage(), ex.getMessage().startsWith( posicion + " " ) );
+            }
+        }
+    }
+
+    public void testPosicionesYNavegacion()
+    {
+        ArbolCompacto a = compacto( "int main() {\n  int x = 1;\n  return x;\n}" );
+        int funcion = a.getPrimerHijo( a.getRaiz() );
+        assertEquals( ArbolCompacto.Tipo.FUNCION, a.getTipo( funcion ) );
+        assertEquals( MiniLenguajeLexer.INT, a.getDato( funcion ) );
+        assertEquals( "main", a.getTexto( funcion ) );
+        int bloque = a.getHijo( funcion, 0 );
+        assertEquals( 2, a.cantidadHijos( bloque ) );
+        int retorno = a.getHijo( bloque, 1 );
+        assertEquals( ArbolCompacto.Tipo.RETORNO, a.getTipo( retorno ) );
+        assertEquals( 3, a.getLinea( retorno ) );
+        assertEquals( 2, a.getColumna( retorno ) );
+        assertEquals( -1, a.getHijo( bloque, 2 ) );
+    }
+}